@@ -0,0 +1,48 @@
+package dev.twme.bdengineparser.benchmarks;
+
+import java.lang.reflect.Type;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
+
+import dev.twme.bdengineparser.BDEngineParser;
+import dev.twme.bdengineparser.model.ProjectElement;
+
+/**
+ * JSON binding through Gson's reflective adapters compared with the library's streaming type adapters.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class BindingBenchmark {
+
+    private static final Type ELEMENT_LIST = new TypeToken<List<ProjectElement>>() {}.getType();
+
+    private final Gson reflective = new Gson();
+    private final Gson streaming = BDEngineParser.defaultGsonBuilder().create();
+
+    @Benchmark
+    public List<ProjectElement> reflectiveBinding(FixtureState state) {
+        return reflective.fromJson(state.json, ELEMENT_LIST);
+    }
+
+    @Benchmark
+    public List<ProjectElement> streamingAdapterBinding(FixtureState state) {
+        return streaming.fromJson(state.json, ELEMENT_LIST);
+    }
+}
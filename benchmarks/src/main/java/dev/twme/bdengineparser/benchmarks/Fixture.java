@@ -0,0 +1,168 @@
+package dev.twme.bdengineparser.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.joml.Matrix4f;
+
+import dev.twme.bdengineparser.model.Brightness;
+import dev.twme.bdengineparser.model.DefaultTransform;
+import dev.twme.bdengineparser.model.ProjectElement;
+import dev.twme.bdengineparser.model.Rotation;
+import dev.twme.bdengineparser.model.TagHead;
+import dev.twme.bdengineparser.model.TextOptions;
+
+/**
+ * The model shapes the benchmarks run against. Every fixture is built from a fixed seed, so all runs
+ * and all benchmarks see identical data.
+ */
+public enum Fixture {
+
+    /** About twenty elements, the size of a typical decoration. */
+    SMALL(false, 2, 4),
+    /** One collection with ten thousand direct children. */
+    WIDE(false, 1, 10_000),
+    /**
+     * A chain of 120 nested collections, each with a few leaves. The depth stays below the nesting
+     * limit of Gson's JsonReader, which counts the object and the children array of every level.
+     */
+    DEEP(true, 120, 4),
+    /** About three hundred thousand elements with a fan-out of eight. */
+    HUGE(false, 6, 8);
+
+    private static final long SEED = 0x5EED_BDE6L;
+    private static final String[] BLOCKS = {
+            "stone", "oak_planks", "oak_fence[east=true,south=true]", "glass", "white_concrete",
+            "spruce_stairs[facing=north,half=bottom]", "lantern[hanging=true]", "iron_bars[north=true,south=true]"
+    };
+    private static final String[] ITEMS = { "player_head", "diamond_sword", "shield", "torch" };
+    private static final String[] TEXTURES = {
+            "eyJ0ZXh0dXJlcyI6eyJTS0lOIjp7InVybCI6Imh0dHA6Ly90ZXh0dXJlcy5taW5lY3JhZnQubmV0L3RleHR1cmUvYTEifX19",
+            "eyJ0ZXh0dXJlcyI6eyJTS0lOIjp7InVybCI6Imh0dHA6Ly90ZXh0dXJlcy5taW5lY3JhZnQubmV0L3RleHR1cmUvYjIifX19",
+            "eyJ0ZXh0dXJlcyI6eyJTS0lOIjp7InVybCI6Imh0dHA6Ly90ZXh0dXJlcy5taW5lY3JhZnQubmV0L3RleHR1cmUvYzMifX19"
+    };
+
+    private final boolean chain;
+    private final int depth;
+    private final int fanOut;
+
+    Fixture(boolean chain, int depth, int fanOut) {
+        this.chain = chain;
+        this.depth = depth;
+        this.fanOut = fanOut;
+    }
+
+    /**
+     * Builds a new copy of the fixture's element tree, without world transforms.
+     * @return the root elements
+     */
+    public List<ProjectElement> build() {
+        Random random = new Random(SEED + ordinal());
+        List<ProjectElement> roots = new ArrayList<>();
+        ProjectElement root = collection(random, "root");
+        roots.add(root);
+        if (!chain) {
+            fill(root, random, depth, fanOut);
+            return roots;
+        }
+        ProjectElement level = root;
+        for (int d = 0; d < depth; d++) {
+            for (int i = 0; i < fanOut; i++) {
+                level.getChildren().add(display(random));
+            }
+            ProjectElement next = collection(random, "level " + d);
+            level.getChildren().add(next);
+            level = next;
+        }
+        return roots;
+    }
+
+    private static void fill(ProjectElement parent, Random random, int levels, int fanOut) {
+        for (int i = 0; i < fanOut; i++) {
+            if (levels > 1) {
+                ProjectElement group = collection(random, "group " + i);
+                parent.getChildren().add(group);
+                fill(group, random, levels - 1, fanOut);
+            } else {
+                parent.getChildren().add(display(random));
+            }
+        }
+    }
+
+    private static ProjectElement collection(Random random, String name) {
+        ProjectElement element = new ProjectElement();
+        element.setIsCollection(true);
+        element.setName(name);
+        element.setNbt("");
+        element.setTransformArray(transform(random));
+        element.setChildren(new ArrayList<>());
+        element.setDefaultTransform(defaultTransform(random));
+        return element;
+    }
+
+    private static ProjectElement display(Random random) {
+        ProjectElement element = new ProjectElement();
+        element.setIsCollection(false);
+        element.setTransformArray(transform(random));
+        element.setDefaultTransform(defaultTransform(random));
+        int type = random.nextInt(10);
+        if (type < 6) {
+            element.setIsBlockDisplay(true);
+            element.setName(BLOCKS[random.nextInt(BLOCKS.length)]);
+            element.setNbt("");
+        } else if (type < 9) {
+            element.setIsItemDisplay(true);
+            element.setName(ITEMS[random.nextInt(ITEMS.length)]);
+            element.setNbt("{CustomModelData:" + random.nextInt(100) + "}");
+            TagHead tagHead = new TagHead();
+            tagHead.setValue(TEXTURES[random.nextInt(TEXTURES.length)]);
+            element.setTagHead(tagHead);
+            element.setDefaultTextureValue(tagHead.getValue());
+            element.setTextureValueList(new ArrayList<>(List.of(TEXTURES)));
+        } else {
+            element.setIsTextDisplay(true);
+            element.setName("Label " + random.nextInt(1000));
+            element.setNbt("");
+            TextOptions options = new TextOptions();
+            options.setColor("#ffffff");
+            options.setAlpha(1);
+            options.setBackgroundColor("#000000");
+            options.setBackgroundAlpha(0.25);
+            options.setBold(random.nextBoolean());
+            options.setLineLength(50);
+            options.setAlign("center");
+            element.setOptions(options);
+        }
+        Brightness brightness = new Brightness();
+        brightness.setSky(15);
+        brightness.setBlock(random.nextInt(16));
+        element.setBrightness(brightness);
+        return element;
+    }
+
+    private static double[] transform(Random random) {
+        Matrix4f matrix = new Matrix4f()
+                .translate(random.nextFloat() * 4 - 2, random.nextFloat() * 4 - 2, random.nextFloat() * 4 - 2)
+                .rotateXYZ(random.nextFloat() * 6.28f, random.nextFloat() * 6.28f, random.nextFloat() * 6.28f)
+                .scale(0.25f + random.nextFloat());
+        float[] values = matrix.get(new float[16]);
+        double[] transforms = new double[16];
+        for (int i = 0; i < 16; i++) {
+            transforms[i] = values[i];
+        }
+        return transforms;
+    }
+
+    private static DefaultTransform defaultTransform(Random random) {
+        DefaultTransform defaultTransform = new DefaultTransform();
+        defaultTransform.setPositionArray(new double[] { random.nextInt(16), random.nextInt(16), random.nextInt(16) });
+        Rotation rotation = new Rotation();
+        rotation.setX(random.nextInt(4) * 90);
+        rotation.setY(random.nextInt(4) * 90);
+        rotation.setZ(0);
+        defaultTransform.setRotation(rotation);
+        defaultTransform.setScaleArray(new double[] { 1, 1, 1 });
+        return defaultTransform;
+    }
+}
@@ -0,0 +1,72 @@
+package dev.twme.bdengineparser.benchmarks;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import dev.twme.bdengineparser.BDEngineParser;
+import dev.twme.bdengineparser.BDEngineSnapshot;
+import dev.twme.bdengineparser.BDEngineWriter;
+import dev.twme.bdengineparser.model.ProjectElement;
+
+/**
+ * One fixture in every input form the parser accepts: as elements, as JSON and .bdengine text, bytes
+ * and files, and as a binary snapshot. The inputs are prepared once per trial, outside the measurement.
+ */
+@State(Scope.Benchmark)
+public class FixtureState {
+
+    @Param({"SMALL", "WIDE", "DEEP", "HUGE"})
+    public Fixture fixture;
+
+    public List<ProjectElement> elements;
+    public String json;
+    public byte[] jsonBytes;
+    public String bdengine;
+    public byte[] bdengineBytes;
+    public byte[] snapshotBytes;
+    public Path directory;
+    public String jsonFile;
+    public String bdengineFile;
+    public String snapshotFile;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        elements = fixture.build();
+        new BDEngineParser().calculateWorldTransformsForElements(elements);
+
+        BDEngineWriter writer = new BDEngineWriter();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        writer.writeJson(elements, out);
+        jsonBytes = out.toByteArray();
+        json = new String(jsonBytes, StandardCharsets.UTF_8);
+        out.reset();
+        writer.writeBDEngine(elements, out);
+        bdengineBytes = out.toByteArray();
+        bdengine = new String(bdengineBytes, StandardCharsets.US_ASCII);
+        snapshotBytes = new BDEngineSnapshot().toBytes(elements);
+
+        directory = Files.createTempDirectory("bdengine-bench");
+        jsonFile = Files.write(directory.resolve("fixture.json"), jsonBytes).toString();
+        bdengineFile = Files.write(directory.resolve("fixture.bdengine"), bdengineBytes).toString();
+        snapshotFile = Files.write(directory.resolve("fixture.snap"), snapshotBytes).toString();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        for (String file : new String[] { jsonFile, bdengineFile, snapshotFile }) {
+            Files.deleteIfExists(Path.of(file));
+        }
+        Files.deleteIfExists(directory);
+    }
+}
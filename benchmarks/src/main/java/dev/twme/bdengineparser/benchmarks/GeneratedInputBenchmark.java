@@ -0,0 +1,79 @@
+package dev.twme.bdengineparser.benchmarks;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import org.joml.Matrix4fc;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import dev.twme.bdengineparser.BDEngineParser;
+import dev.twme.bdengineparser.ProjectElementVisitor;
+import dev.twme.bdengineparser.ProjectStats;
+import dev.twme.bdengineparser.exception.BDEngineParsingException;
+import dev.twme.bdengineparser.model.ProjectElement;
+
+/**
+ * The streaming paths on large generated .bdengine files, which are written by {@link ProjectGenerator}
+ * once per trial. Each operation reads a whole file, so single-shot timing is used.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class GeneratedInputBenchmark {
+
+    @Param({"100000", "1000000"})
+    public int elementCount;
+
+    private final BDEngineParser parser = new BDEngineParser();
+    private Path file;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        file = Files.createTempFile("bdengine-generated", ".bdengine");
+        new ProjectGenerator(ProjectGenerator.Settings.of(42L, elementCount)).writeFile(file);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    public ProjectStats scanBDEngineFile() throws BDEngineParsingException {
+        return parser.scanBDEngineFile(file.toString());
+    }
+
+    @Benchmark
+    public int visitBDEngineFile() throws BDEngineParsingException {
+        int[] count = new int[1];
+        parser.visitBDEngineFile(file.toString(), new ProjectElementVisitor() {
+            @Override
+            public void exitElement(ProjectElement element, Matrix4fc worldTransform, int depth) {
+                count[0]++;
+            }
+        });
+        return count[0];
+    }
+
+    @Benchmark
+    public Object parseBDEngineFile() throws BDEngineParsingException {
+        return parser.parseBDEngineFile(file.toString());
+    }
+}
@@ -0,0 +1,120 @@
+package dev.twme.bdengineparser.benchmarks;
+
+import java.io.ByteArrayInputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import dev.twme.bdengineparser.BDEngineParser;
+import dev.twme.bdengineparser.exception.BDEngineParsingException;
+import dev.twme.bdengineparser.model.ProjectElement;
+
+/**
+ * The parse entry points of {@link BDEngineParser} for JSON and .bdengine input from strings, streams,
+ * bytes and files, each raw and with world transforms.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class ParserBenchmark {
+
+    private final BDEngineParser parser = new BDEngineParser();
+
+    // --- JSON ---
+
+    @Benchmark
+    public List<ProjectElement> parseJsonStringRaw(FixtureState state) throws BDEngineParsingException {
+        return parser.parseJsonStringRaw(state.json);
+    }
+
+    @Benchmark
+    public List<ProjectElement> parseJsonString(FixtureState state) throws BDEngineParsingException {
+        return parser.parseJsonString(state.json);
+    }
+
+    @Benchmark
+    public List<ProjectElement> parseFromInputStreamRaw(FixtureState state) throws BDEngineParsingException {
+        return parser.parseFromInputStreamRaw(new ByteArrayInputStream(state.jsonBytes));
+    }
+
+    @Benchmark
+    public List<ProjectElement> parseFromInputStream(FixtureState state) throws BDEngineParsingException {
+        return parser.parseFromInputStream(new ByteArrayInputStream(state.jsonBytes));
+    }
+
+    @Benchmark
+    public List<ProjectElement> parseFromFileRaw(FixtureState state) throws BDEngineParsingException {
+        return parser.parseFromFileRaw(state.jsonFile);
+    }
+
+    @Benchmark
+    public List<ProjectElement> parseFromFile(FixtureState state) throws BDEngineParsingException {
+        return parser.parseFromFile(state.jsonFile);
+    }
+
+    // --- .bdengine ---
+
+    @Benchmark
+    public List<ProjectElement> parseBDEngineStringRaw(FixtureState state) throws BDEngineParsingException {
+        return parser.parseBDEngineStringRaw(state.bdengine);
+    }
+
+    @Benchmark
+    public List<ProjectElement> parseBDEngineString(FixtureState state) throws BDEngineParsingException {
+        return parser.parseBDEngineString(state.bdengine);
+    }
+
+    @Benchmark
+    public List<ProjectElement> parseBDEngineInputStreamRaw(FixtureState state) throws BDEngineParsingException {
+        return parser.parseBDEngineInputStreamRaw(new ByteArrayInputStream(state.bdengineBytes));
+    }
+
+    @Benchmark
+    public List<ProjectElement> parseBDEngineInputStream(FixtureState state) throws BDEngineParsingException {
+        return parser.parseBDEngineInputStream(new ByteArrayInputStream(state.bdengineBytes));
+    }
+
+    @Benchmark
+    public List<ProjectElement> parseBDEngineBytesRaw(FixtureState state) throws BDEngineParsingException {
+        return parser.parseBDEngineBytesRaw(state.bdengineBytes);
+    }
+
+    @Benchmark
+    public List<ProjectElement> parseBDEngineBytes(FixtureState state) throws BDEngineParsingException {
+        return parser.parseBDEngineBytes(state.bdengineBytes);
+    }
+
+    @Benchmark
+    public List<ProjectElement> parseBDEngineBufferRaw(FixtureState state) throws BDEngineParsingException {
+        return parser.parseBDEngineBufferRaw(ByteBuffer.wrap(state.bdengineBytes));
+    }
+
+    @Benchmark
+    public List<ProjectElement> parseBDEngineChannelRaw(FixtureState state) throws BDEngineParsingException {
+        return parser.parseBDEngineChannelRaw(Channels.newChannel(new ByteArrayInputStream(state.bdengineBytes)));
+    }
+
+    @Benchmark
+    public List<ProjectElement> parseBDEngineFileRaw(FixtureState state) throws BDEngineParsingException {
+        return parser.parseBDEngineFileRaw(state.bdengineFile);
+    }
+
+    @Benchmark
+    public List<ProjectElement> parseBDEngineFile(FixtureState state) throws BDEngineParsingException {
+        return parser.parseBDEngineFile(state.bdengineFile);
+    }
+}
@@ -0,0 +1,329 @@
+package dev.twme.bdengineparser.benchmarks;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Base64;
+import java.util.Locale;
+import java.util.SplittableRandom;
+import java.util.zip.Deflater;
+
+import org.joml.Matrix4f;
+
+import com.google.gson.stream.JsonWriter;
+
+import dev.twme.bdengineparser.internal.BDEngineCodec;
+
+/**
+ * Generates synthetic BDEngine projects of a chosen size and shape for load and stress tests.
+ * <p>
+ * Elements are written straight to a {@link JsonWriter} while the tree is walked, so memory use depends
+ * only on the depth and fan-out and not on the element count; multi-gigabyte inputs can be produced.
+ * The output depends only on the {@link Settings}, including the seed, so a given configuration always
+ * produces the same project.
+ * </p>
+ * <p>
+ * The tree holds exactly {@link Settings#elementCount()} elements. Collections have between one and
+ * {@link Settings#maxFanOut()} children and nesting stops at {@link Settings#maxDepth()}; when one root
+ * cannot hold every element within those limits, the project gets several roots. Leaves are block,
+ * item or text displays in the configured mix. Item displays pick their head texture from a pool of
+ * {@link Settings#distinctTextures()} values, so textures repeat the way they do in real projects.
+ * </p>
+ * Run {@link #main(String[])} to write a file from the command line.
+ */
+public final class ProjectGenerator {
+
+    private static final String[] BLOCKS = {
+            "stone", "oak_planks", "oak_fence[east=true,south=true]", "glass", "white_concrete",
+            "spruce_stairs[facing=north,half=bottom]", "lantern[hanging=true]", "iron_bars[north=true,south=true]",
+            "polished_andesite", "dark_oak_trapdoor[facing=east,half=top,open=false]"
+    };
+    private static final String[] ITEMS = { "player_head", "diamond_sword", "shield", "torch", "leather_horse_armor" };
+    private static final String[] COLORS = { "#ffffff", "#ff5555", "#55ff55", "#5555ff", "#ffff55", "#000000" };
+    private static final String[] ALIGNS = { "left", "center", "right" };
+
+    /**
+     * The size and shape of a generated project.
+     *
+     * @param seed the seed of every random choice
+     * @param elementCount the exact number of elements, at least 1
+     * @param maxDepth the maximum nesting depth, at least 1; a depth of 1 makes every element a root
+     * @param maxFanOut the maximum number of children of a collection, at least 1
+     * @param blockShare the relative share of block displays among the leaves
+     * @param itemShare the relative share of item displays among the leaves
+     * @param textShare the relative share of text displays among the leaves
+     * @param distinctTextures the number of distinct head textures, at least 1
+     */
+    public record Settings(long seed, int elementCount, int maxDepth, int maxFanOut,
+                           double blockShare, double itemShare, double textShare, int distinctTextures) {
+
+        /**
+         * Validates the settings.
+         * @throws IllegalArgumentException if a count is out of range or the shares do not sum to a positive value
+         */
+        public Settings {
+            if (elementCount < 1) throw new IllegalArgumentException("Element count must be at least 1.");
+            if (maxDepth < 1) throw new IllegalArgumentException("Maximum depth must be at least 1.");
+            if (maxFanOut < 1) throw new IllegalArgumentException("Maximum fan-out must be at least 1.");
+            if (distinctTextures < 1) throw new IllegalArgumentException("Distinct texture count must be at least 1.");
+            if (blockShare < 0 || itemShare < 0 || textShare < 0 || blockShare + itemShare + textShare <= 0) {
+                throw new IllegalArgumentException("Display shares must be non-negative and not all zero.");
+            }
+        }
+
+        /**
+         * Creates settings with a typical shape: depth up to 6, up to 8 children per collection, 60% block,
+         * 30% item and 10% text displays and 32 distinct head textures.
+         * @param seed the seed of every random choice
+         * @param elementCount the exact number of elements, at least 1
+         * @return the settings
+         */
+        public static Settings of(long seed, int elementCount) {
+            return new Settings(seed, elementCount, 6, 8, 0.6, 0.3, 0.1, 32);
+        }
+    }
+
+    private final Settings settings;
+    // capacities[d] is the largest subtree that fits below depth d, saturated at Integer.MAX_VALUE.
+    private final long[] capacities;
+    private final String[] textures;
+
+    /**
+     * Creates a generator.
+     * @param settings the size and shape of the generated project
+     * @throws IllegalArgumentException if settings is null
+     */
+    public ProjectGenerator(Settings settings) {
+        if (settings == null) {
+            throw new IllegalArgumentException("Settings cannot be null.");
+        }
+        this.settings = settings;
+        this.capacities = new long[settings.maxDepth() + 1];
+        for (int d = settings.maxDepth() - 1; d >= 0; d--) {
+            capacities[d] = Math.min(Integer.MAX_VALUE, 1 + settings.maxFanOut() * capacities[d + 1]);
+        }
+        SplittableRandom random = new SplittableRandom(settings.seed() ^ 0x7E47_0CE5L);
+        this.textures = new String[settings.distinctTextures()];
+        for (int i = 0; i < textures.length; i++) {
+            String url = "http://textures.minecraft.net/texture/" + Long.toHexString(random.nextLong()) + Long.toHexString(random.nextLong());
+            String json = "{\"textures\":{\"SKIN\":{\"url\":\"" + url + "\"}}}";
+            textures[i] = Base64.getEncoder().encodeToString(json.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    /**
+     * Writes the project as JSON text.
+     * @param writer the destination; it is flushed but not closed
+     * @throws IOException if the destination cannot be written
+     */
+    public void writeJson(Writer writer) throws IOException {
+        JsonWriter out = new JsonWriter(writer);
+        new Walk(out).writeProject();
+        out.flush();
+    }
+
+    /**
+     * Writes the project as UTF-8 JSON.
+     * @param outputStream the destination; it is flushed but not closed
+     * @throws IOException if the destination cannot be written
+     */
+    public void writeJson(OutputStream outputStream) throws IOException {
+        writeJson(new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8)));
+    }
+
+    /**
+     * Writes the project as .bdengine data: base64-encoded, gzip-compressed JSON.
+     * @param outputStream the destination; it is flushed but not closed
+     * @param compressionLevel the {@link Deflater} level, -1 for the default or 0 to 9
+     * @throws IOException if the destination cannot be written
+     */
+    public void writeBDEngine(OutputStream outputStream, int compressionLevel) throws IOException {
+        try (Writer writer = new BufferedWriter(BDEngineCodec.openEncodingWriter(outputStream, compressionLevel))) {
+            writeJson(writer);
+        }
+        outputStream.flush();
+    }
+
+    /**
+     * Writes the project to a file, as .bdengine data if the name ends in {@code .bdengine} and as JSON otherwise.
+     * @param file the file to create or replace
+     * @throws IOException if the file cannot be written
+     */
+    public void writeFile(Path file) throws IOException {
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(file), 1 << 16)) {
+            if (file.getFileName().toString().toLowerCase(Locale.ROOT).endsWith(".bdengine")) {
+                writeBDEngine(out, Deflater.DEFAULT_COMPRESSION);
+            } else {
+                writeJson(out);
+            }
+        }
+    }
+
+    /**
+     * The state of one generation run. Every run starts from the seed, so repeated runs are identical.
+     */
+    private final class Walk {
+        private final JsonWriter out;
+        private final SplittableRandom random = new SplittableRandom(settings.seed());
+        private final Matrix4f matrix = new Matrix4f();
+        private final float[] values = new float[16];
+        private long written;
+
+        Walk(JsonWriter out) {
+            this.out = out;
+        }
+
+        void writeProject() throws IOException {
+            out.beginArray();
+            long remaining = settings.elementCount();
+            int roots = (int) ((remaining + capacities[0] - 1) / capacities[0]);
+            writeChildren(remaining, roots, 0);
+            out.endArray();
+            if (written != settings.elementCount()) {
+                throw new IllegalStateException("Generated " + written + " elements instead of " + settings.elementCount() + ".");
+            }
+        }
+
+        /**
+         * Writes {@code count} sibling subtrees at the given depth that hold {@code total} elements together,
+         * splitting them as evenly as possible so that each fits below the depth limit.
+         */
+        private void writeChildren(long total, int count, int depth) throws IOException {
+            long base = total / count;
+            long extra = total % count;
+            for (int i = 0; i < count; i++) {
+                writeElement(base + (i < extra ? 1 : 0), depth);
+            }
+        }
+
+        private void writeElement(long size, int depth) throws IOException {
+            written++;
+            out.beginObject();
+            if (size == 1) {
+                writeDisplay();
+            } else {
+                long remaining = size - 1;
+                long childCapacity = capacities[depth + 1];
+                int minChildren = (int) ((remaining + childCapacity - 1) / childCapacity);
+                int maxChildren = (int) Math.min(settings.maxFanOut(), remaining);
+                int children = minChildren + random.nextInt(maxChildren - minChildren + 1);
+
+                out.name("isCollection").value(true);
+                out.name("name").value("Group " + written);
+                out.name("nbt").value("");
+                writeTransforms();
+                writeDefaultTransform();
+                out.name("children").beginArray();
+                writeChildren(remaining, children, depth + 1);
+                out.endArray();
+            }
+            out.endObject();
+        }
+
+        private void writeDisplay() throws IOException {
+            double total = settings.blockShare() + settings.itemShare() + settings.textShare();
+            double pick = random.nextDouble() * total;
+            out.name("isCollection").value(false);
+            if (pick < settings.blockShare()) {
+                out.name("isBlockDisplay").value(true);
+                out.name("name").value(BLOCKS[random.nextInt(BLOCKS.length)]);
+                out.name("nbt").value("");
+            } else if (pick < settings.blockShare() + settings.itemShare()) {
+                String texture = textures[random.nextInt(textures.length)];
+                out.name("isItemDisplay").value(true);
+                out.name("name").value(ITEMS[random.nextInt(ITEMS.length)]);
+                out.name("nbt").value("{CustomModelData:" + random.nextInt(1000) + "}");
+                out.name("tagHead").beginObject().name("Value").value(texture).endObject();
+                out.name("textureValueList").beginArray().value(texture).endArray();
+                out.name("defaultTextureValue").value(texture);
+            } else {
+                out.name("isTextDisplay").value(true);
+                out.name("name").value("Line " + written);
+                out.name("nbt").value("");
+                writeTextOptions();
+            }
+            writeTransforms();
+            writeDefaultTransform();
+            out.name("brightness").beginObject()
+                    .name("sky").value(15)
+                    .name("block").value(random.nextInt(16))
+                    .endObject();
+        }
+
+        private void writeTextOptions() throws IOException {
+            out.name("options").beginObject()
+                    .name("color").value(COLORS[random.nextInt(COLORS.length)])
+                    .name("alpha").value(1)
+                    .name("backgroundColor").value(COLORS[random.nextInt(COLORS.length)])
+                    .name("backgroundAlpha").value(random.nextInt(5) * 0.25)
+                    .name("bold").value(random.nextInt(4) == 0)
+                    .name("italic").value(random.nextInt(8) == 0)
+                    .name("underline").value(false)
+                    .name("strikeThrough").value(false)
+                    .name("lineLength").value(50 + random.nextInt(4) * 50)
+                    .name("align").value(ALIGNS[random.nextInt(ALIGNS.length)])
+                    .name("obfuscated").value(false)
+                    .endObject();
+        }
+
+        private void writeTransforms() throws IOException {
+            matrix.translation((float) (random.nextDouble() * 4 - 2), (float) (random.nextDouble() * 4 - 2), (float) (random.nextDouble() * 4 - 2))
+                    .rotateXYZ((float) (random.nextDouble() * Math.PI * 2), (float) (random.nextDouble() * Math.PI * 2), (float) (random.nextDouble() * Math.PI * 2))
+                    .scale((float) (0.25 + random.nextDouble()));
+            matrix.get(values);
+            out.name("transforms").beginArray();
+            for (float value : values) {
+                out.value(value);
+            }
+            out.endArray();
+        }
+
+        private void writeDefaultTransform() throws IOException {
+            out.name("defaultTransform").beginObject();
+            out.name("position").beginArray()
+                    .value(random.nextInt(16)).value(random.nextInt(16)).value(random.nextInt(16))
+                    .endArray();
+            out.name("rotation").beginObject()
+                    .name("x").value(random.nextInt(4) * 90)
+                    .name("y").value(random.nextInt(4) * 90)
+                    .name("z").value(0)
+                    .endObject();
+            out.name("scale").beginArray().value(1).value(1).value(1).endArray();
+            out.endObject();
+        }
+    }
+
+    /**
+     * Writes a generated project to a file.
+     * <p>
+     * Usage: {@code ProjectGenerator <output file> <element count> [seed] [max depth] [max fan-out]}.
+     * Files ending in {@code .bdengine} are written as .bdengine data, all others as JSON.
+     * </p>
+     * @param args the command line arguments
+     * @throws IOException if the file cannot be written
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2 || args.length > 5) {
+            System.err.println("Usage: ProjectGenerator <output file> <element count> [seed] [max depth] [max fan-out]");
+            System.exit(2);
+        }
+        Settings defaults = Settings.of(0, 1);
+        Settings settings = new Settings(
+                args.length > 2 ? Long.parseLong(args[2]) : 42L,
+                Integer.parseInt(args[1]),
+                args.length > 3 ? Integer.parseInt(args[3]) : defaults.maxDepth(),
+                args.length > 4 ? Integer.parseInt(args[4]) : defaults.maxFanOut(),
+                defaults.blockShare(), defaults.itemShare(), defaults.textShare(), defaults.distinctTextures());
+        Path file = Path.of(args[0]);
+        long start = System.nanoTime();
+        new ProjectGenerator(settings).writeFile(file);
+        System.out.printf(Locale.ROOT, "Wrote %,d elements to %s (%,d bytes) in %.1f s%n",
+                settings.elementCount(), file, Files.size(file), (System.nanoTime() - start) / 1e9);
+    }
+}
@@ -0,0 +1,67 @@
+package dev.twme.bdengineparser.benchmarks;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import dev.twme.bdengineparser.BDEngineSnapshot;
+import dev.twme.bdengineparser.BDEngineWriter;
+import dev.twme.bdengineparser.exception.BDEngineParsingException;
+import dev.twme.bdengineparser.model.ProjectElement;
+
+/**
+ * Writing projects back to JSON and .bdengine, and saving and loading binary snapshots.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class SerializationBenchmark {
+
+    private final BDEngineWriter writer = new BDEngineWriter();
+    private final BDEngineWriter fastWriter = new BDEngineWriter(1);
+    private final BDEngineSnapshot snapshots = new BDEngineSnapshot();
+
+    @Benchmark
+    public void writeJson(FixtureState state) throws IOException {
+        writer.writeJson(state.elements, OutputStream.nullOutputStream());
+    }
+
+    @Benchmark
+    public void writeBDEngine(FixtureState state) throws IOException {
+        writer.writeBDEngine(state.elements, OutputStream.nullOutputStream());
+    }
+
+    @Benchmark
+    public void writeBDEngineFastest(FixtureState state) throws IOException {
+        fastWriter.writeBDEngine(state.elements, OutputStream.nullOutputStream());
+    }
+
+    @Benchmark
+    public byte[] snapshotToBytes(FixtureState state) {
+        return snapshots.toBytes(state.elements);
+    }
+
+    @Benchmark
+    public List<ProjectElement> snapshotReadBytes(FixtureState state) throws BDEngineParsingException {
+        return snapshots.read(state.snapshotBytes);
+    }
+
+    @Benchmark
+    public List<ProjectElement> snapshotReadFile(FixtureState state) throws BDEngineParsingException {
+        return snapshots.read(state.snapshotFile);
+    }
+}
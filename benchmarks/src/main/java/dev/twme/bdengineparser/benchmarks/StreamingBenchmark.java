@@ -0,0 +1,95 @@
+package dev.twme.bdengineparser.benchmarks;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.joml.Matrix4fc;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import dev.twme.bdengineparser.BDEngineParser;
+import dev.twme.bdengineparser.CompiledProjectVisitor;
+import dev.twme.bdengineparser.ProjectElementVisitor;
+import dev.twme.bdengineparser.ProjectStats;
+import dev.twme.bdengineparser.StringPool;
+import dev.twme.bdengineparser.exception.BDEngineParsingException;
+import dev.twme.bdengineparser.model.CompiledProject;
+import dev.twme.bdengineparser.model.ProjectElement;
+
+/**
+ * The streaming visitor, the metadata scan, compilation and string-pooled parsing, which avoid or
+ * reshape the element tree that the plain parse methods build.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class StreamingBenchmark {
+
+    private final BDEngineParser parser = new BDEngineParser();
+    private final BDEngineParser pooledParser = new BDEngineParser(new StringPool());
+
+    @Benchmark
+    public void visitJsonString(FixtureState state, Blackhole blackhole) throws BDEngineParsingException {
+        parser.visitJsonString(state.json, new ConsumingVisitor(blackhole));
+    }
+
+    @Benchmark
+    public void visitBDEngineFile(FixtureState state, Blackhole blackhole) throws BDEngineParsingException {
+        parser.visitBDEngineFile(state.bdengineFile, new ConsumingVisitor(blackhole));
+    }
+
+    @Benchmark
+    public CompiledProject visitIntoCompiledProject(FixtureState state) throws BDEngineParsingException {
+        CompiledProjectVisitor visitor = new CompiledProjectVisitor();
+        parser.visitBDEngineFile(state.bdengineFile, visitor);
+        return visitor.build();
+    }
+
+    @Benchmark
+    public ProjectStats scanJsonString(FixtureState state) throws BDEngineParsingException {
+        return parser.scanJsonString(state.json);
+    }
+
+    @Benchmark
+    public ProjectStats scanBDEngineFile(FixtureState state) throws BDEngineParsingException {
+        return parser.scanBDEngineFile(state.bdengineFile);
+    }
+
+    @Benchmark
+    public CompiledProject compile(FixtureState state) {
+        return CompiledProject.compile(state.elements);
+    }
+
+    @Benchmark
+    public List<ProjectElement> parseBDEngineFileRawPooled(FixtureState state) throws BDEngineParsingException {
+        return pooledParser.parseBDEngineFileRaw(state.bdengineFile);
+    }
+
+    /**
+     * Hands every element and its world transform to the blackhole, so the visit cannot be optimized away.
+     */
+    private static final class ConsumingVisitor implements ProjectElementVisitor {
+        private final Blackhole blackhole;
+
+        ConsumingVisitor(Blackhole blackhole) {
+            this.blackhole = blackhole;
+        }
+
+        @Override
+        public void exitElement(ProjectElement element, Matrix4fc worldTransform, int depth) {
+            blackhole.consume(element);
+            blackhole.consume(worldTransform);
+        }
+    }
+}
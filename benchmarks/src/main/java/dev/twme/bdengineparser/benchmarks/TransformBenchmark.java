@@ -0,0 +1,75 @@
+package dev.twme.bdengineparser.benchmarks;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import dev.twme.bdengineparser.BDEngineParser;
+import dev.twme.bdengineparser.internal.WorldTransformCalculator;
+import dev.twme.bdengineparser.model.CompiledProject;
+
+/**
+ * World transform calculation over already parsed trees. Allocating a matrix per element is compared
+ * with overwriting the existing matrices in place and with writing into a flat array, which
+ * {@code -prof gc} shows as the difference in bytes allocated per operation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class TransformBenchmark {
+
+    private final WorldTransformCalculator calculator = new WorldTransformCalculator();
+    private final BDEngineParser parallelParser = new BDEngineParser();
+    private CompiledProject compiled;
+    private float[] flat;
+
+    @Setup(Level.Trial)
+    public void setUp(FixtureState state) {
+        parallelParser.enableParallelTransforms(ForkJoinPool.commonPool(), 1024);
+        compiled = CompiledProject.compile(state.elements);
+        flat = new float[compiled.size() * 16];
+    }
+
+    @Benchmark
+    public Object calculateAllocating(FixtureState state) {
+        calculator.calculateWorldTransforms(state.elements, false);
+        return state.elements;
+    }
+
+    @Benchmark
+    public Object calculateReusing(FixtureState state) {
+        calculator.calculateWorldTransforms(state.elements, true);
+        return state.elements;
+    }
+
+    @Benchmark
+    public int calculateIntoArray(FixtureState state) {
+        return calculator.calculateWorldTransforms(state.elements, flat, 0);
+    }
+
+    @Benchmark
+    public Object calculateParallel(FixtureState state) {
+        parallelParser.calculateWorldTransformsForElements(state.elements);
+        return state.elements;
+    }
+
+    @Benchmark
+    public float[] computeCompiled() {
+        compiled.computeWorldTransforms();
+        return compiled.getWorldTransformArray();
+    }
+}
@@ -0,0 +1,69 @@
+package dev.twme.bdengineparser.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.joml.Matrix4f;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import dev.twme.bdengineparser.internal.TransformUtils;
+import dev.twme.bdengineparser.model.DefaultTransform;
+import dev.twme.bdengineparser.model.ProjectElement;
+
+/**
+ * The per-element matrix conversions of {@link TransformUtils}, measured on a single element.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TransformUtilsBenchmark {
+
+    private List<Double> transformView;
+    private List<Double> boxedTransforms;
+    private double[] transformArray;
+    private DefaultTransform defaultTransform;
+    private final Matrix4f scratch = new Matrix4f();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        ProjectElement element = Fixture.SMALL.build().get(0).getChildren().get(0).getChildren().get(0);
+        transformView = element.getTransforms();
+        boxedTransforms = new ArrayList<>(transformView);
+        transformArray = element.getTransformArray();
+        defaultTransform = element.getDefaultTransform();
+    }
+
+    @Benchmark
+    public Matrix4f listToMatrix4fView() {
+        return TransformUtils.listToMatrix4f(transformView);
+    }
+
+    @Benchmark
+    public Matrix4f listToMatrix4fBoxed() {
+        return TransformUtils.listToMatrix4f(boxedTransforms);
+    }
+
+    @Benchmark
+    public Matrix4f arrayToMatrix4f() {
+        return TransformUtils.arrayToMatrix4f(transformArray, scratch);
+    }
+
+    @Benchmark
+    public Matrix4f defaultTransformToMatrix4f() {
+        return TransformUtils.defaultTransformToMatrix4f(defaultTransform);
+    }
+}
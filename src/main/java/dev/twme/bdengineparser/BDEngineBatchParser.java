@@ -0,0 +1,327 @@
+package dev.twme.bdengineparser;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Method;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Stream;
+
+import dev.twme.bdengineparser.exception.BDEngineParsingException;
+import dev.twme.bdengineparser.model.ProjectElement;
+
+/**
+ * Parses many BDEngine project files concurrently.
+ * <p>
+ * Each file is read on an I/O executor and then inflated, bound and transform-calculated on a bounded
+ * CPU executor. By default the I/O executor uses virtual threads when the runtime provides them
+ * (Java 21 and later) and a cached daemon thread pool otherwise, and the CPU executor is a fixed pool
+ * with one thread per available processor. The number of files held in memory between the two stages
+ * is bounded, so large directories do not pile up their raw bytes.
+ * </p>
+ * <p>
+ * Results and failures are delivered per file through a {@link BatchCallback}; one broken file never
+ * fails the whole batch. Files ending in {@code .bdengine} are parsed as native .bdengine data and all
+ * other files as JSON. Every returned project has its world transforms calculated.
+ * </p>
+ * Instances created with the default executors own them and shut them down on {@link #close()}.
+ */
+public class BDEngineBatchParser implements AutoCloseable {
+
+    private final BDEngineParser parser;
+    private final Executor ioExecutor;
+    private final Executor cpuExecutor;
+    private final int maxBufferedFiles;
+    private final List<ExecutorService> ownedExecutors = new ArrayList<>();
+
+    /**
+     * Receives the outcome of each file of a batch.
+     * Methods are called from worker threads, possibly concurrently, so implementations must be thread-safe.
+     * If a callback throws, the batch still completes and the first such exception is rethrown by the
+     * batch method afterwards.
+     */
+    public interface BatchCallback {
+        /**
+         * Called when a file was parsed successfully.
+         * @param file the parsed file
+         * @param elements the parsed root elements with their world transforms calculated
+         */
+        void onSuccess(Path file, List<ProjectElement> elements);
+
+        /**
+         * Called when a file could not be read or parsed. Errors thrown while reading or parsing, such as an
+         * {@link OutOfMemoryError} on a huge file, are reported here as the cause of the error as well.
+         * @param file the failed file
+         * @param error the reason
+         */
+        void onFailure(Path file, BDEngineParsingException error);
+    }
+
+    /**
+     * Aggregate timing and outcome of a batch.
+     *
+     * @param fileCount the number of files in the batch
+     * @param succeeded the number of files parsed successfully
+     * @param failed the number of files that could not be read or parsed
+     * @param bytesRead the total number of bytes read from disk
+     * @param wallNanos the elapsed time of the whole batch
+     * @param readNanos the time spent reading files, summed over all files
+     * @param parseNanos the time spent decoding, binding and calculating transforms, summed over all files
+     */
+    public record BatchResult(int fileCount, int succeeded, int failed, long bytesRead,
+                              long wallNanos, long readNanos, long parseNanos) {
+    }
+
+    /**
+     * Constructs a batch parser with default executors: virtual threads (or a cached pool before Java 21)
+     * for I/O and a fixed pool with one thread per available processor for parsing.
+     *
+     * @param parser the parser used for each file
+     * @throws IllegalArgumentException if parser is null
+     */
+    public BDEngineBatchParser(BDEngineParser parser) {
+        if (parser == null) {
+            throw new IllegalArgumentException("Parser cannot be null.");
+        }
+        int processors = Runtime.getRuntime().availableProcessors();
+        ExecutorService io = newIoExecutor();
+        ExecutorService cpu = Executors.newFixedThreadPool(processors, daemonThreadFactory("bdengine-batch-parse"));
+        ownedExecutors.add(io);
+        ownedExecutors.add(cpu);
+        this.parser = parser;
+        this.ioExecutor = io;
+        this.cpuExecutor = cpu;
+        this.maxBufferedFiles = processors * 2;
+    }
+
+    /**
+     * Constructs a batch parser on caller-supplied executors, which are not shut down by {@link #close()}.
+     *
+     * @param parser the parser used for each file
+     * @param ioExecutor the executor that reads files
+     * @param cpuExecutor the executor that decodes and parses the file contents
+     * @param maxBufferedFiles the maximum number of files read but not yet parsed at any time
+     * @throws IllegalArgumentException if an argument is null or maxBufferedFiles is less than 1
+     */
+    public BDEngineBatchParser(BDEngineParser parser, Executor ioExecutor, Executor cpuExecutor, int maxBufferedFiles) {
+        if (parser == null || ioExecutor == null || cpuExecutor == null) {
+            throw new IllegalArgumentException("Parser and executors cannot be null.");
+        }
+        if (maxBufferedFiles < 1) {
+            throw new IllegalArgumentException("Maximum buffered files must be at least 1.");
+        }
+        this.parser = parser;
+        this.ioExecutor = ioExecutor;
+        this.cpuExecutor = cpuExecutor;
+        this.maxBufferedFiles = maxBufferedFiles;
+    }
+
+    /**
+     * Parses every regular file below a directory whose relative path matches a glob pattern,
+     * for example {@code "*.bdengine"} for the directory itself or {@code "**.bdengine"} to include subdirectories.
+     * Blocks until every matching file has been processed.
+     *
+     * @param directory the directory to search
+     * @param glob the glob pattern, matched against paths relative to the directory
+     * @param callback the receiver of per-file results
+     * @return the aggregate result of the batch
+     * @throws BDEngineParsingException if the directory cannot be listed or the wait is interrupted
+     * @throws IllegalArgumentException if an argument is null
+     */
+    public BatchResult parseDirectory(Path directory, String glob, BatchCallback callback) throws BDEngineParsingException {
+        if (directory == null || glob == null) {
+            throw new IllegalArgumentException("Directory and glob pattern cannot be null.");
+        }
+        PathMatcher matcher = directory.getFileSystem().getPathMatcher("glob:" + glob);
+        List<Path> files;
+        try (Stream<Path> walk = Files.walk(directory)) {
+            files = walk.filter(Files::isRegularFile)
+                    .filter(file -> matcher.matches(directory.relativize(file)))
+                    .sorted()
+                    .toList();
+        } catch (IOException | UncheckedIOException e) {
+            throw new BDEngineParsingException("Error listing directory: " + directory, e);
+        }
+        return parseAll(files, callback);
+    }
+
+    /**
+     * Parses a collection of files concurrently. Blocks until every file has been processed.
+     *
+     * @param files the files to parse
+     * @param callback the receiver of per-file results
+     * @return the aggregate result of the batch
+     * @throws BDEngineParsingException if the wait is interrupted
+     * @throws IllegalArgumentException if an argument is null
+     */
+    public BatchResult parseAll(Collection<Path> files, BatchCallback callback) throws BDEngineParsingException {
+        if (files == null || callback == null) {
+            throw new IllegalArgumentException("Files and callback cannot be null.");
+        }
+        long start = System.nanoTime();
+        Batch batch = new Batch(files.size(), callback);
+        Semaphore buffered = new Semaphore(maxBufferedFiles);
+        try {
+            for (Path file : files) {
+                buffered.acquire();
+                submit(ioExecutor, batch, file, buffered, () -> read(batch, file, buffered));
+            }
+            batch.remaining.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BDEngineParsingException("Interrupted while waiting for the batch to complete.", e);
+        }
+        RuntimeException callbackFailure = batch.callbackFailure.get();
+        if (callbackFailure != null) {
+            throw callbackFailure;
+        }
+        return new BatchResult(files.size(), batch.succeeded.get(), batch.failed.get(), batch.bytesRead.get(),
+                System.nanoTime() - start, batch.readNanos.get(), batch.parseNanos.get());
+    }
+
+    /**
+     * Shuts down the executors created by this batch parser. Caller-supplied executors are left running.
+     */
+    @Override
+    public void close() {
+        for (ExecutorService executor : ownedExecutors) {
+            executor.shutdown();
+        }
+    }
+
+    private void read(Batch batch, Path file, Semaphore buffered) {
+        long start = System.nanoTime();
+        byte[] content;
+        try {
+            content = Files.readAllBytes(file);
+        } catch (Throwable e) {
+            // Errors such as OutOfMemoryError on huge files are reported too, or the batch would never finish.
+            buffered.release();
+            batch.fail(file, new BDEngineParsingException("Error reading file: " + file, e));
+            return;
+        } finally {
+            batch.readNanos.addAndGet(System.nanoTime() - start);
+        }
+        batch.bytesRead.addAndGet(content.length);
+        submit(cpuExecutor, batch, file, buffered, () -> parse(batch, file, content, buffered));
+    }
+
+    private void parse(Batch batch, Path file, byte[] content, Semaphore buffered) {
+        long start = System.nanoTime();
+        List<ProjectElement> elements;
+        try {
+            elements = isBDEngineFile(file)
+                    ? parser.parseBDEngineBytes(content)
+                    : parser.parseFromInputStream(new ByteArrayInputStream(content));
+        } catch (BDEngineParsingException e) {
+            batch.fail(file, e);
+            return;
+        } catch (Throwable e) {
+            batch.fail(file, new BDEngineParsingException("Error parsing file: " + file, e));
+            return;
+        } finally {
+            batch.parseNanos.addAndGet(System.nanoTime() - start);
+            buffered.release();
+        }
+        batch.succeed(file, elements);
+    }
+
+    private static void submit(Executor executor, Batch batch, Path file, Semaphore buffered, Runnable task) {
+        try {
+            executor.execute(task);
+        } catch (RejectedExecutionException e) {
+            buffered.release();
+            batch.fail(file, new BDEngineParsingException("Executor rejected the task for file: " + file, e));
+        } catch (Throwable e) {
+            buffered.release();
+            batch.fail(file, new BDEngineParsingException("Error scheduling the task for file: " + file, e));
+        }
+    }
+
+    private static boolean isBDEngineFile(Path file) {
+        Path name = file.getFileName();
+        return name != null && name.toString().toLowerCase(Locale.ROOT).endsWith(".bdengine");
+    }
+
+    private static ExecutorService newIoExecutor() {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            // Virtual threads are not available before Java 21.
+            return Executors.newCachedThreadPool(daemonThreadFactory("bdengine-batch-io"));
+        }
+    }
+
+    private static ThreadFactory daemonThreadFactory(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + "-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /**
+     * Progress and counters of one running batch.
+     */
+    private static final class Batch {
+        private final CountDownLatch remaining;
+        private final BatchCallback callback;
+        private final AtomicInteger succeeded = new AtomicInteger();
+        private final AtomicInteger failed = new AtomicInteger();
+        private final AtomicLong bytesRead = new AtomicLong();
+        private final AtomicLong readNanos = new AtomicLong();
+        private final AtomicLong parseNanos = new AtomicLong();
+        private final AtomicReference<RuntimeException> callbackFailure = new AtomicReference<>();
+
+        Batch(int fileCount, BatchCallback callback) {
+            this.remaining = new CountDownLatch(fileCount);
+            this.callback = callback;
+        }
+
+        void succeed(Path file, List<ProjectElement> elements) {
+            succeeded.incrementAndGet();
+            try {
+                callback.onSuccess(file, elements);
+            } catch (RuntimeException e) {
+                recordCallbackFailure(e);
+            } finally {
+                remaining.countDown();
+            }
+        }
+
+        void fail(Path file, BDEngineParsingException error) {
+            failed.incrementAndGet();
+            try {
+                callback.onFailure(file, error);
+            } catch (RuntimeException e) {
+                recordCallbackFailure(e);
+            } finally {
+                remaining.countDown();
+            }
+        }
+
+        private void recordCallbackFailure(RuntimeException e) {
+            if (!callbackFailure.compareAndSet(null, e)) {
+                callbackFailure.get().addSuppressed(e);
+            }
+        }
+    }
+}
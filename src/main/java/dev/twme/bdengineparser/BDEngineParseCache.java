@@ -0,0 +1,402 @@
+package dev.twme.bdengineparser;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.LongAdder;
+
+import dev.twme.bdengineparser.exception.BDEngineParsingException;
+import dev.twme.bdengineparser.model.BoundingBox;
+import dev.twme.bdengineparser.model.ProjectElement;
+
+/**
+ * A size-bounded LRU cache in front of a {@link BDEngineParser}.
+ * <p>
+ * In-memory inputs are keyed by a SHA-256 digest of their raw bytes, and files are keyed by their
+ * absolute path, last-modified time and size, so repeated loads of the same blueprint skip base64
+ * decoding, gzip inflation, JSON binding and transform calculation. Every cached project has its world
+ * transforms calculated. Every caller receives the same cached elements, made read-only with
+ * {@link ProjectElement#makeReadOnly(List)}, so a hit costs no copying of the tree; their getters copy only the
+ * matrices and settings objects a caller actually reads. Callers that need to edit a project take a
+ * {@link ProjectElement#deepCopy(List)} of it.
+ * </p>
+ * <p>
+ * Entries are evicted in least-recently-used order once either the entry limit or the estimated
+ * retained-bytes limit is exceeded. Concurrent requests for the same key are coalesced into a single
+ * parse; the other callers wait for its result. Failed parses are not cached.
+ * </p>
+ * This class is thread-safe.
+ */
+public class BDEngineParseCache {
+
+    private final BDEngineParser parser;
+    private final int maxEntries;
+    private final long maxRetainedBytes;
+
+    private final LinkedHashMap<CacheKey, CacheEntry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final ConcurrentHashMap<CacheKey, CompletableFuture<CacheEntry>> inFlight = new ConcurrentHashMap<>();
+    private long retainedBytes;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * Statistics of a parse cache.
+     *
+     * @param hits the number of requests served from a cached entry
+     * @param misses the number of requests that had to parse their input
+     * @param coalescedRequests the number of requests that waited for a concurrent parse of the same input
+     * @param evictions the number of entries evicted to stay within the limits
+     * @param entryCount the current number of cached entries
+     * @param retainedBytes the estimated heap size of the cached entries
+     */
+    public record CacheStats(long hits, long misses, long coalescedRequests, long evictions, int entryCount, long retainedBytes) {
+    }
+
+    /**
+     * Input formats, part of the cache key so the same bytes parsed differently never collide.
+     */
+    private enum Format { JSON, BDENGINE, BDENGINE_STRING }
+
+    /**
+     * Identity of a cached input: a content digest or a file identity, plus the format.
+     */
+    private record CacheKey(Format format, Object identity) {
+    }
+
+    /**
+     * File identity used for file inputs.
+     */
+    private record FileIdentity(Path path, long lastModifiedMillis, long size) {
+    }
+
+    private record CacheEntry(List<ProjectElement> elements, long retainedBytes) {
+    }
+
+    /**
+     * Source of the parsed elements for a cache miss.
+     */
+    @FunctionalInterface
+    private interface ParseAction {
+        List<ProjectElement> parse() throws BDEngineParsingException;
+    }
+
+    /**
+     * Constructs a cache in front of the given parser.
+     *
+     * @param parser the parser used on cache misses
+     * @param maxEntries the maximum number of cached projects
+     * @param maxRetainedBytes the maximum estimated heap size of all cached projects
+     * @throws IllegalArgumentException if parser is null or a limit is not positive
+     */
+    public BDEngineParseCache(BDEngineParser parser, int maxEntries, long maxRetainedBytes) {
+        if (parser == null) {
+            throw new IllegalArgumentException("Parser cannot be null.");
+        }
+        if (maxEntries < 1 || maxRetainedBytes < 1) {
+            throw new IllegalArgumentException("Cache limits must be positive.");
+        }
+        this.parser = parser;
+        this.maxEntries = maxEntries;
+        this.maxRetainedBytes = maxRetainedBytes;
+    }
+
+    /**
+     * Parses a JSON project file through the cache.
+     * The file is identified by its absolute path, last-modified time and size.
+     *
+     * @param filePath the path to the BDEngine project file
+     * @return the shared, read-only parsed elements with their world transforms calculated
+     * @throws BDEngineParsingException if there is an error reading or parsing the file
+     * @throws IllegalArgumentException if filePath is null or empty
+     */
+    public List<ProjectElement> parseFromFile(String filePath) throws BDEngineParsingException {
+        return get(new CacheKey(Format.JSON, fileIdentity(filePath)), () -> parser.parseFromFile(filePath));
+    }
+
+    /**
+     * Parses a .bdengine file through the cache.
+     * The file is identified by its absolute path, last-modified time and size.
+     *
+     * @param filePath the path to the .bdengine file
+     * @return the shared, read-only parsed elements with their world transforms calculated
+     * @throws BDEngineParsingException if there is an error reading or parsing the file
+     * @throws IllegalArgumentException if filePath is null or empty
+     */
+    public List<ProjectElement> parseBDEngineFile(String filePath) throws BDEngineParsingException {
+        return get(new CacheKey(Format.BDENGINE, fileIdentity(filePath)), () -> parser.parseBDEngineFile(filePath));
+    }
+
+    /**
+     * Parses JSON project data through the cache, keyed by a digest of the bytes.
+     *
+     * @param jsonBytes the UTF-8 encoded JSON data
+     * @return the shared, read-only parsed elements with their world transforms calculated
+     * @throws BDEngineParsingException if there is an error parsing the data
+     * @throws IllegalArgumentException if jsonBytes is null
+     */
+    public List<ProjectElement> parseJsonBytes(byte[] jsonBytes) throws BDEngineParsingException {
+        if (jsonBytes == null) {
+            throw new IllegalArgumentException("Input bytes cannot be null.");
+        }
+        return get(new CacheKey(Format.JSON, digest(jsonBytes)),
+                () -> parser.parseFromInputStream(new ByteArrayInputStream(jsonBytes)));
+    }
+
+    /**
+     * Parses .bdengine data through the cache, keyed by a digest of the bytes.
+     *
+     * @param bdengineBytes the base64 text of the .bdengine data
+     * @return the shared, read-only parsed elements with their world transforms calculated
+     * @throws BDEngineParsingException if there is an error decoding, decompressing or parsing the data
+     * @throws IllegalArgumentException if bdengineBytes is null
+     */
+    public List<ProjectElement> parseBDEngineBytes(byte[] bdengineBytes) throws BDEngineParsingException {
+        if (bdengineBytes == null) {
+            throw new IllegalArgumentException("Input bytes cannot be null.");
+        }
+        return get(new CacheKey(Format.BDENGINE, digest(bdengineBytes)),
+                () -> parser.parseBDEngineBytes(bdengineBytes));
+    }
+
+    /**
+     * Parses a JSON string through the cache, keyed by a digest of its UTF-8 bytes.
+     *
+     * @param jsonString the JSON string to parse
+     * @return the shared, read-only parsed elements with their world transforms calculated
+     * @throws BDEngineParsingException if there is an error parsing the JSON string
+     * @throws IllegalArgumentException if jsonString is null
+     */
+    public List<ProjectElement> parseJsonString(String jsonString) throws BDEngineParsingException {
+        if (jsonString == null) {
+            throw new IllegalArgumentException("JSON string cannot be null.");
+        }
+        return parseJsonBytes(jsonString.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Parses a base64-encoded, gzip-compressed string through the cache, keyed by a digest of its bytes.
+     * The string is decoded as strictly as {@link BDEngineParser#parseBDEngineString(String)} does, so it is
+     * cached separately from the same text passed to {@link #parseBDEngineBytes(byte[])}, which skips whitespace.
+     *
+     * @param base64String the base64-encoded string containing gzip-compressed JSON data
+     * @return the shared, read-only parsed elements with their world transforms calculated
+     * @throws BDEngineParsingException if there is an error decoding, decompressing or parsing the data
+     * @throws IllegalArgumentException if base64String is null
+     */
+    public List<ProjectElement> parseBDEngineString(String base64String) throws BDEngineParsingException {
+        if (base64String == null) {
+            throw new IllegalArgumentException("Base64 string cannot be null.");
+        }
+        return get(new CacheKey(Format.BDENGINE_STRING, digest(base64String.getBytes(StandardCharsets.UTF_8))),
+                () -> parser.parseBDEngineString(base64String));
+    }
+
+    /**
+     * Removes every cached entry. Statistics are kept.
+     */
+    public void invalidateAll() {
+        synchronized (entries) {
+            entries.clear();
+            retainedBytes = 0;
+        }
+    }
+
+    /**
+     * Gets a snapshot of the cache statistics.
+     *
+     * @return the current statistics
+     */
+    public CacheStats stats() {
+        synchronized (entries) {
+            return new CacheStats(hits.sum(), misses.sum(), coalesced.sum(), evictions.sum(), entries.size(), retainedBytes);
+        }
+    }
+
+    private List<ProjectElement> get(CacheKey key, ParseAction action) throws BDEngineParsingException {
+        CacheEntry entry = lookup(key);
+        if (entry != null) {
+            hits.increment();
+            return entry.elements();
+        }
+
+        CompletableFuture<CacheEntry> pending = new CompletableFuture<>();
+        CompletableFuture<CacheEntry> existing = inFlight.putIfAbsent(key, pending);
+        if (existing != null) {
+            coalesced.increment();
+            return await(existing).elements();
+        }
+
+        try {
+            // Another caller may have finished the same parse between the lookup and the registration.
+            entry = lookup(key);
+            if (entry != null) {
+                hits.increment();
+            } else {
+                misses.increment();
+                List<ProjectElement> elements = action.parse();
+                entry = new CacheEntry(ProjectElement.makeReadOnly(elements), estimateRetainedBytes(elements));
+                store(key, entry);
+            }
+            pending.complete(entry);
+            return entry.elements();
+        } catch (Throwable e) {
+            // Errors too, such as a StackOverflowError on a hostile model: the coalesced callers would
+            // otherwise wait on this future forever.
+            pending.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, pending);
+        }
+    }
+
+    private CacheEntry lookup(CacheKey key) {
+        synchronized (entries) {
+            return entries.get(key);
+        }
+    }
+
+    private void store(CacheKey key, CacheEntry entry) {
+        synchronized (entries) {
+            CacheEntry previous = entries.put(key, entry);
+            if (previous != null) {
+                retainedBytes -= previous.retainedBytes();
+            }
+            retainedBytes += entry.retainedBytes();
+            Iterator<CacheEntry> eldest = entries.values().iterator();
+            while ((entries.size() > maxEntries || retainedBytes > maxRetainedBytes) && eldest.hasNext()) {
+                retainedBytes -= eldest.next().retainedBytes();
+                eldest.remove();
+                evictions.increment();
+            }
+        }
+    }
+
+    private static CacheEntry await(CompletableFuture<CacheEntry> future) throws BDEngineParsingException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BDEngineParsingException("Interrupted while waiting for a concurrent parse of the same input.", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof BDEngineParsingException parsingException) {
+                throw new BDEngineParsingException(parsingException.getMessage(), parsingException);
+            }
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new BDEngineParsingException("Concurrent parse of the same input failed.", cause);
+        }
+    }
+
+    private static FileIdentity fileIdentity(String filePath) throws BDEngineParsingException {
+        if (filePath == null || filePath.trim().isEmpty()) {
+            throw new IllegalArgumentException("File path cannot be null or empty.");
+        }
+        try {
+            Path path = Paths.get(filePath).toAbsolutePath().normalize();
+            BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+            return new FileIdentity(path, attributes.lastModifiedTime().toMillis(), attributes.size());
+        } catch (InvalidPathException e) {
+            throw new BDEngineParsingException("Invalid file path: " + filePath, e);
+        } catch (IOException e) {
+            throw new BDEngineParsingException("Error reading file: " + filePath, e);
+        }
+    }
+
+    private static ByteBuffer digest(byte[] bytes) {
+        try {
+            return ByteBuffer.wrap(MessageDigest.getInstance("SHA-256").digest(bytes));
+        } catch (NoSuchAlgorithmException e) {
+            // Every Java platform is required to support SHA-256.
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Roughly estimates the heap retained by a parsed project, assuming compressed object pointers.
+     */
+    private static long estimateRetainedBytes(List<ProjectElement> rootElements) {
+        long bytes = 16L + 4L * rootElements.size();
+        Deque<ProjectElement> pending = new ArrayDeque<>();
+        for (ProjectElement root : rootElements) {
+            if (root != null) pending.push(root);
+        }
+        while (!pending.isEmpty()) {
+            ProjectElement element = pending.pop();
+            bytes += 112; // element header and fields
+            bytes += boundsBytes(element.getWorldBounds());
+            if (element.getSubtreeBounds() != element.getWorldBounds()) {
+                // Leaves share one box for both.
+                bytes += boundsBytes(element.getSubtreeBounds());
+            }
+            bytes += arrayBytes(element.getTransformArray());
+            bytes += stringBytes(element.getName()) + stringBytes(element.getNbt()) + stringBytes(element.getDefaultTextureValue());
+            if (element.getWorldTransform() != null) bytes += 80;
+            if (element.getDefaultTransform() != null) bytes += 120;
+            if (element.getOptions() != null) bytes += 80;
+            if (element.getBrightness() != null) bytes += 16;
+            if (element.getTagHead() != null) bytes += 16 + stringBytes(element.getTagHead().getValue());
+            if (element.getTextureValueList() != null) {
+                bytes += 40;
+                for (String value : element.getTextureValueList()) {
+                    bytes += 4 + stringBytes(value);
+                }
+            }
+            List<ProjectElement> children = element.getChildren();
+            if (children != null) {
+                bytes += 40 + 4L * children.size();
+                for (ProjectElement child : children) {
+                    if (child != null) pending.push(child);
+                }
+            }
+        }
+        return bytes;
+    }
+
+    private static long boundsBytes(BoundingBox bounds) {
+        return bounds == null || bounds == BoundingBox.EMPTY ? 0 : 40;
+    }
+
+    private static long arrayBytes(double[] array) {
+        return array == null ? 0 : 16 + 8L * array.length;
+    }
+
+    private static long stringBytes(String value) {
+        return value == null ? 0 : 40 + value.length();
+    }
+
+    /**
+     * Returns a string representation of the cache.
+     * @return a string containing the entry count, retained bytes, hits and misses
+     */
+    @Override
+    public String toString() {
+        CacheStats stats = stats();
+        return "BDEngineParseCache{" +
+                "entries=" + stats.entryCount() +
+                ", retainedBytes=" + stats.retainedBytes() +
+                ", hits=" + stats.hits() +
+                ", misses=" + stats.misses() +
+                '}';
+    }
+}
@@ -5,25 +5,41 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.Reader;
-import java.lang.reflect.Type;
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
 import java.nio.charset.StandardCharsets; // Assumes this is public in internal package
-import java.nio.file.Files;
 import java.nio.file.InvalidPathException;
-import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayDeque;
 import java.util.Base64;
+import java.util.Deque;
 import java.util.List;
-import java.util.zip.GZIPInputStream;
+import java.util.concurrent.ForkJoinPool;
 
 import org.joml.Matrix4f;
 import org.joml.Vector3f;
 
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
+import com.google.gson.JsonParseException;
 import com.google.gson.JsonSyntaxException;
+import com.google.gson.Strictness;
 import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
 
 import dev.twme.bdengineparser.exception.BDEngineParsingException;
+import dev.twme.bdengineparser.internal.BDEngineCodec;
+import dev.twme.bdengineparser.internal.BDEngineCodec.Encoding;
+import dev.twme.bdengineparser.internal.ByteBufferInputStream;
+import dev.twme.bdengineparser.internal.ElementStreamReader;
+import dev.twme.bdengineparser.internal.FileInput;
+import dev.twme.bdengineparser.internal.ModelTypeAdapterFactory;
+import dev.twme.bdengineparser.internal.ParseProbe;
+import dev.twme.bdengineparser.internal.ProjectStatsScanner;
+import dev.twme.bdengineparser.internal.StageIOException;
+import dev.twme.bdengineparser.internal.TransformDecomposer;
 import dev.twme.bdengineparser.internal.TransformUtils;
 import dev.twme.bdengineparser.internal.WorldTransformCalculator;
 import dev.twme.bdengineparser.model.ProjectElement;
@@ -33,31 +49,166 @@ import dev.twme.bdengineparser.model.ProjectElement;
  */
 public class BDEngineParser {
 
+    private static final TypeToken<List<ProjectElement>> ELEMENT_LIST_TYPE = new TypeToken<>() {};
+
+    /**
+     * Default subtree size above which parallel transform calculation splits work into separate tasks.
+     */
+    public static final int DEFAULT_PARALLEL_SPLIT_THRESHOLD = 1024;
+
     private final Gson gson;
+    private final StringPool stringPool;
     private final WorldTransformCalculator transformCalculator;
+    private volatile ElementStreamReader elementStreamReader;
+    private volatile ForkJoinPool transformPool;
+    private volatile int parallelSplitThreshold = DEFAULT_PARALLEL_SPLIT_THRESHOLD;
+    private volatile boolean boundsTracking;
+    private volatile ParseListener parseListener;
 
     /**
      * Constructs a BDEngineParser with a default Gson instance.
+     * The default instance binds the model through hand-written streaming type adapters.
      */
     public BDEngineParser() {
-        this.gson = new GsonBuilder().create();
+        this.gson = defaultGsonBuilder().create();
+        this.stringPool = null;
+        this.transformCalculator = new WorldTransformCalculator();
+    }
+
+    /**
+     * Constructs a BDEngineParser that deduplicates element names, NBT data and texture values through a string pool
+     * while deserializing. Pass the same pool to several parsers to deduplicate across all of their projects.
+     *
+     * @param stringPool the pool for repeated strings
+     * @throws IllegalArgumentException if stringPool is null
+     */
+    public BDEngineParser(StringPool stringPool) {
+        if (stringPool == null) {
+            throw new IllegalArgumentException("String pool cannot be null.");
+        }
+        this.gson = defaultGsonBuilder(stringPool).create();
+        this.stringPool = stringPool;
         this.transformCalculator = new WorldTransformCalculator();
     }
 
     /**
      * Constructs a BDEngineParser with a custom Gson instance.
+     * Start from {@link #defaultGsonBuilder()} to keep the streaming model adapters;
+     * a plain Gson instance falls back to reflective binding.
      *
      * @param gson the Gson instance to use for parsing
      */
     public BDEngineParser(Gson gson) {
         this.gson = gson;
+        this.stringPool = null;
         this.transformCalculator = new WorldTransformCalculator();
     }
 
+    /**
+     * Creates a GsonBuilder with the streaming type adapters for the BDEngine model registered.
+     * Use this as the starting point when customizing the Gson instance passed to
+     * {@link #BDEngineParser(Gson)}.
+     *
+     * @return a new GsonBuilder configured for BDEngine projects
+     */
+    public static GsonBuilder defaultGsonBuilder() {
+        return new GsonBuilder().registerTypeAdapterFactory(new ModelTypeAdapterFactory());
+    }
+
+    /**
+     * Creates a GsonBuilder with the streaming type adapters for the BDEngine model registered,
+     * deduplicating element names, NBT data and texture values through the given string pool.
+     *
+     * @param stringPool the pool for repeated strings, or null to keep every value as read
+     * @return a new GsonBuilder configured for BDEngine projects
+     */
+    public static GsonBuilder defaultGsonBuilder(StringPool stringPool) {
+        return new GsonBuilder().registerTypeAdapterFactory(new ModelTypeAdapterFactory(stringPool));
+    }
+
+    /**
+     * Enables parallel world transform calculation for this parser.
+     * Subtrees holding more than {@code splitThreshold} elements are processed as separate fork/join tasks
+     * on the given pool; the results are identical to the sequential calculation.
+     * This affects {@link #calculateWorldTransformsForElements(List)} and every parse method that calculates transforms.
+     *
+     * @param pool the pool to run on, so that parsing does not compete with other work on the common pool
+     * @param splitThreshold the subtree size above which a subtree is split into parallel tasks
+     * @throws IllegalArgumentException if pool is null or splitThreshold is less than 1
+     */
+    public void enableParallelTransforms(ForkJoinPool pool, int splitThreshold) {
+        if (pool == null) {
+            throw new IllegalArgumentException("Fork/join pool cannot be null.");
+        }
+        if (splitThreshold < 1) {
+            throw new IllegalArgumentException("Split threshold must be at least 1.");
+        }
+        this.parallelSplitThreshold = splitThreshold;
+        this.transformPool = pool;
+    }
+
+    /**
+     * Disables parallel world transform calculation, returning to the single-threaded default.
+     */
+    public void disableParallelTransforms() {
+        this.transformPool = null;
+    }
+
+    /**
+     * Enables bounds tracking for this parser. Every world transform calculation then also links each element to
+     * its parent and stores its world bounds and the bounds of its subtree, see
+     * {@link ProjectElement#getSubtreeBounds()}, which {@link #recalculateWorldTransforms(ProjectElement)} relies on.
+     * This affects {@link #calculateWorldTransformsForElements(List)} and every parse method that calculates transforms.
+     */
+    public void enableBoundsTracking() {
+        this.boundsTracking = true;
+    }
+
+    /**
+     * Disables bounds tracking, returning to the default of calculating only the world transforms,
+     * with one stored matrix per element. Bounds stored by earlier calculations are cleared when the
+     * transforms are calculated again.
+     */
+    public void disableBoundsTracking() {
+        this.boundsTracking = false;
+    }
+
+    /**
+     * Checks whether world transform calculations also link parents and calculate bounds.
+     *
+     * @return true if bounds tracking is enabled
+     */
+    public boolean isBoundsTrackingEnabled() {
+        return boundsTracking;
+    }
+
+    /**
+     * Registers a listener that receives the timings, byte counts and element counts of every
+     * {@code parse...} call on this parser, replacing any previous listener.
+     * Without a listener no metrics are collected and the parse pipeline is not instrumented.
+     *
+     * @param listener the listener, or null to stop collecting metrics
+     * @see ParseMetricsHistogram
+     */
+    public void setParseListener(ParseListener listener) {
+        this.parseListener = listener;
+    }
+
+    /**
+     * Gets the listener that receives parse metrics.
+     *
+     * @return the registered listener, or null if none is registered
+     */
+    public ParseListener getParseListener() {
+        return parseListener;
+    }
+
     // --- Raw Parsing Methods (without automatic transform calculation) ---
 
     /**
      * Parses a BDEngine project file from the specified file path without calculating world transforms.
+     * The file is decoded while it is read, straight from a memory mapping for files of 1 MiB and more,
+     * so its content is never held in memory as a whole String.
      *
      * @param filePath the path to the BDEngine project file
      * @return a list of ProjectElement objects parsed from the file
@@ -65,18 +216,30 @@ public class BDEngineParser {
      * @throws IllegalArgumentException if filePath is null or empty
      */
     public List<ProjectElement> parseFromFileRaw(String filePath) throws BDEngineParsingException {
+        return parse(ParseMetrics.Format.JSON, ParseMetrics.Source.FILE, false, probe -> bindFromFile(filePath, probe));
+    }
+
+    private List<ProjectElement> bindFromFile(String filePath, ParseProbe probe) throws BDEngineParsingException {
         if (filePath == null || filePath.trim().isEmpty()) {
             throw new IllegalArgumentException("File path cannot be null or empty.");
         }
-        try {
-            Path path = Paths.get(filePath);
-            String jsonContent = Files.readString(path);
-            return parseJsonStringRaw(jsonContent);
-        } catch (InvalidPathException e) {
-            throw new BDEngineParsingException("Invalid file path: " + filePath, e);
+        InputStream inputStream = openFile(filePath, "Error reading file: " + filePath, probe);
+        List<ProjectElement> elements;
+        try (Reader reader = new InputStreamReader(inputStream, StandardCharsets.UTF_8.newDecoder())) {
+            elements = gson.fromJson(reader, ELEMENT_LIST_TYPE);
+        } catch (JsonParseException e) {
+            StageIOException readFailure = StageIOException.find(e);
+            if (readFailure != null) {
+                throw new BDEngineParsingException("Error reading file: " + filePath, readFailure.getCause());
+            }
+            throw new BDEngineParsingException("Error parsing JSON string: Invalid JSON syntax.", e);
         } catch (IOException e) {
             throw new BDEngineParsingException("Error reading file: " + filePath, e);
         }
+        if (elements == null) {
+            throw new BDEngineParsingException("Parsed result is null. The JSON might represent a null value or be empty in an unexpected way.");
+        }
+        return elements;
     }
 
     /**
@@ -88,12 +251,16 @@ public class BDEngineParser {
      * @throws IllegalArgumentException if inputStream is null
      */
     public List<ProjectElement> parseFromInputStreamRaw(InputStream inputStream) throws BDEngineParsingException {
+        return parse(ParseMetrics.Format.JSON, ParseMetrics.Source.STREAM, false, probe -> bindFromInputStream(inputStream, probe));
+    }
+
+    private List<ProjectElement> bindFromInputStream(InputStream inputStream, ParseProbe probe) throws BDEngineParsingException {
         if (inputStream == null) {
             throw new IllegalArgumentException("Input stream cannot be null.");
         }
-        try (Reader reader = new InputStreamReader(inputStream, StandardCharsets.UTF_8)) {
-            Type listType = new TypeToken<List<ProjectElement>>() {}.getType();
-            List<ProjectElement> elements = gson.fromJson(reader, listType);
+        InputStream source = ParseProbe.track(probe, inputStream, StageIOException.Stage.READ);
+        try (Reader reader = new InputStreamReader(source, StandardCharsets.UTF_8)) {
+            List<ProjectElement> elements = gson.fromJson(reader, ELEMENT_LIST_TYPE);
             if (elements == null) { // Check for null result, e.g. if JSON string is "null"
                 throw new BDEngineParsingException("Parsed result is null. The JSON content might represent a null value.");
             }
@@ -114,12 +281,18 @@ public class BDEngineParser {
      * @throws IllegalArgumentException if jsonString is null
      */
     public List<ProjectElement> parseJsonStringRaw(String jsonString) throws BDEngineParsingException {
+        return parse(ParseMetrics.Format.JSON, ParseMetrics.Source.STRING, false, probe -> bindJsonString(jsonString, probe));
+    }
+
+    private List<ProjectElement> bindJsonString(String jsonString, ParseProbe probe) throws BDEngineParsingException {
         if (jsonString == null) {
             throw new IllegalArgumentException("JSON string cannot be null.");
         }
+        if (probe != null) {
+            probe.addBytes(StageIOException.Stage.READ, jsonString.length());
+        }
         try {
-            Type listType = new TypeToken<List<ProjectElement>>() {}.getType();
-            List<ProjectElement> elements = gson.fromJson(jsonString, listType);
+            List<ProjectElement> elements = gson.fromJson(jsonString, ELEMENT_LIST_TYPE);
             if (elements == null) {
                 throw new BDEngineParsingException("Parsed result is null. The JSON might represent a null value or be empty in an unexpected way.");
             }
@@ -134,6 +307,8 @@ public class BDEngineParser {
     /**
      * Parses a BDEngine file (.bdengine) from the specified file path without calculating world transforms.
      * The .bdengine format contains base64-encoded, gzip-compressed JSON data.
+     * The file is decoded as a stream; neither the base64 text nor the inflated JSON is held in memory as a whole,
+     * and files of 1 MiB and more are read straight from a memory mapping.
      *
      * @param filePath the path to the .bdengine file
      * @return a list of ProjectElement objects parsed from the file
@@ -141,18 +316,15 @@ public class BDEngineParser {
      * @throws IllegalArgumentException if filePath is null or empty
      */
     public List<ProjectElement> parseBDEngineFileRaw(String filePath) throws BDEngineParsingException {
+        return parse(ParseMetrics.Format.BDENGINE, ParseMetrics.Source.FILE, false, probe -> bindBDEngineFile(filePath, probe));
+    }
+
+    private List<ProjectElement> bindBDEngineFile(String filePath, ParseProbe probe) throws BDEngineParsingException {
         if (filePath == null || filePath.trim().isEmpty()) {
             throw new IllegalArgumentException("File path cannot be null or empty.");
         }
-        try {
-            Path path = Paths.get(filePath);
-            String base64Content = Files.readString(path, StandardCharsets.UTF_8).trim();
-            return parseBDEngineStringRaw(base64Content);
-        } catch (InvalidPathException e) {
-            throw new BDEngineParsingException("Invalid file path: " + filePath, e);
-        } catch (IOException e) {
-            throw new BDEngineParsingException("Error reading .bdengine file: " + filePath, e);
-        }
+        InputStream inputStream = openFile(filePath, "Error reading .bdengine file: " + filePath, probe);
+        return parseBDEngineStream(inputStream, Encoding.BASE64_MIME, "Error reading .bdengine file: " + filePath, probe);
     }
 
     /**
@@ -164,41 +336,29 @@ public class BDEngineParser {
      * @throws IllegalArgumentException if base64String is null
      */
     public List<ProjectElement> parseBDEngineStringRaw(String base64String) throws BDEngineParsingException {
+        return parse(ParseMetrics.Format.BDENGINE, ParseMetrics.Source.STRING, false, probe -> bindBDEngineString(base64String, probe));
+    }
+
+    private List<ProjectElement> bindBDEngineString(String base64String, ParseProbe probe) throws BDEngineParsingException {
         if (base64String == null) {
             throw new IllegalArgumentException("Base64 string cannot be null.");
         }
-        
-        try {
-            // Step 1: Base64 decode
-            byte[] compressedData = Base64.getDecoder().decode(base64String);
-            
-            // Step 2: Gzip decompress
-            String jsonString;
-            try (GZIPInputStream gzipInputStream = new GZIPInputStream(new ByteArrayInputStream(compressedData));
-                 Reader reader = new InputStreamReader(gzipInputStream, StandardCharsets.UTF_8)) {
-                
-                StringBuilder jsonBuilder = new StringBuilder();
-                char[] buffer = new char[8192];
-                int charsRead;
-                while ((charsRead = reader.read(buffer)) != -1) {
-                    jsonBuilder.append(buffer, 0, charsRead);
-                }
-                jsonString = jsonBuilder.toString();
-            }
-            
-            // Step 3: Parse JSON using existing method
-            return parseJsonStringRaw(jsonString);
-            
-        } catch (IllegalArgumentException e) {
-            throw new BDEngineParsingException("Invalid base64 encoding in BDEngine data.", e);
-        } catch (IOException e) {
-            throw new BDEngineParsingException("Error decompressing gzip data in BDEngine format.", e);
+        if (probe == null) {
+            return parseBDEngineStream(new ByteArrayInputStream(decodeBase64(base64String)), Encoding.GZIP, "Error reading BDEngine data.", null);
         }
+        long start = System.nanoTime();
+        byte[] compressed = decodeBase64(base64String);
+        probe.addUpfrontBase64Nanos(System.nanoTime() - start);
+        probe.addBytes(StageIOException.Stage.READ, base64String.length());
+        probe.addBytes(StageIOException.Stage.BASE64, compressed.length);
+        return parseBDEngineStream(new ByteArrayInputStream(compressed), Encoding.GZIP, "Error reading BDEngine data.", probe);
     }
 
     /**
      * Parses a BDEngine file (.bdengine) from the specified InputStream without calculating world transforms.
      * The .bdengine format contains base64-encoded, gzip-compressed JSON data.
+     * The data is decoded while it is read: base64, gzip and JSON are chained as streams,
+     * and whitespace or line breaks in the base64 text are ignored.
      *
      * @param inputStream the InputStream containing the .bdengine file data
      * @return a list of ProjectElement objects parsed from the file
@@ -206,22 +366,203 @@ public class BDEngineParser {
      * @throws IllegalArgumentException if inputStream is null
      */
     public List<ProjectElement> parseBDEngineInputStreamRaw(InputStream inputStream) throws BDEngineParsingException {
+        return parse(ParseMetrics.Format.BDENGINE, ParseMetrics.Source.STREAM, false, probe -> bindBDEngineInputStream(inputStream, probe));
+    }
+
+    private List<ProjectElement> bindBDEngineInputStream(InputStream inputStream, ParseProbe probe) throws BDEngineParsingException {
         if (inputStream == null) {
             throw new IllegalArgumentException("Input stream cannot be null.");
         }
-        
-        try (Reader reader = new InputStreamReader(inputStream, StandardCharsets.UTF_8)) {
-            StringBuilder base64Builder = new StringBuilder();
-            char[] buffer = new char[8192];
-            int charsRead;
-            while ((charsRead = reader.read(buffer)) != -1) {
-                base64Builder.append(buffer, 0, charsRead);
+        return parseBDEngineStream(ParseProbe.track(probe, inputStream, StageIOException.Stage.READ), Encoding.BASE64_MIME,
+                "Error reading .bdengine data from input stream.", probe);
+    }
+
+    /**
+     * Parses .bdengine data held in a byte array without calculating world transforms.
+     * The base64 text is decoded straight from the array, without being converted to a String first,
+     * and line breaks or other whitespace in it are skipped while decoding, like in a .bdengine file.
+     *
+     * @param data the base64 text of the .bdengine data as bytes
+     * @return a list of ProjectElement objects parsed from the data
+     * @throws BDEngineParsingException if there is an error decoding, decompressing, or parsing the data
+     * @throws IllegalArgumentException if data is null
+     */
+    public List<ProjectElement> parseBDEngineBytesRaw(byte[] data) throws BDEngineParsingException {
+        if (data == null) {
+            throw new IllegalArgumentException("Data cannot be null.");
+        }
+        return parseBDEngineBufferRaw(ByteBuffer.wrap(data));
+    }
+
+    private List<ProjectElement> bindBDEngineBytes(byte[] data, ParseProbe probe) throws BDEngineParsingException {
+        if (data == null) {
+            throw new IllegalArgumentException("Data cannot be null.");
+        }
+        return bindBDEngineBuffer(ByteBuffer.wrap(data), probe);
+    }
+
+    /**
+     * Parses .bdengine data held in a ByteBuffer, such as a memory-mapped file, without calculating world transforms.
+     * The bytes between the buffer's position and limit are decoded in place; the buffer's position is not changed.
+     * Line breaks or other whitespace in the base64 text are skipped while decoding, like in a .bdengine file.
+     *
+     * @param buffer the base64 text of the .bdengine data as bytes
+     * @return a list of ProjectElement objects parsed from the data
+     * @throws BDEngineParsingException if there is an error decoding, decompressing, or parsing the data
+     * @throws IllegalArgumentException if buffer is null
+     */
+    public List<ProjectElement> parseBDEngineBufferRaw(ByteBuffer buffer) throws BDEngineParsingException {
+        return parse(ParseMetrics.Format.BDENGINE, ParseMetrics.Source.BYTES, false, probe -> bindBDEngineBuffer(buffer, probe));
+    }
+
+    private List<ProjectElement> bindBDEngineBuffer(ByteBuffer buffer, ParseProbe probe) throws BDEngineParsingException {
+        if (buffer == null) {
+            throw new IllegalArgumentException("Buffer cannot be null.");
+        }
+        return parseBDEngineStream(ParseProbe.track(probe, new ByteBufferInputStream(buffer), StageIOException.Stage.READ),
+                Encoding.BASE64_MIME, "Error reading BDEngine data.", probe);
+    }
+
+    /**
+     * Parses .bdengine data from a ReadableByteChannel without calculating world transforms.
+     * The data is decoded while it is read, like {@link #parseBDEngineInputStreamRaw(InputStream)},
+     * and the channel is closed afterwards.
+     *
+     * @param channel the channel containing the .bdengine file data
+     * @return a list of ProjectElement objects parsed from the channel
+     * @throws BDEngineParsingException if there is an error reading or parsing the channel
+     * @throws IllegalArgumentException if channel is null
+     */
+    public List<ProjectElement> parseBDEngineChannelRaw(ReadableByteChannel channel) throws BDEngineParsingException {
+        return parse(ParseMetrics.Format.BDENGINE, ParseMetrics.Source.STREAM, false, probe -> bindBDEngineChannel(channel, probe));
+    }
+
+    private List<ProjectElement> bindBDEngineChannel(ReadableByteChannel channel, ParseProbe probe) throws BDEngineParsingException {
+        if (channel == null) {
+            throw new IllegalArgumentException("Channel cannot be null.");
+        }
+        return parseBDEngineStream(ParseProbe.track(probe, Channels.newInputStream(channel), StageIOException.Stage.READ),
+                Encoding.BASE64_MIME, "Error reading .bdengine data from channel.", probe);
+    }
+
+    /**
+     * Decodes and binds .bdengine data from a stream, closing the stream afterwards.
+     * @param source the encoded data
+     * @param encoding the outer encoding of the source
+     * @param readErrorMessage the message used when the source itself cannot be read
+     * @param probe the probe timing the decode stages, or null
+     * @return the parsed root elements
+     * @throws BDEngineParsingException if any stage of the pipeline fails
+     */
+    private List<ProjectElement> parseBDEngineStream(InputStream source, Encoding encoding, String readErrorMessage,
+                                                     ParseProbe probe) throws BDEngineParsingException {
+        List<ProjectElement> elements = readBDEngineStream(source, encoding, readErrorMessage, probe,
+                reader -> gson.fromJson(reader, ELEMENT_LIST_TYPE));
+        if (elements == null) {
+            throw new BDEngineParsingException("Parsed result is null. The JSON content might represent a null value.");
+        }
+        return elements;
+    }
+
+    /**
+     * Decodes .bdengine data from a stream and hands the JSON text to an action, closing the stream afterwards.
+     * @param source the encoded data
+     * @param encoding the outer encoding of the source
+     * @param readErrorMessage the message used when the source itself cannot be read
+     * @param probe the probe timing the decode stages, or null
+     * @param action the consumer of the decoded JSON text
+     * @return the result of the action
+     * @throws BDEngineParsingException if any stage of the pipeline fails
+     */
+    private <T> T readBDEngineStream(InputStream source, Encoding encoding, String readErrorMessage, ParseProbe probe,
+                                     JsonReadAction<T> action) throws BDEngineParsingException {
+        try (InputStream in = source;
+             Reader reader = BDEngineCodec.openReader(in, encoding, probe)) {
+            return action.read(reader);
+        } catch (JsonParseException e) {
+            StageIOException stageFailure = StageIOException.find(e);
+            if (stageFailure != null) {
+                throw translateStageFailure(stageFailure, readErrorMessage);
             }
-            String base64Content = base64Builder.toString().trim();
-            return parseBDEngineStringRaw(base64Content);
+            throw new BDEngineParsingException("Error parsing JSON in BDEngine data: Invalid JSON syntax.", e);
+        } catch (StageIOException e) {
+            throw translateStageFailure(e, readErrorMessage);
         } catch (IOException e) {
-            throw new BDEngineParsingException("Error reading .bdengine data from input stream.", e);
+            throw new BDEngineParsingException(readErrorMessage, e);
+        }
+    }
+
+    /**
+     * Consumes the JSON text of a project.
+     */
+    @FunctionalInterface
+    private interface JsonReadAction<T> {
+        T read(Reader reader) throws IOException;
+    }
+
+    /**
+     * Binds the root elements of a project, timing its stages when a probe is given.
+     */
+    @FunctionalInterface
+    private interface ParseAction {
+        List<ProjectElement> parse(ParseProbe probe) throws BDEngineParsingException;
+    }
+
+    /**
+     * Runs a parse, optionally followed by the world transform calculation, and reports its metrics
+     * to the registered listener. Without a listener the action runs uninstrumented.
+     */
+    private List<ProjectElement> parse(ParseMetrics.Format format, ParseMetrics.Source source,
+                                       boolean calculateTransforms, ParseAction action) throws BDEngineParsingException {
+        ParseListener listener = this.parseListener;
+        if (listener == null) {
+            List<ProjectElement> rootElements = action.parse(null);
+            if (calculateTransforms) {
+                calculateWorldTransformsForElements(rootElements);
+            }
+            return rootElements;
         }
+        ParseProbe probe = new ParseProbe();
+        List<ProjectElement> rootElements;
+        try {
+            probe.startBind();
+            try {
+                rootElements = action.parse(probe);
+            } finally {
+                probe.endBind();
+            }
+            if (calculateTransforms) {
+                long start = System.nanoTime();
+                calculateWorldTransformsForElements(rootElements);
+                probe.setTransformNanos(System.nanoTime() - start);
+            }
+        } catch (BDEngineParsingException e) {
+            listener.onFailure(toMetrics(probe, format, source), e);
+            throw e;
+        }
+        probe.countTree(rootElements);
+        listener.onParse(toMetrics(probe, format, source));
+        return rootElements;
+    }
+
+    private static ParseMetrics toMetrics(ParseProbe probe, ParseMetrics.Format format, ParseMetrics.Source source) {
+        long total = probe.totalNanos();
+        boolean json = format == ParseMetrics.Format.JSON;
+        long sourceBytes = probe.bytes(StageIOException.Stage.READ);
+        return new ParseMetrics(format, source, total,
+                source == ParseMetrics.Source.STRING ? 0 : probe.readNanos(), probe.base64Nanos(), probe.gzipNanos(),
+                probe.bindNanos(), probe.transformNanos(),
+                sourceBytes, json ? 0 : probe.bytes(StageIOException.Stage.BASE64),
+                json ? sourceBytes : probe.bytes(StageIOException.Stage.GZIP),
+                probe.elementCount(), probe.maxDepth(), probe.allocatedBytesSinceStart());
+    }
+
+    private static BDEngineParsingException translateStageFailure(StageIOException failure, String readErrorMessage) {
+        return switch (failure.getStage()) {
+            case READ -> new BDEngineParsingException(readErrorMessage, failure.getCause());
+            case BASE64 -> new BDEngineParsingException("Invalid base64 encoding in BDEngine data.", failure.getCause());
+            case GZIP -> new BDEngineParsingException("Error decompressing gzip data in BDEngine format.", failure.getCause());
+        };
     }
 
     // --- Combined Parsing and Transform Calculation Methods ---
@@ -236,9 +577,7 @@ public class BDEngineParser {
      * @throws IllegalArgumentException if filePath is null or empty
      */
     public List<ProjectElement> parseFromFile(String filePath) throws BDEngineParsingException {
-        List<ProjectElement> rootElements = parseFromFileRaw(filePath);
-        calculateWorldTransformsForElements(rootElements);
-        return rootElements;
+        return parse(ParseMetrics.Format.JSON, ParseMetrics.Source.FILE, true, probe -> bindFromFile(filePath, probe));
     }
 
     /**
@@ -251,9 +590,7 @@ public class BDEngineParser {
      * @throws IllegalArgumentException if inputStream is null
      */
     public List<ProjectElement> parseFromInputStream(InputStream inputStream) throws BDEngineParsingException {
-        List<ProjectElement> rootElements = parseFromInputStreamRaw(inputStream);
-        calculateWorldTransformsForElements(rootElements);
-        return rootElements;
+        return parse(ParseMetrics.Format.JSON, ParseMetrics.Source.STREAM, true, probe -> bindFromInputStream(inputStream, probe));
     }
 
     /**
@@ -266,9 +603,7 @@ public class BDEngineParser {
      * @throws IllegalArgumentException if jsonString is null
      */
     public List<ProjectElement> parseJsonString(String jsonString) throws BDEngineParsingException {
-        List<ProjectElement> rootElements = parseJsonStringRaw(jsonString);
-        calculateWorldTransformsForElements(rootElements);
-        return rootElements;
+        return parse(ParseMetrics.Format.JSON, ParseMetrics.Source.STRING, true, probe -> bindJsonString(jsonString, probe));
     }
 
     /**
@@ -282,9 +617,7 @@ public class BDEngineParser {
      * @throws IllegalArgumentException if filePath is null or empty
      */
     public List<ProjectElement> parseBDEngineFile(String filePath) throws BDEngineParsingException {
-        List<ProjectElement> rootElements = parseBDEngineFileRaw(filePath);
-        calculateWorldTransformsForElements(rootElements);
-        return rootElements;
+        return parse(ParseMetrics.Format.BDENGINE, ParseMetrics.Source.FILE, true, probe -> bindBDEngineFile(filePath, probe));
     }
 
     /**
@@ -297,9 +630,7 @@ public class BDEngineParser {
      * @throws IllegalArgumentException if base64String is null
      */
     public List<ProjectElement> parseBDEngineString(String base64String) throws BDEngineParsingException {
-        List<ProjectElement> rootElements = parseBDEngineStringRaw(base64String);
-        calculateWorldTransformsForElements(rootElements);
-        return rootElements;
+        return parse(ParseMetrics.Format.BDENGINE, ParseMetrics.Source.STRING, true, probe -> bindBDEngineString(base64String, probe));
     }
 
     /**
@@ -313,9 +644,385 @@ public class BDEngineParser {
      * @throws IllegalArgumentException if inputStream is null
      */
     public List<ProjectElement> parseBDEngineInputStream(InputStream inputStream) throws BDEngineParsingException {
-        List<ProjectElement> rootElements = parseBDEngineInputStreamRaw(inputStream);
-        calculateWorldTransformsForElements(rootElements);
-        return rootElements;
+        return parse(ParseMetrics.Format.BDENGINE, ParseMetrics.Source.STREAM, true, probe -> bindBDEngineInputStream(inputStream, probe));
+    }
+
+    /**
+     * Parses .bdengine data held in a byte array AND calculates world transforms for all elements.
+     * The calculated transforms are stored in each {@link ProjectElement#getWorldTransform()}.
+     *
+     * @param data the base64 text of the .bdengine data as bytes
+     * @return a list of ProjectElement objects with their world transforms calculated
+     * @throws BDEngineParsingException if there is an error decoding, decompressing, or parsing the data
+     * @throws IllegalArgumentException if data is null
+     * @see #parseBDEngineBytesRaw(byte[])
+     */
+    public List<ProjectElement> parseBDEngineBytes(byte[] data) throws BDEngineParsingException {
+        return parse(ParseMetrics.Format.BDENGINE, ParseMetrics.Source.BYTES, true, probe -> bindBDEngineBytes(data, probe));
+    }
+
+    /**
+     * Parses .bdengine data held in a ByteBuffer AND calculates world transforms for all elements.
+     * The calculated transforms are stored in each {@link ProjectElement#getWorldTransform()}.
+     *
+     * @param buffer the base64 text of the .bdengine data as bytes
+     * @return a list of ProjectElement objects with their world transforms calculated
+     * @throws BDEngineParsingException if there is an error decoding, decompressing, or parsing the data
+     * @throws IllegalArgumentException if buffer is null
+     * @see #parseBDEngineBufferRaw(ByteBuffer)
+     */
+    public List<ProjectElement> parseBDEngineBuffer(ByteBuffer buffer) throws BDEngineParsingException {
+        return parse(ParseMetrics.Format.BDENGINE, ParseMetrics.Source.BYTES, true, probe -> bindBDEngineBuffer(buffer, probe));
+    }
+
+    /**
+     * Parses .bdengine data from a ReadableByteChannel AND calculates world transforms for all elements.
+     * The calculated transforms are stored in each {@link ProjectElement#getWorldTransform()}.
+     *
+     * @param channel the channel containing the .bdengine file data
+     * @return a list of ProjectElement objects with their world transforms calculated
+     * @throws BDEngineParsingException if there is an error reading or parsing the channel
+     * @throws IllegalArgumentException if channel is null
+     * @see #parseBDEngineChannelRaw(ReadableByteChannel)
+     */
+    public List<ProjectElement> parseBDEngineChannel(ReadableByteChannel channel) throws BDEngineParsingException {
+        return parse(ParseMetrics.Format.BDENGINE, ParseMetrics.Source.STREAM, true, probe -> bindBDEngineChannel(channel, probe));
+    }
+
+
+    // --- Visitor Methods (streaming, without building the element tree) ---
+
+    /**
+     * Reads a BDEngine project file from the specified file path and reports its elements to a visitor
+     * while the JSON is read, without building the element tree.
+     *
+     * @param filePath the path to the BDEngine project file
+     * @param visitor the receiver of the element events
+     * @throws BDEngineParsingException if there is an error reading or parsing the file
+     * @throws IllegalArgumentException if filePath is null or empty, or visitor is null
+     * @see ProjectElementVisitor
+     */
+    public void visitFromFile(String filePath, ProjectElementVisitor visitor) throws BDEngineParsingException {
+        if (filePath == null || filePath.trim().isEmpty()) {
+            throw new IllegalArgumentException("File path cannot be null or empty.");
+        }
+        if (visitor == null) {
+            throw new IllegalArgumentException("Visitor cannot be null.");
+        }
+        readJsonStream(openFile(filePath, "Error reading file: " + filePath),
+                "Error parsing JSON from file: Invalid JSON syntax.", "Error reading file: " + filePath,
+                reader -> streamElements(reader, visitor));
+    }
+
+    /**
+     * Reads a BDEngine project from the specified InputStream and reports its elements to a visitor
+     * while the JSON is read, without building the element tree.
+     *
+     * @param inputStream the InputStream containing the BDEngine project data
+     * @param visitor the receiver of the element events
+     * @throws BDEngineParsingException if there is an error reading or parsing the InputStream
+     * @throws IllegalArgumentException if inputStream or visitor is null
+     * @see ProjectElementVisitor
+     */
+    public void visitFromInputStream(InputStream inputStream, ProjectElementVisitor visitor) throws BDEngineParsingException {
+        if (inputStream == null) {
+            throw new IllegalArgumentException("Input stream cannot be null.");
+        }
+        if (visitor == null) {
+            throw new IllegalArgumentException("Visitor cannot be null.");
+        }
+        readJsonStream(inputStream,
+                "Error parsing JSON from input stream: Invalid JSON syntax.", "Error reading from input stream.",
+                reader -> streamElements(reader, visitor));
+    }
+
+    /**
+     * Reads a JSON string representing a BDEngine project and reports its elements to a visitor,
+     * without building the element tree.
+     *
+     * @param jsonString the JSON string to read
+     * @param visitor the receiver of the element events
+     * @throws BDEngineParsingException if there is an error parsing the JSON string
+     * @throws IllegalArgumentException if jsonString or visitor is null
+     * @see ProjectElementVisitor
+     */
+    public void visitJsonString(String jsonString, ProjectElementVisitor visitor) throws BDEngineParsingException {
+        if (jsonString == null) {
+            throw new IllegalArgumentException("JSON string cannot be null.");
+        }
+        if (visitor == null) {
+            throw new IllegalArgumentException("Visitor cannot be null.");
+        }
+        readJsonString(jsonString, reader -> streamElements(reader, visitor));
+    }
+
+    /**
+     * Reads a BDEngine file (.bdengine) from the specified file path and reports its elements to a visitor
+     * while the data is decoded, without building the element tree or holding the decoded JSON in memory.
+     *
+     * @param filePath the path to the .bdengine file
+     * @param visitor the receiver of the element events
+     * @throws BDEngineParsingException if there is an error reading or parsing the file
+     * @throws IllegalArgumentException if filePath is null or empty, or visitor is null
+     * @see ProjectElementVisitor
+     */
+    public void visitBDEngineFile(String filePath, ProjectElementVisitor visitor) throws BDEngineParsingException {
+        if (filePath == null || filePath.trim().isEmpty()) {
+            throw new IllegalArgumentException("File path cannot be null or empty.");
+        }
+        if (visitor == null) {
+            throw new IllegalArgumentException("Visitor cannot be null.");
+        }
+        readBDEngineRequired(openFile(filePath, "Error reading .bdengine file: " + filePath), Encoding.BASE64_MIME,
+                "Error reading .bdengine file: " + filePath, reader -> streamElements(reader, visitor));
+    }
+
+    /**
+     * Reads a base64-encoded, gzip-compressed JSON string (BDEngine format) and reports its elements to a visitor,
+     * without building the element tree.
+     *
+     * @param base64String the base64-encoded string containing gzip-compressed JSON data
+     * @param visitor the receiver of the element events
+     * @throws BDEngineParsingException if there is an error decoding, decompressing, or parsing the data
+     * @throws IllegalArgumentException if base64String or visitor is null
+     * @see ProjectElementVisitor
+     */
+    public void visitBDEngineString(String base64String, ProjectElementVisitor visitor) throws BDEngineParsingException {
+        if (base64String == null) {
+            throw new IllegalArgumentException("Base64 string cannot be null.");
+        }
+        if (visitor == null) {
+            throw new IllegalArgumentException("Visitor cannot be null.");
+        }
+        readBDEngineRequired(new ByteArrayInputStream(decodeBase64(base64String)), Encoding.GZIP,
+                "Error reading BDEngine data.", reader -> streamElements(reader, visitor));
+    }
+
+    /**
+     * Reads a BDEngine file (.bdengine) from the specified InputStream and reports its elements to a visitor
+     * while the data is decoded, without building the element tree or holding the decoded JSON in memory.
+     *
+     * @param inputStream the InputStream containing the .bdengine file data
+     * @param visitor the receiver of the element events
+     * @throws BDEngineParsingException if there is an error reading or parsing the InputStream
+     * @throws IllegalArgumentException if inputStream or visitor is null
+     * @see ProjectElementVisitor
+     */
+    public void visitBDEngineInputStream(InputStream inputStream, ProjectElementVisitor visitor) throws BDEngineParsingException {
+        if (inputStream == null) {
+            throw new IllegalArgumentException("Input stream cannot be null.");
+        }
+        if (visitor == null) {
+            throw new IllegalArgumentException("Visitor cannot be null.");
+        }
+        readBDEngineRequired(inputStream, Encoding.BASE64_MIME,
+                "Error reading .bdengine data from input stream.", reader -> streamElements(reader, visitor));
+    }
+
+    // --- Scan Methods (element statistics only) ---
+
+    /**
+     * Scans a BDEngine project file from the specified file path for its element counts and nesting depth.
+     * Only the children arrays and type flags are read; all other values are skipped without being bound or validated.
+     *
+     * @param filePath the path to the BDEngine project file
+     * @return the element counts and nesting depth of the project
+     * @throws BDEngineParsingException if there is an error reading or parsing the file
+     * @throws IllegalArgumentException if filePath is null or empty
+     */
+    public ProjectStats scanFromFile(String filePath) throws BDEngineParsingException {
+        if (filePath == null || filePath.trim().isEmpty()) {
+            throw new IllegalArgumentException("File path cannot be null or empty.");
+        }
+        return readJsonStream(openFile(filePath, "Error reading file: " + filePath),
+                "Error parsing JSON from file: Invalid JSON syntax.", "Error reading file: " + filePath,
+                this::scanElements);
+    }
+
+    /**
+     * Scans a BDEngine project from the specified InputStream for its element counts and nesting depth.
+     *
+     * @param inputStream the InputStream containing the BDEngine project data
+     * @return the element counts and nesting depth of the project
+     * @throws BDEngineParsingException if there is an error reading or parsing the InputStream
+     * @throws IllegalArgumentException if inputStream is null
+     */
+    public ProjectStats scanFromInputStream(InputStream inputStream) throws BDEngineParsingException {
+        if (inputStream == null) {
+            throw new IllegalArgumentException("Input stream cannot be null.");
+        }
+        return readJsonStream(inputStream,
+                "Error parsing JSON from input stream: Invalid JSON syntax.", "Error reading from input stream.",
+                this::scanElements);
+    }
+
+    /**
+     * Scans a JSON string representing a BDEngine project for its element counts and nesting depth.
+     *
+     * @param jsonString the JSON string to read
+     * @return the element counts and nesting depth of the project
+     * @throws BDEngineParsingException if there is an error parsing the JSON string
+     * @throws IllegalArgumentException if jsonString is null
+     */
+    public ProjectStats scanJsonString(String jsonString) throws BDEngineParsingException {
+        if (jsonString == null) {
+            throw new IllegalArgumentException("JSON string cannot be null.");
+        }
+        return readJsonString(jsonString, this::scanElements);
+    }
+
+    /**
+     * Scans a BDEngine file (.bdengine) from the specified file path for its element counts and nesting depth
+     * while the data is decoded, without binding the elements or holding the decoded JSON in memory.
+     *
+     * @param filePath the path to the .bdengine file
+     * @return the element counts and nesting depth of the project
+     * @throws BDEngineParsingException if there is an error reading or parsing the file
+     * @throws IllegalArgumentException if filePath is null or empty
+     */
+    public ProjectStats scanBDEngineFile(String filePath) throws BDEngineParsingException {
+        if (filePath == null || filePath.trim().isEmpty()) {
+            throw new IllegalArgumentException("File path cannot be null or empty.");
+        }
+        return readBDEngineRequired(openFile(filePath, "Error reading .bdengine file: " + filePath), Encoding.BASE64_MIME,
+                "Error reading .bdengine file: " + filePath, this::scanElements);
+    }
+
+    /**
+     * Scans a base64-encoded, gzip-compressed JSON string (BDEngine format) for its element counts and nesting depth.
+     *
+     * @param base64String the base64-encoded string containing gzip-compressed JSON data
+     * @return the element counts and nesting depth of the project
+     * @throws BDEngineParsingException if there is an error decoding, decompressing, or parsing the data
+     * @throws IllegalArgumentException if base64String is null
+     */
+    public ProjectStats scanBDEngineString(String base64String) throws BDEngineParsingException {
+        if (base64String == null) {
+            throw new IllegalArgumentException("Base64 string cannot be null.");
+        }
+        return readBDEngineRequired(new ByteArrayInputStream(decodeBase64(base64String)), Encoding.GZIP,
+                "Error reading BDEngine data.", this::scanElements);
+    }
+
+    /**
+     * Scans a BDEngine file (.bdengine) from the specified InputStream for its element counts and nesting depth
+     * while the data is decoded, without binding the elements or holding the decoded JSON in memory.
+     *
+     * @param inputStream the InputStream containing the .bdengine file data
+     * @return the element counts and nesting depth of the project
+     * @throws BDEngineParsingException if there is an error reading or parsing the InputStream
+     * @throws IllegalArgumentException if inputStream is null
+     */
+    public ProjectStats scanBDEngineInputStream(InputStream inputStream) throws BDEngineParsingException {
+        if (inputStream == null) {
+            throw new IllegalArgumentException("Input stream cannot be null.");
+        }
+        return readBDEngineRequired(inputStream, Encoding.BASE64_MIME,
+                "Error reading .bdengine data from input stream.", this::scanElements);
+    }
+
+    private static InputStream openFile(String filePath, String readErrorMessage) throws BDEngineParsingException {
+        return openFile(filePath, readErrorMessage, null);
+    }
+
+    private static InputStream openFile(String filePath, String readErrorMessage, ParseProbe probe) throws BDEngineParsingException {
+        try {
+            return FileInput.open(Paths.get(filePath), probe);
+        } catch (InvalidPathException e) {
+            throw new BDEngineParsingException("Invalid file path: " + filePath, e);
+        } catch (IOException e) {
+            throw new BDEngineParsingException(readErrorMessage, e);
+        }
+    }
+
+    private static byte[] decodeBase64(String base64String) throws BDEngineParsingException {
+        try {
+            return Base64.getDecoder().decode(base64String);
+        } catch (IllegalArgumentException e) {
+            throw new BDEngineParsingException("Invalid base64 encoding in BDEngine data.", e);
+        }
+    }
+
+    /**
+     * Hands a JSON stream to an action, closing the stream afterwards.
+     * @return the non-null result of the action
+     */
+    private <T> T readJsonStream(InputStream source, String syntaxErrorMessage, String readErrorMessage,
+                                 JsonReadAction<T> action) throws BDEngineParsingException {
+        T result;
+        try (Reader reader = new InputStreamReader(source, StandardCharsets.UTF_8)) {
+            result = action.read(reader);
+        } catch (JsonParseException e) {
+            throw new BDEngineParsingException(syntaxErrorMessage, e);
+        } catch (IOException e) {
+            throw new BDEngineParsingException(readErrorMessage, e);
+        }
+        if (result == null) {
+            throw new BDEngineParsingException("Parsed result is null. The JSON content might represent a null value.");
+        }
+        return result;
+    }
+
+    /**
+     * Hands a JSON string to an action.
+     * @return the non-null result of the action
+     */
+    private <T> T readJsonString(String jsonString, JsonReadAction<T> action) throws BDEngineParsingException {
+        T result;
+        try {
+            result = action.read(new StringReader(jsonString));
+        } catch (JsonParseException | IOException e) {
+            throw new BDEngineParsingException("Error parsing JSON string: Invalid JSON syntax.", e);
+        }
+        if (result == null) {
+            throw new BDEngineParsingException("Parsed result is null. The JSON might represent a null value or be empty in an unexpected way.");
+        }
+        return result;
+    }
+
+    /**
+     * Decodes .bdengine data like {@link #readBDEngineStream} and requires the action to produce a result.
+     * @return the non-null result of the action
+     */
+    private <T> T readBDEngineRequired(InputStream source, Encoding encoding, String readErrorMessage,
+                                       JsonReadAction<T> action) throws BDEngineParsingException {
+        T result = readBDEngineStream(source, encoding, readErrorMessage, null, action);
+        if (result == null) {
+            throw new BDEngineParsingException("Parsed result is null. The JSON content might represent a null value.");
+        }
+        return result;
+    }
+
+    /**
+     * Streams the elements of a JSON document to a visitor.
+     * @return TRUE, or null if the document is empty or a JSON null
+     */
+    private Boolean streamElements(Reader reader, ProjectElementVisitor visitor) throws IOException {
+        return elementStreamReader().read(newJsonReader(reader), visitor) ? Boolean.TRUE : null;
+    }
+
+    private ProjectStats scanElements(Reader reader) throws IOException {
+        return ProjectStatsScanner.scan(newJsonReader(reader));
+    }
+
+    /**
+     * Creates a JsonReader with the same leniency as {@link Gson#fromJson}.
+     */
+    private JsonReader newJsonReader(Reader reader) {
+        JsonReader jsonReader = gson.newJsonReader(reader);
+        if (jsonReader.getStrictness() == Strictness.LEGACY_STRICT) {
+            jsonReader.setStrictness(Strictness.LENIENT);
+        }
+        return jsonReader;
+    }
+
+    private ElementStreamReader elementStreamReader() {
+        ElementStreamReader reader = this.elementStreamReader;
+        if (reader == null) {
+            reader = new ElementStreamReader(gson, stringPool);
+            this.elementStreamReader = reader;
+        }
+        return reader;
     }
 
 
@@ -326,15 +1033,100 @@ public class BDEngineParser {
      * This method modifies the {@link ProjectElement} instances in the list by setting their
      * world transform via {@link ProjectElement#setWorldTransform(org.joml.Matrix4f)}.
      * The calculated transforms are relative to the world origin (0,0,0).
+     * With bounds tracking enabled, the same pass links every element to its parent and calculates its world
+     * bounds and the bounds of its subtree, see {@link #enableBoundsTracking()}.
      *
      * @param rootElements The list of root ProjectElements. If null or empty, the method does nothing.
      */
     public void calculateWorldTransformsForElements(List<ProjectElement> rootElements) {
         if (rootElements != null && !rootElements.isEmpty()) {
-            this.transformCalculator.calculateWorldTransforms(rootElements);
+            ForkJoinPool pool = this.transformPool;
+            if (pool != null) {
+                this.transformCalculator.calculateWorldTransformsParallel(rootElements, pool, this.parallelSplitThreshold,
+                        this.boundsTracking);
+            } else {
+                this.transformCalculator.calculateWorldTransforms(rootElements, false, this.boundsTracking);
+            }
         }
     }
 
+    /**
+     * Calculates world transforms for a pre-parsed list of ProjectElements on the given fork/join pool,
+     * regardless of whether parallel transforms are enabled on this parser.
+     * Subtrees holding more than {@code splitThreshold} elements are processed as separate tasks.
+     *
+     * @param rootElements The list of root ProjectElements. If null or empty, the method does nothing.
+     * @param pool the pool to run on
+     * @param splitThreshold the subtree size above which a subtree is split into parallel tasks
+     * @throws IllegalArgumentException if pool is null or splitThreshold is less than 1
+     */
+    public void calculateWorldTransformsForElements(List<ProjectElement> rootElements, ForkJoinPool pool, int splitThreshold) {
+        if (pool == null) {
+            throw new IllegalArgumentException("Fork/join pool cannot be null.");
+        }
+        if (rootElements != null && !rootElements.isEmpty()) {
+            this.transformCalculator.calculateWorldTransformsParallel(rootElements, pool, splitThreshold, this.boundsTracking);
+        }
+    }
+
+    /**
+     * Recalculates the world transforms and bounds of an element and its descendants after its local transform,
+     * type or children were edited, without visiting the rest of the project. The subtree bounds cached on the
+     * element's ancestors are invalidated and recomputed from their children on the next access.
+     * World transforms must have been calculated for the element's project before with bounds tracking enabled,
+     * or the project must have been read from a snapshot holding world transforms, so that the element is linked
+     * to its parent; elements added to a collection are linked by recalculating that collection.
+     *
+     * @param element the edited element
+     * @throws IllegalArgumentException if element is null, is not linked to its parent, or its parent has no world transform
+     */
+    public void recalculateWorldTransforms(ProjectElement element) {
+        if (element == null) {
+            throw new IllegalArgumentException("Element cannot be null.");
+        }
+        this.transformCalculator.recalculateSubtree(element);
+    }
+
+    /**
+     * Decomposes the world transform of every element into the translation, left rotation, scale and right
+     * rotation a display entity takes, and caches the result on the element, see
+     * {@link ProjectElement#getDisplayTransformation()}. Elements whose world transform is unchanged since the
+     * last decomposition are skipped. When parallel transforms are enabled, the elements are decomposed on the
+     * same pool.
+     * Run this after the world transforms were calculated; elements without a world transform are skipped.
+     *
+     * @param rootElements The list of root ProjectElements. If null or empty, the method does nothing.
+     * @return the largest reconstruction error of any element, see
+     *         {@link dev.twme.bdengineparser.model.DisplayTransformation#reconstructionError()}
+     */
+    public float decomposeWorldTransforms(List<ProjectElement> rootElements) {
+        if (rootElements == null || rootElements.isEmpty()) {
+            return 0;
+        }
+        ForkJoinPool pool = this.transformPool;
+        return pool != null
+                ? TransformDecomposer.decomposeParallel(rootElements, pool, this.parallelSplitThreshold)
+                : TransformDecomposer.decompose(rootElements);
+    }
+
+    /**
+     * Calculates world transforms for a pre-parsed list of ProjectElements and writes them into a flat array
+     * instead of storing them on the elements. No matrices are allocated per element.
+     * Each transform occupies 16 consecutive floats in column-major order, laid out in pre-order
+     * (each element followed by its descendants), so the array needs {@code 16 * getTotalElementCount(rootElements)} floats.
+     *
+     * @param rootElements The list of root ProjectElements. If null or empty, nothing is written.
+     * @param dest the array to write the transforms into, starting at index 0
+     * @return the number of transforms written
+     * @throws IllegalArgumentException if dest is too small to hold every transform
+     */
+    public int calculateWorldTransformsForElements(List<ProjectElement> rootElements, float[] dest) {
+        if (rootElements == null || rootElements.isEmpty()) {
+            return 0;
+        }
+        return this.transformCalculator.calculateWorldTransforms(rootElements, dest, 0);
+    }
+
     /**
      * Creates a 4x4 matrix representing a rotation around an arbitrary axis.
      * This can be used by clients of the library to construct custom transformations
@@ -370,6 +1162,7 @@ public class BDEngineParser {
     /**
      * Calculates the total number of elements (including all children recursively)
      * in a given list of root {@link ProjectElement}s.
+     * To count the elements of a document without parsing it, use one of the {@code scan...} methods.
      *
      * @param rootElements The list of root ProjectElement objects.
      * @return The total count of all elements. Returns 0 if the list is null or empty.
@@ -378,26 +1171,18 @@ public class BDEngineParser {
         if (rootElements == null || rootElements.isEmpty()) {
             return 0;
         }
+        // Iterative walk over pending sibling lists, so deep hierarchies cannot overflow the call stack.
         int count = 0;
-        for (ProjectElement element : rootElements) {
-            count += countElementsRecursive(element);
-        }
-        return count;
-    }
-
-    /**
-     * Helper method to recursively count an element and its children.
-     * @param element The current ProjectElement.
-     * @return The count of this element plus all its descendants.
-     */
-    private int countElementsRecursive(ProjectElement element) {
-        if (element == null) {
-            return 0;
-        }
-        int count = 1; // Count the current element
-        if (element.getChildren() != null) {
-            for (ProjectElement child : element.getChildren()) {
-                count += countElementsRecursive(child); // Add count of children
+        Deque<List<ProjectElement>> pending = new ArrayDeque<>();
+        pending.push(rootElements);
+        while (!pending.isEmpty()) {
+            for (ProjectElement element : pending.pop()) {
+                if (element == null) continue;
+                count++;
+                List<ProjectElement> children = element.getChildren();
+                if (children != null && !children.isEmpty()) {
+                    pending.push(children);
+                }
             }
         }
         return count;
@@ -0,0 +1,424 @@
+package dev.twme.bdengineparser;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import dev.twme.bdengineparser.diff.ProjectDiff;
+import dev.twme.bdengineparser.exception.BDEngineParsingException;
+import dev.twme.bdengineparser.model.ProjectElement;
+
+/**
+ * Keeps the projects in a directory tree loaded and reloads them when their files change.
+ * <p>
+ * The watcher uses a {@link WatchService} on one background daemon thread. Every {@code .bdengine} and
+ * {@code .json} file below the directory is parsed through a {@link BDEngineParseCache} on {@link #start()}.
+ * After that, a file is reloaded once it has not been written to for the debounce interval, so an editor
+ * saving in several writes causes a single reload. Files are read whole and parsed through the cache's
+ * content-keyed methods, so a file saved without changes, or reverted to an earlier version, is served
+ * from the cache. Listeners are notified only when the reloaded project differs from the previous one,
+ * together with a {@link ProjectDiff} of the changed elements.
+ * </p>
+ * <p>
+ * The current projects are held in a concurrent map and replaced as a whole on every reload, so
+ * {@link #getProject(Path)} never blocks and never sees a partially loaded project. The returned element lists
+ * are shared with listeners and later diffs and must not be modified; use
+ * {@link ProjectElement#deepCopy(List)} to edit them.
+ * </p>
+ * This class is thread-safe.
+ */
+public class BDEngineProjectWatcher implements AutoCloseable {
+
+    private static final Duration DEFAULT_DEBOUNCE = Duration.ofMillis(200);
+    private static final AtomicInteger THREAD_COUNTER = new AtomicInteger();
+
+    private final BDEngineParseCache cache;
+    private final Path directory;
+    private final long debounceNanos;
+    private final Map<Path, List<ProjectElement>> projects = new ConcurrentHashMap<>();
+    private final List<ReloadListener> listeners = new CopyOnWriteArrayList<>();
+
+    // Owned by the watcher thread after start.
+    private final Map<WatchKey, Path> watchedDirectories = new HashMap<>();
+    private final Map<Path, Long> deadlines = new HashMap<>();
+
+    private final Object lifecycle = new Object();
+    private WatchService watchService;
+    private Thread thread;
+    private volatile boolean closed;
+
+    /**
+     * Receives the changes of a watched directory.
+     * Methods are called on the watcher thread, or on the thread calling {@link #start()} for the initial load,
+     * one at a time. Exceptions thrown by a listener are passed to the thread's uncaught exception handler and
+     * do not stop the watcher.
+     */
+    public interface ReloadListener {
+        /**
+         * Called when a project was loaded for the first time or its contents changed.
+         * @param file the absolute path of the project file
+         * @param elements the new root elements with their world transforms calculated, which must not be modified
+         * @param changes the changes from the previous version; for a new file every element is reported as added
+         */
+        void onReload(Path file, List<ProjectElement> elements, ProjectDiff changes);
+
+        /**
+         * Called when a loaded project file was deleted or its directory was removed.
+         * The default implementation does nothing.
+         * @param file the absolute path of the project file
+         */
+        default void onRemove(Path file) {
+        }
+
+        /**
+         * Called when a file could not be read, parsed or compared with its previous version, or a directory could
+         * not be watched. The previous version of the project, if any, stays loaded. A file that is still being
+         * written is reloaded on its next change. The default implementation does nothing.
+         * @param file the absolute path of the file or directory
+         * @param error the reason
+         */
+        default void onFailure(Path file, BDEngineParsingException error) {
+        }
+    }
+
+    /**
+     * Constructs a watcher with a debounce interval of 200 milliseconds.
+     *
+     * @param cache the cache the project files are parsed through
+     * @param directory the directory to watch, including its subdirectories
+     * @throws IllegalArgumentException if an argument is null
+     */
+    public BDEngineProjectWatcher(BDEngineParseCache cache, Path directory) {
+        this(cache, directory, DEFAULT_DEBOUNCE);
+    }
+
+    /**
+     * Constructs a watcher.
+     *
+     * @param cache the cache the project files are parsed through
+     * @param directory the directory to watch, including its subdirectories
+     * @param debounce how long a file must stay unchanged before it is reloaded
+     * @throws IllegalArgumentException if an argument is null or debounce is negative
+     */
+    public BDEngineProjectWatcher(BDEngineParseCache cache, Path directory, Duration debounce) {
+        if (cache == null || directory == null || debounce == null) {
+            throw new IllegalArgumentException("Cache, directory and debounce cannot be null.");
+        }
+        if (debounce.isNegative()) {
+            throw new IllegalArgumentException("Debounce cannot be negative.");
+        }
+        this.cache = cache;
+        this.directory = directory.toAbsolutePath().normalize();
+        this.debounceNanos = debounce.toNanos();
+    }
+
+    /**
+     * Adds a listener. Listeners added before {@link #start()} also receive the initial load.
+     * @param listener the listener to add
+     * @throws IllegalArgumentException if listener is null
+     */
+    public void addListener(ReloadListener listener) {
+        if (listener == null) {
+            throw new IllegalArgumentException("Listener cannot be null.");
+        }
+        listeners.add(listener);
+    }
+
+    /**
+     * Removes a listener.
+     * @param listener the listener to remove
+     */
+    public void removeListener(ReloadListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Registers the directory tree, loads every project file in it on the calling thread and starts the
+     * watcher thread. Files that fail to load are reported to the listeners and do not stop the watcher.
+     *
+     * @throws BDEngineParsingException if the directory cannot be watched or listed
+     * @throws IllegalStateException if the watcher was already started or is closed
+     */
+    public void start() throws BDEngineParsingException {
+        synchronized (lifecycle) {
+            if (closed || watchService != null) {
+                throw new IllegalStateException("Watcher was already started or is closed.");
+            }
+            try {
+                watchService = directory.getFileSystem().newWatchService();
+            } catch (IOException e) {
+                throw new BDEngineParsingException("Error watching directory: " + directory, e);
+            }
+            // Register before listing, so files written during the initial load are reloaded afterwards.
+            List<Path> files = new ArrayList<>();
+            try {
+                registerTree(directory, files);
+            } catch (IOException | UncheckedIOException e) {
+                closeWatchService();
+                throw new BDEngineParsingException("Error watching directory: " + directory, e);
+            }
+            for (Path file : files) {
+                reload(file);
+            }
+            thread = new Thread(this::run, "bdengine-watcher-" + THREAD_COUNTER.incrementAndGet());
+            thread.setDaemon(true);
+            thread.start();
+        }
+    }
+
+    /**
+     * Gets the current version of a project.
+     * @param file the project file, relative to the working directory or absolute
+     * @return the root elements, which must not be modified, or null if the file is not loaded
+     * @throws IllegalArgumentException if file is null
+     */
+    public List<ProjectElement> getProject(Path file) {
+        if (file == null) {
+            throw new IllegalArgumentException("File cannot be null.");
+        }
+        return projects.get(file.toAbsolutePath().normalize());
+    }
+
+    /**
+     * Gets the current versions of all loaded projects.
+     * @return an unmodifiable snapshot mapping absolute file paths to root elements
+     */
+    public Map<Path, List<ProjectElement>> getProjects() {
+        return Map.copyOf(projects);
+    }
+
+    /**
+     * Gets the watched directory.
+     * @return the absolute path of the directory
+     */
+    public Path getDirectory() {
+        return directory;
+    }
+
+    /**
+     * Checks whether the watcher thread is running.
+     * @return true if the watcher was started and not closed
+     */
+    public boolean isRunning() {
+        Thread current = thread;
+        return !closed && current != null && current.isAlive();
+    }
+
+    /**
+     * Stops the watcher thread. Pending reloads are dropped; the loaded projects stay readable.
+     */
+    @Override
+    public void close() {
+        synchronized (lifecycle) {
+            closed = true;
+            closeWatchService();
+        }
+    }
+
+    // --- Watcher thread ---
+
+    private void run() {
+        try {
+            while (!closed) {
+                WatchKey key;
+                long next = nextDeadline();
+                if (next == Long.MAX_VALUE) {
+                    key = watchService.take();
+                } else {
+                    long wait = next - System.nanoTime();
+                    key = wait > 0 ? watchService.poll(wait, TimeUnit.NANOSECONDS) : watchService.poll();
+                }
+                while (key != null) {
+                    handle(key);
+                    key = watchService.poll();
+                }
+                reloadDue();
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // Closed.
+        }
+    }
+
+    private void handle(WatchKey key) {
+        Path dir = watchedDirectories.get(key);
+        if (dir == null) {
+            key.cancel();
+            return;
+        }
+        long deadline = System.nanoTime() + debounceNanos;
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                // Events were lost: recheck every loaded project and everything currently on disk.
+                for (Path file : projects.keySet()) deadlines.put(file, deadline);
+                rescan(directory, deadline);
+                continue;
+            }
+            Path path = dir.resolve((Path) event.context());
+            if (event.kind() == StandardWatchEventKinds.ENTRY_CREATE && Files.isDirectory(path)) {
+                rescan(path, deadline);
+            } else if (isProjectFile(path)) {
+                deadlines.put(path, deadline);
+            }
+        }
+        if (!key.reset()) {
+            // The directory is gone; so are the projects below it.
+            watchedDirectories.remove(key);
+            for (Path file : projects.keySet()) {
+                if (file.startsWith(dir)) deadlines.put(file, deadline);
+            }
+        }
+    }
+
+    private void rescan(Path dir, long deadline) {
+        List<Path> files = new ArrayList<>();
+        try {
+            registerTree(dir, files);
+        } catch (IOException | UncheckedIOException e) {
+            notifyFailure(dir, new BDEngineParsingException("Error watching directory: " + dir, e));
+        }
+        for (Path file : files) deadlines.put(file, deadline);
+    }
+
+    private long nextDeadline() {
+        long next = Long.MAX_VALUE;
+        for (long deadline : deadlines.values()) {
+            next = Math.min(next, deadline);
+        }
+        return next;
+    }
+
+    private void reloadDue() {
+        long now = System.nanoTime();
+        List<Path> due = new ArrayList<>();
+        for (Iterator<Map.Entry<Path, Long>> it = deadlines.entrySet().iterator(); it.hasNext(); ) {
+            Map.Entry<Path, Long> entry = it.next();
+            if (entry.getValue() - now <= 0) {
+                due.add(entry.getKey());
+                it.remove();
+            }
+        }
+        Collections.sort(due);
+        for (Path file : due) {
+            if (closed) return;
+            reload(file);
+        }
+    }
+
+    // --- Loading ---
+
+    private void registerTree(Path root, List<Path> files) throws IOException {
+        try (Stream<Path> walk = Files.walk(root)) {
+            for (Iterator<Path> it = walk.iterator(); it.hasNext(); ) {
+                Path path = it.next();
+                if (Files.isDirectory(path)) {
+                    // Registering a directory again returns its existing key.
+                    WatchKey key = path.register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                            StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE);
+                    watchedDirectories.put(key, path);
+                } else if (isProjectFile(path) && Files.isRegularFile(path)) {
+                    files.add(path);
+                }
+            }
+        }
+        Collections.sort(files);
+    }
+
+    private void reload(Path file) {
+        if (!Files.isRegularFile(file)) {
+            if (projects.remove(file) != null) {
+                for (ReloadListener listener : listeners) {
+                    try {
+                        listener.onRemove(file);
+                    } catch (RuntimeException e) {
+                        reportListenerFailure(e);
+                    }
+                }
+            }
+            return;
+        }
+        List<ProjectElement> previous = projects.get(file);
+        List<ProjectElement> elements;
+        ProjectDiff changes;
+        try {
+            byte[] content = Files.readAllBytes(file);
+            elements = isBDEngineFile(file) ? cache.parseBDEngineBytes(content) : cache.parseJsonBytes(content);
+            // Diffed inside the try as well: an exception escaping here would end the watcher thread.
+            changes = ProjectDiff.compute(previous != null ? previous : List.of(), elements);
+        } catch (IOException e) {
+            notifyFailure(file, new BDEngineParsingException("Error reading file: " + file, e));
+            return;
+        } catch (BDEngineParsingException e) {
+            notifyFailure(file, e);
+            return;
+        } catch (RuntimeException e) {
+            notifyFailure(file, new BDEngineParsingException("Error reloading file: " + file, e));
+            return;
+        }
+        if (previous != null && changes.isEmpty()) {
+            return;
+        }
+        List<ProjectElement> snapshot = Collections.unmodifiableList(elements);
+        projects.put(file, snapshot);
+        for (ReloadListener listener : listeners) {
+            try {
+                listener.onReload(file, snapshot, changes);
+            } catch (RuntimeException e) {
+                reportListenerFailure(e);
+            }
+        }
+    }
+
+    private void notifyFailure(Path file, BDEngineParsingException error) {
+        for (ReloadListener listener : listeners) {
+            try {
+                listener.onFailure(file, error);
+            } catch (RuntimeException e) {
+                reportListenerFailure(e);
+            }
+        }
+    }
+
+    private static void reportListenerFailure(RuntimeException e) {
+        Thread current = Thread.currentThread();
+        current.getUncaughtExceptionHandler().uncaughtException(current, e);
+    }
+
+    private void closeWatchService() {
+        if (watchService == null) return;
+        try {
+            watchService.close();
+        } catch (IOException e) {
+            // Nothing left to release.
+        }
+    }
+
+    private static boolean isProjectFile(Path file) {
+        Path name = file.getFileName();
+        if (name == null) return false;
+        String lower = name.toString().toLowerCase(Locale.ROOT);
+        return lower.endsWith(".bdengine") || lower.endsWith(".json");
+    }
+
+    private static boolean isBDEngineFile(Path file) {
+        return file.getFileName().toString().toLowerCase(Locale.ROOT).endsWith(".bdengine");
+    }
+}
@@ -0,0 +1,287 @@
+package dev.twme.bdengineparser;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+import java.util.Locale;
+
+import com.google.gson.Gson;
+
+import dev.twme.bdengineparser.exception.BDEngineParsingException;
+import dev.twme.bdengineparser.internal.FileInput;
+import dev.twme.bdengineparser.internal.SnapshotCodec;
+import dev.twme.bdengineparser.model.ProjectElement;
+
+/**
+ * Saves parsed projects in a compact, versioned binary snapshot format and loads them back.
+ * <p>
+ * Loading a snapshot skips base64 decoding, gzip inflation, JSON binding and, when the snapshot holds
+ * them, the world transform calculation: the file is read or memory-mapped and its string table, element
+ * records and matrices are bulk-copied into primitive arrays before the elements are rebuilt. This makes
+ * snapshots suitable for a warm cache directory that is reloaded on every start.
+ * </p>
+ * <p>
+ * World transforms are stored when every element of the project has one, as after
+ * {@link BDEngineParser#parseBDEngineFile(String)}, and are restored with it. When the parser has bounds
+ * tracking enabled, the parent links and bounds the transform calculation sets are restored too. Snapshots written by
+ * another version of the format are rejected by {@link #read(String)};
+ * {@link #loadOrParse(String, String)} falls back to parsing the source project instead and replaces
+ * the outdated snapshot.
+ * </p>
+ * This class is thread-safe.
+ */
+public class BDEngineSnapshot {
+
+    /**
+     * The snapshot format version written and read by this class.
+     */
+    public static final int FORMAT_VERSION = SnapshotCodec.FORMAT_VERSION;
+
+    private final BDEngineParser parser;
+    private final SnapshotCodec codec;
+
+    /**
+     * Creates a snapshot store that parses source projects with a default {@link BDEngineParser}.
+     */
+    public BDEngineSnapshot() {
+        this(new BDEngineParser());
+    }
+
+    /**
+     * Creates a snapshot store that parses source projects with the given parser.
+     * @param parser the parser used by {@link #loadOrParse(String, String)} when a snapshot cannot be used, whose
+     *               bounds tracking setting also applies to loaded snapshots
+     * @throws IllegalArgumentException if parser is null
+     */
+    public BDEngineSnapshot(BDEngineParser parser) {
+        if (parser == null) {
+            throw new IllegalArgumentException("Parser cannot be null.");
+        }
+        this.parser = parser;
+        this.codec = new SnapshotCodec(new Gson());
+    }
+
+    /**
+     * Checks whether the given bytes are a snapshot of the current {@link #FORMAT_VERSION}.
+     * Only the header is inspected.
+     * @param buffer the snapshot bytes between position and limit; the position is not changed
+     * @return true if the header matches the current format version
+     * @throws IllegalArgumentException if buffer is null
+     */
+    public static boolean isCurrentVersion(ByteBuffer buffer) {
+        if (buffer == null) {
+            throw new IllegalArgumentException("Buffer cannot be null.");
+        }
+        return SnapshotCodec.version(buffer) == FORMAT_VERSION;
+    }
+
+    /**
+     * Encodes a project as a snapshot.
+     * @param rootElements the root elements of the project
+     * @return the snapshot bytes
+     * @throws IllegalArgumentException if rootElements is null
+     */
+    public byte[] toBytes(List<ProjectElement> rootElements) {
+        return encode(rootElements).array();
+    }
+
+    /**
+     * Writes a project as a snapshot to the given stream. The stream is not closed.
+     * @param rootElements the root elements of the project
+     * @param outputStream the stream to write to
+     * @throws BDEngineParsingException if the snapshot cannot be written
+     * @throws IllegalArgumentException if rootElements or outputStream is null
+     */
+    public void write(List<ProjectElement> rootElements, OutputStream outputStream) throws BDEngineParsingException {
+        if (outputStream == null) {
+            throw new IllegalArgumentException("OutputStream cannot be null.");
+        }
+        try {
+            outputStream.write(toBytes(rootElements));
+        } catch (IOException e) {
+            throw new BDEngineParsingException("Error writing snapshot: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Writes a project as a snapshot file, creating missing parent directories.
+     * The snapshot is written to a temporary file that then replaces the target, so concurrent readers
+     * never see a partially written snapshot.
+     * @param rootElements the root elements of the project
+     * @param snapshotPath the snapshot file to write
+     * @throws BDEngineParsingException if the file cannot be written
+     * @throws IllegalArgumentException if rootElements is null or snapshotPath is null or empty
+     */
+    public void write(List<ProjectElement> rootElements, String snapshotPath) throws BDEngineParsingException {
+        Path target = toPath(snapshotPath);
+        ByteBuffer snapshot = encode(rootElements);
+        Path temporary = null;
+        try {
+            Path directory = target.toAbsolutePath().getParent();
+            if (directory != null) {
+                Files.createDirectories(directory);
+            }
+            temporary = Files.createTempFile(directory, target.getFileName().toString(), ".tmp");
+            try (OutputStream out = Files.newOutputStream(temporary);
+                 WritableByteChannel channel = Channels.newChannel(out)) {
+                while (snapshot.hasRemaining()) {
+                    channel.write(snapshot);
+                }
+            }
+            try {
+                Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+            temporary = null;
+        } catch (IOException e) {
+            throw new BDEngineParsingException("Error writing snapshot: " + snapshotPath, e);
+        } finally {
+            if (temporary != null) {
+                try {
+                    Files.deleteIfExists(temporary);
+                } catch (IOException ignored) {
+                    // The failure that got us here is more relevant.
+                }
+            }
+        }
+    }
+
+    /**
+     * Reads a project from snapshot bytes.
+     * @param data the snapshot bytes
+     * @return the root elements of the project, with world transforms if the snapshot holds them
+     * @throws BDEngineParsingException if the data is not a snapshot of the current version or is corrupt
+     * @throws IllegalArgumentException if data is null
+     */
+    public List<ProjectElement> read(byte[] data) throws BDEngineParsingException {
+        if (data == null) {
+            throw new IllegalArgumentException("Data cannot be null.");
+        }
+        return read(ByteBuffer.wrap(data));
+    }
+
+    /**
+     * Reads a project from a buffer holding a snapshot, such as a memory-mapped file.
+     * @param buffer the snapshot bytes between position and limit; the position is not changed
+     * @return the root elements of the project, with world transforms if the snapshot holds them
+     * @throws BDEngineParsingException if the data is not a snapshot of the current version or is corrupt
+     * @throws IllegalArgumentException if buffer is null
+     */
+    public List<ProjectElement> read(ByteBuffer buffer) throws BDEngineParsingException {
+        if (buffer == null) {
+            throw new IllegalArgumentException("Buffer cannot be null.");
+        }
+        try {
+            return codec.decode(buffer, parser.isBoundsTrackingEnabled());
+        } catch (IOException e) {
+            throw new BDEngineParsingException("Error reading snapshot: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Reads a project from a snapshot file.
+     * @param snapshotPath the snapshot file
+     * @return the root elements of the project, with world transforms if the snapshot holds them
+     * @throws BDEngineParsingException if the file cannot be read, is not a snapshot of the current version or is corrupt
+     * @throws IllegalArgumentException if snapshotPath is null or empty
+     */
+    public List<ProjectElement> read(String snapshotPath) throws BDEngineParsingException {
+        Path path = toPath(snapshotPath);
+        ByteBuffer buffer;
+        try {
+            buffer = FileInput.readFully(path);
+        } catch (IOException e) {
+            throw new BDEngineParsingException("Error reading file: " + snapshotPath, e);
+        }
+        return read(buffer);
+    }
+
+    /**
+     * Loads a project from its snapshot, or parses the source project and writes a new snapshot if the
+     * snapshot is missing, older than the source, of another format version or corrupt.
+     * Source files ending in {@code .bdengine} are parsed as native .bdengine data and all other files as
+     * JSON; parsed projects have their world transforms calculated, so the written snapshot holds them too.
+     * A snapshot that cannot be written does not fail the load.
+     * @param snapshotPath the snapshot file
+     * @param sourcePath the project file the snapshot was made from
+     * @return the root elements of the project with their world transforms
+     * @throws BDEngineParsingException if the snapshot cannot be used and the source cannot be read or parsed
+     * @throws IllegalArgumentException if snapshotPath or sourcePath is null or empty
+     */
+    public List<ProjectElement> loadOrParse(String snapshotPath, String sourcePath) throws BDEngineParsingException {
+        Path snapshot = toPath(snapshotPath);
+        Path source = toPath(sourcePath);
+        if (isUpToDate(snapshot, source)) {
+            try {
+                ByteBuffer buffer = FileInput.readFully(snapshot);
+                if (isCurrentVersion(buffer)) {
+                    List<ProjectElement> rootElements = codec.decode(buffer, parser.isBoundsTrackingEnabled());
+                    if (hasWorldTransforms(rootElements)) {
+                        return rootElements;
+                    }
+                }
+            } catch (IOException e) {
+                // Unreadable or corrupt snapshots are replaced below.
+            }
+        }
+
+        String name = source.getFileName() != null ? source.getFileName().toString() : "";
+        List<ProjectElement> rootElements = name.toLowerCase(Locale.ROOT).endsWith(".bdengine")
+                ? parser.parseBDEngineFile(sourcePath)
+                : parser.parseFromFile(sourcePath);
+        try {
+            write(rootElements, snapshotPath);
+        } catch (BDEngineParsingException e) {
+            // The project itself was loaded; a missing snapshot only costs the next load a parse.
+        }
+        return rootElements;
+    }
+
+    private ByteBuffer encode(List<ProjectElement> rootElements) {
+        if (rootElements == null) {
+            throw new IllegalArgumentException("Root elements cannot be null.");
+        }
+        return codec.encode(rootElements);
+    }
+
+    private static boolean isUpToDate(Path snapshot, Path source) {
+        try {
+            FileTime snapshotTime = Files.getLastModifiedTime(snapshot);
+            return snapshotTime.compareTo(Files.getLastModifiedTime(source)) >= 0;
+        } catch (IOException e) {
+            // Includes a missing snapshot.
+            return false;
+        }
+    }
+
+    private static boolean hasWorldTransforms(List<ProjectElement> rootElements) {
+        for (ProjectElement element : rootElements) {
+            if (element != null) {
+                return element.getWorldTransform() != null;
+            }
+        }
+        return true;
+    }
+
+    private static Path toPath(String filePath) throws BDEngineParsingException {
+        if (filePath == null || filePath.trim().isEmpty()) {
+            throw new IllegalArgumentException("File path cannot be null or empty.");
+        }
+        try {
+            return Paths.get(filePath);
+        } catch (InvalidPathException e) {
+            throw new BDEngineParsingException("Invalid file path: " + filePath, e);
+        }
+    }
+}
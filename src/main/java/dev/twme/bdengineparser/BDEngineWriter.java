@@ -0,0 +1,325 @@
+package dev.twme.bdengineparser;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.Deflater;
+
+import com.google.gson.Gson;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonWriter;
+
+import dev.twme.bdengineparser.internal.BDEngineCodec;
+import dev.twme.bdengineparser.model.CompiledProject;
+import dev.twme.bdengineparser.model.ProjectElement;
+
+/**
+ * Writes projects as JSON or as native .bdengine data that {@link BDEngineParser} reads back.
+ * <p>
+ * Elements are streamed through a {@link JsonWriter}; for .bdengine output the JSON text is
+ * gzip-compressed with a configurable {@link Deflater} level and base64-encoded on the fly, so the
+ * document is never held in memory as a whole. Null fields are omitted unless the Gson instance
+ * serializes nulls.
+ * </p>
+ * <p>
+ * A {@link CompiledProject} is written with the fields it keeps: the element type, name, NBT data and
+ * local transform. Its transforms are single precision, so they are written as the nearest doubles.
+ * </p>
+ * Methods that take an {@link OutputStream} or {@link Writer} flush it but do not close it.
+ * This class is thread-safe.
+ */
+public class BDEngineWriter {
+
+    private final Gson gson;
+    private final TypeAdapter<ProjectElement> elementAdapter;
+    private final int compressionLevel;
+
+    /**
+     * Creates a writer with the default model adapters and the default compression level.
+     */
+    public BDEngineWriter() {
+        this(Deflater.DEFAULT_COMPRESSION);
+    }
+
+    /**
+     * Creates a writer with the default model adapters and the given compression level.
+     * @param compressionLevel the {@link Deflater} level for .bdengine output, -1 for the default or 0 to 9
+     * @throws IllegalArgumentException if the compression level is out of range
+     */
+    public BDEngineWriter(int compressionLevel) {
+        this(BDEngineParser.defaultGsonBuilder().create(), compressionLevel);
+    }
+
+    /**
+     * Creates a writer that serializes elements with the given Gson instance.
+     * Its {@link ProjectElement} adapter and output settings, such as pretty printing, are used.
+     * @param gson the Gson instance to use
+     * @param compressionLevel the {@link Deflater} level for .bdengine output, -1 for the default or 0 to 9
+     * @throws IllegalArgumentException if gson is null or the compression level is out of range
+     */
+    public BDEngineWriter(Gson gson, int compressionLevel) {
+        if (gson == null) {
+            throw new IllegalArgumentException("Gson instance cannot be null.");
+        }
+        if (compressionLevel != Deflater.DEFAULT_COMPRESSION
+                && (compressionLevel < Deflater.NO_COMPRESSION || compressionLevel > Deflater.BEST_COMPRESSION)) {
+            throw new IllegalArgumentException("Compression level must be -1 or between 0 and 9.");
+        }
+        this.gson = gson;
+        this.elementAdapter = gson.getAdapter(ProjectElement.class);
+        this.compressionLevel = compressionLevel;
+    }
+
+    /**
+     * Gets the Deflater level used for .bdengine output.
+     * @return the compression level
+     */
+    public int getCompressionLevel() {
+        return compressionLevel;
+    }
+
+    // --- JSON ---
+
+    /**
+     * Writes elements as a JSON document.
+     * @param rootElements the root elements of the project
+     * @param writer the destination of the JSON text
+     * @throws IOException if the destination cannot be written
+     * @throws IllegalArgumentException if rootElements or writer is null
+     */
+    public void writeJson(List<ProjectElement> rootElements, Writer writer) throws IOException {
+        requireElements(rootElements);
+        requireWriter(writer);
+        writeElements(rootElements, writer);
+    }
+
+    /**
+     * Writes elements as a UTF-8 JSON document.
+     * @param rootElements the root elements of the project
+     * @param outputStream the destination of the JSON text
+     * @throws IOException if the destination cannot be written
+     * @throws IllegalArgumentException if rootElements or outputStream is null
+     */
+    public void writeJson(List<ProjectElement> rootElements, OutputStream outputStream) throws IOException {
+        requireElements(rootElements);
+        requireStream(outputStream);
+        writeElements(rootElements, new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Writes elements as a UTF-8 JSON file, replacing any existing file.
+     * @param rootElements the root elements of the project
+     * @param filePath the file to write
+     * @throws IOException if the file cannot be written
+     * @throws IllegalArgumentException if rootElements is null or filePath is null or empty
+     */
+    public void writeJsonFile(List<ProjectElement> rootElements, String filePath) throws IOException {
+        requireElements(rootElements);
+        try (OutputStream out = openFile(filePath)) {
+            writeJson(rootElements, out);
+        }
+    }
+
+    /**
+     * Writes a compiled project as a JSON document.
+     * @param project the compiled project
+     * @param writer the destination of the JSON text
+     * @throws IOException if the destination cannot be written
+     * @throws IllegalArgumentException if project or writer is null
+     */
+    public void writeJson(CompiledProject project, Writer writer) throws IOException {
+        requireProject(project);
+        requireWriter(writer);
+        writeCompiled(project, writer);
+    }
+
+    /**
+     * Writes a compiled project as a UTF-8 JSON document.
+     * @param project the compiled project
+     * @param outputStream the destination of the JSON text
+     * @throws IOException if the destination cannot be written
+     * @throws IllegalArgumentException if project or outputStream is null
+     */
+    public void writeJson(CompiledProject project, OutputStream outputStream) throws IOException {
+        requireProject(project);
+        requireStream(outputStream);
+        writeCompiled(project, new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Writes a compiled project as a UTF-8 JSON file, replacing any existing file.
+     * @param project the compiled project
+     * @param filePath the file to write
+     * @throws IOException if the file cannot be written
+     * @throws IllegalArgumentException if project is null or filePath is null or empty
+     */
+    public void writeJsonFile(CompiledProject project, String filePath) throws IOException {
+        requireProject(project);
+        try (OutputStream out = openFile(filePath)) {
+            writeJson(project, out);
+        }
+    }
+
+    // --- .bdengine ---
+
+    /**
+     * Writes elements as .bdengine data: base64-encoded, gzip-compressed JSON.
+     * @param rootElements the root elements of the project
+     * @param outputStream the destination of the base64 text
+     * @throws IOException if the destination cannot be written
+     * @throws IllegalArgumentException if rootElements or outputStream is null
+     */
+    public void writeBDEngine(List<ProjectElement> rootElements, OutputStream outputStream) throws IOException {
+        requireElements(rootElements);
+        requireStream(outputStream);
+        try (Writer writer = BDEngineCodec.openEncodingWriter(outputStream, compressionLevel)) {
+            writeElements(rootElements, writer);
+        }
+        outputStream.flush();
+    }
+
+    /**
+     * Writes elements as a .bdengine file, replacing any existing file.
+     * @param rootElements the root elements of the project
+     * @param filePath the file to write
+     * @throws IOException if the file cannot be written
+     * @throws IllegalArgumentException if rootElements is null or filePath is null or empty
+     */
+    public void writeBDEngineFile(List<ProjectElement> rootElements, String filePath) throws IOException {
+        requireElements(rootElements);
+        try (OutputStream out = openFile(filePath)) {
+            writeBDEngine(rootElements, out);
+        }
+    }
+
+    /**
+     * Writes a compiled project as .bdengine data: base64-encoded, gzip-compressed JSON.
+     * @param project the compiled project
+     * @param outputStream the destination of the base64 text
+     * @throws IOException if the destination cannot be written
+     * @throws IllegalArgumentException if project or outputStream is null
+     */
+    public void writeBDEngine(CompiledProject project, OutputStream outputStream) throws IOException {
+        requireProject(project);
+        requireStream(outputStream);
+        try (Writer writer = BDEngineCodec.openEncodingWriter(outputStream, compressionLevel)) {
+            writeCompiled(project, writer);
+        }
+        outputStream.flush();
+    }
+
+    /**
+     * Writes a compiled project as a .bdengine file, replacing any existing file.
+     * @param project the compiled project
+     * @param filePath the file to write
+     * @throws IOException if the file cannot be written
+     * @throws IllegalArgumentException if project is null or filePath is null or empty
+     */
+    public void writeBDEngineFile(CompiledProject project, String filePath) throws IOException {
+        requireProject(project);
+        try (OutputStream out = openFile(filePath)) {
+            writeBDEngine(project, out);
+        }
+    }
+
+    // --- Private Helper Methods ---
+
+    private void writeElements(List<ProjectElement> rootElements, Writer writer) throws IOException {
+        JsonWriter out = gson.newJsonWriter(writer);
+        out.beginArray();
+        for (ProjectElement element : rootElements) {
+            elementAdapter.write(out, element);
+        }
+        out.endArray();
+        out.flush();
+    }
+
+    /**
+     * Writes the pre-ordered elements of a compiled project, closing each element's children array
+     * once the next element is not one of its descendants.
+     */
+    private void writeCompiled(CompiledProject project, Writer writer) throws IOException {
+        JsonWriter out = gson.newJsonWriter(writer);
+        int[] open = new int[16];
+        int depth = 0;
+        float[] locals = project.getLocalTransformArray();
+        out.beginArray();
+        for (int i = 0; i < project.size(); i++) {
+            int parent = project.getParent(i);
+            while (depth > 0 && open[depth - 1] != parent) {
+                closeElement(out);
+                depth--;
+            }
+            byte type = project.getType(i);
+            out.beginObject();
+            if (type == CompiledProject.TYPE_COLLECTION) out.name("isCollection").value(true);
+            if (type == CompiledProject.TYPE_BLOCK_DISPLAY) out.name("isBlockDisplay").value(true);
+            if (type == CompiledProject.TYPE_ITEM_DISPLAY) out.name("isItemDisplay").value(true);
+            if (type == CompiledProject.TYPE_TEXT_DISPLAY) out.name("isTextDisplay").value(true);
+            out.name("name").value(project.getName(i));
+            out.name("nbt").value(project.getNbt(i));
+            out.name("transforms").beginArray();
+            for (int j = i * 16, end = j + 16; j < end; j++) {
+                out.value((double) locals[j]);
+            }
+            out.endArray();
+            if (type == CompiledProject.TYPE_COLLECTION || project.getFirstChild(i) != CompiledProject.NONE) {
+                out.name("children").beginArray();
+                if (depth == open.length) {
+                    open = Arrays.copyOf(open, depth * 2);
+                }
+                open[depth++] = i;
+            } else {
+                out.endObject();
+            }
+        }
+        for (; depth > 0; depth--) {
+            closeElement(out);
+        }
+        out.endArray();
+        out.flush();
+    }
+
+    private static void closeElement(JsonWriter out) throws IOException {
+        out.endArray();
+        out.endObject();
+    }
+
+    private static OutputStream openFile(String filePath) throws IOException {
+        if (filePath == null || filePath.trim().isEmpty()) {
+            throw new IllegalArgumentException("File path cannot be null or empty.");
+        }
+        return new BufferedOutputStream(Files.newOutputStream(Paths.get(filePath)));
+    }
+
+    private static void requireElements(List<ProjectElement> rootElements) {
+        if (rootElements == null) {
+            throw new IllegalArgumentException("Root elements cannot be null.");
+        }
+    }
+
+    private static void requireProject(CompiledProject project) {
+        if (project == null) {
+            throw new IllegalArgumentException("Compiled project cannot be null.");
+        }
+    }
+
+    private static void requireWriter(Writer writer) {
+        if (writer == null) {
+            throw new IllegalArgumentException("Writer cannot be null.");
+        }
+    }
+
+    private static void requireStream(OutputStream outputStream) {
+        if (outputStream == null) {
+            throw new IllegalArgumentException("OutputStream cannot be null.");
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package dev.twme.bdengineparser;
+
+import java.util.Arrays;
+
+import org.joml.Matrix4fc;
+
+import dev.twme.bdengineparser.model.CompiledProject;
+import dev.twme.bdengineparser.model.ProjectElement;
+
+/**
+ * A {@link ProjectElementVisitor} that compiles the visited project straight into a {@link CompiledProject},
+ * so a project can be flattened without its element tree ever being built.
+ * <pre>{@code
+ * CompiledProjectVisitor compiler = new CompiledProjectVisitor();
+ * parser.visitBDEngineFile("model.bdengine", compiler);
+ * CompiledProject project = compiler.build();
+ * }</pre>
+ * An instance compiles a single visit and is not thread-safe.
+ */
+public class CompiledProjectVisitor implements ProjectElementVisitor {
+
+    private final CompiledProject.Builder builder = new CompiledProject.Builder();
+    // indices[d] is the index of the open element at depth d.
+    private int[] indices = new int[16];
+
+    /**
+     * Creates a visitor with an empty project.
+     */
+    public CompiledProjectVisitor() {
+    }
+
+    @Override
+    public void enterElement(int depth) {
+        if (depth == indices.length) {
+            indices = Arrays.copyOf(indices, indices.length * 2);
+        }
+        int parent = depth == 0 ? CompiledProject.NONE : indices[depth - 1];
+        indices[depth] = builder.reserve(parent);
+    }
+
+    @Override
+    public void exitElement(ProjectElement element, Matrix4fc worldTransform, int depth) {
+        builder.set(indices[depth], CompiledProject.typeOf(element), element.getName(), element.getNbt(),
+                element.getTransformArray());
+    }
+
+    /**
+     * Builds the compiled project from the elements visited so far and computes its world transforms.
+     * @return the compiled project
+     */
+    public CompiledProject build() {
+        return builder.build();
+    }
+}
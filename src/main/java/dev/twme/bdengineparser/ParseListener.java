@@ -0,0 +1,35 @@
+package dev.twme.bdengineparser;
+
+import dev.twme.bdengineparser.exception.BDEngineParsingException;
+
+/**
+ * Receives the metrics of every parse run by a {@link BDEngineParser} it is registered on with
+ * {@link BDEngineParser#setParseListener(ParseListener)}.
+ * <p>
+ * The {@code parse...} methods report here; the visitor and scan methods do not. Listeners are called on the
+ * parsing thread after the parse has finished, so they should return quickly and must be thread-safe if the
+ * parser is shared. An exception thrown by a listener propagates to the caller of the parse method.
+ * </p>
+ * When no listener is registered, the parse pipeline runs without any instrumentation.
+ *
+ * @see ParseMetricsHistogram
+ */
+public interface ParseListener {
+
+    /**
+     * Called after a parse has completed successfully.
+     * @param metrics the timings, byte counts and element counts of the parse
+     */
+    void onParse(ParseMetrics metrics);
+
+    /**
+     * Called when a parse fails, before the exception is thrown to the caller.
+     * The metrics cover the work done up to the failure; element count and depth are 0.
+     * The default implementation does nothing.
+     *
+     * @param metrics the timings and byte counts up to the failure
+     * @param failure the exception the parse method is about to throw
+     */
+    default void onFailure(ParseMetrics metrics, BDEngineParsingException failure) {
+    }
+}
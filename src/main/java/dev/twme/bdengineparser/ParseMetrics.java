@@ -0,0 +1,65 @@
+package dev.twme.bdengineparser;
+
+/**
+ * Timings and sizes of one parse, as reported to a {@link ParseListener}.
+ * <p>
+ * Stage times are exclusive: the time spent reading the source is not included in the base64 time, the base64
+ * time is not included in the gzip time, and so on. Because each stage is timed around its read calls, the stage
+ * times add up to slightly less than {@link #totalNanos()}; the rest is call overhead and opening the source.
+ * Stages a format does not have, such as base64 and gzip for JSON, report 0.
+ * </p>
+ *
+ * @param format the format of the parsed data
+ * @param source the kind of input the data came from
+ * @param totalNanos the wall-clock time of the whole parse, including world transforms
+ * @param readNanos the time spent reading the source stream, 0 for String input
+ * @param base64Nanos the time spent decoding base64 text
+ * @param gzipNanos the time spent inflating gzip data
+ * @param bindNanos the time spent decoding UTF-8 and binding the JSON to elements
+ * @param transformNanos the time spent calculating world transforms, 0 for the {@code ...Raw} methods
+ * @param sourceBytes the bytes read from the source, or the characters of String input
+ * @param compressedBytes the gzip bytes inflated, 0 for JSON
+ * @param jsonBytes the bytes of JSON text bound, or the characters of a JSON String
+ * @param elementCount the number of parsed elements, including collections
+ * @param maxDepth the deepest nesting level, 1 when only root elements exist
+ * @param allocatedBytes the heap bytes allocated by the parsing thread, or -1 if the JVM does not measure it;
+ *                       allocations of parallel transform tasks on other threads are not included
+ */
+public record ParseMetrics(Format format, Source source,
+                           long totalNanos, long readNanos, long base64Nanos, long gzipNanos,
+                           long bindNanos, long transformNanos,
+                           long sourceBytes, long compressedBytes, long jsonBytes,
+                           int elementCount, int maxDepth, long allocatedBytes) {
+
+    /**
+     * The format of parsed data.
+     */
+    public enum Format {
+        /** Plain JSON text. */
+        JSON,
+        /** Base64-encoded, gzip-compressed JSON text. */
+        BDENGINE
+    }
+
+    /**
+     * The kind of input parsed data came from.
+     */
+    public enum Source {
+        /** A file path. */
+        FILE,
+        /** An InputStream or ReadableByteChannel. */
+        STREAM,
+        /** A String. */
+        STRING,
+        /** A byte array or ByteBuffer. */
+        BYTES
+    }
+
+    /**
+     * Returns how many bytes of JSON each compressed byte inflated to.
+     * @return the ratio of JSON bytes to compressed bytes, or 0 for JSON
+     */
+    public double compressionRatio() {
+        return compressedBytes > 0 ? (double) jsonBytes / compressedBytes : 0;
+    }
+}
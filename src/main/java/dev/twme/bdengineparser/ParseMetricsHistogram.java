@@ -0,0 +1,304 @@
+package dev.twme.bdengineparser;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+
+import dev.twme.bdengineparser.exception.BDEngineParsingException;
+
+/**
+ * A {@link ParseListener} that aggregates parse metrics into fixed-bucket histograms, for export to a
+ * monitoring system.
+ * <p>
+ * Every successful parse is observed in one histogram per {@link Metric}: the total duration, the exclusive
+ * duration of each pipeline stage, the byte counts, the element count, the nesting depth and the allocation
+ * estimate. Stages and byte counts a format does not have, such as gzip for JSON, are not observed, and neither
+ * is an unknown allocation estimate. Failed parses are only counted.
+ * </p>
+ * <p>
+ * {@link #writePrometheus(Appendable)} renders all histograms in the Prometheus text exposition format, so a
+ * metrics endpoint can serve it directly; {@link #snapshot(Metric)} gives the raw bucket counts for other
+ * exporters. Recording costs a binary search and a few atomic increments per histogram and never blocks.
+ * </p>
+ * This class is thread-safe.
+ */
+public class ParseMetricsHistogram implements ParseListener {
+
+    private static final double[] SECONDS_BUCKETS = {
+            0.0001, 0.00025, 0.0005, 0.001, 0.0025, 0.005, 0.01, 0.025, 0.05, 0.1, 0.25, 0.5, 1, 2.5, 5, 10
+    };
+    private static final double[] BYTES_BUCKETS = exponential(1024, 4, 11);
+    private static final double[] ELEMENT_BUCKETS = exponential(1, 10, 8);
+    private static final double[] DEPTH_BUCKETS = exponential(1, 2, 9);
+
+    /**
+     * The quantities recorded per parse, each in its own histogram.
+     */
+    public enum Metric {
+        /** The total parse duration in seconds. */
+        TOTAL_SECONDS("bdengine_parse_duration_seconds", null, "Total duration of a parse, including world transforms.", SECONDS_BUCKETS),
+        /** The time spent reading the source in seconds. */
+        READ_SECONDS("bdengine_parse_stage_duration_seconds", "read", "Exclusive duration of a parse pipeline stage.", SECONDS_BUCKETS),
+        /** The time spent decoding base64 in seconds. */
+        BASE64_SECONDS("bdengine_parse_stage_duration_seconds", "base64", "Exclusive duration of a parse pipeline stage.", SECONDS_BUCKETS),
+        /** The time spent inflating gzip data in seconds. */
+        GZIP_SECONDS("bdengine_parse_stage_duration_seconds", "gzip", "Exclusive duration of a parse pipeline stage.", SECONDS_BUCKETS),
+        /** The time spent binding JSON in seconds. */
+        BIND_SECONDS("bdengine_parse_stage_duration_seconds", "bind", "Exclusive duration of a parse pipeline stage.", SECONDS_BUCKETS),
+        /** The time spent calculating world transforms in seconds. */
+        TRANSFORM_SECONDS("bdengine_parse_stage_duration_seconds", "transform", "Exclusive duration of a parse pipeline stage.", SECONDS_BUCKETS),
+        /** The bytes read from the source. */
+        SOURCE_BYTES("bdengine_parse_source_bytes", null, "Bytes read from the source of a parse.", BYTES_BUCKETS),
+        /** The gzip bytes inflated. */
+        COMPRESSED_BYTES("bdengine_parse_compressed_bytes", null, "Gzip bytes inflated by a .bdengine parse.", BYTES_BUCKETS),
+        /** The bytes of JSON text bound. */
+        JSON_BYTES("bdengine_parse_json_bytes", null, "Bytes of JSON text bound by a parse.", BYTES_BUCKETS),
+        /** The number of parsed elements. */
+        ELEMENTS("bdengine_parse_elements", null, "Elements produced by a parse.", ELEMENT_BUCKETS),
+        /** The deepest nesting level. */
+        DEPTH("bdengine_parse_depth", null, "Deepest element nesting level of a parse.", DEPTH_BUCKETS),
+        /** The heap bytes allocated by the parsing thread. */
+        ALLOCATED_BYTES("bdengine_parse_allocated_bytes", null, "Heap bytes allocated by the parsing thread.", BYTES_BUCKETS);
+
+        private final String family;
+        private final String stage;
+        private final String help;
+        private final double[] upperBounds;
+
+        Metric(String family, String stage, String help, double[] upperBounds) {
+            this.family = family;
+            this.stage = stage;
+            this.help = help;
+            this.upperBounds = upperBounds;
+        }
+    }
+
+    /**
+     * The state of one histogram at a point in time.
+     *
+     * @param upperBounds the inclusive upper bound of each bucket except the last, which is unbounded
+     * @param bucketCounts the number of observations per bucket, one more than there are upper bounds
+     * @param count the total number of observations
+     * @param sum the sum of all observed values
+     */
+    public record HistogramSnapshot(double[] upperBounds, long[] bucketCounts, long count, double sum) {
+
+        /**
+         * Returns the mean of the observed values.
+         * @return the mean, or 0 if nothing was observed
+         */
+        public double mean() {
+            return count > 0 ? sum / count : 0;
+        }
+
+        /**
+         * Estimates a quantile from the bucket counts by linear interpolation within its bucket.
+         * Values in the unbounded bucket are estimated as the highest upper bound.
+         * @param q the quantile, between 0 and 1
+         * @return the estimated value, or 0 if nothing was observed
+         * @throws IllegalArgumentException if q is not between 0 and 1
+         */
+        public double quantile(double q) {
+            if (!(q >= 0 && q <= 1)) {
+                throw new IllegalArgumentException("Quantile must be between 0 and 1.");
+            }
+            if (count == 0) {
+                return 0;
+            }
+            double rank = q * count;
+            long seen = 0;
+            for (int i = 0; i < upperBounds.length; i++) {
+                if (bucketCounts[i] > 0 && seen + bucketCounts[i] >= rank) {
+                    double lower = i == 0 ? 0 : upperBounds[i - 1];
+                    return lower + (upperBounds[i] - lower) * ((rank - seen) / bucketCounts[i]);
+                }
+                seen += bucketCounts[i];
+            }
+            return upperBounds[upperBounds.length - 1];
+        }
+    }
+
+    private final Map<Metric, Histogram> histograms = new EnumMap<>(Metric.class);
+    private final LongAdder parses = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+
+    /**
+     * Creates an empty set of histograms.
+     */
+    public ParseMetricsHistogram() {
+        for (Metric metric : Metric.values()) {
+            histograms.put(metric, new Histogram(metric.upperBounds));
+        }
+    }
+
+    @Override
+    public void onParse(ParseMetrics metrics) {
+        parses.increment();
+        boolean bdengine = metrics.format() == ParseMetrics.Format.BDENGINE;
+        observeSeconds(Metric.TOTAL_SECONDS, metrics.totalNanos());
+        if (metrics.source() != ParseMetrics.Source.STRING) {
+            observeSeconds(Metric.READ_SECONDS, metrics.readNanos());
+        }
+        if (bdengine) {
+            observeSeconds(Metric.BASE64_SECONDS, metrics.base64Nanos());
+            observeSeconds(Metric.GZIP_SECONDS, metrics.gzipNanos());
+            histograms.get(Metric.COMPRESSED_BYTES).observe(metrics.compressedBytes());
+        }
+        observeSeconds(Metric.BIND_SECONDS, metrics.bindNanos());
+        if (metrics.transformNanos() > 0) {
+            observeSeconds(Metric.TRANSFORM_SECONDS, metrics.transformNanos());
+        }
+        histograms.get(Metric.SOURCE_BYTES).observe(metrics.sourceBytes());
+        histograms.get(Metric.JSON_BYTES).observe(metrics.jsonBytes());
+        histograms.get(Metric.ELEMENTS).observe(metrics.elementCount());
+        histograms.get(Metric.DEPTH).observe(metrics.maxDepth());
+        if (metrics.allocatedBytes() >= 0) {
+            histograms.get(Metric.ALLOCATED_BYTES).observe(metrics.allocatedBytes());
+        }
+    }
+
+    @Override
+    public void onFailure(ParseMetrics metrics, BDEngineParsingException failure) {
+        failures.increment();
+    }
+
+    /**
+     * Gets the number of successful parses recorded.
+     * @return the number of successful parses
+     */
+    public long getParseCount() {
+        return parses.sum();
+    }
+
+    /**
+     * Gets the number of failed parses recorded.
+     * @return the number of failed parses
+     */
+    public long getFailureCount() {
+        return failures.sum();
+    }
+
+    /**
+     * Takes a snapshot of one histogram.
+     * @param metric the recorded quantity
+     * @return the current bucket counts, count and sum
+     * @throws IllegalArgumentException if metric is null
+     */
+    public HistogramSnapshot snapshot(Metric metric) {
+        if (metric == null) {
+            throw new IllegalArgumentException("Metric cannot be null.");
+        }
+        return histograms.get(metric).snapshot();
+    }
+
+    /**
+     * Writes all histograms and counters in the Prometheus text exposition format (version 0.0.4).
+     * Stage durations share the {@code bdengine_parse_stage_duration_seconds} family with a {@code stage} label.
+     * @param out the destination of the text
+     * @throws IOException if the destination cannot be written
+     * @throws IllegalArgumentException if out is null
+     */
+    public void writePrometheus(Appendable out) throws IOException {
+        if (out == null) {
+            throw new IllegalArgumentException("Output cannot be null.");
+        }
+        writeCounter(out, "bdengine_parses_total", "Successful parses.", parses.sum());
+        writeCounter(out, "bdengine_parse_failures_total", "Failed parses.", failures.sum());
+        String family = null;
+        for (Metric metric : Metric.values()) {
+            if (!metric.family.equals(family)) {
+                family = metric.family;
+                out.append("# HELP ").append(family).append(' ').append(metric.help).append('\n');
+                out.append("# TYPE ").append(family).append(" histogram\n");
+            }
+            String labels = metric.stage != null ? "stage=\"" + metric.stage + "\"," : "";
+            HistogramSnapshot snapshot = histograms.get(metric).snapshot();
+            long cumulative = 0;
+            for (int i = 0; i < snapshot.bucketCounts().length; i++) {
+                cumulative += snapshot.bucketCounts()[i];
+                String bound = i < snapshot.upperBounds().length ? format(snapshot.upperBounds()[i]) : "+Inf";
+                out.append(family).append("_bucket{").append(labels).append("le=\"").append(bound).append("\"} ")
+                        .append(Long.toString(cumulative)).append('\n');
+            }
+            String suffixLabels = metric.stage != null ? "{stage=\"" + metric.stage + "\"}" : "";
+            out.append(family).append("_sum").append(suffixLabels).append(' ').append(Double.toString(snapshot.sum())).append('\n');
+            out.append(family).append("_count").append(suffixLabels).append(' ').append(Long.toString(snapshot.count())).append('\n');
+        }
+    }
+
+    /**
+     * Renders all histograms and counters in the Prometheus text exposition format.
+     * @return the exposition text
+     * @see #writePrometheus(Appendable)
+     */
+    public String toPrometheusText() {
+        StringBuilder text = new StringBuilder(8192);
+        try {
+            writePrometheus(text);
+        } catch (IOException e) {
+            // A StringBuilder does not throw.
+            throw new UncheckedIOException(e);
+        }
+        return text.toString();
+    }
+
+    private void observeSeconds(Metric metric, long nanos) {
+        histograms.get(metric).observe(nanos / 1e9);
+    }
+
+    private static void writeCounter(Appendable out, String name, String help, long value) throws IOException {
+        out.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        out.append("# TYPE ").append(name).append(" counter\n");
+        out.append(name).append(' ').append(Long.toString(value)).append('\n');
+    }
+
+    private static String format(double bound) {
+        return BigDecimal.valueOf(bound).stripTrailingZeros().toPlainString();
+    }
+
+    private static double[] exponential(double start, double factor, int count) {
+        double[] bounds = new double[count];
+        double bound = start;
+        for (int i = 0; i < count; i++) {
+            bounds[i] = bound;
+            bound *= factor;
+        }
+        return bounds;
+    }
+
+    /**
+     * Lock-free bucket counts of one quantity.
+     */
+    private static final class Histogram {
+        private final double[] upperBounds;
+        private final AtomicLongArray buckets;
+        private final DoubleAdder sum = new DoubleAdder();
+
+        Histogram(double[] upperBounds) {
+            this.upperBounds = upperBounds;
+            this.buckets = new AtomicLongArray(upperBounds.length + 1);
+        }
+
+        void observe(double value) {
+            int index = Arrays.binarySearch(upperBounds, value);
+            buckets.incrementAndGet(index >= 0 ? index : -index - 1);
+            sum.add(value);
+        }
+
+        HistogramSnapshot snapshot() {
+            long[] counts = new long[buckets.length()];
+            long count = 0;
+            for (int i = 0; i < counts.length; i++) {
+                counts[i] = buckets.get(i);
+                count += counts[i];
+            }
+            return new HistogramSnapshot(upperBounds.clone(), counts, count, sum.sum());
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package dev.twme.bdengineparser;
+
+import org.joml.Matrix4fc;
+
+import dev.twme.bdengineparser.model.ProjectElement;
+import dev.twme.bdengineparser.model.TextOptions;
+
+/**
+ * Receives the elements of a BDEngine project as events while the JSON is being read,
+ * without the element tree ever being built. Used with the {@code visit...} methods of {@link BDEngineParser}.
+ * <p>
+ * For every element, {@link #enterElement(int)} is called first and {@link #exitElement(ProjectElement, Matrix4fc, int)}
+ * last; the events of its children are reported in between. The other callbacks are reported in between
+ * as well, in the order their fields appear in the document, and only for fields that are present and not null.
+ * The world transform passed to the callbacks is computed incrementally from the enclosing elements,
+ * so the memory used by a visit grows only with the nesting depth of the project.
+ * </p>
+ * <p>
+ * Matrices passed to the callbacks are scratch storage that is reused for later elements and must be
+ * copied if retained. Every method has an empty default implementation, so implementations only override
+ * the events they need.
+ * </p>
+ */
+public interface ProjectElementVisitor {
+
+    /**
+     * Called when an element starts.
+     * @param depth the nesting depth of the element, 0 for root elements
+     */
+    default void enterElement(int depth) {
+    }
+
+    /**
+     * Called with the name of the current element.
+     * @param name the element name
+     * @param depth the nesting depth of the element
+     */
+    default void onName(String name, int depth) {
+    }
+
+    /**
+     * Called with the NBT data of the current element.
+     * @param nbt the NBT string
+     * @param depth the nesting depth of the element
+     */
+    default void onNbt(String nbt, int depth) {
+    }
+
+    /**
+     * Called once the transform of the current element is known, before the events of its children.
+     * @param localTransform the transform of the element relative to its parent
+     * @param worldTransform the transform of the element relative to the world origin
+     * @param depth the nesting depth of the element
+     */
+    default void onTransform(Matrix4fc localTransform, Matrix4fc worldTransform, int depth) {
+    }
+
+    /**
+     * Called with the text display options of the current element.
+     * @param options the text options
+     * @param depth the nesting depth of the element
+     */
+    default void onTextOptions(TextOptions options, int depth) {
+    }
+
+    /**
+     * Called when an element ends, after the events of all of its children.
+     * @param element the fields of the element; its children are never populated and its world transform is not set
+     * @param worldTransform the transform of the element relative to the world origin
+     * @param depth the nesting depth of the element
+     */
+    default void exitElement(ProjectElement element, Matrix4fc worldTransform, int depth) {
+    }
+}
@@ -0,0 +1,34 @@
+package dev.twme.bdengineparser;
+
+/**
+ * Element counts and nesting depth of a project, as produced by the {@code scan...} methods of
+ * {@link BDEngineParser} without binding the elements.
+ * Each element is counted under a single type, with the same precedence as
+ * {@link dev.twme.bdengineparser.model.CompiledProject#typeOf}: collection, block display, item display, text display.
+ *
+ * @param elementCount the total number of elements, including collections
+ * @param maxDepth the deepest nesting level, 1 when only root elements exist and 0 for an empty project
+ * @param collectionCount the number of collection elements
+ * @param blockDisplayCount the number of block display elements
+ * @param itemDisplayCount the number of item display elements
+ * @param textDisplayCount the number of text display elements
+ */
+public record ProjectStats(int elementCount, int maxDepth, int collectionCount,
+                           int blockDisplayCount, int itemDisplayCount, int textDisplayCount) {
+
+    /**
+     * Returns the number of elements that declare none of the known types.
+     * @return the number of untyped elements
+     */
+    public int otherCount() {
+        return elementCount - collectionCount - blockDisplayCount - itemDisplayCount - textDisplayCount;
+    }
+
+    /**
+     * Returns the number of display entities the project spawns, i.e. every element except collections.
+     * @return the number of display elements
+     */
+    public int displayCount() {
+        return blockDisplayCount + itemDisplayCount + textDisplayCount;
+    }
+}
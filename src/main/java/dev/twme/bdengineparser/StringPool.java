@@ -0,0 +1,131 @@
+package dev.twme.bdengineparser;
+
+import java.lang.ref.WeakReference;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Deduplicates the strings of parsed projects, so that equal names, NBT data and texture values share a
+ * single instance. Player-head textures in particular are long base64 values that repeat across many
+ * elements and projects.
+ * <p>
+ * A pool is applied while deserializing when it is passed to {@link BDEngineParser#BDEngineParser(StringPool)}.
+ * The same pool can be shared by several parsers to deduplicate across everything they load.
+ * Entries are weakly referenced: a pooled string is dropped once no parsed project uses it anymore,
+ * so a pool never keeps projects' data alive by itself.
+ * </p>
+ * The pool is split into independently locked stripes and is safe for concurrent use.
+ */
+public final class StringPool {
+
+    private static final int STRIPE_COUNT = 16;
+    // Approximate size of a String object plus the header of its backing array.
+    private static final int STRING_OVERHEAD_BYTES = 40;
+
+    private final Stripe[] stripes = new Stripe[STRIPE_COUNT];
+    private final LongAdder lookups = new LongAdder();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder bytesSaved = new LongAdder();
+
+    /**
+     * Pool statistics since creation or the last {@link #clear()}.
+     *
+     * @param lookups the number of strings passed through the pool
+     * @param hits the number of lookups that returned an already pooled instance
+     * @param entryCount the number of distinct strings currently pooled
+     * @param bytesSaved the estimated heap bytes of the duplicate strings that were replaced
+     */
+    public record PoolStats(long lookups, long hits, int entryCount, long bytesSaved) {
+    }
+
+    /**
+     * Creates an empty pool.
+     */
+    public StringPool() {
+        for (int i = 0; i < STRIPE_COUNT; i++) {
+            stripes[i] = new Stripe();
+        }
+    }
+
+    /**
+     * Returns the pooled instance equal to the given string, adding the string if there is none.
+     *
+     * @param value the string to deduplicate, may be null
+     * @return the pooled instance, or null if value is null
+     */
+    public String intern(String value) {
+        if (value == null) {
+            return null;
+        }
+        lookups.increment();
+        Stripe stripe = stripes[spread(value.hashCode()) & (STRIPE_COUNT - 1)];
+        String pooled;
+        synchronized (stripe) {
+            WeakReference<String> reference = stripe.entries.get(value);
+            pooled = reference != null ? reference.get() : null;
+            if (pooled == null) {
+                stripe.entries.put(value, new WeakReference<>(value));
+                return value;
+            }
+        }
+        if (pooled != value) {
+            hits.increment();
+            bytesSaved.add(estimateSize(value));
+        }
+        return pooled;
+    }
+
+    /**
+     * Returns the current statistics of the pool.
+     * @return the pool statistics
+     */
+    public PoolStats stats() {
+        int entries = 0;
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                entries += stripe.entries.size();
+            }
+        }
+        return new PoolStats(lookups.sum(), hits.sum(), entries, bytesSaved.sum());
+    }
+
+    /**
+     * Removes every pooled string and resets the statistics. Strings already returned are unaffected.
+     */
+    public void clear() {
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                stripe.entries.clear();
+            }
+        }
+        lookups.reset();
+        hits.reset();
+        bytesSaved.reset();
+    }
+
+    private static int spread(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+
+    /**
+     * Estimates the heap footprint of a string, using one byte per character for Latin-1 content
+     * and two otherwise, like the JVM's compact strings.
+     */
+    private static long estimateSize(String value) {
+        int length = value.length();
+        for (int i = 0; i < length; i++) {
+            if (value.charAt(i) > 0xFF) {
+                return STRING_OVERHEAD_BYTES + 2L * length;
+            }
+        }
+        return STRING_OVERHEAD_BYTES + length;
+    }
+
+    /**
+     * One independently locked part of the pool.
+     */
+    private static final class Stripe {
+        private final Map<String, WeakReference<String>> entries = new WeakHashMap<>();
+    }
+}
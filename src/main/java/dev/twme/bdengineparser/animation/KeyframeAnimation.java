@@ -0,0 +1,379 @@
+package dev.twme.bdengineparser.animation;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.joml.Matrix4fc;
+
+import dev.twme.bdengineparser.internal.MatrixDecomposition;
+import dev.twme.bdengineparser.model.CompiledProject;
+import dev.twme.bdengineparser.model.ProjectElement;
+
+/**
+ * An animation that interpolates between several versions of the same rig, such as a model exported once
+ * per pose.
+ * <p>
+ * Every element's local transform in every keyframe is decomposed once into a translation, a rotation
+ * quaternion and a symmetric stretch matrix (the polar decomposition, which covers non-uniform scale,
+ * shear and mirroring), stored in flat {@code float} arrays. {@link #sample(float, float[], int)} interpolates
+ * the translation and stretch linearly and the rotation spherically, rebuilds the local transforms and
+ * multiplies them down the hierarchy in one linear pass, writing world transforms in the layout of
+ * {@link CompiledProject#getWorldTransformArray()}. Sampling allocates nothing, and at a keyframe time it
+ * reproduces that keyframe's world transforms.
+ * </p>
+ * <p>
+ * Interpolating local transforms rather than world transforms keeps children attached to their parents:
+ * an arm swinging around the shoulder moves the hand along an arc. Transforms are assumed to be affine.
+ * </p>
+ * An animation is immutable; any number of threads can sample it at the same time into their own buffers.
+ */
+public final class KeyframeAnimation {
+
+    private static final int MATRIX_SIZE = 16;
+    /** Below this angle between keyframe rotations, normalized linear interpolation is used instead of slerp. */
+    private static final float SLERP_THRESHOLD = 1e-3f;
+
+    private final CompiledProject structure;
+    private final int size;
+    private final int[] parents;
+    private final float[] times;
+    /** Per keyframe and element: x, y, z. */
+    private final float[] translations;
+    /** Per keyframe and element: x, y, z, w, on the same hemisphere as the previous keyframe. */
+    private final float[] rotations;
+    /** Per keyframe and element: the symmetric stretch matrix as s00, s11, s22, s01, s02, s12. */
+    private final float[] stretches;
+    /** Per segment and element: the angle between the two rotations and the reciprocal of its sine. */
+    private final float[] angles;
+    private final float[] inverseSines;
+
+    private KeyframeAnimation(CompiledProject structure, float[] times, float[] translations, float[] rotations,
+                              float[] stretches, float[] angles, float[] inverseSines) {
+        this.structure = structure;
+        this.size = structure.size();
+        this.parents = structure.getParentArray();
+        this.times = times;
+        this.translations = translations;
+        this.rotations = rotations;
+        this.stretches = stretches;
+        this.angles = angles;
+        this.inverseSines = inverseSines;
+    }
+
+    /**
+     * Compiles the element trees of each keyframe and builds an animation from them.
+     *
+     * @param keyframes the root elements of each keyframe, in time order
+     * @param times the time of each keyframe, strictly increasing, in any unit
+     * @return the animation
+     * @throws IllegalArgumentException if the keyframes are empty, differ in structure, or the times are invalid
+     * @see #build(List, float[])
+     */
+    public static KeyframeAnimation compile(List<List<ProjectElement>> keyframes, float[] times) {
+        if (keyframes == null) {
+            throw new IllegalArgumentException("Keyframes cannot be null.");
+        }
+        List<CompiledProject> projects = new ArrayList<>(keyframes.size());
+        for (List<ProjectElement> keyframe : keyframes) {
+            projects.add(CompiledProject.compile(keyframe));
+        }
+        return build(projects, times);
+    }
+
+    /**
+     * Builds an animation from compiled keyframes. All keyframes must have the same elements in the same
+     * hierarchy: the same number of elements, the same parent of each element and the same types. Only their
+     * transforms are animated; names and NBT are taken from the first keyframe.
+     *
+     * @param keyframes the compiled keyframes, in time order
+     * @param times the time of each keyframe, strictly increasing, in any unit
+     * @return the animation
+     * @throws IllegalArgumentException if the keyframes are empty, differ in structure, or the times are invalid
+     */
+    public static KeyframeAnimation build(List<CompiledProject> keyframes, float[] times) {
+        if (keyframes == null || keyframes.isEmpty()) {
+            throw new IllegalArgumentException("Keyframes cannot be null or empty.");
+        }
+        if (times == null || times.length != keyframes.size()) {
+            throw new IllegalArgumentException("There must be one time per keyframe.");
+        }
+        for (int k = 0; k < times.length; k++) {
+            if (!Float.isFinite(times[k]) || (k > 0 && times[k] <= times[k - 1])) {
+                throw new IllegalArgumentException("Keyframe times must be finite and strictly increasing.");
+            }
+        }
+        CompiledProject first = keyframes.get(0);
+        for (int k = 1; k < keyframes.size(); k++) {
+            CompiledProject keyframe = keyframes.get(k);
+            if (keyframe == null || keyframe.size() != first.size()
+                    || !Arrays.equals(keyframe.getParentArray(), first.getParentArray())
+                    || !Arrays.equals(keyframe.getTypeArray(), first.getTypeArray())) {
+                throw new IllegalArgumentException("Keyframe " + k + " does not have the same structure as the first keyframe.");
+            }
+        }
+
+        int size = first.size();
+        int count = keyframes.size();
+        float[] translations = new float[count * size * 3];
+        float[] rotations = new float[count * size * 4];
+        float[] stretches = new float[count * size * 6];
+        double[] m = new double[9];
+        double[] u = new double[9];
+        double[] sigma = new double[3];
+        double[] v = new double[9];
+        double[] rotation = new double[9];
+        for (int k = 0; k < count; k++) {
+            float[] locals = keyframes.get(k).getLocalTransformArray();
+            for (int i = 0; i < size; i++) {
+                int slot = k * size + i;
+                int o = i * MATRIX_SIZE;
+                // Packed transforms hold the transformation row by row; the translation is the last column.
+                translations[slot * 3] = locals[o + 3];
+                translations[slot * 3 + 1] = locals[o + 7];
+                translations[slot * 3 + 2] = locals[o + 11];
+
+                // M = U S V^T = (U V^T)(V S V^T): a rotation followed by a symmetric stretch.
+                MatrixDecomposition.upper3x3(locals, o, m);
+                MatrixDecomposition.svd(m, u, sigma, v);
+                for (int c = 0; c < 3; c++) {
+                    for (int r = 0; r < 3; r++) {
+                        rotation[c * 3 + r] = u[r] * v[c] + u[3 + r] * v[3 + c] + u[6 + r] * v[6 + c];
+                    }
+                }
+                MatrixDecomposition.toQuaternion(rotation, rotations, slot * 4);
+                int s = slot * 6;
+                stretches[s] = (float) stretch(v, sigma, 0, 0);
+                stretches[s + 1] = (float) stretch(v, sigma, 1, 1);
+                stretches[s + 2] = (float) stretch(v, sigma, 2, 2);
+                stretches[s + 3] = (float) stretch(v, sigma, 0, 1);
+                stretches[s + 4] = (float) stretch(v, sigma, 0, 2);
+                stretches[s + 5] = (float) stretch(v, sigma, 1, 2);
+
+                if (k > 0) {
+                    int previous = (slot - size) * 4;
+                    int current = slot * 4;
+                    float dot = rotations[previous] * rotations[current] + rotations[previous + 1] * rotations[current + 1]
+                            + rotations[previous + 2] * rotations[current + 2] + rotations[previous + 3] * rotations[current + 3];
+                    if (dot < 0) {
+                        // q and -q are the same rotation; take the one that interpolates along the shorter arc.
+                        for (int j = 0; j < 4; j++) rotations[current + j] = -rotations[current + j];
+                    }
+                }
+            }
+        }
+
+        float[] angles = new float[Math.max(0, count - 1) * size];
+        float[] inverseSines = new float[angles.length];
+        for (int k = 0; k + 1 < count; k++) {
+            for (int i = 0; i < size; i++) {
+                int a = (k * size + i) * 4;
+                int b = a + size * 4;
+                double dot = rotations[a] * rotations[b] + rotations[a + 1] * rotations[b + 1]
+                        + rotations[a + 2] * rotations[b + 2] + rotations[a + 3] * rotations[b + 3];
+                double angle = Math.acos(Math.min(1, dot));
+                angles[k * size + i] = (float) angle;
+                inverseSines[k * size + i] = angle < SLERP_THRESHOLD ? 0 : (float) (1 / Math.sin(angle));
+            }
+        }
+        return new KeyframeAnimation(first, times.clone(), translations, rotations, stretches, angles, inverseSines);
+    }
+
+    /**
+     * Gets the hierarchy, types, names and NBT of the animated elements, which are those of the first keyframe.
+     * Element indices match the world transforms written by {@link #sample(float, float[], int)}.
+     * @return the first keyframe
+     */
+    public CompiledProject getStructure() {
+        return structure;
+    }
+
+    /**
+     * Gets the number of animated elements.
+     * @return the element count
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Gets the number of keyframes.
+     * @return the keyframe count
+     */
+    public int getKeyframeCount() {
+        return times.length;
+    }
+
+    /**
+     * Gets the time of a keyframe.
+     * @param keyframe the index of the keyframe
+     * @return the time
+     */
+    public float getKeyframeTime(int keyframe) {
+        return times[keyframe];
+    }
+
+    /**
+     * Gets the time between the first and the last keyframe.
+     * @return the duration, which is 0 for a single keyframe
+     */
+    public float getDuration() {
+        return times[times.length - 1] - times[0];
+    }
+
+    /**
+     * Computes the world transforms of every element at a time, relative to the world origin.
+     * @param time the time; times before the first or after the last keyframe are clamped
+     * @param dest the array to write into; needs {@code 16 * size()} floats from {@code offset}
+     * @param offset the index of the first float to write
+     * @throws IllegalArgumentException if dest is too small
+     * @see #sample(float, Matrix4fc, float[], int)
+     */
+    public void sample(float time, float[] dest, int offset) {
+        sample(time, null, dest, offset);
+    }
+
+    /**
+     * Computes the world transforms of every element at a time, relative to an origin, into a caller-provided
+     * array. Like {@link CompiledProject#computeWorldTransforms(Matrix4fc, float[], int)}, this lets each
+     * placed instance of the animation keep its own buffer. The origin is in the layout of the world transforms,
+     * with its translation in {@code m03}, {@code m13} and {@code m23}. Allocates nothing.
+     *
+     * @param time the time; times before the first or after the last keyframe are clamped
+     * @param origin the affine transform the root elements are relative to, or null for the world origin
+     * @param dest the array to write into; needs {@code 16 * size()} floats from {@code offset}
+     * @param offset the index of the first float to write
+     * @throws IllegalArgumentException if dest is too small
+     */
+    public void sample(float time, Matrix4fc origin, float[] dest, int offset) {
+        if (dest == null || offset < 0 || dest.length - offset < size * MATRIX_SIZE) {
+            throw new IllegalArgumentException("Destination array is too small for " + size + " world transforms.");
+        }
+        int keyframe;
+        float alpha;
+        if (times.length == 1 || time <= times[0]) {
+            keyframe = 0;
+            alpha = 0;
+        } else if (time >= times[times.length - 1]) {
+            keyframe = times.length - 2;
+            alpha = 1;
+        } else {
+            int found = Arrays.binarySearch(times, time);
+            keyframe = found >= 0 ? found : -found - 2;
+            alpha = found >= 0 ? 0 : (time - times[keyframe]) / (times[keyframe + 1] - times[keyframe]);
+            if (keyframe == times.length - 1) {
+                keyframe--;
+                alpha = 1;
+            }
+        }
+
+        // oRC, like every other matrix below, is row R and column C of the transformation.
+        float o00 = 1, o01 = 0, o02 = 0, o03 = 0, o10 = 0, o11 = 1, o12 = 0, o13 = 0, o20 = 0, o21 = 0, o22 = 1, o23 = 0;
+        if (origin != null) {
+            o00 = origin.m00(); o01 = origin.m01(); o02 = origin.m02(); o03 = origin.m03();
+            o10 = origin.m10(); o11 = origin.m11(); o12 = origin.m12(); o13 = origin.m13();
+            o20 = origin.m20(); o21 = origin.m21(); o22 = origin.m22(); o23 = origin.m23();
+        }
+        float beta = 1 - alpha;
+        int from = keyframe * size;
+        int to = times.length == 1 ? from : from + size;
+        int segment = times.length == 1 ? -1 : keyframe * size;
+
+        for (int i = 0; i < size; i++) {
+            // Translation and stretch: linear.
+            int ta = (from + i) * 3, tb = (to + i) * 3;
+            float tx = beta * translations[ta] + alpha * translations[tb];
+            float ty = beta * translations[ta + 1] + alpha * translations[tb + 1];
+            float tz = beta * translations[ta + 2] + alpha * translations[tb + 2];
+            int sa = (from + i) * 6, sb = (to + i) * 6;
+            float s00 = beta * stretches[sa] + alpha * stretches[sb];
+            float s11 = beta * stretches[sa + 1] + alpha * stretches[sb + 1];
+            float s22 = beta * stretches[sa + 2] + alpha * stretches[sb + 2];
+            float s01 = beta * stretches[sa + 3] + alpha * stretches[sb + 3];
+            float s02 = beta * stretches[sa + 4] + alpha * stretches[sb + 4];
+            float s12 = beta * stretches[sa + 5] + alpha * stretches[sb + 5];
+
+            // Rotation: spherical, with the angle precomputed per segment.
+            int qa = (from + i) * 4, qb = (to + i) * 4;
+            float wa = beta, wb = alpha;
+            if (segment >= 0 && alpha != 0 && alpha != 1) {
+                float inverseSine = inverseSines[segment + i];
+                if (inverseSine != 0) {
+                    float angle = angles[segment + i];
+                    wa = sin(beta * angle) * inverseSine;
+                    wb = sin(alpha * angle) * inverseSine;
+                }
+            }
+            float qx = wa * rotations[qa] + wb * rotations[qb];
+            float qy = wa * rotations[qa + 1] + wb * rotations[qb + 1];
+            float qz = wa * rotations[qa + 2] + wb * rotations[qb + 2];
+            float qw = wa * rotations[qa + 3] + wb * rotations[qb + 3];
+            float norm = qx * qx + qy * qy + qz * qz + qw * qw;
+            float scale = norm > 0 ? 2 / norm : 0;
+
+            // Rotation matrix of the (possibly unnormalized) quaternion.
+            float xx = qx * qx * scale, yy = qy * qy * scale, zz = qz * qz * scale;
+            float xy = qx * qy * scale, xz = qx * qz * scale, yz = qy * qz * scale;
+            float wx = qw * qx * scale, wy = qw * qy * scale, wz = qw * qz * scale;
+            float r00 = 1 - yy - zz, r01 = xy - wz, r02 = xz + wy;
+            float r10 = xy + wz, r11 = 1 - xx - zz, r12 = yz - wx;
+            float r20 = xz - wy, r21 = yz + wx, r22 = 1 - xx - yy;
+
+            // Local = R * S.
+            float l00 = r00 * s00 + r01 * s01 + r02 * s02;
+            float l01 = r00 * s01 + r01 * s11 + r02 * s12;
+            float l02 = r00 * s02 + r01 * s12 + r02 * s22;
+            float l10 = r10 * s00 + r11 * s01 + r12 * s02;
+            float l11 = r10 * s01 + r11 * s11 + r12 * s12;
+            float l12 = r10 * s02 + r11 * s12 + r12 * s22;
+            float l20 = r20 * s00 + r21 * s01 + r22 * s02;
+            float l21 = r20 * s01 + r21 * s11 + r22 * s12;
+            float l22 = r20 * s02 + r21 * s12 + r22 * s22;
+
+            // World = parentWorld * local, written row by row. On the transposed JOML matrices this is the
+            // local * parentWorld of CompiledProject.computeWorldTransforms.
+            float p00 = o00, p01 = o01, p02 = o02, p03 = o03, p10 = o10, p11 = o11, p12 = o12, p13 = o13;
+            float p20 = o20, p21 = o21, p22 = o22, p23 = o23;
+            int parent = parents[i];
+            if (parent != CompiledProject.NONE) {
+                int p = offset + parent * MATRIX_SIZE;
+                p00 = dest[p]; p01 = dest[p + 1]; p02 = dest[p + 2]; p03 = dest[p + 3];
+                p10 = dest[p + 4]; p11 = dest[p + 5]; p12 = dest[p + 6]; p13 = dest[p + 7];
+                p20 = dest[p + 8]; p21 = dest[p + 9]; p22 = dest[p + 10]; p23 = dest[p + 11];
+            }
+            int w = offset + i * MATRIX_SIZE;
+            dest[w] = p00 * l00 + p01 * l10 + p02 * l20;
+            dest[w + 1] = p00 * l01 + p01 * l11 + p02 * l21;
+            dest[w + 2] = p00 * l02 + p01 * l12 + p02 * l22;
+            dest[w + 3] = p00 * tx + p01 * ty + p02 * tz + p03;
+            dest[w + 4] = p10 * l00 + p11 * l10 + p12 * l20;
+            dest[w + 5] = p10 * l01 + p11 * l11 + p12 * l21;
+            dest[w + 6] = p10 * l02 + p11 * l12 + p12 * l22;
+            dest[w + 7] = p10 * tx + p11 * ty + p12 * tz + p13;
+            dest[w + 8] = p20 * l00 + p21 * l10 + p22 * l20;
+            dest[w + 9] = p20 * l01 + p21 * l11 + p22 * l21;
+            dest[w + 10] = p20 * l02 + p21 * l12 + p22 * l22;
+            dest[w + 11] = p20 * tx + p21 * ty + p22 * tz + p23;
+            dest[w + 12] = 0;
+            dest[w + 13] = 0;
+            dest[w + 14] = 0;
+            dest[w + 15] = 1;
+        }
+    }
+
+    /**
+     * Sine on [0, pi/2], which holds every slerp angle because keyframe rotations share a hemisphere.
+     * The Taylor polynomial up to x^11 is accurate to 6e-8 there and much cheaper than {@link Math#sin(double)}.
+     */
+    private static float sin(float x) {
+        float x2 = x * x;
+        return x * (1 - x2 / 6 * (1 - x2 / 20 * (1 - x2 / 42 * (1 - x2 / 72 * (1 - x2 / 110)))));
+    }
+
+    /**
+     * Element (row, col) of V * diag(sigma) * V^T.
+     */
+    private static double stretch(double[] v, double[] sigma, int row, int col) {
+        return v[row] * sigma[0] * v[col] + v[3 + row] * sigma[1] * v[3 + col] + v[6 + row] * sigma[2] * v[6 + col];
+    }
+}
@@ -0,0 +1,4 @@
+/**
+ * Provides keyframe animation between several versions of the same project.
+ */
+package dev.twme.bdengineparser.animation;
@@ -0,0 +1,344 @@
+package dev.twme.bdengineparser.diff;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import dev.twme.bdengineparser.model.ProjectElement;
+
+/**
+ * The differences between two versions of a project's element tree.
+ * <p>
+ * Elements are matched top-down. Within the children of a matched pair, an identical subtree is matched first
+ * and skipped as a whole without visiting its descendants, then elements with the same name and type are
+ * paired in order, then elements with the same structure (everything except names and transforms). Elements
+ * left over are matched across the whole tree, by structure and name and then by structure alone, which is how
+ * subtrees moved to another parent are found. An element that still has no match is reported as removed or
+ * added, and its children are matched on their own. Every comparison works on precomputed 64-bit hashes, so
+ * the diff runs in time roughly linear in the number of elements that changed or were moved, plus one hashing
+ * pass over both trees.
+ * </p>
+ * <p>
+ * Elements are compared by value, not identity, so two independently parsed copies of the same file produce an
+ * empty diff. Null elements and null child lists are ignored.
+ * </p>
+ */
+public final class ProjectDiff {
+
+    /**
+     * The kind of a change.
+     */
+    public enum Kind {
+        /** The element exists only in the new tree. {@link Change#before()} is null. */
+        ADDED,
+        /** The element exists only in the old tree. {@link Change#after()} is null. */
+        REMOVED,
+        /** The element has a different parent, or moved between the roots and a collection. */
+        MOVED,
+        /** The element's local transform changed. */
+        TRANSFORM_CHANGED,
+        /** The element's NBT data changed. */
+        NBT_CHANGED,
+        /** The element's name, type, textures, text options or other display settings changed. */
+        CONTENT_CHANGED
+    }
+
+    /**
+     * A single change. A matched element with several kinds of changes appears once per kind.
+     *
+     * @param kind the kind of change
+     * @param before the element in the old tree, or null if it was added
+     * @param after the element in the new tree, or null if it was removed
+     */
+    public record Change(Kind kind, ProjectElement before, ProjectElement after) {
+    }
+
+    private final TreeIndex before;
+    private final TreeIndex after;
+    /** The partner of each explicitly matched element, or -1. Descendants of identical pairs stay -1. */
+    private final int[] beforePartners;
+    private final int[] afterPartners;
+    private final boolean[] identical;
+    private final List<Change> changes = new ArrayList<>();
+
+    // Matching state, released once the diff is computed.
+    private Deque<int[]> pendingPairs = new ArrayDeque<>();
+    private List<int[]> matchedPairs = new ArrayList<>();
+    private Pool beforePool;
+    private Pool afterPool;
+
+    private ProjectDiff(TreeIndex before, TreeIndex after) {
+        this.before = before;
+        this.after = after;
+        this.beforePartners = new int[before.size()];
+        this.afterPartners = new int[after.size()];
+        this.identical = new boolean[before.size()];
+        Arrays.fill(beforePartners, -1);
+        Arrays.fill(afterPartners, -1);
+        this.beforePool = new Pool(before);
+        this.afterPool = new Pool(after);
+    }
+
+    /**
+     * Computes the differences between two element trees, such as the elements of two parses of the same file.
+     * @param before the root elements of the old tree
+     * @param after the root elements of the new tree
+     * @return the differences
+     * @throws IllegalArgumentException if either list is null
+     */
+    public static ProjectDiff compute(List<ProjectElement> before, List<ProjectElement> after) {
+        if (before == null) {
+            throw new IllegalArgumentException("Before elements cannot be null.");
+        }
+        if (after == null) {
+            throw new IllegalArgumentException("After elements cannot be null.");
+        }
+        ProjectDiff diff = new ProjectDiff(new TreeIndex(before), new TreeIndex(after));
+        diff.run();
+        return diff;
+    }
+
+    /**
+     * Gets all changes, in the order they were found. The order is stable for the same input.
+     * @return an unmodifiable list of changes
+     */
+    public List<Change> getChanges() {
+        return Collections.unmodifiableList(changes);
+    }
+
+    /**
+     * Gets the changes of one kind.
+     * @param kind the kind of change
+     * @return a new list of the matching changes
+     * @throws IllegalArgumentException if kind is null
+     */
+    public List<Change> getChanges(Kind kind) {
+        if (kind == null) {
+            throw new IllegalArgumentException("Kind cannot be null.");
+        }
+        List<Change> result = new ArrayList<>();
+        for (Change change : changes) {
+            if (change.kind() == kind) result.add(change);
+        }
+        return result;
+    }
+
+    /**
+     * Checks whether the trees are equal.
+     * @return true if there are no changes
+     */
+    public boolean isEmpty() {
+        return changes.isEmpty();
+    }
+
+    /**
+     * Finds the element of the new tree that an element of the old tree was matched with.
+     * @param element an element of the old tree
+     * @return the matched element, or null if the element was removed or is not part of the old tree
+     */
+    public ProjectElement getAfter(ProjectElement element) {
+        int id = find(before, element, beforePartners, true);
+        return id >= 0 ? after.elements[id] : null;
+    }
+
+    /**
+     * Finds the element of the old tree that an element of the new tree was matched with.
+     * @param element an element of the new tree
+     * @return the matched element, or null if the element was added or is not part of the new tree
+     */
+    public ProjectElement getBefore(ProjectElement element) {
+        int id = find(after, element, afterPartners, false);
+        return id >= 0 ? before.elements[id] : null;
+    }
+
+    private int find(TreeIndex index, ProjectElement element, int[] partners, boolean isBefore) {
+        Integer id = element != null ? index.ids.get(element) : null;
+        if (id == null) return -1;
+        if (partners[id] >= 0) return partners[id];
+        // Descendants of identical subtrees are not matched one by one; they sit at the same pre-order
+        // offset from the matched ancestor on both sides.
+        for (int ancestor = index.parents[id]; ancestor >= 0; ancestor = index.parents[ancestor]) {
+            int partner = partners[ancestor];
+            if (partner >= 0) {
+                return identical[isBefore ? ancestor : partner] ? partner + (id - ancestor) : -1;
+            }
+        }
+        return -1;
+    }
+
+    // --- Matching ---
+
+    private void run() {
+        matchSiblings(before.roots, after.roots);
+        while (true) {
+            drainPending();
+            if (beforePool.generation.isEmpty() && afterPool.generation.isEmpty()) break;
+            expand(beforePool, afterPool, beforePartners, Kind.REMOVED);
+            expand(afterPool, beforePool, afterPartners, Kind.ADDED);
+        }
+        for (int[] pair : matchedPairs) {
+            int beforeParent = before.parents[pair[0]];
+            int afterParent = after.parents[pair[1]];
+            // An unmatched old parent has no partner (-1), which must not be mistaken for the root level.
+            boolean moved = beforeParent < 0
+                    ? afterParent >= 0
+                    : beforePartners[beforeParent] < 0 || beforePartners[beforeParent] != afterParent;
+            if (moved) {
+                changes.add(new Change(Kind.MOVED, before.elements[pair[0]], after.elements[pair[1]]));
+            }
+        }
+        pendingPairs = null;
+        matchedPairs = null;
+        beforePool = null;
+        afterPool = null;
+    }
+
+    private void drainPending() {
+        List<Integer> beforeChildren = new ArrayList<>();
+        List<Integer> afterChildren = new ArrayList<>();
+        while (!pendingPairs.isEmpty()) {
+            int[] pair = pendingPairs.poll();
+            before.children(pair[0], beforeChildren);
+            after.children(pair[1], afterChildren);
+            matchSiblings(toArray(beforeChildren), toArray(afterChildren));
+        }
+    }
+
+    /**
+     * Matches two sibling lists in three passes of decreasing strictness, and hands what is left to the pools.
+     */
+    private void matchSiblings(int[] beforeIds, int[] afterIds) {
+        if (beforeIds.length == 0 || afterIds.length == 0) {
+            for (int id : beforeIds) beforePool.add(id, afterPool, true);
+            for (int id : afterIds) afterPool.add(id, beforePool, false);
+            return;
+        }
+        matchByKey(beforeIds, afterIds, before.subtreeHashes, after.subtreeHashes);
+        matchByKey(beforeIds, afterIds, before.nameKeys, after.nameKeys);
+        matchByKey(beforeIds, afterIds, before.structuralHashes, after.structuralHashes);
+        for (int id : beforeIds) {
+            if (beforePartners[id] < 0) beforePool.add(id, afterPool, true);
+        }
+        for (int id : afterIds) {
+            if (afterPartners[id] < 0) afterPool.add(id, beforePool, false);
+        }
+    }
+
+    private void matchByKey(int[] beforeIds, int[] afterIds, long[] beforeKeys, long[] afterKeys) {
+        Map<Long, Deque<Integer>> candidates = new HashMap<>();
+        for (int id : afterIds) {
+            if (afterPartners[id] < 0) {
+                candidates.computeIfAbsent(afterKeys[id], key -> new ArrayDeque<>()).add(id);
+            }
+        }
+        if (candidates.isEmpty()) return;
+        for (int id : beforeIds) {
+            if (beforePartners[id] >= 0) continue;
+            Deque<Integer> queue = candidates.get(beforeKeys[id]);
+            if (queue != null && !queue.isEmpty()) {
+                pair(id, queue.poll());
+            }
+        }
+    }
+
+    private void pair(int beforeId, int afterId) {
+        beforePartners[beforeId] = afterId;
+        afterPartners[afterId] = beforeId;
+        matchedPairs.add(new int[] { beforeId, afterId });
+        if (before.subtreeHashes[beforeId] == after.subtreeHashes[afterId]
+                && before.sizes[beforeId] == after.sizes[afterId]) {
+            identical[beforeId] = true;
+            return;
+        }
+        ProjectElement oldElement = before.elements[beforeId];
+        ProjectElement newElement = after.elements[afterId];
+        if (before.transformHashes[beforeId] != after.transformHashes[afterId]) {
+            changes.add(new Change(Kind.TRANSFORM_CHANGED, oldElement, newElement));
+        }
+        if (before.nbtHashes[beforeId] != after.nbtHashes[afterId]) {
+            changes.add(new Change(Kind.NBT_CHANGED, oldElement, newElement));
+        }
+        if (before.nameKeys[beforeId] != after.nameKeys[afterId]
+                || before.contentHashes[beforeId] != after.contentHashes[afterId]) {
+            changes.add(new Change(Kind.CONTENT_CHANGED, oldElement, newElement));
+        }
+        pendingPairs.add(new int[] { beforeId, afterId });
+    }
+
+    /**
+     * Reports the unmatched pool entries of the current generation and puts their children into the pools.
+     */
+    private void expand(Pool pool, Pool other, int[] partners, Kind kind) {
+        List<Integer> generation = new ArrayList<>(pool.generation);
+        pool.generation.clear();
+        List<Integer> children = new ArrayList<>();
+        boolean isBefore = kind == Kind.REMOVED;
+        for (int id : generation) {
+            if (partners[id] >= 0) continue;
+            pool.expanded[id] = true;
+            ProjectElement element = pool.index.elements[id];
+            changes.add(isBefore ? new Change(kind, element, null) : new Change(kind, null, element));
+            pool.index.children(id, children);
+            for (int child : children) pool.add(child, other, isBefore);
+        }
+    }
+
+    private static int[] toArray(List<Integer> ids) {
+        int[] result = new int[ids.size()];
+        for (int i = 0; i < result.length; i++) result[i] = ids.get(i);
+        return result;
+    }
+
+    /**
+     * Unmatched elements of one tree waiting for a partner anywhere in the other tree. Entries are matched
+     * greedily as soon as an equal key arrives from the other side; entries that were matched some other way
+     * are skipped lazily.
+     */
+    private final class Pool {
+        final TreeIndex index;
+        final Map<Long, Deque<Integer>> byStructureAndName = new HashMap<>();
+        final Map<Long, Deque<Integer>> byStructure = new HashMap<>();
+        /** Entries added since the last expansion. */
+        final List<Integer> generation = new ArrayList<>();
+        /** Entries that were reported as removed or added and can no longer be matched. */
+        final boolean[] expanded;
+
+        Pool(TreeIndex index) {
+            this.index = index;
+            this.expanded = new boolean[index.size()];
+        }
+
+        void add(int id, Pool other, boolean isBefore) {
+            long structure = index.structuralHashes[id];
+            long structureAndName = TreeIndex.mix(structure, index.nameKeys[id]);
+            int match = other.poll(other.byStructureAndName, structureAndName, isBefore);
+            if (match < 0) match = other.poll(other.byStructure, structure, isBefore);
+            if (match >= 0) {
+                if (isBefore) pair(id, match); else pair(match, id);
+                return;
+            }
+            byStructureAndName.computeIfAbsent(structureAndName, key -> new ArrayDeque<>()).add(id);
+            byStructure.computeIfAbsent(structure, key -> new ArrayDeque<>()).add(id);
+            generation.add(id);
+        }
+
+        /**
+         * Takes the oldest unmatched entry under a key. The caller is on the other side.
+         */
+        int poll(Map<Long, Deque<Integer>> map, long key, boolean callerIsBefore) {
+            Deque<Integer> queue = map.get(key);
+            if (queue == null) return -1;
+            int[] partners = callerIsBefore ? afterPartners : beforePartners;
+            while (!queue.isEmpty()) {
+                int id = queue.poll();
+                if (partners[id] < 0 && !expanded[id]) return id;
+            }
+            return -1;
+        }
+    }
+}
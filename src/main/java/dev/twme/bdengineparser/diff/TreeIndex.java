@@ -0,0 +1,227 @@
+package dev.twme.bdengineparser.diff;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import dev.twme.bdengineparser.model.Brightness;
+import dev.twme.bdengineparser.model.DefaultTransform;
+import dev.twme.bdengineparser.model.ProjectElement;
+import dev.twme.bdengineparser.model.Rotation;
+import dev.twme.bdengineparser.model.TextOptions;
+
+/**
+ * One side of a diff: the elements of a project in pre-order, with their parents and 64-bit hashes.
+ * <p>
+ * Every element gets a hash of its name and type, of its local transform, of its NBT data and of all
+ * remaining content. These are combined bottom-up into a subtree hash over everything, which identifies
+ * unchanged subtrees, and a structural hash that leaves out names and transforms, which recognizes renamed
+ * or moved subtrees. Null elements are skipped.
+ * </p>
+ */
+final class TreeIndex {
+
+    private static final long SEED = 0x6A09E667F3BCC909L;
+    private static final long MULTIPLIER = 0x9E3779B97F4A7C15L;
+
+    final ProjectElement[] elements;
+    final Map<ProjectElement, Integer> ids;
+    /** The pre-order index of each element's parent, or -1 for roots. */
+    final int[] parents;
+    /** The number of elements in each element's subtree, itself included. */
+    final int[] sizes;
+    final long[] nameKeys;
+    final long[] transformHashes;
+    final long[] nbtHashes;
+    final long[] contentHashes;
+    final long[] subtreeHashes;
+    final long[] structuralHashes;
+    /** The roots, by pre-order index. */
+    final int[] roots;
+
+    TreeIndex(List<ProjectElement> rootElements) {
+        List<ProjectElement> order = new ArrayList<>();
+        int[] parentIds = new int[16];
+        int rootCount = 0;
+        Deque<ProjectElement> pending = new ArrayDeque<>();
+        // The parent of the element at each stack depth.
+        int[] pendingParents = new int[Math.max(16, rootElements.size())];
+        Arrays.fill(pendingParents, -1);
+        for (int i = rootElements.size() - 1; i >= 0; i--) {
+            if (rootElements.get(i) != null) pending.push(rootElements.get(i));
+        }
+        while (!pending.isEmpty()) {
+            ProjectElement element = pending.pop();
+            int parent = pendingParents[pending.size()];
+            int id = order.size();
+            order.add(element);
+            if (id == parentIds.length) parentIds = Arrays.copyOf(parentIds, id * 2);
+            parentIds[id] = parent;
+            if (parent < 0) rootCount++;
+            List<ProjectElement> children = element.getChildren();
+            if (children != null) {
+                for (int i = children.size() - 1; i >= 0; i--) {
+                    if (children.get(i) != null) {
+                        if (pending.size() == pendingParents.length) {
+                            pendingParents = Arrays.copyOf(pendingParents, pendingParents.length * 2);
+                        }
+                        pendingParents[pending.size()] = id;
+                        pending.push(children.get(i));
+                    }
+                }
+            }
+        }
+
+        int n = order.size();
+        this.elements = order.toArray(new ProjectElement[0]);
+        this.ids = new IdentityHashMap<>(n);
+        this.parents = new int[n];
+        this.sizes = new int[n];
+        this.nameKeys = new long[n];
+        this.transformHashes = new long[n];
+        this.nbtHashes = new long[n];
+        this.contentHashes = new long[n];
+        this.subtreeHashes = new long[n];
+        this.structuralHashes = new long[n];
+        this.roots = new int[rootCount];
+        rootCount = 0;
+        for (int i = 0; i < n; i++) {
+            ProjectElement element = elements[i];
+            ids.put(element, i);
+            parents[i] = parentIds[i];
+            if (parents[i] < 0) roots[rootCount++] = i;
+            nameKeys[i] = mix(hash(element.getName()), typeBits(element));
+            transformHashes[i] = hash(element.getTransformArray());
+            nbtHashes[i] = hash(element.getNbt());
+            contentHashes[i] = contentHash(element);
+        }
+
+        // Children follow their parent in pre-order, so a reverse pass sees every child before its parent.
+        // Each parent folds in its children from last to first, which keeps the hashes order-sensitive.
+        long[] childSubtree = new long[n];
+        long[] childStructure = new long[n];
+        for (int i = n - 1; i >= 0; i--) {
+            sizes[i] += 1;
+            long subtree = mix(mix(mix(mix(SEED, nameKeys[i]), transformHashes[i]), nbtHashes[i]), contentHashes[i]);
+            long structure = mix(mix(mix(SEED, typeBits(elements[i])), nbtHashes[i]), contentHashes[i]);
+            subtreeHashes[i] = mix(subtree, childSubtree[i]);
+            structuralHashes[i] = mix(structure, childStructure[i]);
+            int parent = parents[i];
+            if (parent >= 0) {
+                sizes[parent] += sizes[i];
+                childSubtree[parent] = mix(childSubtree[parent] * 31 + 1, subtreeHashes[i]);
+                childStructure[parent] = mix(childStructure[parent] * 31 + 1, structuralHashes[i]);
+            }
+        }
+    }
+
+    int size() {
+        return elements.length;
+    }
+
+    /**
+     * Collects the pre-order indices of an element's children.
+     */
+    void children(int id, List<Integer> dest) {
+        dest.clear();
+        for (int child = id + 1, end = id + sizes[id]; child < end; child += sizes[child]) {
+            dest.add(child);
+        }
+    }
+
+    // --- Hashing ---
+
+    static long mix(long hash, long value) {
+        long h = (hash ^ value) * MULTIPLIER;
+        return h ^ (h >>> 29);
+    }
+
+    private static long typeBits(ProjectElement element) {
+        return (Boolean.TRUE.equals(element.getIsCollection()) ? 1 : 0)
+                | (Boolean.TRUE.equals(element.getIsBlockDisplay()) ? 2 : 0)
+                | (Boolean.TRUE.equals(element.getIsItemDisplay()) ? 4 : 0)
+                | (Boolean.TRUE.equals(element.getIsTextDisplay()) ? 8 : 0)
+                | (Boolean.TRUE.equals(element.getIsBackCollection()) ? 16 : 0);
+    }
+
+    private static long contentHash(ProjectElement element) {
+        long h = mix(SEED, typeBits(element));
+        h = mix(h, element.getTagHead() != null ? hash(element.getTagHead().getValue()) : 0);
+        h = mix(h, hash(element.getDefaultTextureValue()));
+        List<String> textures = element.getTextureValueList();
+        if (textures != null) {
+            h = mix(h, textures.size() + 1);
+            for (String texture : textures) h = mix(h, hash(texture));
+        }
+        h = mix(h, hashJson(element.getPaintTexture()));
+        DefaultTransform defaultTransform = element.getDefaultTransform();
+        if (defaultTransform != null) {
+            h = mix(h, hash(defaultTransform.getPositionArray()));
+            h = mix(h, hash(defaultTransform.getScaleArray()));
+            Rotation rotation = defaultTransform.getRotation();
+            if (rotation != null) {
+                h = mix(mix(mix(h, hash(rotation.getX())), hash(rotation.getY())), hash(rotation.getZ()));
+            }
+        }
+        TextOptions options = element.getOptions();
+        if (options != null) {
+            h = mix(h, hash(options.getColor()));
+            h = mix(h, hash(options.getAlpha()));
+            h = mix(h, hash(options.getBackgroundColor()));
+            h = mix(h, hash(options.getBackgroundAlpha()));
+            h = mix(h, (options.isBold() ? 1 : 0) | (options.isItalic() ? 2 : 0) | (options.isUnderline() ? 4 : 0)
+                    | (options.isStrikeThrough() ? 8 : 0) | (options.isObfuscated() ? 16 : 0));
+            h = mix(h, options.getLineLength());
+            h = mix(h, hash(options.getAlign()));
+        }
+        Brightness brightness = element.getBrightness();
+        if (brightness != null) {
+            h = mix(mix(h, brightness.getSky() + 1), brightness.getBlock() + 1);
+        }
+        return h;
+    }
+
+    private static long hash(String value) {
+        if (value == null) return 0;
+        long h = SEED;
+        for (int i = 0; i < value.length(); i++) {
+            h = (h ^ value.charAt(i)) * 0x100000001B3L;
+        }
+        return mix(h, value.length());
+    }
+
+    private static long hash(double value) {
+        // +0.0 and -0.0 describe the same transform.
+        return value == 0 ? 0 : Double.doubleToLongBits(value);
+    }
+
+    private static long hash(double[] values) {
+        if (values == null) return 0;
+        long h = mix(SEED, values.length);
+        for (double value : values) h = mix(h, hash(value));
+        return h;
+    }
+
+    private static long hashJson(Object value) {
+        if (value == null) return 0;
+        if (value instanceof Map<?, ?> map) {
+            long h = mix(SEED, 'm');
+            for (Map.Entry<?, ?> entry : map.entrySet()) {
+                h = mix(mix(h, hashJson(entry.getKey())), hashJson(entry.getValue()));
+            }
+            return h;
+        }
+        if (value instanceof List<?> list) {
+            long h = mix(SEED, 'l');
+            for (Object item : list) h = mix(h, hashJson(item));
+            return h;
+        }
+        if (value instanceof Number number) return mix('n', hash(number.doubleValue()));
+        if (value instanceof Boolean bool) return bool ? 'T' : 'F';
+        return hash(value.toString());
+    }
+}
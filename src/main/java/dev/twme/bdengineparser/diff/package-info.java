@@ -0,0 +1,4 @@
+/**
+ * Provides structural comparison of parsed projects.
+ */
+package dev.twme.bdengineparser.diff;
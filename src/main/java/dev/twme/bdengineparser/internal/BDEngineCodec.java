@@ -0,0 +1,157 @@
+package dev.twme.bdengineparser.internal;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.FilterOutputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Builds the stream pipelines that turn .bdengine bytes into JSON text and back.
+ * The format is base64 text wrapping gzip-compressed UTF-8 JSON; every layer is decoded or encoded
+ * incrementally, so no stage ever holds the whole payload in memory.
+ */
+public final class BDEngineCodec {
+
+    /**
+     * Buffer size used by the inflater stage.
+     */
+    public static final int BUFFER_SIZE = 8192;
+
+    /**
+     * The outer encoding of a .bdengine payload.
+     */
+    public enum Encoding {
+        /** Base64 text in which line breaks and other non-alphabet characters are ignored. */
+        BASE64_MIME,
+        /** Gzip bytes that have already been base64-decoded. */
+        GZIP
+    }
+
+    private BDEngineCodec() {
+    }
+
+    /**
+     * Opens a reader over the JSON text of .bdengine data in the given encoding.
+     *
+     * @param source the encoded data
+     * @param encoding the outer encoding of the data
+     * @return a UTF-8 reader over the inflated JSON
+     * @throws StageIOException if the gzip header cannot be read
+     */
+    public static Reader openReader(InputStream source, Encoding encoding) throws StageIOException {
+        return openReader(source, encoding, null);
+    }
+
+    /**
+     * Opens a reader over the JSON text of .bdengine data in the given encoding, reporting the base64 and
+     * gzip stages to a parse probe. Reading the source itself is tracked by the caller.
+     *
+     * @param source the encoded data
+     * @param encoding the outer encoding of the data
+     * @param probe the probe timing the decode stages, or null
+     * @return a UTF-8 reader over the inflated JSON
+     * @throws StageIOException if the gzip header cannot be read
+     */
+    public static Reader openReader(InputStream source, Encoding encoding, ParseProbe probe) throws StageIOException {
+        return switch (encoding) {
+            case BASE64_MIME -> openDecodingReader(source, probe);
+            case GZIP -> openInflatingReader(source, probe);
+        };
+    }
+
+    /**
+     * Opens a reader over the JSON text of base64-encoded, gzip-compressed .bdengine data.
+     * Line breaks and other whitespace in the base64 text are ignored.
+     * Failures of each layer are reported as {@link StageIOException}s, possibly wrapped by the consumer.
+     *
+     * @param encoded the base64 text as bytes
+     * @return a UTF-8 reader over the inflated JSON
+     * @throws StageIOException if the gzip header cannot be read
+     */
+    public static Reader openDecodingReader(InputStream encoded) throws StageIOException {
+        return openDecodingReader(encoded, null);
+    }
+
+    private static Reader openDecodingReader(InputStream encoded, ParseProbe probe) throws StageIOException {
+        InputStream source = new StageInputStream(encoded, StageIOException.Stage.READ);
+        InputStream decoded = ParseProbe.track(probe, Base64.getMimeDecoder().wrap(source), StageIOException.Stage.BASE64);
+        return openInflatingReader(new StageInputStream(decoded, StageIOException.Stage.BASE64), probe);
+    }
+
+    /**
+     * Opens a reader over the JSON text of gzip-compressed data.
+     *
+     * @param compressed the gzip bytes
+     * @return a UTF-8 reader over the inflated JSON
+     * @throws StageIOException if the gzip header cannot be read
+     */
+    public static Reader openInflatingReader(InputStream compressed) throws StageIOException {
+        return openInflatingReader(compressed, null);
+    }
+
+    private static Reader openInflatingReader(InputStream compressed, ParseProbe probe) throws StageIOException {
+        GZIPInputStream inflated;
+        try {
+            inflated = new GZIPInputStream(compressed, BUFFER_SIZE);
+        } catch (StageIOException e) {
+            throw e;
+        } catch (IOException e) {
+            throw new StageIOException(StageIOException.Stage.GZIP, e);
+        }
+        InputStream tracked = ParseProbe.track(probe, inflated, StageIOException.Stage.GZIP);
+        return new InputStreamReader(new StageInputStream(tracked, StageIOException.Stage.GZIP), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Opens a writer whose JSON text is gzip-compressed and base64-encoded into the given stream.
+     * The base64 text has no line breaks. Closing the writer finishes the gzip and base64 trailers
+     * but leaves the target stream open.
+     *
+     * @param target the stream receiving the .bdengine data
+     * @param compressionLevel the {@link java.util.zip.Deflater} level, -1 for the default or 0 to 9
+     * @return a UTF-8 writer for the JSON text
+     * @throws IOException if the gzip header cannot be written
+     */
+    public static Writer openEncodingWriter(OutputStream target, int compressionLevel) throws IOException {
+        OutputStream encoded = Base64.getEncoder().wrap(new NonClosingOutputStream(target));
+        GZIPOutputStream compressed = new LevelGZIPOutputStream(encoded, compressionLevel);
+        return new OutputStreamWriter(compressed, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * A gzip stream whose deflater uses a chosen compression level.
+     */
+    private static final class LevelGZIPOutputStream extends GZIPOutputStream {
+        LevelGZIPOutputStream(OutputStream out, int compressionLevel) throws IOException {
+            super(out, BUFFER_SIZE);
+            def.setLevel(compressionLevel);
+        }
+    }
+
+    /**
+     * Keeps the caller's stream open when the encoding layers above it are closed.
+     */
+    private static final class NonClosingOutputStream extends FilterOutputStream {
+        NonClosingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+        }
+
+        @Override
+        public void close() throws IOException {
+            flush();
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package dev.twme.bdengineparser.internal;
+
+import java.io.IOException;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import dev.twme.bdengineparser.model.Brightness;
+
+/**
+ * Streaming type adapter for {@link Brightness}.
+ */
+public final class BrightnessTypeAdapter extends TypeAdapter<Brightness> {
+
+    /**
+     * Shared stateless instance.
+     */
+    public static final BrightnessTypeAdapter INSTANCE = new BrightnessTypeAdapter();
+
+    private BrightnessTypeAdapter() {
+    }
+
+    @Override
+    public Brightness read(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        Brightness brightness = new Brightness();
+        in.beginObject();
+        while (in.hasNext()) {
+            switch (in.nextName()) {
+                case "sky" -> brightness.setSky(JsonFields.readInt(in, brightness.getSky()));
+                case "block" -> brightness.setBlock(JsonFields.readInt(in, brightness.getBlock()));
+                default -> in.skipValue();
+            }
+        }
+        in.endObject();
+        return brightness;
+    }
+
+    @Override
+    public void write(JsonWriter out, Brightness brightness) throws IOException {
+        if (brightness == null) {
+            out.nullValue();
+            return;
+        }
+        out.beginObject();
+        out.name("sky").value(brightness.getSky());
+        out.name("block").value(brightness.getBlock());
+        out.endObject();
+    }
+}
@@ -0,0 +1,60 @@
+package dev.twme.bdengineparser.internal;
+
+import java.io.IOException;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import dev.twme.bdengineparser.model.DefaultTransform;
+
+/**
+ * Streaming type adapter for {@link DefaultTransform}.
+ */
+public final class DefaultTransformTypeAdapter extends TypeAdapter<DefaultTransform> {
+
+    /**
+     * Shared stateless instance.
+     */
+    public static final DefaultTransformTypeAdapter INSTANCE = new DefaultTransformTypeAdapter();
+
+    private DefaultTransformTypeAdapter() {
+    }
+
+    @Override
+    public DefaultTransform read(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        DefaultTransform transform = new DefaultTransform();
+        in.beginObject();
+        while (in.hasNext()) {
+            switch (in.nextName()) {
+                case "position" -> transform.setPositionArray(JsonFields.readDoubleArray(in, 3));
+                case "rotation" -> transform.setRotation(RotationTypeAdapter.INSTANCE.read(in));
+                case "scale" -> transform.setScaleArray(JsonFields.readDoubleArray(in, 3));
+                default -> in.skipValue();
+            }
+        }
+        in.endObject();
+        return transform;
+    }
+
+    @Override
+    public void write(JsonWriter out, DefaultTransform transform) throws IOException {
+        if (transform == null) {
+            out.nullValue();
+            return;
+        }
+        out.beginObject();
+        out.name("position");
+        JsonFields.writeDoubleArray(out, transform.getPositionArray());
+        out.name("rotation");
+        RotationTypeAdapter.INSTANCE.write(out, transform.getRotation());
+        out.name("scale");
+        JsonFields.writeDoubleArray(out, transform.getScaleArray());
+        out.endObject();
+    }
+}
@@ -0,0 +1,71 @@
+package dev.twme.bdengineparser.internal;
+
+import dev.twme.bdengineparser.model.ProjectElement;
+import dev.twme.bdengineparser.model.TextOptions;
+
+/**
+ * Local-space bounds of the geometry a display element renders, before its world transform is applied.
+ * <p>
+ * Block displays render a unit cube from their origin, and item displays a unit cube centered on it.
+ * Text displays are approximated from the text length and line width: Minecraft renders text at 1/40
+ * block per font pixel, with glyphs about 6 pixels wide and lines 10 pixels high, centered horizontally
+ * above the origin and one pixel deep. Collections and untyped elements render nothing and have no bounds.
+ * </p>
+ */
+public final class ElementBounds {
+
+    private static final float TEXT_PIXEL = 1f / 40f;
+    private static final int TEXT_GLYPH_WIDTH = 6;
+    private static final int TEXT_LINE_HEIGHT = 10;
+    private static final int DEFAULT_LINE_LENGTH = 200;
+
+    private ElementBounds() {
+    }
+
+    /**
+     * Writes the local bounds of an element in min-x, min-y, min-z, max-x, max-y, max-z order.
+     * @param element the element
+     * @param dest the array to write into
+     * @param offset the index of min-x
+     * @return true if the element renders geometry, false if nothing was written
+     */
+    public static boolean localBounds(ProjectElement element, float[] dest, int offset) {
+        if (Boolean.TRUE.equals(element.getIsCollection())) {
+            return false;
+        }
+        if (Boolean.TRUE.equals(element.getIsBlockDisplay())) {
+            set(dest, offset, 0, 0, 0, 1, 1, 1);
+            return true;
+        }
+        if (Boolean.TRUE.equals(element.getIsItemDisplay())) {
+            set(dest, offset, -0.5f, -0.5f, -0.5f, 0.5f, 0.5f, 0.5f);
+            return true;
+        }
+        if (Boolean.TRUE.equals(element.getIsTextDisplay())) {
+            textBounds(element, dest, offset);
+            return true;
+        }
+        return false;
+    }
+
+    private static void textBounds(ProjectElement element, float[] dest, int offset) {
+        TextOptions options = element.getOptions();
+        int lineLength = options != null && options.getLineLength() > 0 ? options.getLineLength() : DEFAULT_LINE_LENGTH;
+        String text = element.getName();
+        int textWidth = Math.max(1, text != null ? text.length() : 0) * TEXT_GLYPH_WIDTH;
+        int lines = (textWidth + lineLength - 1) / lineLength;
+        float halfWidth = Math.min(textWidth, lineLength) * TEXT_PIXEL * 0.5f;
+        float height = lines * TEXT_LINE_HEIGHT * TEXT_PIXEL;
+        float halfDepth = TEXT_PIXEL * 0.5f;
+        set(dest, offset, -halfWidth, 0, -halfDepth, halfWidth, height, halfDepth);
+    }
+
+    private static void set(float[] dest, int offset, float minX, float minY, float minZ, float maxX, float maxY, float maxZ) {
+        dest[offset] = minX;
+        dest[offset + 1] = minY;
+        dest[offset + 2] = minZ;
+        dest[offset + 3] = maxX;
+        dest[offset + 4] = maxY;
+        dest[offset + 5] = maxZ;
+    }
+}
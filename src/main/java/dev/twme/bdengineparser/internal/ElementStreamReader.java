@@ -0,0 +1,231 @@
+package dev.twme.bdengineparser.internal;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+
+import org.joml.Matrix4f;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonSyntaxException;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.MalformedJsonException;
+
+import dev.twme.bdengineparser.ProjectElementVisitor;
+import dev.twme.bdengineparser.StringPool;
+import dev.twme.bdengineparser.model.ProjectElement;
+
+/**
+ * Drives a {@link ProjectElementVisitor} straight from the JSON token stream of a project.
+ * <p>
+ * Each element's own fields are bound with {@link ProjectElementTypeAdapter#readField}, but its children
+ * are streamed to the visitor instead of being collected, and the world transforms are kept on a matrix
+ * stack sized to the nesting depth. BDEngine writes {@code transforms} before {@code children}; when a
+ * document lists them the other way round, that element's children are bound as a subtree first and replayed
+ * to the visitor once the transform is known.
+ * </p>
+ * Syntax and structure errors are reported as {@link JsonSyntaxException}, like {@link Gson#fromJson} does,
+ * while exceptions thrown by the visitor propagate unchanged. Instances hold no per-document state and can be shared.
+ */
+public class ElementStreamReader {
+
+    private static final int INITIAL_STACK_DEPTH = 16;
+
+    private final ProjectElementTypeAdapter elementAdapter;
+
+    /**
+     * Constructs a reader that binds element fields like the given Gson instance.
+     * @param gson the Gson instance used for free-form values such as the paint texture
+     * @param stringPool the pool for repeated strings, or null to keep every value as read
+     */
+    public ElementStreamReader(Gson gson, StringPool stringPool) {
+        this.elementAdapter = new ProjectElementTypeAdapter(gson, stringPool);
+    }
+
+    /**
+     * Reads a whole document, a JSON array of root elements, and reports it to the visitor.
+     * @param in the reader positioned at the start of the document
+     * @param visitor the receiver of the element events
+     * @return false if the document is empty or a JSON null, true otherwise
+     * @throws IOException if the underlying input cannot be read
+     * @throws JsonSyntaxException if the document is not a valid BDEngine project
+     */
+    public boolean read(JsonReader in, ProjectElementVisitor visitor) throws IOException {
+        try {
+            JsonToken token;
+            try {
+                token = in.peek();
+            } catch (EOFException e) {
+                return false;
+            }
+            if (token == JsonToken.NULL) {
+                in.nextNull();
+                return false;
+            }
+            new Walk(in, visitor).readElements(0);
+            if (in.peek() != JsonToken.END_DOCUMENT) {
+                throw new JsonSyntaxException("JSON document was not fully consumed.");
+            }
+            return true;
+        } catch (EOFException | MalformedJsonException e) {
+            throw new JsonSyntaxException(e);
+        }
+    }
+
+    /**
+     * The state of one document read: the reader, the visitor and the matrix stack.
+     */
+    private final class Walk {
+        private final JsonReader in;
+        private final ProjectElementVisitor visitor;
+        private final Matrix4f local = new Matrix4f();
+        // worlds[d] is the parent transform of the elements at depth d.
+        private Matrix4f[] worlds = new Matrix4f[INITIAL_STACK_DEPTH + 1];
+
+        Walk(JsonReader in, ProjectElementVisitor visitor) {
+            this.in = in;
+            this.visitor = visitor;
+            worlds[0] = new Matrix4f();
+        }
+
+        void readElements(int depth) throws IOException {
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                return;
+            }
+            expect(JsonToken.BEGIN_ARRAY);
+            in.beginArray();
+            while (in.hasNext()) {
+                readElement(depth);
+            }
+            in.endArray();
+        }
+
+        private void readElement(int depth) throws IOException {
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                return;
+            }
+            expect(JsonToken.BEGIN_OBJECT);
+            String path = in.getPath();
+            Matrix4f world = worldAt(depth + 1);
+            ProjectElement element = new ProjectElement();
+            List<ProjectElement> bufferedChildren = null;
+            boolean placed = false;
+
+            visitor.enterElement(depth);
+            in.beginObject();
+            while (in.hasNext()) {
+                String name = in.nextName();
+                if ("children".equals(name)) {
+                    if (placed) {
+                        readElements(depth + 1);
+                    } else {
+                        bufferedChildren = bind(() -> elementAdapter.readChildren(in));
+                    }
+                    continue;
+                }
+                bind(() -> {
+                    elementAdapter.readField(in, name, element);
+                    return null;
+                });
+                switch (name) {
+                    case "name" -> {
+                        if (element.getName() != null) visitor.onName(element.getName(), depth);
+                    }
+                    case "nbt" -> {
+                        if (element.getNbt() != null) visitor.onNbt(element.getNbt(), depth);
+                    }
+                    case "options" -> {
+                        if (element.getOptions() != null) visitor.onTextOptions(element.getOptions(), depth);
+                    }
+                    case "transforms" -> {
+                        place(element, world, depth, path);
+                        placed = true;
+                    }
+                    default -> {
+                    }
+                }
+            }
+            in.endObject();
+
+            if (!placed) {
+                place(element, world, depth, path);
+            }
+            if (bufferedChildren != null) {
+                for (ProjectElement child : bufferedChildren) {
+                    replay(child, depth + 1, path);
+                }
+            }
+            visitor.exitElement(element, world, depth);
+        }
+
+        /**
+         * Reports an already bound subtree to the visitor.
+         */
+        private void replay(ProjectElement element, int depth, String parentPath) {
+            if (element == null) return;
+            Matrix4f world = worldAt(depth + 1);
+            visitor.enterElement(depth);
+            if (element.getName() != null) visitor.onName(element.getName(), depth);
+            if (element.getNbt() != null) visitor.onNbt(element.getNbt(), depth);
+            if (element.getOptions() != null) visitor.onTextOptions(element.getOptions(), depth);
+            place(element, world, depth, parentPath + ".children");
+            List<ProjectElement> children = element.getChildren();
+            element.setChildren(null);
+            if (children != null) {
+                for (ProjectElement child : children) {
+                    replay(child, depth + 1, parentPath + ".children");
+                }
+            }
+            visitor.exitElement(element, world, depth);
+        }
+
+        private void place(ProjectElement element, Matrix4f world, int depth, String path) {
+            double[] transforms = element.getTransformArray();
+            if (transforms == null || transforms.length != 16) {
+                throw new JsonSyntaxException("Element at " + path + " does not have 16 transform values.");
+            }
+            // The correct order is: localMatrix * parentWorldTransform
+            TransformUtils.arrayToMatrix4f(transforms, local);
+            world.set(local).mul(worlds[depth]);
+            visitor.onTransform(local, world, depth);
+        }
+
+        private Matrix4f worldAt(int index) {
+            if (index == worlds.length) {
+                worlds = Arrays.copyOf(worlds, worlds.length * 2);
+            }
+            Matrix4f world = worlds[index];
+            if (world == null) {
+                world = worlds[index] = new Matrix4f();
+            }
+            return world;
+        }
+
+        private void expect(JsonToken expected) throws IOException {
+            JsonToken token = in.peek();
+            if (token != expected) {
+                throw new JsonSyntaxException("Expected " + expected + " but was " + token + " at path " + in.getPath());
+            }
+        }
+
+        /**
+         * Runs a binding step, reporting type mismatches inside field values as syntax errors.
+         */
+        private <T> T bind(Binding<T> binding) throws IOException {
+            try {
+                return binding.read();
+            } catch (IllegalStateException | NumberFormatException e) {
+                throw new JsonSyntaxException(e);
+            }
+        }
+    }
+
+    @FunctionalInterface
+    private interface Binding<T> {
+        T read() throws IOException;
+    }
+}
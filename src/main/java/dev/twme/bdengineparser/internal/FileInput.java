@@ -0,0 +1,96 @@
+package dev.twme.bdengineparser.internal;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Opens project files for streaming reads without decoding them into a String first.
+ * <p>
+ * Files of at least {@link #MAP_THRESHOLD} bytes are memory-mapped, so their content is paged in by the
+ * operating system and read straight from the page cache; smaller files, for which setting up a mapping
+ * costs more than it saves, are read through their {@link FileChannel}. Either way the parser pulls bytes
+ * incrementally and decodes them as it goes.
+ * </p>
+ * A mapping stays valid after the returned stream is closed and is released when it is garbage collected;
+ * on some platforms the file cannot be deleted until then. Truncating a file while it is mapped can make
+ * the next read fail abruptly.
+ */
+public final class FileInput {
+
+    /**
+     * File size in bytes from which files are memory-mapped instead of read through a channel.
+     */
+    public static final long MAP_THRESHOLD = 1024 * 1024;
+
+    private FileInput() {
+    }
+
+    /**
+     * Opens a file for reading.
+     * @param path the file to open
+     * @return a stream over the file content whose read failures are tagged with {@link StageIOException.Stage#READ};
+     *         the caller must close it
+     * @throws IOException if the file cannot be opened or mapped
+     */
+    public static InputStream open(Path path) throws IOException {
+        return open(path, null);
+    }
+
+    /**
+     * Opens a file for reading, reporting the reads to a parse probe.
+     * @param path the file to open
+     * @param probe the probe timing the {@link StageIOException.Stage#READ} stage, or null
+     * @return a stream over the file content whose read failures are tagged with {@link StageIOException.Stage#READ};
+     *         the caller must close it
+     * @throws IOException if the file cannot be opened or mapped
+     */
+    public static InputStream open(Path path, ParseProbe probe) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            long size = channel.size();
+            if (size < MAP_THRESHOLD || size > Integer.MAX_VALUE) {
+                InputStream stream = Channels.newInputStream(channel);
+                channel = null;
+                return new StageInputStream(ParseProbe.track(probe, stream, StageIOException.Stage.READ), StageIOException.Stage.READ);
+            }
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            InputStream stream = ParseProbe.track(probe, new ByteBufferInputStream(mapped), StageIOException.Stage.READ);
+            return new StageInputStream(stream, StageIOException.Stage.READ);
+        } finally {
+            if (channel != null) {
+                channel.close();
+            }
+        }
+    }
+
+    /**
+     * Reads a whole file into a buffer, mapping it instead when it is at least {@link #MAP_THRESHOLD} bytes.
+     * @param path the file to read
+     * @return a buffer holding the file content, positioned at zero
+     * @throws IOException if the file cannot be read or mapped, or is larger than 2 GiB
+     */
+    public static ByteBuffer readFully(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("File is too large: " + size + " bytes.");
+            }
+            if (size >= MAP_THRESHOLD) {
+                return channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            }
+            ByteBuffer buffer = ByteBuffer.allocate((int) size);
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer) < 0) {
+                    throw new IOException("File was truncated while reading.");
+                }
+            }
+            return buffer.flip();
+        }
+    }
+}
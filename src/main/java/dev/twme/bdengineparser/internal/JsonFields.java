@@ -0,0 +1,213 @@
+package dev.twme.bdengineparser.internal;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import com.google.gson.JsonSyntaxException;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import dev.twme.bdengineparser.StringPool;
+
+/**
+ * Small helpers shared by the hand-written model type adapters.
+ * The read methods mirror the coercion rules of Gson's built-in adapters so that the
+ * streaming adapters accept exactly the same documents as reflective binding did.
+ */
+public final class JsonFields {
+
+    private JsonFields() {
+    }
+
+    /**
+     * Reads a nullable boolean, accepting quoted booleans like Gson's Boolean adapter.
+     * @param in the reader positioned at the value
+     * @return the boolean value, or null for a JSON null
+     * @throws IOException if the value cannot be read
+     */
+    public static Boolean readBoolean(JsonReader in) throws IOException {
+        JsonToken token = in.peek();
+        if (token == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        if (token == JsonToken.STRING) {
+            return Boolean.parseBoolean(in.nextString());
+        }
+        return in.nextBoolean();
+    }
+
+    /**
+     * Reads a primitive boolean, keeping the current value when the JSON value is null.
+     * @param in the reader positioned at the value
+     * @param current the value to keep for a JSON null
+     * @return the boolean value
+     * @throws IOException if the value cannot be read
+     */
+    public static boolean readBoolean(JsonReader in, boolean current) throws IOException {
+        Boolean value = readBoolean(in);
+        return value != null ? value : current;
+    }
+
+    /**
+     * Reads a nullable string, accepting booleans and numbers like Gson's String adapter.
+     * @param in the reader positioned at the value
+     * @return the string value, or null for a JSON null
+     * @throws IOException if the value cannot be read
+     */
+    public static String readString(JsonReader in) throws IOException {
+        JsonToken token = in.peek();
+        if (token == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        if (token == JsonToken.BOOLEAN) {
+            return Boolean.toString(in.nextBoolean());
+        }
+        return in.nextString();
+    }
+
+    /**
+     * Deduplicates a value through a string pool, if one is configured.
+     * @param pool the pool, or null to return the value unchanged
+     * @param value the value, may be null
+     * @return the pooled instance of the value
+     */
+    public static String intern(StringPool pool, String value) {
+        return pool != null ? pool.intern(value) : value;
+    }
+
+    /**
+     * Reads a primitive double, keeping the current value when the JSON value is null.
+     * @param in the reader positioned at the value
+     * @param current the value to keep for a JSON null
+     * @return the double value
+     * @throws IOException if the value cannot be read
+     */
+    public static double readDouble(JsonReader in, double current) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return current;
+        }
+        return in.nextDouble();
+    }
+
+    /**
+     * Reads a primitive int, keeping the current value when the JSON value is null.
+     * @param in the reader positioned at the value
+     * @param current the value to keep for a JSON null
+     * @return the int value
+     * @throws IOException if the value cannot be read
+     * @throws JsonSyntaxException if the value is not an integer
+     */
+    public static int readInt(JsonReader in, int current) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return current;
+        }
+        try {
+            return in.nextInt();
+        } catch (NumberFormatException e) {
+            throw new JsonSyntaxException(e);
+        }
+    }
+
+    /**
+     * Reads a nullable array of numbers straight into a primitive array.
+     * @param in the reader positioned at the value
+     * @param expectedLength the expected number of values, used to size the array
+     * @return the values, or null for a JSON null
+     * @throws IOException if the value cannot be read
+     * @throws JsonSyntaxException if the array contains a null value
+     */
+    public static double[] readDoubleArray(JsonReader in, int expectedLength) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        double[] values = new double[expectedLength];
+        int size = 0;
+        in.beginArray();
+        while (in.hasNext()) {
+            if (in.peek() == JsonToken.NULL) {
+                throw new JsonSyntaxException("Null value in numeric array at " + in.getPath());
+            }
+            if (size == values.length) {
+                values = Arrays.copyOf(values, Math.max(4, size * 2));
+            }
+            values[size++] = in.nextDouble();
+        }
+        in.endArray();
+        return size == values.length ? values : Arrays.copyOf(values, size);
+    }
+
+    /**
+     * Reads a nullable array of strings.
+     * @param in the reader positioned at the value
+     * @return the list of values, or null for a JSON null
+     * @throws IOException if the value cannot be read
+     */
+    public static List<String> readStringList(JsonReader in) throws IOException {
+        return readStringList(in, null);
+    }
+
+    /**
+     * Reads a nullable array of strings, deduplicating each value through a string pool.
+     * @param in the reader positioned at the value
+     * @param pool the pool for the values, or null to keep every value as read
+     * @return the list of values, or null for a JSON null
+     * @throws IOException if the value cannot be read
+     */
+    public static List<String> readStringList(JsonReader in, StringPool pool) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        List<String> values = new ArrayList<>();
+        in.beginArray();
+        while (in.hasNext()) {
+            values.add(intern(pool, readString(in)));
+        }
+        in.endArray();
+        return values;
+    }
+
+    /**
+     * Writes a primitive array as a JSON array, or null if the array is null.
+     * @param out the writer
+     * @param values the values to write
+     * @throws IOException if writing fails
+     */
+    public static void writeDoubleArray(JsonWriter out, double[] values) throws IOException {
+        if (values == null) {
+            out.nullValue();
+            return;
+        }
+        out.beginArray();
+        for (double value : values) {
+            out.value(value);
+        }
+        out.endArray();
+    }
+
+    /**
+     * Writes a list of strings as a JSON array, or null if the list is null.
+     * @param out the writer
+     * @param values the values to write
+     * @throws IOException if writing fails
+     */
+    public static void writeStringList(JsonWriter out, List<String> values) throws IOException {
+        if (values == null) {
+            out.nullValue();
+            return;
+        }
+        out.beginArray();
+        for (String value : values) {
+            out.value(value);
+        }
+        out.endArray();
+    }
+}
@@ -0,0 +1,261 @@
+package dev.twme.bdengineparser.internal;
+
+/**
+ * Singular value decomposition of 3x3 matrices, for splitting element transforms into rotations and scales.
+ * <p>
+ * Matrices are {@code double[9]} arrays in column-major order, so the value at column {@code c} and row
+ * {@code r} is at index {@code c * 3 + r}, matching JOML. The decomposition {@code M = U * diag(sigma) * V^T}
+ * is computed with cyclic Jacobi rotations on {@code M^T * M}, followed by a Gram-Schmidt step on
+ * {@code M * V} to recover {@code U}. Both {@code U} and {@code V} are always proper rotations; a mirroring
+ * matrix gets a negative last singular value instead. Singular matrices, such as elements scaled to zero
+ * on an axis, are handled and still yield proper rotations.
+ * </p>
+ */
+public final class MatrixDecomposition {
+
+    private static final int MAX_SWEEPS = 16;
+    private static final double EPSILON = 1e-30;
+
+    private MatrixDecomposition() {
+    }
+
+    /**
+     * Decomposes a 3x3 matrix into {@code U * diag(sigma) * V^T}.
+     * The singular values are sorted by decreasing magnitude; only the last one can be negative.
+     * @param m the matrix, column-major
+     * @param u receives the left rotation, column-major
+     * @param sigma receives the three singular values
+     * @param v receives the right rotation, column-major; {@code V^T} is applied first
+     */
+    public static void svd(double[] m, double[] u, double[] sigma, double[] v) {
+        // A = M^T M is symmetric; its eigenvectors are the right singular vectors.
+        double[] a = new double[9];
+        for (int c = 0; c < 3; c++) {
+            for (int r = c; r < 3; r++) {
+                double dot = m[r * 3] * m[c * 3] + m[r * 3 + 1] * m[c * 3 + 1] + m[r * 3 + 2] * m[c * 3 + 2];
+                a[c * 3 + r] = dot;
+                a[r * 3 + c] = dot;
+            }
+        }
+        setIdentity(v);
+        double scale = a[0] + a[4] + a[8];
+        for (int sweep = 0; sweep < MAX_SWEEPS; sweep++) {
+            double off = a[3] * a[3] + a[6] * a[6] + a[7] * a[7];
+            if (off <= EPSILON * (scale * scale + EPSILON)) break;
+            rotate(a, v, 0, 1);
+            rotate(a, v, 0, 2);
+            rotate(a, v, 1, 2);
+        }
+
+        // Order the eigenvalues from largest to smallest, permuting the columns of V with them.
+        double[] eigen = { a[0], a[4], a[8] };
+        for (int i = 0; i < 2; i++) {
+            for (int j = 2; j > i; j--) {
+                if (eigen[j] > eigen[j - 1]) {
+                    double swap = eigen[j];
+                    eigen[j] = eigen[j - 1];
+                    eigen[j - 1] = swap;
+                    swapColumns(v, j, j - 1);
+                }
+            }
+        }
+        if (determinant(v) < 0) {
+            v[6] = -v[6];
+            v[7] = -v[7];
+            v[8] = -v[8];
+        }
+
+        // B = M V has columns sigma_i * u_i; orthonormalize them to get U and the signed singular values.
+        double[] b = new double[9];
+        multiply(m, v, b);
+        if (!normalize(b, 0, u, 0)) {
+            u[0] = 1;
+            u[1] = 0;
+            u[2] = 0;
+        }
+        double d = dot(b, 3, u, 0);
+        u[3] = b[3] - d * u[0];
+        u[4] = b[4] - d * u[1];
+        u[5] = b[5] - d * u[2];
+        if (!normalize(u, 3, u, 3)) {
+            perpendicular(u, 0, u, 3);
+        }
+        u[6] = u[1] * u[5] - u[2] * u[4];
+        u[7] = u[2] * u[3] - u[0] * u[5];
+        u[8] = u[0] * u[4] - u[1] * u[3];
+        sigma[0] = dot(b, 0, u, 0);
+        sigma[1] = dot(b, 3, u, 3);
+        sigma[2] = dot(b, 6, u, 6);
+        // A fallback axis for a vanishing column can point the wrong way; flipping it together with the last
+        // column keeps U a rotation and moves the sign to the last singular value.
+        for (int i = 0; i < 2; i++) {
+            if (sigma[i] < 0) {
+                for (int r = 0; r < 3; r++) {
+                    u[i * 3 + r] = -u[i * 3 + r];
+                    u[6 + r] = -u[6 + r];
+                }
+                sigma[i] = -sigma[i];
+                sigma[2] = -sigma[2];
+            }
+        }
+    }
+
+    /**
+     * Converts a rotation matrix into a unit quaternion.
+     * @param r the rotation matrix, column-major
+     * @param dest receives the quaternion in x, y, z, w order
+     * @param offset the index of x
+     */
+    public static void toQuaternion(double[] r, float[] dest, int offset) {
+        double m00 = r[0], m01 = r[1], m02 = r[2];
+        double m10 = r[3], m11 = r[4], m12 = r[5];
+        double m20 = r[6], m21 = r[7], m22 = r[8];
+        double x, y, z, w;
+        double trace = m00 + m11 + m22;
+        // Pick the largest diagonal term to divide by, which keeps the result accurate (Shepperd's method).
+        if (trace >= 0) {
+            double t = Math.sqrt(trace + 1) * 2;
+            w = 0.25 * t;
+            x = (m12 - m21) / t;
+            y = (m20 - m02) / t;
+            z = (m01 - m10) / t;
+        } else if (m00 >= m11 && m00 >= m22) {
+            double t = Math.sqrt(1 + m00 - m11 - m22) * 2;
+            w = (m12 - m21) / t;
+            x = 0.25 * t;
+            y = (m01 + m10) / t;
+            z = (m02 + m20) / t;
+        } else if (m11 > m22) {
+            double t = Math.sqrt(1 + m11 - m00 - m22) * 2;
+            w = (m20 - m02) / t;
+            x = (m01 + m10) / t;
+            y = 0.25 * t;
+            z = (m12 + m21) / t;
+        } else {
+            double t = Math.sqrt(1 + m22 - m00 - m11) * 2;
+            w = (m01 - m10) / t;
+            x = (m02 + m20) / t;
+            y = (m12 + m21) / t;
+            z = 0.25 * t;
+        }
+        double length = Math.sqrt(x * x + y * y + z * z + w * w);
+        dest[offset] = (float) (x / length);
+        dest[offset + 1] = (float) (y / length);
+        dest[offset + 2] = (float) (z / length);
+        dest[offset + 3] = (float) (w / length);
+    }
+
+    /**
+     * Copies the upper-left 3x3 part of a 4x4 matrix stored row by row, the layout element transforms are
+     * stored in: BDEngine's row-major {@code transforms} arrays are loaded into JOML unchanged, so a packed
+     * transform holds row {@code r} and column {@code c} of the transformation at index {@code r * 4 + c}.
+     * @param src the 4x4 matrix, row-major
+     * @param offset the index of the first element
+     * @param dest receives the 3x3 matrix, column-major
+     */
+    public static void upper3x3(float[] src, int offset, double[] dest) {
+        for (int c = 0; c < 3; c++) {
+            for (int r = 0; r < 3; r++) {
+                dest[c * 3 + r] = src[offset + r * 4 + c];
+            }
+        }
+    }
+
+    /**
+     * Applies one Jacobi rotation that zeroes a[p][q], accumulating it into v.
+     */
+    private static void rotate(double[] a, double[] v, int p, int q) {
+        double apq = a[q * 3 + p];
+        if (Math.abs(apq) < EPSILON) return;
+        double app = a[p * 3 + p];
+        double aqq = a[q * 3 + q];
+        double theta = (aqq - app) / (2 * apq);
+        double t = Math.signum(theta) / (Math.abs(theta) + Math.sqrt(theta * theta + 1));
+        if (theta == 0) t = 1;
+        double c = 1 / Math.sqrt(t * t + 1);
+        double s = t * c;
+        for (int k = 0; k < 3; k++) {
+            if (k == p || k == q) continue;
+            double akp = a[p * 3 + k];
+            double akq = a[q * 3 + k];
+            double newKp = c * akp - s * akq;
+            double newKq = s * akp + c * akq;
+            a[p * 3 + k] = newKp;
+            a[k * 3 + p] = newKp;
+            a[q * 3 + k] = newKq;
+            a[k * 3 + q] = newKq;
+        }
+        a[p * 3 + p] = app - t * apq;
+        a[q * 3 + q] = aqq + t * apq;
+        a[q * 3 + p] = 0;
+        a[p * 3 + q] = 0;
+        for (int k = 0; k < 3; k++) {
+            double vkp = v[p * 3 + k];
+            double vkq = v[q * 3 + k];
+            v[p * 3 + k] = c * vkp - s * vkq;
+            v[q * 3 + k] = s * vkp + c * vkq;
+        }
+    }
+
+    private static void multiply(double[] left, double[] right, double[] dest) {
+        for (int c = 0; c < 3; c++) {
+            for (int r = 0; r < 3; r++) {
+                dest[c * 3 + r] = left[r] * right[c * 3] + left[3 + r] * right[c * 3 + 1] + left[6 + r] * right[c * 3 + 2];
+            }
+        }
+    }
+
+    private static double determinant(double[] m) {
+        return m[0] * (m[4] * m[8] - m[5] * m[7])
+                - m[3] * (m[1] * m[8] - m[2] * m[7])
+                + m[6] * (m[1] * m[5] - m[2] * m[4]);
+    }
+
+    private static double dot(double[] a, int aOffset, double[] b, int bOffset) {
+        return a[aOffset] * b[bOffset] + a[aOffset + 1] * b[bOffset + 1] + a[aOffset + 2] * b[bOffset + 2];
+    }
+
+    /**
+     * Writes the unit vector of src into dest, or returns false if src is too short to have a direction.
+     */
+    private static boolean normalize(double[] src, int srcOffset, double[] dest, int destOffset) {
+        double length = Math.sqrt(dot(src, srcOffset, src, srcOffset));
+        if (length < 1e-12) return false;
+        dest[destOffset] = src[srcOffset] / length;
+        dest[destOffset + 1] = src[srcOffset + 1] / length;
+        dest[destOffset + 2] = src[srcOffset + 2] / length;
+        return true;
+    }
+
+    /**
+     * Writes a unit vector perpendicular to the unit vector at srcOffset.
+     */
+    private static void perpendicular(double[] src, int srcOffset, double[] dest, int destOffset) {
+        double x = src[srcOffset], y = src[srcOffset + 1], z = src[srcOffset + 2];
+        // Cross with the coordinate axis least aligned with the vector.
+        double px, py, pz;
+        if (Math.abs(x) <= Math.abs(y) && Math.abs(x) <= Math.abs(z)) {
+            px = 0; py = z; pz = -y;
+        } else if (Math.abs(y) <= Math.abs(z)) {
+            px = -z; py = 0; pz = x;
+        } else {
+            px = y; py = -x; pz = 0;
+        }
+        double length = Math.sqrt(px * px + py * py + pz * pz);
+        dest[destOffset] = px / length;
+        dest[destOffset + 1] = py / length;
+        dest[destOffset + 2] = pz / length;
+    }
+
+    private static void swapColumns(double[] m, int a, int b) {
+        for (int r = 0; r < 3; r++) {
+            double swap = m[a * 3 + r];
+            m[a * 3 + r] = m[b * 3 + r];
+            m[b * 3 + r] = swap;
+        }
+    }
+
+    private static void setIdentity(double[] m) {
+        for (int i = 0; i < 9; i++) m[i] = i % 4 == 0 ? 1 : 0;
+    }
+}
@@ -0,0 +1,63 @@
+package dev.twme.bdengineparser.internal;
+
+import com.google.gson.Gson;
+import com.google.gson.TypeAdapter;
+import com.google.gson.TypeAdapterFactory;
+import com.google.gson.reflect.TypeToken;
+
+import dev.twme.bdengineparser.StringPool;
+import dev.twme.bdengineparser.model.Brightness;
+import dev.twme.bdengineparser.model.DefaultTransform;
+import dev.twme.bdengineparser.model.ProjectElement;
+import dev.twme.bdengineparser.model.Rotation;
+import dev.twme.bdengineparser.model.TagHead;
+import dev.twme.bdengineparser.model.TextOptions;
+
+/**
+ * Registers the hand-written streaming adapters for the BDEngine model classes,
+ * replacing Gson's reflective binding for {@link ProjectElement} and everything it contains.
+ */
+public final class ModelTypeAdapterFactory implements TypeAdapterFactory {
+
+    private final StringPool stringPool;
+
+    /**
+     * Creates a factory whose adapters keep every string as read.
+     */
+    public ModelTypeAdapterFactory() {
+        this(null);
+    }
+
+    /**
+     * Creates a factory whose adapters deduplicate names, NBT data and texture values through a string pool.
+     * @param stringPool the pool for repeated strings, or null to keep every value as read
+     */
+    public ModelTypeAdapterFactory(StringPool stringPool) {
+        this.stringPool = stringPool;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> TypeAdapter<T> create(Gson gson, TypeToken<T> type) {
+        Class<? super T> rawType = type.getRawType();
+        if (rawType == ProjectElement.class) {
+            return (TypeAdapter<T>) new ProjectElementTypeAdapter(gson, stringPool);
+        }
+        if (rawType == DefaultTransform.class) {
+            return (TypeAdapter<T>) DefaultTransformTypeAdapter.INSTANCE;
+        }
+        if (rawType == Rotation.class) {
+            return (TypeAdapter<T>) RotationTypeAdapter.INSTANCE;
+        }
+        if (rawType == TextOptions.class) {
+            return (TypeAdapter<T>) TextOptionsTypeAdapter.INSTANCE;
+        }
+        if (rawType == Brightness.class) {
+            return (TypeAdapter<T>) BrightnessTypeAdapter.INSTANCE;
+        }
+        if (rawType == TagHead.class) {
+            return (TypeAdapter<T>) (stringPool != null ? new TagHeadTypeAdapter(stringPool) : TagHeadTypeAdapter.INSTANCE);
+        }
+        return null;
+    }
+}
@@ -0,0 +1,284 @@
+package dev.twme.bdengineparser.internal;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+
+import dev.twme.bdengineparser.model.ProjectElement;
+
+/**
+ * Collects the timing and byte counts of one parse while its stream pipeline runs.
+ * <p>
+ * Each stage of the pipeline is wrapped by {@link #track}, which times every read call and counts the bytes
+ * it returns. Because the stages pull from each other, the time of a stage includes the stages below it;
+ * the exclusive time per stage is the difference to the stage it reads from. A probe is only created when
+ * a listener asks for metrics, so untracked parses run the pipeline exactly as before.
+ * </p>
+ * Instances are confined to the parsing thread.
+ */
+public final class ParseProbe {
+
+    private static final com.sun.management.ThreadMXBean THREADS = allocationBean();
+
+    private final long startNanos = System.nanoTime();
+    private final long startAllocatedBytes = allocatedBytes();
+    private final long[] inclusiveNanos = new long[StageIOException.Stage.values().length];
+    private final long[] bytes = new long[StageIOException.Stage.values().length];
+    private long upfrontBase64Nanos;
+    private long bindStartNanos;
+    private long bindNanos;
+    private long transformNanos;
+    private int elementCount;
+    private int maxDepth;
+
+    /**
+     * Wraps a stream so that its reads are timed and counted under the given stage.
+     * @param probe the probe to report to, or null to leave the stream unwrapped
+     * @param in the stream of the stage
+     * @param stage the stage the stream's output belongs to
+     * @return the tracked stream, or in itself if probe is null
+     */
+    public static InputStream track(ParseProbe probe, InputStream in, StageIOException.Stage stage) {
+        return probe == null ? in : new TrackedInputStream(in, probe, stage.ordinal());
+    }
+
+    /**
+     * Records time spent decoding base64 text in one piece before the pipeline starts.
+     * @param nanos the elapsed time
+     */
+    public void addUpfrontBase64Nanos(long nanos) {
+        upfrontBase64Nanos += nanos;
+    }
+
+    /**
+     * Records the bytes of an input that was supplied as a whole rather than read through a stage.
+     * @param stage the stage the input belongs to
+     * @param count the number of bytes or characters
+     */
+    public void addBytes(StageIOException.Stage stage, long count) {
+        bytes[stage.ordinal()] += count;
+    }
+
+    /**
+     * Marks the start of decoding and binding, which includes pulling the data through every tracked stage.
+     */
+    public void startBind() {
+        bindStartNanos = System.nanoTime();
+    }
+
+    /**
+     * Marks the end of decoding and binding.
+     */
+    public void endBind() {
+        bindNanos = System.nanoTime() - bindStartNanos;
+    }
+
+    /**
+     * Records the time spent calculating world transforms.
+     * @param nanos the elapsed time
+     */
+    public void setTransformNanos(long nanos) {
+        transformNanos = nanos;
+    }
+
+    /**
+     * Returns the time since the probe was created.
+     * @return the time since the probe was created
+     */
+    public long totalNanos() {
+        return System.nanoTime() - startNanos;
+    }
+
+    /**
+     * Returns the time spent reading the source.
+     * @return the time spent reading the source
+     */
+    public long readNanos() {
+        return inclusive(StageIOException.Stage.READ);
+    }
+
+    /**
+     * Returns the time spent decoding base64, excluding reading the source.
+     * @return the time spent decoding base64, excluding reading the source
+     */
+    public long base64Nanos() {
+        long streamed = inclusive(StageIOException.Stage.BASE64);
+        return (streamed > 0 ? Math.max(0, streamed - readNanos()) : 0) + upfrontBase64Nanos;
+    }
+
+    /**
+     * Returns the time spent inflating gzip data, excluding the stages below.
+     * @return the time spent inflating gzip data, excluding the stages below
+     */
+    public long gzipNanos() {
+        long inflating = inclusive(StageIOException.Stage.GZIP);
+        return inflating > 0 ? Math.max(0, inflating - below(StageIOException.Stage.GZIP)) : 0;
+    }
+
+    /**
+     * Returns the time spent binding JSON, excluding the stages that supplied its bytes.
+     * @return the time spent binding JSON, excluding the stages that supplied its bytes
+     */
+    public long bindNanos() {
+        return Math.max(0, bindNanos - outermostInclusive() - upfrontBase64Nanos);
+    }
+
+    /**
+     * Returns the time spent calculating world transforms.
+     * @return the time spent calculating world transforms
+     */
+    public long transformNanos() {
+        return transformNanos;
+    }
+
+    /**
+     * Returns the number of bytes a stage produced.
+     * @param stage a pipeline stage
+     * @return the number of bytes
+     */
+    public long bytes(StageIOException.Stage stage) {
+        return bytes[stage.ordinal()];
+    }
+
+    /**
+     * Estimates the heap bytes the current thread allocated since the probe was created.
+     * Allocations on other threads, such as parallel transform tasks, are not included.
+     * @return the allocated bytes, or -1 if the JVM does not measure per-thread allocation
+     */
+    public long allocatedBytesSinceStart() {
+        long now = allocatedBytes();
+        return now < 0 || startAllocatedBytes < 0 ? -1 : now - startAllocatedBytes;
+    }
+
+    /**
+     * Counts the elements of a parsed tree and its deepest nesting level, 1 when only root elements exist.
+     * @param rootElements the parsed root elements
+     */
+    public void countTree(List<ProjectElement> rootElements) {
+        int count = 0;
+        int maxDepth = 0;
+        Deque<List<ProjectElement>> pending = new ArrayDeque<>();
+        Deque<Integer> depths = new ArrayDeque<>();
+        pending.push(rootElements);
+        depths.push(1);
+        while (!pending.isEmpty()) {
+            List<ProjectElement> siblings = pending.pop();
+            int depth = depths.pop();
+            for (ProjectElement element : siblings) {
+                if (element == null) continue;
+                count++;
+                maxDepth = Math.max(maxDepth, depth);
+                List<ProjectElement> children = element.getChildren();
+                if (children != null && !children.isEmpty()) {
+                    pending.push(children);
+                    depths.push(depth + 1);
+                }
+            }
+        }
+        this.elementCount = count;
+        this.maxDepth = maxDepth;
+    }
+
+    /**
+     * Returns the element count recorded by {@link #countTree}.
+     * @return the number of elements, 0 if no tree was counted
+     */
+    public int elementCount() {
+        return elementCount;
+    }
+
+    /**
+     * Returns the nesting depth recorded by {@link #countTree}.
+     * @return the deepest nesting level, 0 if no tree was counted
+     */
+    public int maxDepth() {
+        return maxDepth;
+    }
+
+    private long inclusive(StageIOException.Stage stage) {
+        return inclusiveNanos[stage.ordinal()];
+    }
+
+    private long below(StageIOException.Stage stage) {
+        for (int i = stage.ordinal() - 1; i >= 0; i--) {
+            if (inclusiveNanos[i] > 0) {
+                return inclusiveNanos[i];
+            }
+        }
+        return 0;
+    }
+
+    private long outermostInclusive() {
+        for (int i = inclusiveNanos.length - 1; i >= 0; i--) {
+            if (inclusiveNanos[i] > 0) {
+                return inclusiveNanos[i];
+            }
+        }
+        return 0;
+    }
+
+    private static long allocatedBytes() {
+        return THREADS != null ? THREADS.getCurrentThreadAllocatedBytes() : -1;
+    }
+
+    private static com.sun.management.ThreadMXBean allocationBean() {
+        try {
+            if (ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean bean
+                    && bean.isThreadAllocatedMemorySupported() && bean.isThreadAllocatedMemoryEnabled()) {
+                return bean;
+            }
+        } catch (LinkageError | SecurityException e) {
+            // The management extensions are unavailable; allocation is reported as unknown.
+        }
+        return null;
+    }
+
+    /**
+     * Times the read calls of one stage and counts the bytes they return.
+     */
+    private static final class TrackedInputStream extends FilterInputStream {
+        private final ParseProbe probe;
+        private final int stage;
+
+        TrackedInputStream(InputStream in, ParseProbe probe, int stage) {
+            super(in);
+            this.probe = probe;
+            this.stage = stage;
+        }
+
+        @Override
+        public int read() throws IOException {
+            long start = System.nanoTime();
+            int value = in.read();
+            probe.inclusiveNanos[stage] += System.nanoTime() - start;
+            if (value >= 0) {
+                probe.bytes[stage]++;
+            }
+            return value;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            long start = System.nanoTime();
+            int count = in.read(b, off, len);
+            probe.inclusiveNanos[stage] += System.nanoTime() - start;
+            if (count > 0) {
+                probe.bytes[stage] += count;
+            }
+            return count;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long start = System.nanoTime();
+            long skipped = in.skip(n);
+            probe.inclusiveNanos[stage] += System.nanoTime() - start;
+            probe.bytes[stage] += skipped;
+            return skipped;
+        }
+    }
+}
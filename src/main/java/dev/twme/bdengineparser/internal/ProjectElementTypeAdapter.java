@@ -0,0 +1,175 @@
+package dev.twme.bdengineparser.internal;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.google.gson.Gson;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import dev.twme.bdengineparser.StringPool;
+import dev.twme.bdengineparser.model.ProjectElement;
+
+/**
+ * Streaming type adapter for {@link ProjectElement} and its nested model objects.
+ * Unknown fields are skipped, and nested objects are bound through the dedicated
+ * adapters directly instead of going through Gson's reflective lookup.
+ */
+public final class ProjectElementTypeAdapter extends TypeAdapter<ProjectElement> {
+
+    private final TypeAdapter<Object> paintTextureAdapter;
+    private final StringPool stringPool;
+    private final TagHeadTypeAdapter tagHeadAdapter;
+
+    /**
+     * Creates an adapter that binds free-form values such as {@code paintTexture}
+     * through the given Gson instance.
+     * @param gson the Gson instance used for free-form values
+     */
+    public ProjectElementTypeAdapter(Gson gson) {
+        this(gson, null);
+    }
+
+    /**
+     * Creates an adapter that binds free-form values through the given Gson instance and deduplicates
+     * names, NBT data and texture values through a string pool.
+     * @param gson the Gson instance used for free-form values
+     * @param stringPool the pool for repeated strings, or null to keep every value as read
+     */
+    public ProjectElementTypeAdapter(Gson gson, StringPool stringPool) {
+        this.paintTextureAdapter = gson.getAdapter(Object.class);
+        this.stringPool = stringPool;
+        this.tagHeadAdapter = stringPool != null ? new TagHeadTypeAdapter(stringPool) : TagHeadTypeAdapter.INSTANCE;
+    }
+
+    @Override
+    public ProjectElement read(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        ProjectElement element = new ProjectElement();
+        in.beginObject();
+        while (in.hasNext()) {
+            String name = in.nextName();
+            if ("children".equals(name)) {
+                element.setChildren(readChildren(in));
+            } else {
+                readField(in, name, element);
+            }
+        }
+        in.endObject();
+        element.setSubtreeSize(countSubtree(element.getChildren()));
+        return element;
+    }
+
+    /**
+     * Reads the value of one element field other than {@code children} into the element.
+     * Unknown fields are skipped.
+     * @param in the reader positioned at the field value
+     * @param name the field name
+     * @param element the element to populate
+     * @throws IOException if the value cannot be read
+     */
+    public void readField(JsonReader in, String name, ProjectElement element) throws IOException {
+        switch (name) {
+            case "isCollection" -> element.setIsCollection(JsonFields.readBoolean(in));
+            case "name" -> element.setName(JsonFields.intern(stringPool, JsonFields.readString(in)));
+            case "nbt" -> element.setNbt(JsonFields.intern(stringPool, JsonFields.readString(in)));
+            case "transforms" -> element.setTransformArray(JsonFields.readDoubleArray(in, 16));
+            case "isBackCollection" -> element.setIsBackCollection(JsonFields.readBoolean(in));
+            case "defaultTransform" -> element.setDefaultTransform(DefaultTransformTypeAdapter.INSTANCE.read(in));
+            case "isItemDisplay" -> element.setIsItemDisplay(JsonFields.readBoolean(in));
+            case "tagHead" -> element.setTagHead(tagHeadAdapter.read(in));
+            case "textureValueList" -> element.setTextureValueList(JsonFields.readStringList(in, stringPool));
+            case "paintTexture" -> element.setPaintTexture(paintTextureAdapter.read(in));
+            case "defaultTextureValue" -> element.setDefaultTextureValue(JsonFields.intern(stringPool, JsonFields.readString(in)));
+            case "isBlockDisplay" -> element.setIsBlockDisplay(JsonFields.readBoolean(in));
+            case "isTextDisplay" -> element.setIsTextDisplay(JsonFields.readBoolean(in));
+            case "options" -> element.setOptions(TextOptionsTypeAdapter.INSTANCE.read(in));
+            case "brightness" -> element.setBrightness(BrightnessTypeAdapter.INSTANCE.read(in));
+            default -> in.skipValue();
+        }
+    }
+
+    /**
+     * Reads a nullable array of elements.
+     * @param in the reader positioned at the array
+     * @return the elements, or null for a JSON null
+     * @throws IOException if the value cannot be read
+     */
+    public List<ProjectElement> readChildren(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        List<ProjectElement> children = new ArrayList<>();
+        in.beginArray();
+        while (in.hasNext()) {
+            children.add(read(in));
+        }
+        in.endArray();
+        return children;
+    }
+
+    private static int countSubtree(List<ProjectElement> children) {
+        int size = 1;
+        if (children != null) {
+            for (ProjectElement child : children) {
+                if (child != null) {
+                    size += child.getSubtreeSize();
+                }
+            }
+        }
+        return size;
+    }
+
+    @Override
+    public void write(JsonWriter out, ProjectElement element) throws IOException {
+        if (element == null) {
+            out.nullValue();
+            return;
+        }
+        out.beginObject();
+        out.name("isCollection").value(element.getIsCollection());
+        out.name("name").value(element.getName());
+        out.name("nbt").value(element.getNbt());
+        out.name("transforms");
+        JsonFields.writeDoubleArray(out, element.getTransformArray());
+        out.name("children");
+        writeChildren(out, element.getChildren());
+        out.name("isBackCollection").value(element.getIsBackCollection());
+        out.name("defaultTransform");
+        DefaultTransformTypeAdapter.INSTANCE.write(out, element.getDefaultTransform());
+        out.name("isItemDisplay").value(element.getIsItemDisplay());
+        out.name("tagHead");
+        TagHeadTypeAdapter.INSTANCE.write(out, element.getTagHead());
+        out.name("textureValueList");
+        JsonFields.writeStringList(out, element.getTextureValueList());
+        out.name("paintTexture");
+        paintTextureAdapter.write(out, element.getPaintTexture());
+        out.name("defaultTextureValue").value(element.getDefaultTextureValue());
+        out.name("isBlockDisplay").value(element.getIsBlockDisplay());
+        out.name("isTextDisplay").value(element.getIsTextDisplay());
+        out.name("options");
+        TextOptionsTypeAdapter.INSTANCE.write(out, element.getOptions());
+        out.name("brightness");
+        BrightnessTypeAdapter.INSTANCE.write(out, element.getBrightness());
+        out.endObject();
+    }
+
+    private void writeChildren(JsonWriter out, List<ProjectElement> children) throws IOException {
+        if (children == null) {
+            out.nullValue();
+            return;
+        }
+        out.beginArray();
+        for (ProjectElement child : children) {
+            write(out, child);
+        }
+        out.endArray();
+    }
+}
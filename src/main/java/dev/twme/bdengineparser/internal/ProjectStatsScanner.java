@@ -0,0 +1,145 @@
+package dev.twme.bdengineparser.internal;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.util.Arrays;
+
+import com.google.gson.JsonSyntaxException;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.MalformedJsonException;
+
+import dev.twme.bdengineparser.ProjectStats;
+
+/**
+ * Counts the elements of a project straight from the JSON token stream.
+ * <p>
+ * Only the {@code children} arrays and the {@code is...} type flags are read; every other value is
+ * skipped with {@link JsonReader#skipValue()}, so nothing but the counters is allocated and the values of
+ * skipped fields are not validated. The nesting is tracked without recursion: containers strictly
+ * alternate between element arrays and element objects, so the container depth alone tells which one
+ * is open.
+ * </p>
+ * Syntax and structure errors are reported as {@link JsonSyntaxException}.
+ */
+public final class ProjectStatsScanner {
+
+    private static final int COLLECTION = 1;
+    private static final int BLOCK_DISPLAY = 1 << 1;
+    private static final int ITEM_DISPLAY = 1 << 2;
+    private static final int TEXT_DISPLAY = 1 << 3;
+
+    private ProjectStatsScanner() {
+    }
+
+    /**
+     * Scans a whole document, a JSON array of root elements.
+     * @param in the reader positioned at the start of the document
+     * @return the statistics, or null if the document is empty or a JSON null
+     * @throws IOException if the underlying input cannot be read
+     * @throws JsonSyntaxException if the document is not a valid BDEngine project
+     */
+    public static ProjectStats scan(JsonReader in) throws IOException {
+        try {
+            JsonToken token;
+            try {
+                token = in.peek();
+            } catch (EOFException e) {
+                return null;
+            }
+            if (token == JsonToken.NULL) {
+                in.nextNull();
+                return null;
+            }
+            ProjectStats stats = scanElements(in);
+            if (in.peek() != JsonToken.END_DOCUMENT) {
+                throw new JsonSyntaxException("JSON document was not fully consumed.");
+            }
+            return stats;
+        } catch (EOFException | MalformedJsonException | IllegalStateException | NumberFormatException e) {
+            throw new JsonSyntaxException(e);
+        }
+    }
+
+    private static ProjectStats scanElements(JsonReader in) throws IOException {
+        int elements = 0;
+        int maxDepth = 0;
+        int[] typeCounts = new int[4];
+        // flags[d] collects the type flags of the open element at element depth d (1-based).
+        int[] flags = new int[17];
+
+        expect(in, JsonToken.BEGIN_ARRAY);
+        in.beginArray();
+        // Even container depths are element arrays, odd ones are element objects.
+        int containers = 0;
+        while (containers >= 0) {
+            boolean inArray = (containers & 1) == 0;
+            if (!in.hasNext()) {
+                if (inArray) {
+                    in.endArray();
+                } else {
+                    in.endObject();
+                    countType(flags[(containers + 1) / 2], typeCounts);
+                }
+                containers--;
+                continue;
+            }
+            if (inArray) {
+                if (in.peek() == JsonToken.NULL) {
+                    in.nextNull();
+                    continue;
+                }
+                expect(in, JsonToken.BEGIN_OBJECT);
+                in.beginObject();
+                containers++;
+                int depth = (containers + 1) / 2;
+                if (depth == flags.length) {
+                    flags = Arrays.copyOf(flags, flags.length * 2);
+                }
+                flags[depth] = 0;
+                elements++;
+                maxDepth = Math.max(maxDepth, depth);
+                continue;
+            }
+            int depth = (containers + 1) / 2;
+            switch (in.nextName()) {
+                case "children" -> {
+                    if (in.peek() == JsonToken.NULL) {
+                        in.nextNull();
+                    } else {
+                        expect(in, JsonToken.BEGIN_ARRAY);
+                        in.beginArray();
+                        containers++;
+                    }
+                }
+                case "isCollection" -> flags[depth] = flag(in, flags[depth], COLLECTION);
+                case "isBlockDisplay" -> flags[depth] = flag(in, flags[depth], BLOCK_DISPLAY);
+                case "isItemDisplay" -> flags[depth] = flag(in, flags[depth], ITEM_DISPLAY);
+                case "isTextDisplay" -> flags[depth] = flag(in, flags[depth], TEXT_DISPLAY);
+                default -> in.skipValue();
+            }
+        }
+        return new ProjectStats(elements, maxDepth, typeCounts[0], typeCounts[1], typeCounts[2], typeCounts[3]);
+    }
+
+    private static int flag(JsonReader in, int flags, int mask) throws IOException {
+        Boolean value = JsonFields.readBoolean(in);
+        if (value == null) return flags;
+        return value ? flags | mask : flags & ~mask;
+    }
+
+    private static void countType(int flags, int[] typeCounts) {
+        // Same precedence as CompiledProject.typeOf.
+        if ((flags & COLLECTION) != 0) typeCounts[0]++;
+        else if ((flags & BLOCK_DISPLAY) != 0) typeCounts[1]++;
+        else if ((flags & ITEM_DISPLAY) != 0) typeCounts[2]++;
+        else if ((flags & TEXT_DISPLAY) != 0) typeCounts[3]++;
+    }
+
+    private static void expect(JsonReader in, JsonToken expected) throws IOException {
+        JsonToken token = in.peek();
+        if (token != expected) {
+            throw new JsonSyntaxException("Expected " + expected + " but was " + token + " at path " + in.getPath());
+        }
+    }
+}
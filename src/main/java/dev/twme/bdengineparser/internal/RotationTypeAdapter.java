@@ -0,0 +1,57 @@
+package dev.twme.bdengineparser.internal;
+
+import java.io.IOException;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import dev.twme.bdengineparser.model.Rotation;
+
+/**
+ * Streaming type adapter for {@link Rotation}.
+ */
+public final class RotationTypeAdapter extends TypeAdapter<Rotation> {
+
+    /**
+     * Shared stateless instance.
+     */
+    public static final RotationTypeAdapter INSTANCE = new RotationTypeAdapter();
+
+    private RotationTypeAdapter() {
+    }
+
+    @Override
+    public Rotation read(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        Rotation rotation = new Rotation();
+        in.beginObject();
+        while (in.hasNext()) {
+            switch (in.nextName()) {
+                case "x" -> rotation.setX(JsonFields.readDouble(in, rotation.getX()));
+                case "y" -> rotation.setY(JsonFields.readDouble(in, rotation.getY()));
+                case "z" -> rotation.setZ(JsonFields.readDouble(in, rotation.getZ()));
+                default -> in.skipValue();
+            }
+        }
+        in.endObject();
+        return rotation;
+    }
+
+    @Override
+    public void write(JsonWriter out, Rotation rotation) throws IOException {
+        if (rotation == null) {
+            out.nullValue();
+            return;
+        }
+        out.beginObject();
+        out.name("x").value(rotation.getX());
+        out.name("y").value(rotation.getY());
+        out.name("z").value(rotation.getZ());
+        out.endObject();
+    }
+}
@@ -0,0 +1,603 @@
+package dev.twme.bdengineparser.internal;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import org.joml.Matrix4f;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+
+import dev.twme.bdengineparser.model.BoundingBox;
+import dev.twme.bdengineparser.model.Brightness;
+import dev.twme.bdengineparser.model.DefaultTransform;
+import dev.twme.bdengineparser.model.ProjectElement;
+import dev.twme.bdengineparser.model.Rotation;
+import dev.twme.bdengineparser.model.TagHead;
+import dev.twme.bdengineparser.model.TextOptions;
+
+/**
+ * Encodes parsed projects into the binary snapshot format and decodes them back.
+ * <p>
+ * A snapshot is a fixed little-endian header followed by four primitive sections, each read with a
+ * single bulk copy:
+ * </p>
+ * <ol>
+ *   <li>the string table: the byte length of every string, then their UTF-8 bytes back to back;</li>
+ *   <li>the tree: one int record per element in depth-first pre-order, holding field presence bits,
+ *       string table indices and the child count, so the hierarchy needs no offsets or pointers;</li>
+ *   <li>the doubles of every element, in the order their records reference them;</li>
+ *   <li>optionally, the 16 floats of each element's world transform, in the same pre-order.</li>
+ * </ol>
+ * When world transforms are restored and bounds tracking is requested, the decoded elements are also linked
+ * to their parents and receive their world and subtree bounds, as after a transform calculation.
+ * Every distinct string is stored and decoded once, so the decoded elements share equal strings.
+ * Free-form paint textures are stored as JSON text in the string table.
+ */
+public final class SnapshotCodec {
+
+    /**
+     * The version written by this codec; snapshots of any other version are rejected.
+     */
+    public static final int FORMAT_VERSION = 1;
+
+    // "BDES" when read as little-endian bytes.
+    private static final int MAGIC = 0x53454442;
+    private static final int HEADER_BYTES = 36;
+    private static final int FLAG_WORLD_TRANSFORMS = 1;
+
+    private static final int NULL_ELEMENT = -1;
+    private static final int NO_STRING = -1;
+    private static final int ABSENT = -1;
+
+    // Element record bits; bits 0-9 hold the five optional booleans, two bits each.
+    private static final int HAS_TRANSFORMS = 1 << 10;
+    private static final int HAS_DEFAULT_TRANSFORM = 1 << 11;
+    private static final int HAS_TAG_HEAD = 1 << 12;
+    private static final int HAS_TEXTURE_LIST = 1 << 13;
+    private static final int HAS_OPTIONS = 1 << 14;
+    private static final int HAS_BRIGHTNESS = 1 << 15;
+    private static final int HAS_CHILDREN = 1 << 16;
+
+    private static final int BOOLEAN_FALSE = 1;
+    private static final int BOOLEAN_TRUE = 2;
+
+    private static final int OPTION_BOLD = 1;
+    private static final int OPTION_ITALIC = 1 << 1;
+    private static final int OPTION_UNDERLINE = 1 << 2;
+    private static final int OPTION_STRIKE_THROUGH = 1 << 3;
+    private static final int OPTION_OBFUSCATED = 1 << 4;
+
+    private final Gson gson;
+
+    /**
+     * Creates a codec.
+     * @param gson the Gson instance used to store and restore free-form paint textures
+     */
+    public SnapshotCodec(Gson gson) {
+        this.gson = gson;
+    }
+
+    /**
+     * Returns the format version of a snapshot without decoding it.
+     * @param buffer the snapshot bytes between position and limit; the position is not changed
+     * @return the format version, or -1 if the bytes do not start with a snapshot header
+     */
+    public static int version(ByteBuffer buffer) {
+        if (buffer.remaining() < HEADER_BYTES) {
+            return -1;
+        }
+        ByteBuffer header = buffer.slice().order(ByteOrder.LITTLE_ENDIAN);
+        return header.getInt(0) == MAGIC ? header.getInt(4) : -1;
+    }
+
+    /**
+     * Encodes a project. World transforms are included when every element has one.
+     * @param rootElements the root elements of the project
+     * @return a buffer holding the snapshot, positioned at zero
+     */
+    public ByteBuffer encode(List<ProjectElement> rootElements) {
+        Encoder encoder = new Encoder();
+        encoder.encodeTree(rootElements);
+        return encoder.toBuffer(rootElements.size());
+    }
+
+    /**
+     * Decodes a snapshot of the current {@link #FORMAT_VERSION}.
+     * @param buffer the snapshot bytes between position and limit; the position is not changed
+     * @return the root elements of the project
+     * @throws IOException if the bytes are not a snapshot, have another version, or are truncated or corrupt
+     */
+    public List<ProjectElement> decode(ByteBuffer buffer) throws IOException {
+        return decode(buffer, false);
+    }
+
+    /**
+     * Decodes a snapshot of the current {@link #FORMAT_VERSION}.
+     * @param buffer the snapshot bytes between position and limit; the position is not changed
+     * @param trackBounds whether to link parents and calculate bounds when the snapshot holds world transforms
+     * @return the root elements of the project
+     * @throws IOException if the bytes are not a snapshot, have another version, or are truncated or corrupt
+     */
+    public List<ProjectElement> decode(ByteBuffer buffer, boolean trackBounds) throws IOException {
+        int version = version(buffer);
+        if (version < 0) {
+            throw new IOException("Not a BDEngine snapshot.");
+        }
+        if (version != FORMAT_VERSION) {
+            throw new IOException("Unsupported snapshot version " + version + ", expected " + FORMAT_VERSION + ".");
+        }
+        try {
+            return new Decoder(buffer.slice().order(ByteOrder.LITTLE_ENDIAN)).decodeTree(trackBounds);
+        } catch (BufferUnderflowException | IndexOutOfBoundsException | IllegalArgumentException | JsonParseException e) {
+            throw new IOException("Corrupt snapshot: " + e.getMessage(), e);
+        }
+    }
+
+    private final class Encoder {
+        private final Map<String, Integer> stringIndices = new HashMap<>();
+        private final List<byte[]> strings = new ArrayList<>();
+        private int stringBytes;
+        private int[] ints = new int[256];
+        private int intCount;
+        private double[] doubles = new double[256];
+        private int doubleCount;
+        private final List<Matrix4f> worlds = new ArrayList<>();
+        private boolean allWorlds = true;
+        private int elementCount;
+
+        void encodeTree(List<ProjectElement> rootElements) {
+            Deque<Iterator<ProjectElement>> stack = new ArrayDeque<>();
+            stack.push(rootElements.iterator());
+            while (!stack.isEmpty()) {
+                Iterator<ProjectElement> siblings = stack.peek();
+                if (!siblings.hasNext()) {
+                    stack.pop();
+                    continue;
+                }
+                ProjectElement element = siblings.next();
+                if (element == null) {
+                    putInt(NULL_ELEMENT);
+                    continue;
+                }
+                encodeElement(element);
+                if (element.getChildren() != null) {
+                    stack.push(element.getChildren().iterator());
+                }
+            }
+        }
+
+        private void encodeElement(ProjectElement element) {
+            elementCount++;
+            double[] transforms = element.getTransformArray();
+            DefaultTransform defaultTransform = element.getDefaultTransform();
+            TagHead tagHead = element.getTagHead();
+            List<String> textureValues = element.getTextureValueList();
+            TextOptions options = element.getOptions();
+            Brightness brightness = element.getBrightness();
+            List<ProjectElement> children = element.getChildren();
+
+            int flags = booleanBits(element.getIsCollection())
+                    | booleanBits(element.getIsBackCollection()) << 2
+                    | booleanBits(element.getIsItemDisplay()) << 4
+                    | booleanBits(element.getIsBlockDisplay()) << 6
+                    | booleanBits(element.getIsTextDisplay()) << 8;
+            if (transforms != null) flags |= HAS_TRANSFORMS;
+            if (defaultTransform != null) flags |= HAS_DEFAULT_TRANSFORM;
+            if (tagHead != null) flags |= HAS_TAG_HEAD;
+            if (textureValues != null) flags |= HAS_TEXTURE_LIST;
+            if (options != null) flags |= HAS_OPTIONS;
+            if (brightness != null) flags |= HAS_BRIGHTNESS;
+            if (children != null) flags |= HAS_CHILDREN;
+
+            putInt(flags);
+            putInt(string(element.getName()));
+            putInt(string(element.getNbt()));
+            putInt(string(element.getDefaultTextureValue()));
+            Object paintTexture = element.getPaintTexture();
+            putInt(paintTexture != null ? string(gson.toJson(paintTexture)) : NO_STRING);
+            putInt(element.getSubtreeSize());
+
+            if (transforms != null) {
+                putDoubles(transforms);
+            }
+            if (defaultTransform != null) {
+                putDoubles(defaultTransform.getPositionArray());
+                Rotation rotation = defaultTransform.getRotation();
+                putInt(rotation != null ? 1 : 0);
+                if (rotation != null) {
+                    putDouble(rotation.getX());
+                    putDouble(rotation.getY());
+                    putDouble(rotation.getZ());
+                }
+                putDoubles(defaultTransform.getScaleArray());
+            }
+            if (tagHead != null) {
+                putInt(string(tagHead.getValue()));
+            }
+            if (textureValues != null) {
+                putInt(textureValues.size());
+                for (String value : textureValues) {
+                    putInt(string(value));
+                }
+            }
+            if (options != null) {
+                putInt(string(options.getColor()));
+                putInt(string(options.getBackgroundColor()));
+                putInt(string(options.getAlign()));
+                putInt(options.getLineLength());
+                putInt((options.isBold() ? OPTION_BOLD : 0)
+                        | (options.isItalic() ? OPTION_ITALIC : 0)
+                        | (options.isUnderline() ? OPTION_UNDERLINE : 0)
+                        | (options.isStrikeThrough() ? OPTION_STRIKE_THROUGH : 0)
+                        | (options.isObfuscated() ? OPTION_OBFUSCATED : 0));
+                putDouble(options.getAlpha());
+                putDouble(options.getBackgroundAlpha());
+            }
+            if (brightness != null) {
+                putInt(brightness.getSky());
+                putInt(brightness.getBlock());
+            }
+            if (children != null) {
+                putInt(children.size());
+            }
+
+            Matrix4f world = element.getWorldTransform();
+            if (world == null) {
+                allWorlds = false;
+            } else if (allWorlds) {
+                worlds.add(world);
+            }
+        }
+
+        ByteBuffer toBuffer(int rootCount) {
+            boolean withWorlds = allWorlds && elementCount > 0;
+            int worldFloats = withWorlds ? elementCount * 16 : 0;
+            long size = HEADER_BYTES + 4L * strings.size() + stringBytes + 4L * intCount
+                    + 8L * doubleCount + 4L * worldFloats;
+            if (size > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("Project is too large for a snapshot.");
+            }
+            ByteBuffer buffer = ByteBuffer.allocate((int) size).order(ByteOrder.LITTLE_ENDIAN);
+            buffer.putInt(MAGIC)
+                    .putInt(FORMAT_VERSION)
+                    .putInt(withWorlds ? FLAG_WORLD_TRANSFORMS : 0)
+                    .putInt(rootCount)
+                    .putInt(elementCount)
+                    .putInt(strings.size())
+                    .putInt(stringBytes)
+                    .putInt(intCount)
+                    .putInt(doubleCount);
+            for (byte[] string : strings) {
+                buffer.putInt(string.length);
+            }
+            for (byte[] string : strings) {
+                buffer.put(string);
+            }
+            buffer.asIntBuffer().put(ints, 0, intCount);
+            buffer.position(buffer.position() + 4 * intCount);
+            buffer.asDoubleBuffer().put(doubles, 0, doubleCount);
+            buffer.position(buffer.position() + 8 * doubleCount);
+            if (withWorlds) {
+                float[] floats = new float[worldFloats];
+                for (int i = 0; i < worlds.size(); i++) {
+                    worlds.get(i).get(floats, i * 16);
+                }
+                buffer.asFloatBuffer().put(floats);
+            }
+            return buffer.position(0);
+        }
+
+        private int string(String value) {
+            if (value == null) {
+                return NO_STRING;
+            }
+            Integer index = stringIndices.get(value);
+            if (index == null) {
+                byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+                index = strings.size();
+                strings.add(bytes);
+                stringBytes += bytes.length;
+                stringIndices.put(value, index);
+            }
+            return index;
+        }
+
+        private void putInt(int value) {
+            if (intCount == ints.length) {
+                ints = Arrays.copyOf(ints, intCount * 2);
+            }
+            ints[intCount++] = value;
+        }
+
+        private void putDouble(double value) {
+            if (doubleCount == doubles.length) {
+                doubles = Arrays.copyOf(doubles, doubleCount * 2);
+            }
+            doubles[doubleCount++] = value;
+        }
+
+        /**
+         * Writes the length of an array, or {@link #ABSENT} for null, followed by its values.
+         */
+        private void putDoubles(double[] values) {
+            if (values == null) {
+                putInt(ABSENT);
+                return;
+            }
+            putInt(values.length);
+            if (doubleCount + values.length > doubles.length) {
+                doubles = Arrays.copyOf(doubles, Math.max(doubles.length * 2, doubleCount + values.length));
+            }
+            System.arraycopy(values, 0, doubles, doubleCount, values.length);
+            doubleCount += values.length;
+        }
+
+        private static int booleanBits(Boolean value) {
+            if (value == null) return 0;
+            return value ? BOOLEAN_TRUE : BOOLEAN_FALSE;
+        }
+    }
+
+    private final class Decoder {
+        private final int flags;
+        private final int rootCount;
+        private final int elementCount;
+        private final String[] strings;
+        private final int[] ints;
+        private final double[] doubles;
+        private final float[] worlds;
+        private int intIndex;
+        private int doubleIndex;
+        private int elementIndex;
+
+        Decoder(ByteBuffer buffer) throws IOException {
+            buffer.position(8);
+            flags = buffer.getInt();
+            rootCount = buffer.getInt();
+            elementCount = buffer.getInt();
+            int stringCount = buffer.getInt();
+            int stringBytes = buffer.getInt();
+            int intCount = buffer.getInt();
+            int doubleCount = buffer.getInt();
+            if (rootCount < 0 || elementCount < 0 || stringCount < 0 || stringBytes < 0 || intCount < 0 || doubleCount < 0) {
+                throw new IOException("Corrupt snapshot: negative section size.");
+            }
+            // Every root, null or not, and every element takes at least one record in the tree section, so
+            // neither count can exceed it; checked before either is used to size an allocation.
+            if (rootCount > intCount || elementCount > intCount) {
+                throw new IOException("Corrupt snapshot: " + rootCount + " roots and " + elementCount
+                        + " elements do not fit in a tree section of " + intCount + " records.");
+            }
+            long worldFloats = (flags & FLAG_WORLD_TRANSFORMS) != 0 ? 16L * elementCount : 0;
+            long expected = HEADER_BYTES + 4L * stringCount + stringBytes + 4L * intCount + 8L * doubleCount + 4L * worldFloats;
+            if (expected != buffer.limit()) {
+                throw new IOException("Corrupt snapshot: expected " + expected + " bytes but found " + buffer.limit() + ".");
+            }
+
+            int[] lengths = new int[stringCount];
+            buffer.asIntBuffer().get(lengths);
+            buffer.position(buffer.position() + 4 * stringCount);
+            strings = new String[stringCount];
+            byte[] bytes;
+            int offset;
+            if (buffer.hasArray()) {
+                bytes = buffer.array();
+                offset = buffer.arrayOffset() + buffer.position();
+            } else {
+                bytes = new byte[stringBytes];
+                buffer.duplicate().get(bytes);
+                offset = 0;
+            }
+            int end = offset + stringBytes;
+            for (int i = 0; i < stringCount; i++) {
+                if (lengths[i] < 0 || lengths[i] > end - offset) {
+                    throw new IOException("Corrupt snapshot: string " + i + " exceeds the string table.");
+                }
+                strings[i] = new String(bytes, offset, lengths[i], StandardCharsets.UTF_8);
+                offset += lengths[i];
+            }
+            buffer.position(buffer.position() + stringBytes);
+
+            ints = new int[intCount];
+            buffer.asIntBuffer().get(ints);
+            buffer.position(buffer.position() + 4 * intCount);
+            doubles = new double[doubleCount];
+            buffer.asDoubleBuffer().get(doubles);
+            buffer.position(buffer.position() + 8 * doubleCount);
+            if (worldFloats > 0) {
+                worlds = new float[(int) worldFloats];
+                buffer.asFloatBuffer().get(worlds);
+            } else {
+                worlds = null;
+            }
+        }
+
+        List<ProjectElement> decodeTree(boolean trackBounds) throws IOException {
+            List<ProjectElement> rootElements = new ArrayList<>(rootCount);
+            Deque<List<ProjectElement>> lists = new ArrayDeque<>();
+            Deque<int[]> remaining = new ArrayDeque<>();
+            // The owner of each open list, null for the roots; a list rather than a deque to allow the null.
+            List<ProjectElement> owners = new ArrayList<>();
+            boolean linked = trackBounds && worlds != null;
+            float[] scratch = linked ? new float[6] : null;
+            lists.push(rootElements);
+            remaining.push(new int[] {rootCount});
+            owners.add(null);
+            while (!lists.isEmpty()) {
+                int[] count = remaining.peek();
+                if (count[0] == 0) {
+                    ProjectElement owner = owners.remove(owners.size() - 1);
+                    if (linked && owner != null) {
+                        // Every child is complete, so the owner's subtree bounds can be aggregated.
+                        BoundingBox bounds = owner.getWorldBounds();
+                        for (ProjectElement child : lists.peek()) {
+                            if (child != null) bounds = bounds.union(child.getSubtreeBounds());
+                        }
+                        owner.setSubtreeBounds(bounds);
+                    }
+                    lists.pop();
+                    remaining.pop();
+                    continue;
+                }
+                count[0]--;
+                List<ProjectElement> siblings = lists.peek();
+                int header = nextInt();
+                if (header == NULL_ELEMENT) {
+                    siblings.add(null);
+                    continue;
+                }
+                ProjectElement element = new ProjectElement();
+                int childCount = decodeElement(element, header);
+                siblings.add(element);
+                if (linked) {
+                    element.setParent(owners.get(owners.size() - 1));
+                    element.setWorldBounds(WorldTransformCalculator.worldBounds(element, element.getWorldTransform(), scratch));
+                }
+                if (childCount >= 0) {
+                    List<ProjectElement> children = new ArrayList<>(childCount);
+                    element.setChildren(children);
+                    lists.push(children);
+                    remaining.push(new int[] {childCount});
+                    owners.add(element);
+                } else if (linked) {
+                    element.setSubtreeBounds(element.getWorldBounds());
+                }
+            }
+            if (intIndex != ints.length || doubleIndex != doubles.length || elementIndex != elementCount) {
+                throw new IOException("Corrupt snapshot: the element tree does not match the section sizes.");
+            }
+            return rootElements;
+        }
+
+        /**
+         * Binds one element record and returns its child count, or -1 if its children are null.
+         */
+        private int decodeElement(ProjectElement element, int header) {
+            element.setIsCollection(toBoolean(header));
+            element.setIsBackCollection(toBoolean(header >> 2));
+            element.setIsItemDisplay(toBoolean(header >> 4));
+            element.setIsBlockDisplay(toBoolean(header >> 6));
+            element.setIsTextDisplay(toBoolean(header >> 8));
+            element.setName(nextString());
+            element.setNbt(nextString());
+            element.setDefaultTextureValue(nextString());
+            String paintTexture = nextString();
+            if (paintTexture != null) {
+                element.setPaintTexture(gson.fromJson(paintTexture, Object.class));
+            }
+            element.setSubtreeSize(nextInt());
+
+            if ((header & HAS_TRANSFORMS) != 0) {
+                element.setTransformArray(nextDoubles());
+            }
+            if ((header & HAS_DEFAULT_TRANSFORM) != 0) {
+                DefaultTransform defaultTransform = new DefaultTransform();
+                defaultTransform.setPositionArray(nextDoubles());
+                if (nextInt() != 0) {
+                    Rotation rotation = new Rotation();
+                    rotation.setX(doubles[doubleIndex++]);
+                    rotation.setY(doubles[doubleIndex++]);
+                    rotation.setZ(doubles[doubleIndex++]);
+                    defaultTransform.setRotation(rotation);
+                }
+                defaultTransform.setScaleArray(nextDoubles());
+                element.setDefaultTransform(defaultTransform);
+            }
+            if ((header & HAS_TAG_HEAD) != 0) {
+                TagHead tagHead = new TagHead();
+                tagHead.setValue(nextString());
+                element.setTagHead(tagHead);
+            }
+            if ((header & HAS_TEXTURE_LIST) != 0) {
+                int count = nextCount();
+                List<String> values = new ArrayList<>(count);
+                for (int i = 0; i < count; i++) {
+                    values.add(nextString());
+                }
+                element.setTextureValueList(values);
+            }
+            if ((header & HAS_OPTIONS) != 0) {
+                TextOptions options = new TextOptions();
+                options.setColor(nextString());
+                options.setBackgroundColor(nextString());
+                options.setAlign(nextString());
+                options.setLineLength(nextInt());
+                int bits = nextInt();
+                options.setBold((bits & OPTION_BOLD) != 0);
+                options.setItalic((bits & OPTION_ITALIC) != 0);
+                options.setUnderline((bits & OPTION_UNDERLINE) != 0);
+                options.setStrikeThrough((bits & OPTION_STRIKE_THROUGH) != 0);
+                options.setObfuscated((bits & OPTION_OBFUSCATED) != 0);
+                options.setAlpha(doubles[doubleIndex++]);
+                options.setBackgroundAlpha(doubles[doubleIndex++]);
+                element.setOptions(options);
+            }
+            if ((header & HAS_BRIGHTNESS) != 0) {
+                Brightness brightness = new Brightness();
+                brightness.setSky(nextInt());
+                brightness.setBlock(nextInt());
+                element.setBrightness(brightness);
+            }
+            int childCount = (header & HAS_CHILDREN) != 0 ? nextCount() : -1;
+
+            if (worlds != null) {
+                element.setWorldTransform(new Matrix4f().set(worlds, elementIndex * 16));
+            }
+            elementIndex++;
+            return childCount;
+        }
+
+        private int nextInt() {
+            return ints[intIndex++];
+        }
+
+        /**
+         * Reads a list size, which can never exceed the number of records left in the tree section.
+         */
+        private int nextCount() {
+            int count = nextInt();
+            if (count < 0 || count > ints.length - intIndex) {
+                throw new IndexOutOfBoundsException("list size " + count + " exceeds the tree section");
+            }
+            return count;
+        }
+
+        private String nextString() {
+            int index = ints[intIndex++];
+            return index == NO_STRING ? null : strings[index];
+        }
+
+        private double[] nextDoubles() {
+            int length = nextInt();
+            if (length == ABSENT) {
+                return null;
+            }
+            if (length < 0 || length > doubles.length - doubleIndex) {
+                throw new IndexOutOfBoundsException("double section overrun");
+            }
+            double[] values = Arrays.copyOfRange(doubles, doubleIndex, doubleIndex + length);
+            doubleIndex += length;
+            return values;
+        }
+
+        private static Boolean toBoolean(int bits) {
+            return switch (bits & 3) {
+                case BOOLEAN_FALSE -> Boolean.FALSE;
+                case BOOLEAN_TRUE -> Boolean.TRUE;
+                default -> null;
+            };
+        }
+    }
+}
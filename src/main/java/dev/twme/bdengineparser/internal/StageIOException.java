@@ -0,0 +1,57 @@
+package dev.twme.bdengineparser.internal;
+
+import java.io.IOException;
+
+/**
+ * An I/O failure tagged with the decode stage it came from.
+ * Failures deep inside a chained stream pipeline surface through the JSON reader,
+ * so the tag is what lets the parser report which layer of a .bdengine payload was broken.
+ */
+public class StageIOException extends IOException {
+
+    /**
+     * The layers of the .bdengine decode pipeline.
+     */
+    public enum Stage {
+        /** Reading the raw bytes from the source. */
+        READ,
+        /** Decoding the base64 text. */
+        BASE64,
+        /** Inflating the gzip data. */
+        GZIP
+    }
+
+    private final Stage stage;
+
+    /**
+     * Constructs a StageIOException wrapping a failure from the given stage.
+     * @param stage the stage that failed
+     * @param cause the original failure
+     */
+    public StageIOException(Stage stage, IOException cause) {
+        super(stage + " stage failed: " + cause.getMessage(), cause);
+        this.stage = stage;
+    }
+
+    /**
+     * Gets the stage that failed.
+     * @return the failed stage
+     */
+    public Stage getStage() {
+        return stage;
+    }
+
+    /**
+     * Finds the first StageIOException in the cause chain of the given throwable.
+     * @param throwable the throwable to inspect, may itself be a StageIOException
+     * @return the tagged failure, or null if the chain does not contain one
+     */
+    public static StageIOException find(Throwable throwable) {
+        for (Throwable t = throwable; t != null; t = t.getCause()) {
+            if (t instanceof StageIOException stageFailure) {
+                return stageFailure;
+            }
+        }
+        return null;
+    }
+}
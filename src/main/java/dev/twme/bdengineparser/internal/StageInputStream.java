@@ -0,0 +1,52 @@
+package dev.twme.bdengineparser.internal;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Pass-through stream that tags any I/O failure of the wrapped stream with a decode stage.
+ * Failures already tagged by an inner stage are propagated unchanged.
+ */
+class StageInputStream extends FilterInputStream {
+
+    private final StageIOException.Stage stage;
+
+    StageInputStream(InputStream in, StageIOException.Stage stage) {
+        super(in);
+        this.stage = stage;
+    }
+
+    @Override
+    public int read() throws IOException {
+        try {
+            return in.read();
+        } catch (StageIOException e) {
+            throw e;
+        } catch (IOException e) {
+            throw new StageIOException(stage, e);
+        }
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        try {
+            return in.read(b, off, len);
+        } catch (StageIOException e) {
+            throw e;
+        } catch (IOException e) {
+            throw new StageIOException(stage, e);
+        }
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+        try {
+            return in.skip(n);
+        } catch (StageIOException e) {
+            throw e;
+        } catch (IOException e) {
+            throw new StageIOException(stage, e);
+        }
+    }
+}
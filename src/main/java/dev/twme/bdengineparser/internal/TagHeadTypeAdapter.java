@@ -0,0 +1,62 @@
+package dev.twme.bdengineparser.internal;
+
+import java.io.IOException;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import dev.twme.bdengineparser.StringPool;
+import dev.twme.bdengineparser.model.TagHead;
+
+/**
+ * Streaming type adapter for {@link TagHead}.
+ */
+public final class TagHeadTypeAdapter extends TypeAdapter<TagHead> {
+
+    /**
+     * Shared instance that does not deduplicate strings.
+     */
+    public static final TagHeadTypeAdapter INSTANCE = new TagHeadTypeAdapter(null);
+
+    private final StringPool stringPool;
+
+    /**
+     * Creates an adapter that deduplicates texture values through the given pool.
+     * @param stringPool the pool for texture values, or null to keep every value as read
+     */
+    public TagHeadTypeAdapter(StringPool stringPool) {
+        this.stringPool = stringPool;
+    }
+
+    @Override
+    public TagHead read(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        TagHead tagHead = new TagHead();
+        in.beginObject();
+        while (in.hasNext()) {
+            if ("Value".equals(in.nextName())) {
+                tagHead.setValue(JsonFields.intern(stringPool, JsonFields.readString(in)));
+            } else {
+                in.skipValue();
+            }
+        }
+        in.endObject();
+        return tagHead;
+    }
+
+    @Override
+    public void write(JsonWriter out, TagHead tagHead) throws IOException {
+        if (tagHead == null) {
+            out.nullValue();
+            return;
+        }
+        out.beginObject();
+        out.name("Value").value(tagHead.getValue());
+        out.endObject();
+    }
+}
@@ -0,0 +1,73 @@
+package dev.twme.bdengineparser.internal;
+
+import java.io.IOException;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import dev.twme.bdengineparser.model.TextOptions;
+
+/**
+ * Streaming type adapter for {@link TextOptions}.
+ */
+public final class TextOptionsTypeAdapter extends TypeAdapter<TextOptions> {
+
+    /**
+     * Shared stateless instance.
+     */
+    public static final TextOptionsTypeAdapter INSTANCE = new TextOptionsTypeAdapter();
+
+    private TextOptionsTypeAdapter() {
+    }
+
+    @Override
+    public TextOptions read(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        TextOptions options = new TextOptions();
+        in.beginObject();
+        while (in.hasNext()) {
+            switch (in.nextName()) {
+                case "color" -> options.setColor(JsonFields.readString(in));
+                case "alpha" -> options.setAlpha(JsonFields.readDouble(in, options.getAlpha()));
+                case "backgroundColor" -> options.setBackgroundColor(JsonFields.readString(in));
+                case "backgroundAlpha" -> options.setBackgroundAlpha(JsonFields.readDouble(in, options.getBackgroundAlpha()));
+                case "bold" -> options.setBold(JsonFields.readBoolean(in, options.isBold()));
+                case "italic" -> options.setItalic(JsonFields.readBoolean(in, options.isItalic()));
+                case "underline" -> options.setUnderline(JsonFields.readBoolean(in, options.isUnderline()));
+                case "strikeThrough" -> options.setStrikeThrough(JsonFields.readBoolean(in, options.isStrikeThrough()));
+                case "lineLength" -> options.setLineLength(JsonFields.readInt(in, options.getLineLength()));
+                case "align" -> options.setAlign(JsonFields.readString(in));
+                case "obfuscated" -> options.setObfuscated(JsonFields.readBoolean(in, options.isObfuscated()));
+                default -> in.skipValue();
+            }
+        }
+        in.endObject();
+        return options;
+    }
+
+    @Override
+    public void write(JsonWriter out, TextOptions options) throws IOException {
+        if (options == null) {
+            out.nullValue();
+            return;
+        }
+        out.beginObject();
+        out.name("color").value(options.getColor());
+        out.name("alpha").value(options.getAlpha());
+        out.name("backgroundColor").value(options.getBackgroundColor());
+        out.name("backgroundAlpha").value(options.getBackgroundAlpha());
+        out.name("bold").value(options.isBold());
+        out.name("italic").value(options.isItalic());
+        out.name("underline").value(options.isUnderline());
+        out.name("strikeThrough").value(options.isStrikeThrough());
+        out.name("lineLength").value(options.getLineLength());
+        out.name("align").value(options.getAlign());
+        out.name("obfuscated").value(options.isObfuscated());
+        out.endObject();
+    }
+}
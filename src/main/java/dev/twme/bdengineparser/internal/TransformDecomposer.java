@@ -0,0 +1,115 @@
+package dev.twme.bdengineparser.internal;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+import dev.twme.bdengineparser.model.DisplayTransformation;
+import dev.twme.bdengineparser.model.ProjectElement;
+
+/**
+ * Decomposes the world transforms of a whole hierarchy into display entity transformations in one batch,
+ * after {@link WorldTransformCalculator} has run. Each result is cached on its element, see
+ * {@link ProjectElement#getDisplayTransformation()}, so elements whose world transform did not change since
+ * the last batch are not decomposed again.
+ * The elements are collected once and then split into index ranges, which can be processed on a
+ * {@link ForkJoinPool}; each element is independent of the others.
+ */
+public final class TransformDecomposer {
+
+    private TransformDecomposer() {
+    }
+
+    /**
+     * Decomposes the world transform of every element on the calling thread.
+     * Elements without a world transform are skipped.
+     * @param rootElements the root elements
+     * @return the largest reconstruction error of any element, or 0 if there are none
+     */
+    public static float decompose(List<ProjectElement> rootElements) {
+        List<ProjectElement> elements = collect(rootElements);
+        return decomposeRange(elements, 0, elements.size());
+    }
+
+    /**
+     * Decomposes the world transform of every element on a fork/join pool, in ranges of at most
+     * {@code splitThreshold} elements. The results are identical to the sequential ones.
+     * @param rootElements the root elements
+     * @param pool the pool to run on
+     * @param splitThreshold the number of elements above which a range is split into parallel tasks
+     * @return the largest reconstruction error of any element, or 0 if there are none
+     */
+    public static float decomposeParallel(List<ProjectElement> rootElements, ForkJoinPool pool, int splitThreshold) {
+        if (splitThreshold < 1) {
+            throw new IllegalArgumentException("Split threshold must be at least 1.");
+        }
+        List<ProjectElement> elements = collect(rootElements);
+        if (elements.size() <= splitThreshold) {
+            return decomposeRange(elements, 0, elements.size());
+        }
+        return pool.invoke(new RangeTask(elements, 0, elements.size(), splitThreshold));
+    }
+
+    private static List<ProjectElement> collect(List<ProjectElement> rootElements) {
+        List<ProjectElement> elements = new ArrayList<>();
+        if (rootElements == null) return elements;
+        Deque<ProjectElement> pending = new ArrayDeque<>();
+        for (ProjectElement root : rootElements) {
+            if (root != null) pending.push(root);
+        }
+        while (!pending.isEmpty()) {
+            ProjectElement element = pending.pop();
+            elements.add(element);
+            List<ProjectElement> children = element.getChildren();
+            if (children != null) {
+                for (ProjectElement child : children) {
+                    if (child != null) pending.push(child);
+                }
+            }
+        }
+        return elements;
+    }
+
+    private static float decomposeRange(List<ProjectElement> elements, int from, int to) {
+        float error = 0;
+        for (int i = from; i < to; i++) {
+            DisplayTransformation transformation = elements.get(i).getDisplayTransformation();
+            if (transformation != null) {
+                error = Math.max(error, transformation.reconstructionError());
+            }
+        }
+        return error;
+    }
+
+    /**
+     * Decomposes a range of the collected elements, halving it until it fits the threshold.
+     */
+    private static final class RangeTask extends RecursiveTask<Float> {
+        private final List<ProjectElement> elements;
+        private final int from;
+        private final int to;
+        private final int splitThreshold;
+
+        RangeTask(List<ProjectElement> elements, int from, int to, int splitThreshold) {
+            this.elements = elements;
+            this.from = from;
+            this.to = to;
+            this.splitThreshold = splitThreshold;
+        }
+
+        @Override
+        protected Float compute() {
+            if (to - from <= splitThreshold) {
+                return decomposeRange(elements, from, to);
+            }
+            int middle = (from + to) >>> 1;
+            RangeTask right = new RangeTask(elements, middle, to, splitThreshold);
+            right.fork();
+            float left = new RangeTask(elements, from, middle, splitThreshold).compute();
+            return Math.max(left, right.join());
+        }
+    }
+}
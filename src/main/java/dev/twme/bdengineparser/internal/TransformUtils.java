@@ -9,7 +9,7 @@ import java.util.List;
 
 /**
  * Utility class for transforming data structures into JOML Matrix4f objects.
- * Provides methods to convert lists of doubles and DefaultTransform objects
+ * Provides methods to convert lists or arrays of doubles and DefaultTransform objects
  * into Matrix4f representations, applying the correct transformation order.
  */
 public class TransformUtils {
@@ -32,6 +32,35 @@ public class TransformUtils {
         );
     }
 
+    /**
+     * Converts an array of 16 doubles into a new Matrix4f.
+     * Assumes column-major order for the array.
+     * @param transforms the array of doubles representing a 4x4 matrix
+     * @return a Matrix4f constructed from the array
+     */
+    public static Matrix4f arrayToMatrix4f(double[] transforms) {
+        return arrayToMatrix4f(transforms, new Matrix4f());
+    }
+
+    /**
+     * Loads an array of 16 doubles into an existing Matrix4f without allocating.
+     * Assumes column-major order for the array.
+     * @param transforms the array of doubles representing a 4x4 matrix
+     * @param dest the matrix to overwrite
+     * @return dest, for chaining
+     */
+    public static Matrix4f arrayToMatrix4f(double[] transforms, Matrix4f dest) {
+        if (transforms == null || transforms.length != 16) {
+            throw new IllegalArgumentException("Transform list must contain 16 elements for a 4x4 matrix.");
+        }
+        return dest.set(
+                (float) transforms[0], (float) transforms[1], (float) transforms[2], (float) transforms[3],
+                (float) transforms[4], (float) transforms[5], (float) transforms[6], (float) transforms[7],
+                (float) transforms[8], (float) transforms[9], (float) transforms[10], (float) transforms[11],
+                (float) transforms[12], (float) transforms[13], (float) transforms[14], (float) transforms[15]
+        );
+    }
+
     /**
      * Converts a DefaultTransform object (position, rotation, scale) into a Matrix4f.
      * Applies transformations in Scale -> Rotate -> Translate order.
@@ -47,13 +76,9 @@ public class TransformUtils {
         Matrix4f matrix = new Matrix4f().identity();
 
         // 1. Scale
-        List<Double> scaleList = dt.getScale();
-        if (scaleList != null && scaleList.size() == 3) {
-            matrix.scale(
-                    scaleList.get(0).floatValue(),
-                    scaleList.get(1).floatValue(),
-                    scaleList.get(2).floatValue()
-            );
+        double[] scale = dt.getScaleArray();
+        if (scale != null && scale.length == 3) {
+            matrix.scale((float) scale[0], (float) scale[1], (float) scale[2]);
         }
 
         // 2. Rotation
@@ -70,13 +95,9 @@ public class TransformUtils {
         }
 
         // 3. Translation
-        List<Double> posList = dt.getPosition();
-        if (posList != null && posList.size() == 3) {
-            matrix.translate(
-                    posList.get(0).floatValue(),
-                    posList.get(1).floatValue(),
-                    posList.get(2).floatValue()
-            );
+        double[] position = dt.getPositionArray();
+        if (position != null && position.length == 3) {
+            matrix.translate((float) position[0], (float) position[1], (float) position[2]);
         }
         return matrix;
     }
@@ -1,25 +1,57 @@
 package dev.twme.bdengineparser.internal;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 
 import org.joml.Matrix4f;
+import org.joml.Matrix4fc;
 
+import dev.twme.bdengineparser.model.BoundingBox;
 import dev.twme.bdengineparser.model.ProjectElement;
 
 /**
  * WorldTransformCalculator is responsible for calculating the world transforms of ProjectElements.
  * It traverses the hierarchy of elements, applying local transformations to compute the world transform
  * relative to the world origin (0,0,0).
- * 
+ *
  * IMPORTANT: This class was fixed to use the correct matrix multiplication order.
  * The correct order is: localMatrix * parentWorldTransform (not parentWorldTransform * localMatrix).
  * This ensures that transformations are applied from the innermost element outward, which matches
  * how Minecraft's display entity transformation system works.
- * 
+ *
  * Additionally, defaultTransform is no longer applied as the analysis showed that the 'transforms'
  * field already contains all necessary transformation information including any default transforms.
+ *
+ * The hierarchy is walked iteratively with an explicit stack, so deeply nested collections cannot
+ * overflow the call stack. The intermediate matrices live in a stack that is allocated once per call
+ * and sized to the tree depth; the only per-element allocation is the stored result, and the
+ * flattened mode writes into a caller-provided array without allocating at all.
+ * Wide hierarchies can also be processed on a {@link ForkJoinPool}, splitting only subtrees that are
+ * larger than a threshold; the parallel results are identical to the sequential ones.
+ *
+ * When the transforms are stored on the elements and bounds tracking is requested, the same pass also links
+ * each element to its parent and calculates its world-space bounds (see {@link ElementBounds}); without it,
+ * the pass keeps to the one stored matrix per element. The subtree bounds of every collection
+ * are accumulated on the way back up the matrix stack, so no second traversal is needed; in the parallel
+ * mode, collections that were split into tasks leave their subtree bounds to be aggregated on first access.
+ * Instances hold no state and can be shared between threads.
  */
 public class WorldTransformCalculator {
+
+    private static final int INITIAL_STACK_DEPTH = 16;
+
+    /**
+     * Receives the world transform of each element, in pre-order.
+     * The matrix is scratch storage owned by the traversal and must be copied if retained.
+     */
+    @FunctionalInterface
+    private interface TransformSink {
+        void accept(ProjectElement element, Matrix4f worldTransform);
+    }
+
     /**
      * Calculates the world transforms for a list of root ProjectElements and their children.
      * The calculated world transform is stored in each ProjectElement's 'worldTransform' field.
@@ -27,38 +59,363 @@ public class WorldTransformCalculator {
      * @param rootElements The list of root ProjectElements. If null or empty, the method does nothing.
      */
     public void calculateWorldTransforms(List<ProjectElement> rootElements) {
+        calculateWorldTransforms(rootElements, false, false);
+    }
+
+    /**
+     * Calculates the world transforms for a list of root ProjectElements and their children.
+     * When {@code reuseMatrices} is true, elements that already hold a world transform have it
+     * overwritten in place instead of receiving a new matrix, so that recalculation does not allocate per element.
+     * @param rootElements The list of root ProjectElements. If null or empty, the method does nothing.
+     * @param reuseMatrices whether to overwrite existing world transform matrices in place
+     */
+    public void calculateWorldTransforms(List<ProjectElement> rootElements, boolean reuseMatrices) {
+        calculateWorldTransforms(rootElements, reuseMatrices, false);
+    }
+
+    /**
+     * Calculates the world transforms like {@link #calculateWorldTransforms(List, boolean)}, optionally linking
+     * every element to its parent and calculating its world bounds and subtree bounds in the same pass.
+     * Bounds tracking allocates the bounds of every element, even when the matrices are reused.
+     * @param rootElements The list of root ProjectElements. If null or empty, the method does nothing.
+     * @param reuseMatrices whether to overwrite existing world transform matrices in place
+     * @param trackBounds whether to link parents and calculate bounds
+     */
+    public void calculateWorldTransforms(List<ProjectElement> rootElements, boolean reuseMatrices, boolean trackBounds) {
         if (rootElements == null) return;
-        Matrix4f initialParentTransform = new Matrix4f().identity(); // World origin
+        traverse(rootElements, null, new Matrix4f(), trackBounds, (element, world) -> {
+            Matrix4f stored = element.getWorldTransform();
+            // Read-only elements share their matrices, so they are rejected by the setter instead.
+            if (reuseMatrices && stored != null && !element.isReadOnly()) {
+                stored.set(world);
+            } else {
+                element.setWorldTransform(new Matrix4f(world));
+            }
+        });
+    }
+
+    /**
+     * Calculates the world transforms for a list of root ProjectElements and their children and writes
+     * them into a flat array instead of storing them on the elements.
+     * Each transform occupies 16 consecutive floats in column-major order, and elements are laid out
+     * in pre-order (each element followed by its descendants). Null elements and their children are skipped.
+     * @param rootElements The list of root ProjectElements. If null or empty, nothing is written.
+     * @param dest the array to write into
+     * @param offset the index of the first float to write
+     * @return the number of transforms written
+     * @throws IllegalArgumentException if dest is too small to hold every transform
+     */
+    public int calculateWorldTransforms(List<ProjectElement> rootElements, float[] dest, int offset) {
+        if (rootElements == null) return 0;
+        int[] position = {offset};
+        traverse(rootElements, null, new Matrix4f(), false, (element, world) -> {
+            int index = position[0];
+            if (index + 16 > dest.length) {
+                throw new IllegalArgumentException("Destination array is too small for the world transforms of all elements.");
+            }
+            world.get(dest, index);
+            position[0] = index + 16;
+        });
+        return (position[0] - offset) / 16;
+    }
+
+    /**
+     * Calculates the world transforms like {@link #calculateWorldTransforms(List)}, but processes large
+     * subtrees concurrently on the given pool. A subtree is split into one task per child only when it
+     * holds more than {@code splitThreshold} elements; smaller subtrees are walked sequentially by the
+     * task that reaches them. Subtree sizes come from {@link ProjectElement#getSubtreeSize()} and are
+     * counted here for roots that were not produced by the parser.
+     * The stored transforms are identical to those of the sequential calculation.
+     * @param rootElements The list of root ProjectElements. If null or empty, the method does nothing.
+     * @param pool the pool to run on
+     * @param splitThreshold the subtree size above which a subtree is split into parallel tasks
+     */
+    public void calculateWorldTransformsParallel(List<ProjectElement> rootElements, ForkJoinPool pool, int splitThreshold) {
+        calculateWorldTransformsParallel(rootElements, pool, splitThreshold, false);
+    }
+
+    /**
+     * Calculates the world transforms like {@link #calculateWorldTransformsParallel(List, ForkJoinPool, int)},
+     * optionally linking parents and calculating bounds like {@link #calculateWorldTransforms(List, boolean, boolean)}.
+     * @param rootElements The list of root ProjectElements. If null or empty, the method does nothing.
+     * @param pool the pool to run on
+     * @param splitThreshold the subtree size above which a subtree is split into parallel tasks
+     * @param trackBounds whether to link parents and calculate bounds
+     */
+    public void calculateWorldTransformsParallel(List<ProjectElement> rootElements, ForkJoinPool pool, int splitThreshold,
+                                                 boolean trackBounds) {
+        if (rootElements == null || rootElements.isEmpty()) return;
+        if (splitThreshold < 1) {
+            throw new IllegalArgumentException("Split threshold must be at least 1.");
+        }
         for (ProjectElement rootElement : rootElements) {
-            calculateTransformRecursive(rootElement, initialParentTransform);
+            if (rootElement != null && rootElement.getSubtreeSize() <= 0) {
+                recordSubtreeSizes(rootElement);
+            }
+        }
+        pool.invoke(new SubtreeTask(rootElements, null, new Matrix4f(), splitThreshold, trackBounds));
+    }
+
+    /**
+     * Recalculates the world transforms and bounds of one element and its descendants after the element's
+     * local transform or geometry changed, relative to the world transform of its parent, and invalidates the
+     * cached subtree bounds of its ancestors. The rest of the hierarchy is not visited.
+     * Existing world transform matrices in the subtree are overwritten in place.
+     * <p>
+     * Elements are linked to their parents by the same pass that stores their world bounds, which runs only
+     * with bounds tracking; an element without world bounds was never linked and is rejected rather than
+     * recalculated as a root.
+     * </p>
+     * @param element an element whose hierarchy had its world transforms calculated before,
+     *                so that it is linked to its parent
+     * @throws IllegalArgumentException if the element is not linked to its parent or the parent has no world transform
+     */
+    public void recalculateSubtree(ProjectElement element) {
+        ProjectElement parent = element.getParent();
+        if (parent == null && element.getWorldBounds() == null) {
+            throw new IllegalArgumentException("Element is not linked to its parent; calculate the world transforms "
+                    + "of its project, or of the collection it was added to, first: " + element.getName());
+        }
+        Matrix4fc origin = parent != null ? parent.getWorldTransform() : new Matrix4f();
+        if (origin == null) {
+            throw new IllegalArgumentException("The parent of the element has no world transform.");
+        }
+        traverse(List.of(element), parent, origin, true, (current, world) -> {
+            Matrix4f stored = current.getWorldTransform();
+            if (stored != null && !current.isReadOnly()) {
+                stored.set(world);
+            } else {
+                current.setWorldTransform(new Matrix4f(world));
+            }
+        });
+        if (parent != null) {
+            parent.invalidateBounds();
         }
     }
 
     /**
-     * Recursively calculates the world transform for a ProjectElement and its children.
-     * @param element The ProjectElement to calculate the world transform for.
-     * @param parentWorldTransform The world transform of the parent element, used to compute the child's world transform.
+     * Computes the transforms of a group of sibling subtrees, forking the large ones.
      */
-    private void calculateTransformRecursive(ProjectElement element, Matrix4f parentWorldTransform) {
-        if (element == null) return;
-
-        // Create the local transform matrix from the element's transforms
-        Matrix4f localMatrix = TransformUtils.listToMatrix4f(element.getTransforms());
-        
-        // The correct order is: localMatrix * parentWorldTransform (reversed from before)
-        Matrix4f currentElementWorldTransform = new Matrix4f(localMatrix).mul(parentWorldTransform);
-
-        // Store the computed world transform for this element
-        element.setWorldTransform(new Matrix4f(currentElementWorldTransform));
-
-        // For children, we don't use defaultTransform anymore as the analysis shows
-        // that transforms already contain all necessary transformation information
-        Matrix4f parentTransformForChildren = new Matrix4f(currentElementWorldTransform);
-
-        // Process children recursively
-        if (element.getChildren() != null) {
-            for (ProjectElement child : element.getChildren()) {
-                calculateTransformRecursive(child, parentTransformForChildren);
+    private final class SubtreeTask extends RecursiveAction {
+        private final List<ProjectElement> elements;
+        private final ProjectElement parent;
+        private final Matrix4fc parentWorld;
+        private final int splitThreshold;
+        private final boolean trackBounds;
+
+        SubtreeTask(List<ProjectElement> elements, ProjectElement parent, Matrix4fc parentWorld, int splitThreshold,
+                    boolean trackBounds) {
+            this.elements = elements;
+            this.parent = parent;
+            this.parentWorld = parentWorld;
+            this.splitThreshold = splitThreshold;
+            this.trackBounds = trackBounds;
+        }
+
+        @Override
+        protected void compute() {
+            List<SubtreeTask> forks = new ArrayList<>();
+            List<ProjectElement> group = elements;
+            ProjectElement groupOwner = parent;
+            Matrix4fc groupParent = parentWorld;
+            // The last large subtree of each group is continued in this task instead of being forked,
+            // which keeps the task nesting bounded on deep, narrow hierarchies.
+            while (group != null) {
+                List<ProjectElement> sequential = new ArrayList<>();
+                List<ProjectElement> nextGroup = null;
+                ProjectElement nextOwner = null;
+                Matrix4fc nextParent = null;
+                for (ProjectElement element : group) {
+                    if (element == null) continue;
+                    List<ProjectElement> children = element.getChildren();
+                    if (element.getSubtreeSize() <= splitThreshold || children == null || children.isEmpty()) {
+                        sequential.add(element);
+                        continue;
+                    }
+                    Matrix4f world = TransformUtils.arrayToMatrix4f(element.getTransformArray(), new Matrix4f()).mul(groupParent);
+                    element.setWorldTransform(world);
+                    if (trackBounds) {
+                        element.setParent(groupOwner);
+                        element.setWorldBounds(worldBounds(element, world, new float[6]));
+                        // Aggregated from the children on first access, once every task has finished.
+                        element.setSubtreeBounds(null);
+                    } else if (element.getWorldBounds() != null) {
+                        clearBounds(element);
+                    }
+                    if (nextGroup != null) {
+                        SubtreeTask fork = new SubtreeTask(nextGroup, nextOwner, nextParent, splitThreshold, trackBounds);
+                        fork.fork();
+                        forks.add(fork);
+                    }
+                    nextGroup = children;
+                    nextOwner = element;
+                    nextParent = world;
+                }
+                if (!sequential.isEmpty()) {
+                    traverse(sequential, groupOwner, groupParent, trackBounds, (element, world) -> element.setWorldTransform(new Matrix4f(world)));
+                }
+                group = nextGroup;
+                groupOwner = nextOwner;
+                groupParent = nextParent;
+            }
+            for (SubtreeTask fork : forks) {
+                fork.join();
+            }
+        }
+    }
+
+    /**
+     * Counts and records the subtree size of every element below the given root, without recursion.
+     * @param root the root of the subtree
+     */
+    private static void recordSubtreeSizes(ProjectElement root) {
+        // Post-order: an element is finished once all of its children have been counted.
+        List<ProjectElement> order = new ArrayList<>();
+        order.add(root);
+        for (int i = 0; i < order.size(); i++) {
+            List<ProjectElement> children = order.get(i).getChildren();
+            if (children != null) {
+                for (ProjectElement child : children) {
+                    if (child != null) order.add(child);
+                }
+            }
+        }
+        for (int i = order.size() - 1; i >= 0; i--) {
+            ProjectElement element = order.get(i);
+            int size = 1;
+            List<ProjectElement> children = element.getChildren();
+            if (children != null) {
+                for (ProjectElement child : children) {
+                    if (child != null) size += child.getSubtreeSize();
+                }
+            }
+            element.setSubtreeSize(size);
+        }
+    }
+
+    /**
+     * Computes the world-space bounds of an element's geometry.
+     * @param scratch six floats of scratch space, holding the world bounds afterwards if the element renders geometry
+     * @return the bounds, empty for elements that render nothing
+     */
+    static BoundingBox worldBounds(ProjectElement element, Matrix4fc world, float[] scratch) {
+        if (!ElementBounds.localBounds(element, scratch, 0)) {
+            return BoundingBox.EMPTY;
+        }
+        BoundingBox.transformBounds(world, scratch, 0, scratch, 0);
+        return BoundingBox.of(scratch, 0);
+    }
+
+    /**
+     * Drops the bounds of an earlier pass with bounds tracking, which would be stale after this one.
+     */
+    private static void clearBounds(ProjectElement element) {
+        element.setWorldBounds(null);
+        element.setSubtreeBounds(null);
+    }
+
+    private static BoundingBox toBox(float[] bounds, int offset) {
+        return bounds[offset] <= bounds[offset + 3] ? BoundingBox.of(bounds, offset) : BoundingBox.EMPTY;
+    }
+
+    /**
+     * Grows the bounds at {@code offset} to include the bounds at {@code sourceOffset}.
+     */
+    private static void include(float[] bounds, int offset, float[] source, int sourceOffset) {
+        for (int i = 0; i < 3; i++) {
+            bounds[offset + i] = Math.min(bounds[offset + i], source[sourceOffset + i]);
+            bounds[offset + 3 + i] = Math.max(bounds[offset + 3 + i], source[sourceOffset + 3 + i]);
+        }
+    }
+
+    /**
+     * Walks the hierarchy in pre-order and computes each element's world transform on a reusable matrix stack.
+     * When {@code trackBounds} is set, each element is also linked to its parent and receives its world bounds,
+     * and the subtree bounds of every element are accumulated in post-order on a parallel stack of boxes.
+     * @param rootElements the root elements
+     * @param owner the parent of the root elements, or null for the roots of the project
+     * @param origin the transform the roots are relative to
+     * @param trackBounds whether to link parents and calculate bounds
+     * @param sink the receiver of each computed transform
+     */
+    private void traverse(List<ProjectElement> rootElements, ProjectElement owner, Matrix4fc origin,
+                          boolean trackBounds, TransformSink sink) {
+        // worlds[d] is the parent transform of the elements at depth d; worlds[d + 1] holds
+        // the transform of the element currently being visited at depth d.
+        Matrix4f[] worlds = new Matrix4f[INITIAL_STACK_DEPTH + 1];
+        List<?>[] siblings = new List<?>[INITIAL_STACK_DEPTH];
+        int[] nextIndex = new int[INITIAL_STACK_DEPTH];
+        // owners[d] is the parent of the elements at depth d; the six floats of bounds at 6 * d accumulate
+        // its subtree bounds, so that only the stored boxes are allocated.
+        ProjectElement[] owners = trackBounds ? new ProjectElement[INITIAL_STACK_DEPTH] : null;
+        float[] bounds = trackBounds ? new float[INITIAL_STACK_DEPTH * 6] : null;
+        float[] scratch = trackBounds ? new float[6] : null;
+
+        worlds[0] = new Matrix4f(origin);
+        siblings[0] = rootElements;
+        if (trackBounds) {
+            owners[0] = owner;
+            BoundingBox.EMPTY.get(bounds, 0);
+        }
+        int depth = 0;
+        while (depth >= 0) {
+            List<?> current = siblings[depth];
+            if (nextIndex[depth] >= current.size()) {
+                siblings[depth] = null;
+                if (trackBounds && depth > 0) {
+                    // The owner's children are done; its subtree bounds join those of its siblings.
+                    owners[depth].setSubtreeBounds(toBox(bounds, depth * 6));
+                    include(bounds, (depth - 1) * 6, bounds, depth * 6);
+                    owners[depth] = null;
+                }
+                depth--;
+                continue;
+            }
+            ProjectElement element = (ProjectElement) current.get(nextIndex[depth]++);
+            if (element == null) continue;
+
+            Matrix4f world = worlds[depth + 1];
+            if (world == null) {
+                world = worlds[depth + 1] = new Matrix4f();
+            }
+            // The correct order is: localMatrix * parentWorldTransform
+            TransformUtils.arrayToMatrix4f(element.getTransformArray(), world).mul(worlds[depth]);
+            sink.accept(element, world);
+
+            BoundingBox own = null;
+            if (trackBounds) {
+                element.setParent(owners[depth]);
+                own = worldBounds(element, world, scratch);
+                element.setWorldBounds(own);
+            } else if (element.getWorldBounds() != null) {
+                clearBounds(element);
+            }
+
+            List<ProjectElement> children = element.getChildren();
+            if (children != null && !children.isEmpty()) {
+                depth++;
+                if (depth == siblings.length) {
+                    int capacity = siblings.length * 2;
+                    siblings = Arrays.copyOf(siblings, capacity);
+                    nextIndex = Arrays.copyOf(nextIndex, capacity);
+                    worlds = Arrays.copyOf(worlds, capacity + 1);
+                    if (trackBounds) {
+                        owners = Arrays.copyOf(owners, capacity);
+                        bounds = Arrays.copyOf(bounds, capacity * 6);
+                    }
+                }
+                siblings[depth] = children;
+                nextIndex[depth] = 0;
+                if (trackBounds) {
+                    owners[depth] = element;
+                    // Seeded with the owner's own geometry, which belongs to its subtree bounds.
+                    own.get(bounds, depth * 6);
+                }
+            } else if (trackBounds) {
+                element.setSubtreeBounds(own);
+                if (!own.isEmpty()) {
+                    include(bounds, depth * 6, scratch, 0);
+                }
             }
         }
     }
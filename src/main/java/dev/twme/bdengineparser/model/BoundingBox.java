@@ -0,0 +1,178 @@
+package dev.twme.bdengineparser.model;
+
+import org.joml.Matrix4fc;
+
+/**
+ * An axis-aligned bounding box in world or element-local block units.
+ * The bounds are inclusive; a box whose minimum exceeds its maximum on any axis is empty.
+ *
+ * @param minX the minimum x coordinate
+ * @param minY the minimum y coordinate
+ * @param minZ the minimum z coordinate
+ * @param maxX the maximum x coordinate
+ * @param maxY the maximum y coordinate
+ * @param maxZ the maximum z coordinate
+ */
+public record BoundingBox(float minX, float minY, float minZ, float maxX, float maxY, float maxZ) {
+
+    /**
+     * The empty box, which contains nothing and is the identity of {@link #union(BoundingBox)}.
+     */
+    public static final BoundingBox EMPTY = new BoundingBox(
+            Float.POSITIVE_INFINITY, Float.POSITIVE_INFINITY, Float.POSITIVE_INFINITY,
+            Float.NEGATIVE_INFINITY, Float.NEGATIVE_INFINITY, Float.NEGATIVE_INFINITY);
+
+    /**
+     * Creates the smallest box holding the six bounds stored at {@code offset} in min-x, min-y, min-z, max-x,
+     * max-y, max-z order.
+     * @param bounds the array holding the bounds
+     * @param offset the index of min-x
+     * @return the box
+     */
+    public static BoundingBox of(float[] bounds, int offset) {
+        return new BoundingBox(bounds[offset], bounds[offset + 1], bounds[offset + 2],
+                bounds[offset + 3], bounds[offset + 4], bounds[offset + 5]);
+    }
+
+    /**
+     * Checks whether the box contains nothing.
+     * @return true if the minimum exceeds the maximum on any axis
+     */
+    public boolean isEmpty() {
+        return !(minX <= maxX && minY <= maxY && minZ <= maxZ);
+    }
+
+    /**
+     * Checks whether a point lies inside the box or on its surface.
+     * @param x the x coordinate
+     * @param y the y coordinate
+     * @param z the z coordinate
+     * @return true if the point is inside
+     */
+    public boolean contains(float x, float y, float z) {
+        return x >= minX && x <= maxX && y >= minY && y <= maxY && z >= minZ && z <= maxZ;
+    }
+
+    /**
+     * Checks whether two boxes overlap or touch.
+     * @param other the other box
+     * @return true if the boxes share at least one point
+     */
+    public boolean intersects(BoundingBox other) {
+        return minX <= other.maxX && maxX >= other.minX
+                && minY <= other.maxY && maxY >= other.minY
+                && minZ <= other.maxZ && maxZ >= other.minZ;
+    }
+
+    /**
+     * Returns the smallest box holding this box and another.
+     * @param other the other box
+     * @return the union, which is this box if the other is empty
+     */
+    public BoundingBox union(BoundingBox other) {
+        if (other.isEmpty()) return this;
+        if (isEmpty()) return other;
+        return new BoundingBox(Math.min(minX, other.minX), Math.min(minY, other.minY), Math.min(minZ, other.minZ),
+                Math.max(maxX, other.maxX), Math.max(maxY, other.maxY), Math.max(maxZ, other.maxZ));
+    }
+
+    /**
+     * Returns the axis-aligned box holding this box after an affine transformation, such as an element's
+     * world transform applied to its local bounds.
+     * @param transform the affine transformation, in the layout of {@link ProjectElement#getWorldTransform()}
+     * @return the transformed bounds, or the empty box if this box is empty
+     */
+    public BoundingBox transform(Matrix4fc transform) {
+        if (isEmpty()) return this;
+        float[] bounds = { minX, minY, minZ, maxX, maxY, maxZ };
+        transformBounds(transform, bounds, 0, bounds, 0);
+        return of(bounds, 0);
+    }
+
+    /**
+     * Returns the squared distance from a point to the closest point of the box.
+     * @param x the x coordinate
+     * @param y the y coordinate
+     * @param z the z coordinate
+     * @return 0 if the point is inside, otherwise the squared distance
+     */
+    public float distanceSquared(float x, float y, float z) {
+        float dx = Math.max(Math.max(minX - x, 0), x - maxX);
+        float dy = Math.max(Math.max(minY - y, 0), y - maxY);
+        float dz = Math.max(Math.max(minZ - z, 0), z - maxZ);
+        return dx * dx + dy * dy + dz * dz;
+    }
+
+    /**
+     * Gets the x coordinate of the center.
+     * @return the center x coordinate
+     */
+    public float centerX() { return (minX + maxX) * 0.5f; }
+
+    /**
+     * Gets the y coordinate of the center.
+     * @return the center y coordinate
+     */
+    public float centerY() { return (minY + maxY) * 0.5f; }
+
+    /**
+     * Gets the z coordinate of the center.
+     * @return the center z coordinate
+     */
+    public float centerZ() { return (minZ + maxZ) * 0.5f; }
+
+    /**
+     * Writes the bounds into an array in min-x, min-y, min-z, max-x, max-y, max-z order.
+     * @param dest the array to write into
+     * @param offset the index of min-x
+     * @return dest
+     */
+    public float[] get(float[] dest, int offset) {
+        dest[offset] = minX;
+        dest[offset + 1] = minY;
+        dest[offset + 2] = minZ;
+        dest[offset + 3] = maxX;
+        dest[offset + 4] = maxY;
+        dest[offset + 5] = maxZ;
+        return dest;
+    }
+
+    /**
+     * Transforms six packed bounds by an affine matrix into the axis-aligned bounds of the result, without
+     * allocating. Uses the per-axis minimum and maximum of each axis of the transformation (Arvo's method),
+     * which gives the same box as transforming all eight corners. Source and destination may be the same range.
+     * <p>
+     * The matrix is read in the layout the parser stores world transforms in: BDEngine's row-major
+     * {@code transforms} arrays are loaded into JOML unchanged, so {@code mRC} holds row {@code R} and column
+     * {@code C} of the transformation and the translation is in {@code m03}, {@code m13} and {@code m23}.
+     * </p>
+     * @param transform the affine transformation, in the layout of {@link ProjectElement#getWorldTransform()}
+     * @param src the array holding the source bounds
+     * @param srcOffset the index of the source min-x
+     * @param dest the array receiving the transformed bounds
+     * @param destOffset the index of the destination min-x
+     */
+    public static void transformBounds(Matrix4fc transform, float[] src, int srcOffset, float[] dest, int destOffset) {
+        float x0 = src[srcOffset], y0 = src[srcOffset + 1], z0 = src[srcOffset + 2];
+        float x1 = src[srcOffset + 3], y1 = src[srcOffset + 4], z1 = src[srcOffset + 5];
+        float minX = transform.m03(), maxX = minX;
+        float minY = transform.m13(), maxY = minY;
+        float minZ = transform.m23(), maxZ = minZ;
+        float a, b;
+        a = transform.m00() * x0; b = transform.m00() * x1; minX += Math.min(a, b); maxX += Math.max(a, b);
+        a = transform.m10() * x0; b = transform.m10() * x1; minY += Math.min(a, b); maxY += Math.max(a, b);
+        a = transform.m20() * x0; b = transform.m20() * x1; minZ += Math.min(a, b); maxZ += Math.max(a, b);
+        a = transform.m01() * y0; b = transform.m01() * y1; minX += Math.min(a, b); maxX += Math.max(a, b);
+        a = transform.m11() * y0; b = transform.m11() * y1; minY += Math.min(a, b); maxY += Math.max(a, b);
+        a = transform.m21() * y0; b = transform.m21() * y1; minZ += Math.min(a, b); maxZ += Math.max(a, b);
+        a = transform.m02() * z0; b = transform.m02() * z1; minX += Math.min(a, b); maxX += Math.max(a, b);
+        a = transform.m12() * z0; b = transform.m12() * z1; minY += Math.min(a, b); maxY += Math.max(a, b);
+        a = transform.m22() * z0; b = transform.m22() * z1; minZ += Math.min(a, b); maxZ += Math.max(a, b);
+        dest[destOffset] = minX;
+        dest[destOffset + 1] = minY;
+        dest[destOffset + 2] = minZ;
+        dest[destOffset + 3] = maxX;
+        dest[destOffset + 4] = maxY;
+        dest[destOffset + 5] = maxZ;
+    }
+}
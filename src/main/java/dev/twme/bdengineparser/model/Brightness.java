@@ -45,4 +45,15 @@ public class Brightness {
     public void setBlock(int block) {
         this.block = block;
     }
+
+    /**
+     * Creates a copy of these brightness settings.
+     * @return a new Brightness with the same values
+     */
+    public Brightness copy() {
+        Brightness copy = new Brightness();
+        copy.sky = sky;
+        copy.block = block;
+        return copy;
+    }
 }
@@ -0,0 +1,466 @@
+package dev.twme.bdengineparser.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.joml.Matrix4f;
+import org.joml.Matrix4fc;
+
+/**
+ * A flattened, structure-of-arrays form of a BD Engine project.
+ * Elements are stored in pre-order (each element is followed by all of its descendants), so a parent
+ * always precedes its children and the world transforms can be computed in a single linear pass.
+ * The hierarchy is encoded as parent, first-child and next-sibling indices, names and NBT strings are
+ * interned into a shared string table, and the local and world matrices are packed into contiguous
+ * {@code float} arrays with 16 column-major values per element.
+ * <p>
+ * Arrays returned by the {@code get...Array} accessors are the backing storage and must not be modified.
+ * A compiled project is not thread-safe while its transforms are being changed or recomputed, but can be
+ * read concurrently otherwise.
+ * </p>
+ */
+public final class CompiledProject {
+
+    /** Type flag of a collection (group) element. */
+    public static final byte TYPE_COLLECTION = 0;
+    /** Type flag of a block display element. */
+    public static final byte TYPE_BLOCK_DISPLAY = 1;
+    /** Type flag of an item display element. */
+    public static final byte TYPE_ITEM_DISPLAY = 2;
+    /** Type flag of a text display element. */
+    public static final byte TYPE_TEXT_DISPLAY = 3;
+    /** Type flag of an element that declares none of the known types. */
+    public static final byte TYPE_OTHER = 4;
+
+    /** Index value used when there is no parent, child, sibling or string. */
+    public static final int NONE = -1;
+
+    private static final int MATRIX_SIZE = 16;
+
+    private final int size;
+    private final int[] parents;
+    private final int[] firstChildren;
+    private final int[] nextSiblings;
+    private final byte[] types;
+    private final int[] nameIds;
+    private final int[] nbtIds;
+    private final String[] strings;
+    private final float[] localTransforms;
+    private final float[] worldTransforms;
+
+    private CompiledProject(int size, int[] parents, int[] firstChildren, int[] nextSiblings, byte[] types,
+                            int[] nameIds, int[] nbtIds, String[] strings, float[] localTransforms) {
+        this.size = size;
+        this.parents = parents;
+        this.firstChildren = firstChildren;
+        this.nextSiblings = nextSiblings;
+        this.types = types;
+        this.nameIds = nameIds;
+        this.nbtIds = nbtIds;
+        this.strings = strings;
+        this.localTransforms = localTransforms;
+        this.worldTransforms = new float[size * MATRIX_SIZE];
+        computeWorldTransforms();
+    }
+
+    /**
+     * Compiles a parsed element tree into its flattened form and computes its world transforms.
+     * Null elements are skipped together with their children.
+     *
+     * @param rootElements the root elements of the project
+     * @return the compiled project
+     * @throws IllegalArgumentException if an element does not have 16 transform values
+     */
+    public static CompiledProject compile(List<ProjectElement> rootElements) {
+        Builder builder = new Builder();
+        if (rootElements == null) {
+            return builder.build();
+        }
+        // Explicit pre-order walk; each stack frame is a sibling list and the index of the next sibling.
+        List<List<ProjectElement>> siblingStack = new ArrayList<>();
+        List<Integer> parentStack = new ArrayList<>();
+        int[] nextIndex = new int[16];
+        siblingStack.add(rootElements);
+        parentStack.add(NONE);
+        while (!siblingStack.isEmpty()) {
+            int depth = siblingStack.size() - 1;
+            List<ProjectElement> siblings = siblingStack.get(depth);
+            if (nextIndex[depth] >= siblings.size()) {
+                siblingStack.remove(depth);
+                parentStack.remove(depth);
+                continue;
+            }
+            ProjectElement element = siblings.get(nextIndex[depth]++);
+            if (element == null) continue;
+            int index = builder.add(parentStack.get(depth), typeOf(element), element.getName(), element.getNbt(),
+                    element.getTransformArray());
+            List<ProjectElement> children = element.getChildren();
+            if (children != null && !children.isEmpty()) {
+                if (depth + 1 == nextIndex.length) {
+                    nextIndex = Arrays.copyOf(nextIndex, nextIndex.length * 2);
+                }
+                nextIndex[depth + 1] = 0;
+                siblingStack.add(children);
+                parentStack.add(index);
+            }
+        }
+        return builder.build();
+    }
+
+    /**
+     * Determines the type flag of an element from its display flags.
+     * @param element the element to classify
+     * @return one of the {@code TYPE_} constants
+     */
+    public static byte typeOf(ProjectElement element) {
+        if (Boolean.TRUE.equals(element.getIsCollection())) return TYPE_COLLECTION;
+        if (Boolean.TRUE.equals(element.getIsBlockDisplay())) return TYPE_BLOCK_DISPLAY;
+        if (Boolean.TRUE.equals(element.getIsItemDisplay())) return TYPE_ITEM_DISPLAY;
+        if (Boolean.TRUE.equals(element.getIsTextDisplay())) return TYPE_TEXT_DISPLAY;
+        return TYPE_OTHER;
+    }
+
+    /**
+     * Recomputes every world transform from the local transforms, relative to the world origin.
+     * This is a single linear pass over the elements.
+     */
+    public void computeWorldTransforms() {
+        computeWorldTransforms(null, worldTransforms, 0);
+    }
+
+    /**
+     * Computes every world transform relative to the given origin into a caller-provided array,
+     * leaving the stored world transforms untouched. This allows the same compiled project to be placed
+     * many times, each instance with its own output buffer.
+     * The multiplication order matches {@link ProjectElement#getWorldTransform()}: {@code local * parentWorld}.
+     * The origin is therefore in the same stored layout as the local and world transforms, the transpose of
+     * a JOML transform, with its translation in {@code m03}, {@code m13} and {@code m23}; an origin built
+     * with JOML's {@code translation} or {@code rotate} methods must be transposed first.
+     *
+     * @param origin the transform the root elements are relative to, or null for the world origin
+     * @param dest the array to write into; needs {@code 16 * size()} floats from {@code offset}
+     * @param offset the index of the first float to write
+     * @throws IllegalArgumentException if dest is too small
+     */
+    public void computeWorldTransforms(Matrix4fc origin, float[] dest, int offset) {
+        if (dest.length - offset < size * MATRIX_SIZE) {
+            throw new IllegalArgumentException("Destination array is too small for " + size + " world transforms.");
+        }
+        Matrix4f current = new Matrix4f();
+        Matrix4f parentWorld = new Matrix4f();
+        for (int i = 0; i < size; i++) {
+            current.set(localTransforms, i * MATRIX_SIZE);
+            int parent = parents[i];
+            if (parent != NONE) {
+                current.mul(parentWorld.set(dest, offset + parent * MATRIX_SIZE));
+            } else if (origin != null) {
+                current.mul(origin);
+            }
+            current.get(dest, offset + i * MATRIX_SIZE);
+        }
+    }
+
+    /**
+     * Gets the number of elements.
+     * @return the element count
+     */
+    public int size() { return size; }
+
+    /**
+     * Gets the index of an element's parent.
+     * @param index the element index
+     * @return the parent index, or {@link #NONE} for a root element
+     */
+    public int getParent(int index) { return parents[index]; }
+
+    /**
+     * Gets the index of an element's first child.
+     * @param index the element index
+     * @return the first child index, or {@link #NONE} if the element has no children
+     */
+    public int getFirstChild(int index) { return firstChildren[index]; }
+
+    /**
+     * Gets the index of an element's next sibling.
+     * @param index the element index
+     * @return the next sibling index, or {@link #NONE} if the element is the last child
+     */
+    public int getNextSibling(int index) { return nextSiblings[index]; }
+
+    /**
+     * Gets the type flag of an element.
+     * @param index the element index
+     * @return one of the {@code TYPE_} constants
+     */
+    public byte getType(int index) { return types[index]; }
+
+    /**
+     * Gets the name of an element.
+     * @param index the element index
+     * @return the name, or null if the element has none
+     */
+    public String getName(int index) { return string(nameIds[index]); }
+
+    /**
+     * Gets the NBT data of an element.
+     * @param index the element index
+     * @return the NBT string, or null if the element has none
+     */
+    public String getNbt(int index) { return string(nbtIds[index]); }
+
+    /**
+     * Gets the string table id of an element's name. Equal names share the same id.
+     * @param index the element index
+     * @return the string id, or {@link #NONE} if the element has no name
+     */
+    public int getNameId(int index) { return nameIds[index]; }
+
+    /**
+     * Gets the string table id of an element's NBT data. Equal NBT strings share the same id.
+     * @param index the element index
+     * @return the string id, or {@link #NONE} if the element has no NBT data
+     */
+    public int getNbtId(int index) { return nbtIds[index]; }
+
+    /**
+     * Gets an entry of the string table.
+     * @param id the string id
+     * @return the string, or null for {@link #NONE}
+     */
+    public String string(int id) { return id == NONE ? null : strings[id]; }
+
+    /**
+     * Gets the number of distinct strings in the string table.
+     * @return the string table size
+     */
+    public int getStringCount() { return strings.length; }
+
+    /**
+     * Loads an element's local transform into the given matrix.
+     * @param index the element index
+     * @param dest the matrix to overwrite
+     * @return dest, for chaining
+     */
+    public Matrix4f getLocalTransform(int index, Matrix4f dest) {
+        return dest.set(localTransforms, index * MATRIX_SIZE);
+    }
+
+    /**
+     * Replaces an element's local transform. Call {@link #computeWorldTransforms()} afterwards to
+     * update the world transforms.
+     * @param index the element index
+     * @param transform the new local transform
+     */
+    public void setLocalTransform(int index, Matrix4fc transform) {
+        transform.get(localTransforms, index * MATRIX_SIZE);
+    }
+
+    /**
+     * Loads an element's world transform into the given matrix.
+     * @param index the element index
+     * @param dest the matrix to overwrite
+     * @return dest, for chaining
+     */
+    public Matrix4f getWorldTransform(int index, Matrix4f dest) {
+        return dest.set(worldTransforms, index * MATRIX_SIZE);
+    }
+
+    /**
+     * Gets the parent indices. Backing storage; must not be modified.
+     * @return the parent index of each element
+     */
+    public int[] getParentArray() { return parents; }
+
+    /**
+     * Gets the first-child indices. Backing storage; must not be modified.
+     * @return the first child index of each element
+     */
+    public int[] getFirstChildArray() { return firstChildren; }
+
+    /**
+     * Gets the next-sibling indices. Backing storage; must not be modified.
+     * @return the next sibling index of each element
+     */
+    public int[] getNextSiblingArray() { return nextSiblings; }
+
+    /**
+     * Gets the type flags. Backing storage; must not be modified.
+     * @return the type flag of each element
+     */
+    public byte[] getTypeArray() { return types; }
+
+    /**
+     * Gets the packed local transforms, 16 column-major floats per element. Backing storage; must not be modified.
+     * @return the local transforms
+     */
+    public float[] getLocalTransformArray() { return localTransforms; }
+
+    /**
+     * Gets the packed world transforms, 16 column-major floats per element. Backing storage; must not be modified.
+     * @return the world transforms
+     */
+    public float[] getWorldTransformArray() { return worldTransforms; }
+
+    /**
+     * Returns a string representation of the CompiledProject.
+     * @return a string containing the element and string table sizes
+     */
+    @Override
+    public String toString() {
+        return "CompiledProject{" +
+                "size=" + size +
+                ", strings=" + strings.length +
+                '}';
+    }
+
+    /**
+     * Incrementally assembles a compiled project from elements supplied in pre-order.
+     */
+    public static final class Builder {
+        private int size;
+        private int[] parents = new int[64];
+        private int[] firstChildren = new int[64];
+        private int[] nextSiblings = new int[64];
+        private int[] lastChildren = new int[64];
+        private byte[] types = new byte[64];
+        private int[] nameIds = new int[64];
+        private int[] nbtIds = new int[64];
+        private float[] localTransforms = new float[64 * MATRIX_SIZE];
+        private final Map<String, Integer> stringIds = new HashMap<>();
+        private final List<String> strings = new ArrayList<>();
+        private int lastRoot = NONE;
+
+        /**
+         * Creates an empty builder.
+         */
+        public Builder() {
+        }
+
+        /**
+         * Appends an element. Elements must be added in pre-order, so the parent must already have been added.
+         *
+         * @param parent the index of the parent element, or {@link #NONE} for a root element
+         * @param type the type flag of the element
+         * @param name the name of the element, may be null
+         * @param nbt the NBT data of the element, may be null
+         * @param transforms the 16 column-major local transform values
+         * @return the index of the new element
+         * @throws IllegalArgumentException if transforms does not have 16 values or parent is invalid
+         */
+        public int add(int parent, byte type, String name, String nbt, double[] transforms) {
+            if (transforms == null || transforms.length != MATRIX_SIZE) {
+                throw new IllegalArgumentException("Transform list must contain 16 elements for a 4x4 matrix.");
+            }
+            int index = reserve(parent);
+            set(index, type, name, nbt, transforms);
+            return index;
+        }
+
+        /**
+         * Appends a placeholder element whose data is filled in later with
+         * {@link #set(int, byte, String, String, double[])}. This lets a streaming reader assign pre-order
+         * indices when an element starts, before all of its fields have been seen.
+         * The placeholder has type {@link #TYPE_OTHER}, no name or NBT and an identity transform.
+         *
+         * @param parent the index of the parent element, or {@link #NONE} for a root element
+         * @return the index of the new element
+         * @throws IllegalArgumentException if parent is invalid
+         */
+        public int reserve(int parent) {
+            if (parent < NONE || parent >= size) {
+                throw new IllegalArgumentException("Parent index " + parent + " has not been added yet.");
+            }
+            int index = size;
+            ensureCapacity(index + 1);
+            parents[index] = parent;
+            firstChildren[index] = NONE;
+            nextSiblings[index] = NONE;
+            lastChildren[index] = NONE;
+            types[index] = TYPE_OTHER;
+            nameIds[index] = NONE;
+            nbtIds[index] = NONE;
+            int base = index * MATRIX_SIZE;
+            Arrays.fill(localTransforms, base, base + MATRIX_SIZE, 0f);
+            for (int i = 0; i < 4; i++) {
+                localTransforms[base + i * 5] = 1f;
+            }
+            int previousSibling = parent == NONE ? lastRoot : lastChildren[parent];
+            if (previousSibling != NONE) {
+                nextSiblings[previousSibling] = index;
+            } else if (parent != NONE) {
+                firstChildren[parent] = index;
+            }
+            if (parent == NONE) {
+                lastRoot = index;
+            } else {
+                lastChildren[parent] = index;
+            }
+            size++;
+            return index;
+        }
+
+        /**
+         * Replaces the data of an element that has already been added or reserved.
+         *
+         * @param index the index of the element
+         * @param type the type flag of the element
+         * @param name the name of the element, may be null
+         * @param nbt the NBT data of the element, may be null
+         * @param transforms the 16 column-major local transform values
+         * @throws IllegalArgumentException if transforms does not have 16 values or index is invalid
+         */
+        public void set(int index, byte type, String name, String nbt, double[] transforms) {
+            if (transforms == null || transforms.length != MATRIX_SIZE) {
+                throw new IllegalArgumentException("Transform list must contain 16 elements for a 4x4 matrix.");
+            }
+            if (index < 0 || index >= size) {
+                throw new IllegalArgumentException("Element index " + index + " has not been added yet.");
+            }
+            types[index] = type;
+            nameIds[index] = intern(name);
+            nbtIds[index] = intern(nbt);
+            int base = index * MATRIX_SIZE;
+            for (int i = 0; i < MATRIX_SIZE; i++) {
+                localTransforms[base + i] = (float) transforms[i];
+            }
+        }
+
+        /**
+         * Builds the compiled project and computes its world transforms.
+         * @return the compiled project
+         */
+        public CompiledProject build() {
+            return new CompiledProject(size,
+                    Arrays.copyOf(parents, size), Arrays.copyOf(firstChildren, size), Arrays.copyOf(nextSiblings, size),
+                    Arrays.copyOf(types, size), Arrays.copyOf(nameIds, size), Arrays.copyOf(nbtIds, size),
+                    strings.toArray(new String[0]), Arrays.copyOf(localTransforms, size * MATRIX_SIZE));
+        }
+
+        private int intern(String value) {
+            if (value == null) return NONE;
+            Integer id = stringIds.get(value);
+            if (id == null) {
+                id = strings.size();
+                strings.add(value);
+                stringIds.put(value, id);
+            }
+            return id;
+        }
+
+        private void ensureCapacity(int required) {
+            if (required <= parents.length) return;
+            int capacity = Math.max(required, parents.length * 2);
+            parents = Arrays.copyOf(parents, capacity);
+            firstChildren = Arrays.copyOf(firstChildren, capacity);
+            nextSiblings = Arrays.copyOf(nextSiblings, capacity);
+            lastChildren = Arrays.copyOf(lastChildren, capacity);
+            types = Arrays.copyOf(types, capacity);
+            nameIds = Arrays.copyOf(nameIds, capacity);
+            nbtIds = Arrays.copyOf(nbtIds, capacity);
+            localTransforms = Arrays.copyOf(localTransforms, capacity * MATRIX_SIZE);
+        }
+    }
+}
@@ -8,23 +8,37 @@ import java.util.List;
  */
 public class DefaultTransform {
     @SerializedName("position")
-    private List<Double> position;
+    private double[] position;
     @SerializedName("rotation")
     private Rotation rotation;
     @SerializedName("scale")
-    private List<Double> scale;
+    private double[] scale;
 
     /**
      * Gets the position of the entity.
+     * The returned list is a fixed-size view over {@link #getPositionArray()}.
      * @return the position as a list of doubles
      */
-    public List<Double> getPosition() { return position; }
+    public List<Double> getPosition() { return position != null ? new DoubleArrayList(position) : null; }
 
     /**
      * Sets the position of the entity.
+     * The values are copied into primitive storage.
      * @param position the position as a list of doubles
      */
-    public void setPosition(List<Double> position) { this.position = position; }
+    public void setPosition(List<Double> position) { this.position = DoubleArrayList.toArray(position); }
+
+    /**
+     * Gets the primitive storage of the position, without copying.
+     * @return the position as an array of doubles
+     */
+    public double[] getPositionArray() { return position; }
+
+    /**
+     * Sets the primitive storage of the position, without copying.
+     * @param position the position as an array of doubles
+     */
+    public void setPositionArray(double[] position) { this.position = position; }
 
     /**
      * Gets the rotation of the entity.
@@ -40,13 +54,39 @@ public class DefaultTransform {
 
     /**
      * Gets the scale of the entity.
+     * The returned list is a fixed-size view over {@link #getScaleArray()}.
      * @return the scale as a list of doubles
      */
-    public List<Double> getScale() { return scale; }
+    public List<Double> getScale() { return scale != null ? new DoubleArrayList(scale) : null; }
 
     /**
      * Sets the scale of the entity.
+     * The values are copied into primitive storage.
      * @param scale the scale as a list of doubles
      */
-    public void setScale(List<Double> scale) { this.scale = scale; }
+    public void setScale(List<Double> scale) { this.scale = DoubleArrayList.toArray(scale); }
+
+    /**
+     * Gets the primitive storage of the scale, without copying.
+     * @return the scale as an array of doubles
+     */
+    public double[] getScaleArray() { return scale; }
+
+    /**
+     * Sets the primitive storage of the scale, without copying.
+     * @param scale the scale as an array of doubles
+     */
+    public void setScaleArray(double[] scale) { this.scale = scale; }
+
+    /**
+     * Creates a deep copy of this default transform.
+     * @return a new DefaultTransform with copied position, rotation and scale
+     */
+    public DefaultTransform copy() {
+        DefaultTransform copy = new DefaultTransform();
+        copy.position = position != null ? position.clone() : null;
+        copy.rotation = rotation != null ? rotation.copy() : null;
+        copy.scale = scale != null ? scale.clone() : null;
+        return copy;
+    }
 }
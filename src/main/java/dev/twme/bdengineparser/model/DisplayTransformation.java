@@ -0,0 +1,152 @@
+package dev.twme.bdengineparser.model;
+
+import org.joml.Matrix4f;
+import org.joml.Matrix4fc;
+import org.joml.Quaternionf;
+import org.joml.Vector3f;
+
+import dev.twme.bdengineparser.internal.MatrixDecomposition;
+
+/**
+ * A transform split into the four components a Minecraft display entity takes: a translation, a left rotation,
+ * a scale and a right rotation, applied to a point in reverse order. Composing them gives
+ * {@code translation * leftRotation * scale * rightRotation}, the same matrix as
+ * {@code new Matrix4f().translation(t).rotate(left).scale(s).rotate(right)}.
+ * <p>
+ * The rotations and scale come from a singular value decomposition of the upper 3x3 part of the matrix, like
+ * the game's own {@code Transformation(Matrix4f)} constructor. Rotations are unit quaternions; a mirroring
+ * transform gets a negative z scale. The scales are sorted by decreasing magnitude, so they can come out in a
+ * different order than the ones a transform was built from, with the rotations adjusted to match. Because the
+ * components are stored as floats, composing them reproduces the source matrix only up to rounding;
+ * {@link #reconstructionError()} records how far off it is.
+ * </p>
+ *
+ * @param translationX the x translation
+ * @param translationY the y translation
+ * @param translationZ the z translation
+ * @param leftRotationX the x component of the left rotation quaternion
+ * @param leftRotationY the y component of the left rotation quaternion
+ * @param leftRotationZ the z component of the left rotation quaternion
+ * @param leftRotationW the w component of the left rotation quaternion
+ * @param scaleX the x scale
+ * @param scaleY the y scale
+ * @param scaleZ the z scale
+ * @param rightRotationX the x component of the right rotation quaternion
+ * @param rightRotationY the y component of the right rotation quaternion
+ * @param rightRotationZ the z component of the right rotation quaternion
+ * @param rightRotationW the w component of the right rotation quaternion
+ * @param reconstructionError the largest absolute difference between the entries of the composed components
+ *                            and of the source matrix
+ */
+public record DisplayTransformation(float translationX, float translationY, float translationZ,
+                                    float leftRotationX, float leftRotationY, float leftRotationZ, float leftRotationW,
+                                    float scaleX, float scaleY, float scaleZ,
+                                    float rightRotationX, float rightRotationY, float rightRotationZ, float rightRotationW,
+                                    float reconstructionError) {
+
+    /**
+     * Decomposes an affine transform, such as an element's world transform.
+     * A homogeneous scale in {@code m33} other than 1 is divided out first, as the game does.
+     * <p>
+     * The transform is read in the layout the parser stores transforms in: BDEngine's row-major
+     * {@code transforms} arrays are loaded into JOML unchanged, so {@code mRC} holds row {@code R} and column
+     * {@code C} of the transformation and the translation is in {@code m03}, {@code m13} and {@code m23}.
+     * It is transposed into JOML's layout before it is decomposed, so {@link #toMatrix(Matrix4f)} gives the
+     * transpose of the source.
+     * </p>
+     * @param transform the transform, in the layout of {@link ProjectElement#getWorldTransform()}
+     * @return the decomposed transform, with its reconstruction error measured against the source
+     * @throws IllegalArgumentException if transform is null
+     */
+    public static DisplayTransformation of(Matrix4fc transform) {
+        if (transform == null) {
+            throw new IllegalArgumentException("Transform cannot be null.");
+        }
+        double w = transform.m33() != 0 ? 1.0 / transform.m33() : 1.0;
+        // Column-major, so the column c of the transformation is (m0c, m1c, m2c).
+        double[] m = {
+                transform.m00() * w, transform.m10() * w, transform.m20() * w,
+                transform.m01() * w, transform.m11() * w, transform.m21() * w,
+                transform.m02() * w, transform.m12() * w, transform.m22() * w
+        };
+        double[] u = new double[9];
+        double[] sigma = new double[3];
+        double[] v = new double[9];
+        MatrixDecomposition.svd(m, u, sigma, v);
+        // M = U S V^T; the right rotation is V^T, whose quaternion is the conjugate of V's.
+        float[] left = new float[4];
+        float[] right = new float[4];
+        MatrixDecomposition.toQuaternion(u, left, 0);
+        MatrixDecomposition.toQuaternion(v, right, 0);
+        DisplayTransformation components = new DisplayTransformation(
+                (float) (transform.m03() * w), (float) (transform.m13() * w), (float) (transform.m23() * w),
+                left[0], left[1], left[2], left[3],
+                (float) sigma[0], (float) sigma[1], (float) sigma[2],
+                -right[0], -right[1], -right[2], right[3],
+                0);
+        Matrix4f composed = components.toMatrix(new Matrix4f());
+        // Every entry, so a projective bottom row in the source shows up as error as well.
+        float error = 0;
+        for (int c = 0; c < 4; c++) {
+            for (int r = 0; r < 4; r++) {
+                error = Math.max(error, Math.abs(composed.get(c, r) - (float) (transform.get(r, c) * w)));
+            }
+        }
+        return components.withReconstructionError(error);
+    }
+
+    /**
+     * Gets the translation.
+     * @param dest the vector to write into
+     * @return dest
+     */
+    public Vector3f getTranslation(Vector3f dest) {
+        return dest.set(translationX, translationY, translationZ);
+    }
+
+    /**
+     * Gets the left rotation, applied after the scale.
+     * @param dest the quaternion to write into
+     * @return dest
+     */
+    public Quaternionf getLeftRotation(Quaternionf dest) {
+        return dest.set(leftRotationX, leftRotationY, leftRotationZ, leftRotationW);
+    }
+
+    /**
+     * Gets the scale.
+     * @param dest the vector to write into
+     * @return dest
+     */
+    public Vector3f getScale(Vector3f dest) {
+        return dest.set(scaleX, scaleY, scaleZ);
+    }
+
+    /**
+     * Gets the right rotation, applied before the scale.
+     * @param dest the quaternion to write into
+     * @return dest
+     */
+    public Quaternionf getRightRotation(Quaternionf dest) {
+        return dest.set(rightRotationX, rightRotationY, rightRotationZ, rightRotationW);
+    }
+
+    /**
+     * Composes the components back into a matrix in JOML's layout, the transpose of the layout
+     * {@link #of(Matrix4fc)} reads.
+     * @param dest the matrix to write into
+     * @return dest
+     */
+    public Matrix4f toMatrix(Matrix4f dest) {
+        return dest.translation(translationX, translationY, translationZ)
+                .rotate(new Quaternionf(leftRotationX, leftRotationY, leftRotationZ, leftRotationW))
+                .scale(scaleX, scaleY, scaleZ)
+                .rotate(new Quaternionf(rightRotationX, rightRotationY, rightRotationZ, rightRotationW));
+    }
+
+    private DisplayTransformation withReconstructionError(float error) {
+        return new DisplayTransformation(translationX, translationY, translationZ,
+                leftRotationX, leftRotationY, leftRotationZ, leftRotationW, scaleX, scaleY, scaleZ,
+                rightRotationX, rightRotationY, rightRotationZ, rightRotationW, error);
+    }
+}
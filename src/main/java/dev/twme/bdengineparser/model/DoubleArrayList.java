@@ -0,0 +1,59 @@
+package dev.twme.bdengineparser.model;
+
+import java.util.AbstractList;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * Fixed-size {@code List<Double>} view over a primitive array.
+ * Values are boxed only when read, and writes go straight through to the backing array.
+ */
+final class DoubleArrayList extends AbstractList<Double> implements RandomAccess {
+
+    private final double[] values;
+
+    DoubleArrayList(double[] values) {
+        this.values = values;
+    }
+
+    /**
+     * Copies a list of doubles into a new primitive array.
+     * @param list the list to copy, may be null
+     * @return the primitive array, or null if the list is null
+     * @throws IllegalArgumentException if the list contains a null value
+     */
+    static double[] toArray(List<Double> list) {
+        if (list == null) {
+            return null;
+        }
+        if (list instanceof DoubleArrayList view) {
+            return view.values.clone();
+        }
+        double[] array = new double[list.size()];
+        for (int i = 0; i < array.length; i++) {
+            Double value = list.get(i);
+            if (value == null) {
+                throw new IllegalArgumentException("Values cannot be null (index " + i + ").");
+            }
+            array[i] = value;
+        }
+        return array;
+    }
+
+    @Override
+    public Double get(int index) {
+        return values[index];
+    }
+
+    @Override
+    public Double set(int index, Double element) {
+        double previous = values[index];
+        values[index] = element;
+        return previous;
+    }
+
+    @Override
+    public int size() {
+        return values.length;
+    }
+}
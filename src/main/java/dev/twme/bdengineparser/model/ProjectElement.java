@@ -3,12 +3,24 @@ package dev.twme.bdengineparser.model;
 import com.google.gson.annotations.Expose;
 import com.google.gson.annotations.SerializedName;
 import org.joml.Matrix4f;
+
+import dev.twme.bdengineparser.nbt.NbtCompound;
+import dev.twme.bdengineparser.nbt.SnbtCache;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Represents an element in a BD Engine project.
  * This class contains various properties that define the characteristics of the element,
  * such as its name, type, transformations, and children elements.
+ * Elements made read-only with {@link #makeReadOnly(List)} throw {@link UnsupportedOperationException}
+ * from their setters, and their getters return copies of mutable state.
  */
 public class ProjectElement {
 
@@ -19,7 +31,7 @@ public class ProjectElement {
     @SerializedName("nbt")
     private String nbt;
     @SerializedName("transforms")
-    private List<Double> transforms;
+    private double[] transforms;
     @SerializedName("children")
     private List<ProjectElement> children;
 
@@ -54,6 +66,33 @@ public class ProjectElement {
     @Expose(serialize = false, deserialize = false)
     private transient Matrix4f worldTransform;
 
+    @Expose(serialize = false, deserialize = false)
+    private transient int subtreeSize;
+
+    @Expose(serialize = false, deserialize = false)
+    private transient volatile NbtCompound nbtTag;
+
+    @Expose(serialize = false, deserialize = false)
+    private transient ProjectElement parent;
+
+    @Expose(serialize = false, deserialize = false)
+    private transient BoundingBox worldBounds;
+
+    @Expose(serialize = false, deserialize = false)
+    private transient BoundingBox subtreeBounds;
+
+    @Expose(serialize = false, deserialize = false)
+    private transient volatile DecomposedTransform decomposedTransform;
+
+    @Expose(serialize = false, deserialize = false)
+    private transient boolean readOnly;
+
+    /**
+     * A decomposition together with the world transform it was computed from.
+     */
+    private record DecomposedTransform(Matrix4f source, DisplayTransformation value) {
+    }
+
     /**
      * Gets whether this element is a collection.
      * @return true if this element is a collection, false otherwise
@@ -64,7 +103,7 @@ public class ProjectElement {
      * Sets whether this element is a collection.
      * @param collection true if this element is a collection, false otherwise
      */
-    public void setIsCollection(Boolean collection) { isCollection = collection; }
+    public void setIsCollection(Boolean collection) { checkWritable(); isCollection = collection; }
 
     /**
      * Gets the name of this element.
@@ -77,7 +116,7 @@ public class ProjectElement {
      * Sets the name of this element.
      * @param name the name to set for the element
      */
-    public void setName(String name) { this.name = name; }
+    public void setName(String name) { checkWritable(); this.name = name; }
 
     /**
      * Gets the additional NBT data associated with this element.
@@ -89,19 +128,62 @@ public class ProjectElement {
      * Sets the NBT data for this element.
      * @param nbt the NBT data to set
      */
-    public void setNbt(String nbt) { this.nbt = nbt; }
+    public void setNbt(String nbt) {
+        checkWritable();
+        this.nbt = nbt;
+        this.nbtTag = null;
+    }
+
+    /**
+     * Gets the NBT data of this element as a parsed, immutable compound.
+     * The string is parsed on first access and the result is kept on the element; parsed compounds are
+     * also memoized in {@link SnbtCache#shared()}, so identical NBT strings are parsed only once.
+     * @return the parsed NBT data, {@link NbtCompound#EMPTY} if the NBT string is null or blank
+     * @throws IllegalArgumentException if the NBT string is malformed or not a compound
+     */
+    public NbtCompound getNbtTag() {
+        NbtCompound tag = nbtTag;
+        if (tag == null) {
+            tag = nbt == null ? NbtCompound.EMPTY : SnbtCache.shared().get(nbt);
+            nbtTag = tag;
+        }
+        return tag;
+    }
 
     /**
      * Gets the transformations applied to this element.
-     * @return a list of doubles representing the transformations
-     */
-    public List<Double> getTransforms() { return transforms; }
+     * The returned list is a fixed-size view over {@link #getTransformArray()}; values are
+     * boxed only when read and writes go through to the underlying array, unless the element is read-only.
+     * @return a list of doubles representing the transformations, or null if none are set
+     */
+    public List<Double> getTransforms() {
+        if (transforms == null) return null;
+        List<Double> view = new DoubleArrayList(transforms);
+        return readOnly ? Collections.unmodifiableList(view) : view;
+    }
 
     /**
      * Sets the transformations for this element.
+     * The values are copied into primitive storage.
      * @param transforms a list of doubles representing the transformations
+     * @throws IllegalArgumentException if the list contains a null value
      */
-    public void setTransforms(List<Double> transforms) { this.transforms = transforms; }
+    public void setTransforms(List<Double> transforms) { checkWritable(); this.transforms = DoubleArrayList.toArray(transforms); }
+
+    /**
+     * Gets the primitive storage of the transformations applied to this element.
+     * The array is returned without copying, unless the element is read-only; the 16 values are in
+     * column-major order.
+     * @return the transformation values, or null if none are set
+     */
+    public double[] getTransformArray() { return readOnly && transforms != null ? transforms.clone() : transforms; }
+
+    /**
+     * Sets the primitive storage of the transformations for this element.
+     * The array is stored without copying.
+     * @param transforms the transformation values in column-major order
+     */
+    public void setTransformArray(double[] transforms) { checkWritable(); this.transforms = transforms; }
 
     /**
      * Gets the children elements of this element.
@@ -113,7 +195,7 @@ public class ProjectElement {
      * Sets the children elements for this element.
      * @param children a list of ProjectElement representing the children
      */
-    public void setChildren(List<ProjectElement> children) { this.children = children; }
+    public void setChildren(List<ProjectElement> children) { checkWritable(); this.children = children; }
 
     /**
      * Gets whether this element is a back collection.
@@ -125,19 +207,20 @@ public class ProjectElement {
      * Sets whether this element is a back collection.
      * @param backCollection true if this element is a back collection, false otherwise
      */
-    public void setIsBackCollection(Boolean backCollection) { isBackCollection = backCollection; }
+    public void setIsBackCollection(Boolean backCollection) { checkWritable(); isBackCollection = backCollection; }
 
     /**
      * Gets the default transformation settings for this element.
+     * A read-only element returns a copy.
      * @return a DefaultTransform object representing the default transformations
      */
-    public DefaultTransform getDefaultTransform() { return defaultTransform; }
+    public DefaultTransform getDefaultTransform() { return readOnly && defaultTransform != null ? defaultTransform.copy() : defaultTransform; }
 
     /**
      * Sets the default transformation settings for this element.
      * @param defaultTransform a DefaultTransform object representing the default transformations
      */
-    public void setDefaultTransform(DefaultTransform defaultTransform) { this.defaultTransform = defaultTransform; }
+    public void setDefaultTransform(DefaultTransform defaultTransform) { checkWritable(); this.defaultTransform = defaultTransform; }
 
     /**
      * Gets whether this element is displayed as an item.
@@ -149,31 +232,33 @@ public class ProjectElement {
      * Sets whether this element is displayed as an item.
      * @param itemDisplay true if this element should be displayed as an item, false otherwise
      */
-    public void setIsItemDisplay(Boolean itemDisplay) { isItemDisplay = itemDisplay; }
+    public void setIsItemDisplay(Boolean itemDisplay) { checkWritable(); isItemDisplay = itemDisplay; }
 
     /**
      * Gets the brightness settings for this element.
+     * A read-only element returns a copy.
      * @return a Brightness object representing the brightness settings
      */
-    public Brightness getBrightness() { return brightness; }
+    public Brightness getBrightness() { return readOnly && brightness != null ? brightness.copy() : brightness; }
 
     /**
      * Sets the brightness settings for this element.
      * @param brightness a Brightness object representing the brightness settings
      */
-    public void setBrightness(Brightness brightness) { this.brightness = brightness; }
+    public void setBrightness(Brightness brightness) { checkWritable(); this.brightness = brightness; }
 
     /**
      * Gets the tag head associated with this element.
+     * A read-only element returns a copy.
      * @return a TagHead object representing the tag head
      */
-    public TagHead getTagHead() { return tagHead; }
+    public TagHead getTagHead() { return readOnly && tagHead != null ? tagHead.copy() : tagHead; }
 
     /**
      * Sets the tag head for this element.
      * @param tagHead a TagHead object representing the tag head
      */
-    public void setTagHead(TagHead tagHead) { this.tagHead = tagHead; }
+    public void setTagHead(TagHead tagHead) { checkWritable(); this.tagHead = tagHead; }
 
     /**
      * Gets the list of texture values for this element.
@@ -185,7 +270,7 @@ public class ProjectElement {
      * Sets the list of texture values for this element.
      * @param textureValueList a list of strings representing the texture values
      */
-    public void setTextureValueList(List<String> textureValueList) { this.textureValueList = textureValueList; }
+    public void setTextureValueList(List<String> textureValueList) { checkWritable(); this.textureValueList = textureValueList; }
 
     /**
      * Gets the paint texture for this element.
@@ -197,7 +282,7 @@ public class ProjectElement {
      * Sets the paint texture for this element.
      * @param paintTexture an Object representing the paint texture
      */
-    public void setPaintTexture(Object paintTexture) { this.paintTexture = paintTexture; }
+    public void setPaintTexture(Object paintTexture) { checkWritable(); this.paintTexture = paintTexture; }
 
     /**
      * Gets the default texture value for this element.
@@ -209,7 +294,7 @@ public class ProjectElement {
      * Sets the default texture value for this element.
      * @param defaultTextureValue a string representing the default texture value
      */
-    public void setDefaultTextureValue(String defaultTextureValue) { this.defaultTextureValue = defaultTextureValue; }
+    public void setDefaultTextureValue(String defaultTextureValue) { checkWritable(); this.defaultTextureValue = defaultTextureValue; }
 
     /**
      * Gets whether this element is displayed as a block.
@@ -221,7 +306,7 @@ public class ProjectElement {
      * Sets whether this element is displayed as a block.
      * @param blockDisplay true if this element should be displayed as a block, false otherwise
      */
-    public void setIsBlockDisplay(Boolean blockDisplay) { isBlockDisplay = blockDisplay; }
+    public void setIsBlockDisplay(Boolean blockDisplay) { checkWritable(); isBlockDisplay = blockDisplay; }
 
     /**
      * Gets whether this element is displayed as text.
@@ -233,26 +318,28 @@ public class ProjectElement {
      * Sets whether this element is displayed as text.
      * @param textDisplay true if this element should be displayed as text, false otherwise
      */
-    public void setIsTextDisplay(Boolean textDisplay) { isTextDisplay = textDisplay; }
+    public void setIsTextDisplay(Boolean textDisplay) { checkWritable(); isTextDisplay = textDisplay; }
 
     /**
      * Gets the text options for this element.
+     * A read-only element returns a copy.
      * @return a TextOptions object representing the text display options
      */
-    public TextOptions getOptions() { return options; }
+    public TextOptions getOptions() { return readOnly && options != null ? options.copy() : options; }
 
     /**
      * Sets the text options for this element.
      * @param options a TextOptions object representing the text display options
      */
-    public void setOptions(TextOptions options) { this.options = options; }
+    public void setOptions(TextOptions options) { checkWritable(); this.options = options; }
 
     /**
      * Gets the world transformation matrix for this element.
+     * A read-only element returns a copy, so multiplying the result in place cannot affect other callers.
      * @return a Matrix4f representing the world transformation
      */
     public Matrix4f getWorldTransform() {
-        return worldTransform;
+        return readOnly && worldTransform != null ? new Matrix4f(worldTransform) : worldTransform;
     }
 
     /**
@@ -260,9 +347,294 @@ public class ProjectElement {
      * @param worldTransform a Matrix4f representing the world transformation
      */
     public void setWorldTransform(Matrix4f worldTransform) {
+        checkWritable();
         this.worldTransform = worldTransform;
     }
 
+    /**
+     * Gets the world transform decomposed into the translation, left rotation, scale and right rotation a
+     * display entity takes. The decomposition is cached and reused until the world transform changes, whether
+     * it was replaced or recalculated in place.
+     * @return the decomposed world transform, or null if the world transform was not calculated
+     * @see DisplayTransformation#of(org.joml.Matrix4fc)
+     */
+    public DisplayTransformation getDisplayTransformation() {
+        Matrix4f world = worldTransform;
+        if (world == null) {
+            return null;
+        }
+        DecomposedTransform cached = decomposedTransform;
+        if (cached != null && cached.source().equals(world)) {
+            return cached.value();
+        }
+        DisplayTransformation value = DisplayTransformation.of(world);
+        decomposedTransform = new DecomposedTransform(new Matrix4f(world), value);
+        return value;
+    }
+
+    /**
+     * Gets the number of elements in this element's subtree (itself included), as counted when it was parsed.
+     * The count is a sizing hint for work splitting and is not updated when children are modified.
+     * @return the subtree size, or 0 if it is unknown
+     */
+    public int getSubtreeSize() { return subtreeSize; }
+
+    /**
+     * Sets the number of elements in this element's subtree (itself included).
+     * @param subtreeSize the subtree size, or 0 if it is unknown
+     */
+    public void setSubtreeSize(int subtreeSize) { checkWritable(); this.subtreeSize = subtreeSize; }
+
+    /**
+     * Gets the collection this element is a child of, as linked by the last world transform calculation.
+     * @return the parent element, or null for root elements and elements whose transforms were never calculated
+     */
+    public ProjectElement getParent() { return parent; }
+
+    /**
+     * Sets the collection this element is a child of. The link is used to invalidate cached subtree bounds.
+     * @param parent the parent element, or null for a root element
+     */
+    public void setParent(ProjectElement parent) { checkWritable(); this.parent = parent; }
+
+    /**
+     * Gets the world-space bounds of the geometry this element renders, as calculated with its world transform.
+     * Collections render nothing and have empty bounds.
+     * @return the bounds, or null if they were not calculated
+     */
+    public BoundingBox getWorldBounds() { return worldBounds; }
+
+    /**
+     * Sets the world-space bounds of the geometry this element renders.
+     * @param worldBounds the bounds, or null if unknown
+     */
+    public void setWorldBounds(BoundingBox worldBounds) { checkWritable(); this.worldBounds = worldBounds; }
+
+    /**
+     * Gets the world-space bounds of this element and all of its descendants.
+     * The bounds are calculated together with the world transforms; bounds invalidated by
+     * {@link #invalidateBounds()} are recomputed here from the cached bounds of the children, so only the
+     * invalidated path is walked again. Read-only elements had theirs computed when they were made read-only
+     * and are never written to here.
+     * @return the bounds, or null if the world bounds of this element or a descendant were never calculated
+     */
+    public BoundingBox getSubtreeBounds() {
+        BoundingBox bounds = subtreeBounds;
+        if (bounds != null || worldBounds == null || readOnly) {
+            return bounds;
+        }
+        // Post-order over the invalidated part of the subtree only; valid children end the descent.
+        Deque<ProjectElement> pending = new ArrayDeque<>();
+        pending.push(this);
+        while (!pending.isEmpty()) {
+            ProjectElement element = pending.peek();
+            if (element.subtreeBounds != null) {
+                pending.pop();
+                continue;
+            }
+            if (element.worldBounds == null) {
+                return null;
+            }
+            boolean ready = true;
+            if (element.children != null) {
+                for (ProjectElement child : element.children) {
+                    if (child != null && child.subtreeBounds == null) {
+                        pending.push(child);
+                        ready = false;
+                    }
+                }
+            }
+            if (ready) {
+                BoundingBox union = element.worldBounds;
+                if (element.children != null) {
+                    for (ProjectElement child : element.children) {
+                        if (child != null) union = union.union(child.subtreeBounds);
+                    }
+                }
+                element.subtreeBounds = union;
+                pending.pop();
+            }
+        }
+        return subtreeBounds;
+    }
+
+    /**
+     * Sets the world-space bounds of this element and all of its descendants.
+     * @param subtreeBounds the bounds, or null to have them recomputed on the next access;
+     *                      use {@link #invalidateBounds()} to discard the bounds of the ancestors as well
+     */
+    public void setSubtreeBounds(BoundingBox subtreeBounds) { checkWritable(); this.subtreeBounds = subtreeBounds; }
+
+    /**
+     * Discards the cached subtree bounds of this element and of every ancestor, after the world bounds of this
+     * element or one of its descendants changed. The walk stops at the first ancestor that is already invalid,
+     * so repeated edits below the same collection stay cheap.
+     */
+    public void invalidateBounds() {
+        checkWritable();
+        for (ProjectElement element = this; element != null && element.subtreeBounds != null; element = element.parent) {
+            element.subtreeBounds = null;
+        }
+    }
+
+    /**
+     * Creates a deep copy of this element and all of its descendants.
+     * Transforms, nested settings, texture lists, the world transform with its cached decomposition and the
+     * calculated bounds are copied; JSON maps and lists inside {@link #getPaintTexture()} are copied
+     * structurally. The copies are linked to their copied parents, and the copied root has no parent.
+     * Copies of read-only elements are writable.
+     * The hierarchy is walked without recursion, so arbitrarily deep trees can be copied.
+     * @return the copied element
+     */
+    public ProjectElement deepCopy() {
+        ProjectElement rootCopy = copyWithoutChildren();
+        Deque<ProjectElement[]> pending = new ArrayDeque<>();
+        pending.push(new ProjectElement[] {this, rootCopy});
+        while (!pending.isEmpty()) {
+            ProjectElement[] pair = pending.pop();
+            List<ProjectElement> sourceChildren = pair[0].children;
+            if (sourceChildren == null) continue;
+            List<ProjectElement> copiedChildren = new ArrayList<>(sourceChildren.size());
+            for (ProjectElement child : sourceChildren) {
+                if (child == null) {
+                    copiedChildren.add(null);
+                    continue;
+                }
+                ProjectElement childCopy = child.copyWithoutChildren();
+                childCopy.parent = pair[1];
+                copiedChildren.add(childCopy);
+                pending.push(new ProjectElement[] {child, childCopy});
+            }
+            pair[1].children = copiedChildren;
+        }
+        return rootCopy;
+    }
+
+    /**
+     * Checks whether this element was made read-only by {@link #makeReadOnly(List)}.
+     * @return true if the setters of this element throw
+     */
+    public boolean isReadOnly() { return readOnly; }
+
+    /**
+     * Makes a list of elements and all of their descendants read-only in place, so that the same trees can be
+     * handed to any number of callers and threads without copying them up front. Setters of read-only elements
+     * throw {@link UnsupportedOperationException}, their children, texture values and paint texture become
+     * unmodifiable, and their getters return copies of transform arrays, the world transform and the nested
+     * settings objects. Subtree bounds are computed here, before the elements are shared; the other lazily
+     * computed values, {@link #getNbtTag()} and {@link #getDisplayTransformation()}, are immutable and published
+     * through volatile fields on first access. Use {@link #deepCopy(List)} to get an editable copy.
+     * @param elements the elements to make read-only
+     * @return an unmodifiable list of the same elements
+     * @throws IllegalArgumentException if elements is null
+     */
+    public static List<ProjectElement> makeReadOnly(List<ProjectElement> elements) {
+        if (elements == null) {
+            throw new IllegalArgumentException("Elements cannot be null.");
+        }
+        Deque<ProjectElement> pending = new ArrayDeque<>();
+        for (ProjectElement element : elements) {
+            if (element != null) pending.push(element);
+        }
+        while (!pending.isEmpty()) {
+            ProjectElement element = pending.pop();
+            if (element.readOnly) continue;
+            element.getSubtreeBounds();
+            element.readOnly = true;
+            element.textureValueList = element.textureValueList != null ? Collections.unmodifiableList(element.textureValueList) : null;
+            element.paintTexture = unmodifiableJsonValue(element.paintTexture);
+            if (element.children != null) {
+                element.children = Collections.unmodifiableList(element.children);
+                for (ProjectElement child : element.children) {
+                    if (child != null) pending.push(child);
+                }
+            }
+        }
+        return Collections.unmodifiableList(elements);
+    }
+
+    /**
+     * Creates deep copies of a list of elements, see {@link #deepCopy()}.
+     * @param elements the elements to copy, may be null
+     * @return a new list holding the copies, or null if elements is null
+     */
+    public static List<ProjectElement> deepCopy(List<ProjectElement> elements) {
+        if (elements == null) return null;
+        List<ProjectElement> copies = new ArrayList<>(elements.size());
+        for (ProjectElement element : elements) {
+            copies.add(element != null ? element.deepCopy() : null);
+        }
+        return copies;
+    }
+
+    private ProjectElement copyWithoutChildren() {
+        ProjectElement copy = new ProjectElement();
+        copy.isCollection = isCollection;
+        copy.name = name;
+        copy.nbt = nbt;
+        copy.transforms = transforms != null ? transforms.clone() : null;
+        copy.isBackCollection = isBackCollection;
+        copy.defaultTransform = defaultTransform != null ? defaultTransform.copy() : null;
+        copy.isItemDisplay = isItemDisplay;
+        copy.tagHead = tagHead != null ? tagHead.copy() : null;
+        copy.textureValueList = textureValueList != null ? new ArrayList<>(textureValueList) : null;
+        copy.paintTexture = copyJsonValue(paintTexture);
+        copy.defaultTextureValue = defaultTextureValue;
+        copy.isBlockDisplay = isBlockDisplay;
+        copy.isTextDisplay = isTextDisplay;
+        copy.options = options != null ? options.copy() : null;
+        copy.brightness = brightness != null ? brightness.copy() : null;
+        copy.worldTransform = worldTransform != null ? new Matrix4f(worldTransform) : null;
+        copy.subtreeSize = subtreeSize;
+        copy.nbtTag = nbtTag;
+        copy.worldBounds = worldBounds;
+        copy.subtreeBounds = subtreeBounds;
+        copy.decomposedTransform = decomposedTransform;
+        return copy;
+    }
+
+    private static Object unmodifiableJsonValue(Object value) {
+        if (value instanceof Map<?, ?> map) {
+            Map<Object, Object> wrapped = new LinkedHashMap<>();
+            for (Map.Entry<?, ?> entry : map.entrySet()) {
+                wrapped.put(entry.getKey(), unmodifiableJsonValue(entry.getValue()));
+            }
+            return Collections.unmodifiableMap(wrapped);
+        }
+        if (value instanceof List<?> list) {
+            List<Object> wrapped = new ArrayList<>(list.size());
+            for (Object item : list) {
+                wrapped.add(unmodifiableJsonValue(item));
+            }
+            return Collections.unmodifiableList(wrapped);
+        }
+        return value;
+    }
+
+    private void checkWritable() {
+        if (readOnly) {
+            throw new UnsupportedOperationException("Element is read-only; modify a deep copy instead: " + name);
+        }
+    }
+
+    private static Object copyJsonValue(Object value) {
+        if (value instanceof Map<?, ?> map) {
+            Map<Object, Object> copy = new LinkedHashMap<>();
+            for (Map.Entry<?, ?> entry : map.entrySet()) {
+                copy.put(entry.getKey(), copyJsonValue(entry.getValue()));
+            }
+            return copy;
+        }
+        if (value instanceof List<?> list) {
+            List<Object> copy = new ArrayList<>(list.size());
+            for (Object item : list) {
+                copy.add(copyJsonValue(item));
+            }
+            return copy;
+        }
+        return value;
+    }
+
     /**
      * Returns a string representation of the ProjectElement.
      * @return a string containing the name, collection status, display types, and number of children
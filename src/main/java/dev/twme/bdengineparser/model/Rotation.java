@@ -49,4 +49,16 @@ public class Rotation {
      * @param z the rotation value to set for the z-axis
      */
     public void setZ(double z) { this.z = z; }
+
+    /**
+     * Creates a copy of this rotation.
+     * @return a new Rotation with the same values
+     */
+    public Rotation copy() {
+        Rotation copy = new Rotation();
+        copy.x = x;
+        copy.y = y;
+        copy.z = z;
+        return copy;
+    }
 }
@@ -21,4 +21,14 @@ public class TagHead {
      * @param value the value to set for the tag head
      */
     public void setValue(String value) { this.value = value; }
-}
\ No newline at end of file
+
+    /**
+     * Creates a copy of this tag head.
+     * @return a new TagHead with the same value
+     */
+    public TagHead copy() {
+        TagHead copy = new TagHead();
+        copy.value = value;
+        return copy;
+    }
+}
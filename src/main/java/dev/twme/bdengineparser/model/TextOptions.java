@@ -165,6 +165,26 @@ public class TextOptions {
      */
     public void setObfuscated(boolean obfuscated) { this.obfuscated = obfuscated; }
 
+    /**
+     * Creates a copy of these text options.
+     * @return a new TextOptions with the same values
+     */
+    public TextOptions copy() {
+        TextOptions copy = new TextOptions();
+        copy.color = color;
+        copy.alpha = alpha;
+        copy.backgroundColor = backgroundColor;
+        copy.backgroundAlpha = backgroundAlpha;
+        copy.bold = bold;
+        copy.italic = italic;
+        copy.underline = underline;
+        copy.strikeThrough = strikeThrough;
+        copy.lineLength = lineLength;
+        copy.align = align;
+        copy.obfuscated = obfuscated;
+        return copy;
+    }
+
     /**
      * Returns a string representation of the TextOptions object.
      * @return a string containing the text options
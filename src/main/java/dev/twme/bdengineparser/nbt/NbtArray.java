@@ -0,0 +1,82 @@
+package dev.twme.bdengineparser.nbt;
+
+import java.util.Arrays;
+
+/**
+ * A typed numeric array tag: {@code [B;...]}, {@code [I;...]} or {@code [L;...]}.
+ * The values are held as longs regardless of the element type.
+ */
+public final class NbtArray implements NbtTag {
+
+    private final NbtNumber.Kind elementKind;
+    private final long[] values;
+
+    /**
+     * Creates an array tag.
+     * @param elementKind the element type, {@link NbtNumber.Kind#BYTE}, {@link NbtNumber.Kind#INT} or {@link NbtNumber.Kind#LONG}
+     * @param values the values, which are copied
+     * @throws IllegalArgumentException if the element type is not an integer array type
+     */
+    public NbtArray(NbtNumber.Kind elementKind, long[] values) {
+        if (elementKind != NbtNumber.Kind.BYTE && elementKind != NbtNumber.Kind.INT && elementKind != NbtNumber.Kind.LONG) {
+            throw new IllegalArgumentException("Array element type must be BYTE, INT or LONG.");
+        }
+        this.elementKind = elementKind;
+        this.values = values.clone();
+    }
+
+    /**
+     * Returns the element type of the array.
+     * @return the element type
+     */
+    public NbtNumber.Kind getElementKind() {
+        return elementKind;
+    }
+
+    /**
+     * Returns the number of values.
+     * @return the array length
+     */
+    public int size() {
+        return values.length;
+    }
+
+    /**
+     * Returns a value.
+     * @param index the index of the value
+     * @return the value
+     */
+    public long get(int index) {
+        return values[index];
+    }
+
+    /**
+     * Returns a copy of the values.
+     * @return the values
+     */
+    public long[] toLongArray() {
+        return values.clone();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof NbtArray other && elementKind == other.elementKind && Arrays.equals(values, other.values);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * elementKind.hashCode() + Arrays.hashCode(values);
+    }
+
+    @Override
+    public String toString() {
+        char prefix = elementKind == NbtNumber.Kind.BYTE ? 'B' : elementKind == NbtNumber.Kind.INT ? 'I' : 'L';
+        StringBuilder builder = new StringBuilder().append('[').append(prefix).append(';');
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) builder.append(',');
+            builder.append(values[i]);
+            if (elementKind != NbtNumber.Kind.INT) builder.append(elementKind.suffix());
+        }
+        return builder.append(']').toString();
+    }
+}
@@ -0,0 +1,169 @@
+package dev.twme.bdengineparser.nbt;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A compound tag: named child tags in their original order.
+ * The typed getters return null or the given default when a key is missing or holds a different type.
+ */
+public final class NbtCompound implements NbtTag {
+
+    /**
+     * The empty compound, which is also the parsed form of an empty SNBT string.
+     */
+    public static final NbtCompound EMPTY = new NbtCompound(Map.of());
+
+    private final Map<String, NbtTag> entries;
+
+    /**
+     * Creates a compound tag.
+     * @param entries the named child tags, which are copied
+     */
+    public NbtCompound(Map<String, NbtTag> entries) {
+        this.entries = Collections.unmodifiableMap(new LinkedHashMap<>(entries));
+    }
+
+    /**
+     * Returns the number of entries.
+     * @return the entry count
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * Returns whether the compound is empty.
+     * @return true if there are no entries
+     */
+    public boolean isEmpty() {
+        return entries.isEmpty();
+    }
+
+    /**
+     * Returns whether an entry exists.
+     * @param key the entry name
+     * @return true if the key is present
+     */
+    public boolean contains(String key) {
+        return entries.containsKey(key);
+    }
+
+    /**
+     * Returns the entry names in their original order.
+     * @return the unmodifiable key set
+     */
+    public Set<String> keySet() {
+        return entries.keySet();
+    }
+
+    /**
+     * Returns the entries as an unmodifiable map in their original order.
+     * @return the entries
+     */
+    public Map<String, NbtTag> asMap() {
+        return entries;
+    }
+
+    /**
+     * Returns an entry.
+     * @param key the entry name
+     * @return the tag, or null if absent
+     */
+    public NbtTag get(String key) {
+        return entries.get(key);
+    }
+
+    /**
+     * Returns a string entry.
+     * @param key the entry name
+     * @return the string, or null if absent or not a string
+     */
+    public String getString(String key) {
+        return entries.get(key) instanceof NbtString string ? string.value() : null;
+    }
+
+    /**
+     * Returns a numeric entry as an int.
+     * @param key the entry name
+     * @param defaultValue the value returned if the entry is absent or not numeric
+     * @return the int value
+     */
+    public int getInt(String key, int defaultValue) {
+        return entries.get(key) instanceof NbtNumber number ? number.intValue() : defaultValue;
+    }
+
+    /**
+     * Returns a numeric entry as a long.
+     * @param key the entry name
+     * @param defaultValue the value returned if the entry is absent or not numeric
+     * @return the long value
+     */
+    public long getLong(String key, long defaultValue) {
+        return entries.get(key) instanceof NbtNumber number ? number.longValue() : defaultValue;
+    }
+
+    /**
+     * Returns a numeric entry as a double.
+     * @param key the entry name
+     * @param defaultValue the value returned if the entry is absent or not numeric
+     * @return the double value
+     */
+    public double getDouble(String key, double defaultValue) {
+        return entries.get(key) instanceof NbtNumber number ? number.doubleValue() : defaultValue;
+    }
+
+    /**
+     * Returns a numeric entry as a boolean, non-zero meaning true.
+     * @param key the entry name
+     * @param defaultValue the value returned if the entry is absent or not numeric
+     * @return the boolean value
+     */
+    public boolean getBoolean(String key, boolean defaultValue) {
+        return entries.get(key) instanceof NbtNumber number ? number.booleanValue() : defaultValue;
+    }
+
+    /**
+     * Returns a compound entry.
+     * @param key the entry name
+     * @return the compound, or null if absent or not a compound
+     */
+    public NbtCompound getCompound(String key) {
+        return entries.get(key) instanceof NbtCompound compound ? compound : null;
+    }
+
+    /**
+     * Returns a list entry.
+     * @param key the entry name
+     * @return the list, or null if absent or not a list
+     */
+    public NbtList getList(String key) {
+        return entries.get(key) instanceof NbtList list ? list : null;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof NbtCompound other && entries.equals(other.entries);
+    }
+
+    @Override
+    public int hashCode() {
+        return entries.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder().append('{');
+        boolean first = true;
+        for (Map.Entry<String, NbtTag> entry : entries.entrySet()) {
+            if (!first) builder.append(',');
+            first = false;
+            String key = entry.getKey();
+            builder.append(SnbtParser.isUnquotedKey(key) ? key : new NbtString(key).toString());
+            builder.append(':').append(entry.getValue());
+        }
+        return builder.append('}').toString();
+    }
+}
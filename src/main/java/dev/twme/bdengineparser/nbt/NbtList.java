@@ -0,0 +1,64 @@
+package dev.twme.bdengineparser.nbt;
+
+import java.util.List;
+
+/**
+ * An ordered list tag.
+ */
+public final class NbtList implements NbtTag {
+
+    private final List<NbtTag> values;
+
+    /**
+     * Creates a list tag.
+     * @param values the elements, which are copied
+     */
+    public NbtList(List<NbtTag> values) {
+        this.values = List.copyOf(values);
+    }
+
+    /**
+     * Returns the number of elements.
+     * @return the list size
+     */
+    public int size() {
+        return values.size();
+    }
+
+    /**
+     * Returns an element.
+     * @param index the index of the element
+     * @return the element
+     */
+    public NbtTag get(int index) {
+        return values.get(index);
+    }
+
+    /**
+     * Returns the elements as an unmodifiable list.
+     * @return the elements
+     */
+    public List<NbtTag> asList() {
+        return values;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof NbtList other && values.equals(other.values);
+    }
+
+    @Override
+    public int hashCode() {
+        return values.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder().append('[');
+        for (int i = 0; i < values.size(); i++) {
+            if (i > 0) builder.append(',');
+            builder.append(values.get(i));
+        }
+        return builder.append(']').toString();
+    }
+}
@@ -0,0 +1,91 @@
+package dev.twme.bdengineparser.nbt;
+
+/**
+ * A numeric tag. Booleans are represented as bytes, like in Minecraft.
+ *
+ * @param kind the numeric type of the tag
+ * @param value the value, a Byte, Short, Integer, Long, Float or Double matching the kind
+ */
+public record NbtNumber(Kind kind, Number value) implements NbtTag {
+
+    /**
+     * Creates a numeric tag.
+     * @param kind the numeric type of the tag
+     * @param value the value
+     * @throws IllegalArgumentException if kind or value is null
+     */
+    public NbtNumber {
+        if (kind == null || value == null) {
+            throw new IllegalArgumentException("Numeric kind and value cannot be null.");
+        }
+    }
+
+    /**
+     * The numeric types of SNBT.
+     */
+    public enum Kind {
+        /** 8-bit integer, suffix {@code b}; also used for {@code true} and {@code false}. */
+        BYTE('b'),
+        /** 16-bit integer, suffix {@code s}. */
+        SHORT('s'),
+        /** 32-bit integer, no suffix. */
+        INT('\0'),
+        /** 64-bit integer, suffix {@code L}. */
+        LONG('L'),
+        /** 32-bit floating point, suffix {@code f}. */
+        FLOAT('f'),
+        /** 64-bit floating point, suffix {@code d} or a plain decimal. */
+        DOUBLE('d');
+
+        private final char suffix;
+
+        Kind(char suffix) {
+            this.suffix = suffix;
+        }
+
+        /**
+         * Returns the SNBT suffix of the type.
+         * @return the suffix, or {@code '\0'} for int
+         */
+        public char suffix() {
+            return suffix;
+        }
+    }
+
+    /**
+     * Returns the value as an int, truncating if necessary.
+     * @return the int value
+     */
+    public int intValue() {
+        return value.intValue();
+    }
+
+    /**
+     * Returns the value as a long, truncating if necessary.
+     * @return the long value
+     */
+    public long longValue() {
+        return value.longValue();
+    }
+
+    /**
+     * Returns the value as a double.
+     * @return the double value
+     */
+    public double doubleValue() {
+        return value.doubleValue();
+    }
+
+    /**
+     * Returns whether the value is non-zero, the SNBT meaning of a boolean byte.
+     * @return the boolean value
+     */
+    public boolean booleanValue() {
+        return value.doubleValue() != 0;
+    }
+
+    @Override
+    public String toString() {
+        return kind == Kind.INT ? value.toString() : value.toString() + kind.suffix;
+    }
+}
@@ -0,0 +1,37 @@
+package dev.twme.bdengineparser.nbt;
+
+/**
+ * A string tag.
+ *
+ * @param value the string value
+ */
+public record NbtString(String value) implements NbtTag {
+
+    /**
+     * Creates a string tag.
+     * @param value the string value
+     * @throws IllegalArgumentException if value is null
+     */
+    public NbtString {
+        if (value == null) {
+            throw new IllegalArgumentException("String value cannot be null.");
+        }
+    }
+
+    /**
+     * Renders the value as a double-quoted SNBT string.
+     * @return the SNBT representation
+     */
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder(value.length() + 2).append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                builder.append('\\');
+            }
+            builder.append(c);
+        }
+        return builder.append('"').toString();
+    }
+}
@@ -0,0 +1,8 @@
+package dev.twme.bdengineparser.nbt;
+
+/**
+ * An immutable node of a parsed SNBT tree.
+ * Every implementation renders itself back to SNBT through {@link Object#toString()}.
+ */
+public sealed interface NbtTag permits NbtCompound, NbtList, NbtString, NbtNumber, NbtArray {
+}
@@ -0,0 +1,117 @@
+package dev.twme.bdengineparser.nbt;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A bounded, least-recently-used memo of parsed SNBT compounds, keyed on the exact SNBT string.
+ * Identical NBT strings recur across the elements of a project and across projects, so each distinct
+ * string is parsed once while it stays in the cache. Since parsed tags are immutable, the same instance
+ * is handed to every caller. Malformed strings are not cached.
+ * The cache is safe for concurrent use.
+ */
+public final class SnbtCache {
+
+    /**
+     * Number of entries kept by the shared cache.
+     */
+    public static final int DEFAULT_MAX_ENTRIES = 4096;
+
+    private static final SnbtCache SHARED = new SnbtCache(DEFAULT_MAX_ENTRIES);
+
+    private final Map<String, NbtCompound> entries;
+    private long hits;
+    private long misses;
+
+    /**
+     * Creates an empty cache.
+     * @param maxEntries the maximum number of parsed strings to keep
+     * @throws IllegalArgumentException if maxEntries is less than 1
+     */
+    public SnbtCache(int maxEntries) {
+        if (maxEntries < 1) {
+            throw new IllegalArgumentException("Maximum entries must be at least 1.");
+        }
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, NbtCompound> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    /**
+     * Returns the cache used by {@link dev.twme.bdengineparser.model.ProjectElement#getNbtTag()}.
+     * @return the shared cache
+     */
+    public static SnbtCache shared() {
+        return SHARED;
+    }
+
+    /**
+     * Returns the parsed compound of an SNBT string, parsing it only if it is not cached.
+     *
+     * @param snbt the SNBT text
+     * @return the parsed compound, {@link NbtCompound#EMPTY} for a blank string
+     * @throws IllegalArgumentException if snbt is null, malformed or not a compound
+     * @see SnbtParser#parseCompound(String)
+     */
+    public NbtCompound get(String snbt) {
+        if (snbt == null) {
+            throw new IllegalArgumentException("SNBT string cannot be null.");
+        }
+        synchronized (entries) {
+            NbtCompound cached = entries.get(snbt);
+            if (cached != null) {
+                hits++;
+                return cached;
+            }
+            misses++;
+        }
+        // Parse outside the lock; a concurrent miss on the same string parses it twice, which is harmless.
+        NbtCompound parsed = SnbtParser.parseCompound(snbt);
+        synchronized (entries) {
+            entries.put(snbt, parsed);
+        }
+        return parsed;
+    }
+
+    /**
+     * Returns the number of lookups answered from the cache.
+     * @return the hit count
+     */
+    public long getHitCount() {
+        synchronized (entries) {
+            return hits;
+        }
+    }
+
+    /**
+     * Returns the number of lookups that had to parse.
+     * @return the miss count
+     */
+    public long getMissCount() {
+        synchronized (entries) {
+            return misses;
+        }
+    }
+
+    /**
+     * Returns the number of cached strings.
+     * @return the entry count
+     */
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    /**
+     * Removes every cached entry.
+     */
+    public void clear() {
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+}
@@ -0,0 +1,425 @@
+package dev.twme.bdengineparser.nbt;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Parses stringified NBT (SNBT), the text form used in Minecraft commands and in the {@code nbt} field of
+ * BDEngine elements.
+ * <p>
+ * The parser is a single forward pass over the characters of the input: no regular expressions and no
+ * tokenizer objects, and the only allocations are the resulting tags and their string contents. It accepts
+ * the vanilla syntax (compounds, lists, typed {@code [B;]}, {@code [I;]} and {@code [L;]} arrays, quoted and
+ * unquoted strings, suffixed numbers, {@code true} and {@code false}) and is lenient in one way: unquoted
+ * values may contain characters such as {@code :} so that resource locations like {@code minecraft:stone}
+ * need no quotes. Numbers follow Minecraft's rules: integers have no leading zeros, a double without a suffix
+ * needs a decimal point (so {@code 1e5} is a string but {@code 1e5d} and {@code 1.0e5} are doubles), and an
+ * unquoted token that looks like a number but is out of range for its type, including a float or double that
+ * overflows to infinity, is read as a string.
+ * </p>
+ * Malformed input is reported as an {@link IllegalArgumentException} that names the offending position.
+ */
+public final class SnbtParser {
+
+    /**
+     * Maximum nesting depth of compounds and lists, matching Minecraft's limit.
+     */
+    public static final int MAX_DEPTH = 512;
+
+    // Shapes of an unquoted token, see numberShape.
+    private static final int NOT_A_NUMBER = 0;
+    /** Digits only, without leading zeros: any number type. */
+    private static final int INTEGER = 1;
+    /** Digits only, with leading zeros: a float or double with a suffix. */
+    private static final int PADDED_INTEGER = 2;
+    /** Digits and an exponent but no decimal point: a float or double with a suffix. */
+    private static final int EXPONENT = 3;
+    /** A decimal point, optionally with an exponent: a float, or a double with or without a suffix. */
+    private static final int DECIMAL = 4;
+
+    private final String input;
+    private int position;
+
+    private SnbtParser(String input) {
+        this.input = input;
+    }
+
+    /**
+     * Parses an SNBT value of any type.
+     *
+     * @param snbt the SNBT text
+     * @return the parsed tag
+     * @throws IllegalArgumentException if snbt is null or malformed
+     */
+    public static NbtTag parse(String snbt) {
+        if (snbt == null) {
+            throw new IllegalArgumentException("SNBT string cannot be null.");
+        }
+        SnbtParser parser = new SnbtParser(snbt);
+        parser.skipWhitespace();
+        NbtTag tag = parser.readValue(0);
+        parser.skipWhitespace();
+        if (parser.position < snbt.length()) {
+            throw parser.error("unexpected trailing characters");
+        }
+        return tag;
+    }
+
+    /**
+     * Parses an SNBT compound, the form of an element's NBT data. An empty or blank string yields
+     * {@link NbtCompound#EMPTY}.
+     *
+     * @param snbt the SNBT text
+     * @return the parsed compound
+     * @throws IllegalArgumentException if snbt is null, malformed or not a compound
+     */
+    public static NbtCompound parseCompound(String snbt) {
+        if (snbt == null) {
+            throw new IllegalArgumentException("SNBT string cannot be null.");
+        }
+        if (snbt.isBlank()) {
+            return NbtCompound.EMPTY;
+        }
+        NbtTag tag = parse(snbt);
+        if (!(tag instanceof NbtCompound compound)) {
+            throw new IllegalArgumentException("SNBT value is not a compound: " + abbreviate(snbt));
+        }
+        return compound;
+    }
+
+    /**
+     * Returns whether a compound key can be written without quotes.
+     * @param key the key
+     * @return true if every character is allowed in an unquoted key
+     */
+    static boolean isUnquotedKey(String key) {
+        if (key.isEmpty()) return false;
+        for (int i = 0; i < key.length(); i++) {
+            if (!isUnquotedKeyChar(key.charAt(i))) return false;
+        }
+        return true;
+    }
+
+    private NbtTag readValue(int depth) {
+        if (position >= input.length()) {
+            throw error("expected a value");
+        }
+        char c = input.charAt(position);
+        if (c == '{') {
+            return readCompound(depth + 1);
+        }
+        if (c == '[') {
+            return readListOrArray(depth + 1);
+        }
+        if (c == '"' || c == '\'') {
+            return new NbtString(readQuoted());
+        }
+        return readUnquotedValue();
+    }
+
+    private NbtCompound readCompound(int depth) {
+        checkDepth(depth);
+        position++; // '{'
+        Map<String, NbtTag> entries = new LinkedHashMap<>();
+        skipWhitespace();
+        if (peek() == '}') {
+            position++;
+            return NbtCompound.EMPTY;
+        }
+        while (true) {
+            skipWhitespace();
+            String key = readKey();
+            skipWhitespace();
+            expect(':');
+            skipWhitespace();
+            entries.put(key, readValue(depth));
+            skipWhitespace();
+            char c = peek();
+            position++;
+            if (c == '}') {
+                return new NbtCompound(entries);
+            }
+            if (c != ',') {
+                position--;
+                throw error("expected ',' or '}'");
+            }
+        }
+    }
+
+    private NbtTag readListOrArray(int depth) {
+        checkDepth(depth);
+        position++; // '['
+        if (position + 1 < input.length() && input.charAt(position + 1) == ';') {
+            char prefix = input.charAt(position);
+            NbtNumber.Kind kind = switch (prefix) {
+                case 'B' -> NbtNumber.Kind.BYTE;
+                case 'I' -> NbtNumber.Kind.INT;
+                case 'L' -> NbtNumber.Kind.LONG;
+                default -> throw error("unknown array type '" + prefix + "'");
+            };
+            position += 2;
+            return readArray(kind);
+        }
+        List<NbtTag> values = new ArrayList<>();
+        skipWhitespace();
+        if (peek() == ']') {
+            position++;
+            return new NbtList(values);
+        }
+        while (true) {
+            skipWhitespace();
+            values.add(readValue(depth));
+            skipWhitespace();
+            char c = peek();
+            position++;
+            if (c == ']') {
+                return new NbtList(values);
+            }
+            if (c != ',') {
+                position--;
+                throw error("expected ',' or ']'");
+            }
+        }
+    }
+
+    private NbtArray readArray(NbtNumber.Kind kind) {
+        long[] values = new long[8];
+        int size = 0;
+        skipWhitespace();
+        if (peek() == ']') {
+            position++;
+            return new NbtArray(kind, new long[0]);
+        }
+        while (true) {
+            skipWhitespace();
+            int start = position;
+            NbtTag element = readUnquotedValue();
+            if (!(element instanceof NbtNumber number) || !fitsArray(number.kind(), kind)) {
+                position = start;
+                throw error("expected an array value of type " + kind.name().toLowerCase(Locale.ROOT));
+            }
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = number.longValue();
+            skipWhitespace();
+            char c = peek();
+            position++;
+            if (c == ']') {
+                return new NbtArray(kind, Arrays.copyOf(values, size));
+            }
+            if (c != ',') {
+                position--;
+                throw error("expected ',' or ']'");
+            }
+        }
+    }
+
+    private static boolean fitsArray(NbtNumber.Kind valueKind, NbtNumber.Kind arrayKind) {
+        return switch (arrayKind) {
+            case BYTE -> valueKind == NbtNumber.Kind.BYTE;
+            case INT -> valueKind == NbtNumber.Kind.BYTE || valueKind == NbtNumber.Kind.SHORT || valueKind == NbtNumber.Kind.INT;
+            default -> valueKind != NbtNumber.Kind.FLOAT && valueKind != NbtNumber.Kind.DOUBLE;
+        };
+    }
+
+    private String readKey() {
+        char c = peek();
+        if (c == '"' || c == '\'') {
+            return readQuoted();
+        }
+        int start = position;
+        while (position < input.length() && isUnquotedKeyChar(input.charAt(position))) {
+            position++;
+        }
+        if (position == start) {
+            throw error("expected a key");
+        }
+        return input.substring(start, position);
+    }
+
+    private String readQuoted() {
+        char quote = input.charAt(position++);
+        int start = position;
+        StringBuilder escaped = null;
+        while (position < input.length()) {
+            char c = input.charAt(position);
+            if (c == quote) {
+                String value = escaped == null
+                        ? input.substring(start, position)
+                        : escaped.append(input, start, position).toString();
+                position++;
+                return value;
+            }
+            if (c == '\\') {
+                if (position + 1 >= input.length()) {
+                    break;
+                }
+                if (escaped == null) {
+                    escaped = new StringBuilder();
+                }
+                escaped.append(input, start, position).append(input.charAt(position + 1));
+                position += 2;
+                start = position;
+                continue;
+            }
+            position++;
+        }
+        throw error("unterminated string");
+    }
+
+    private NbtTag readUnquotedValue() {
+        int start = position;
+        while (position < input.length() && isUnquotedValueChar(input.charAt(position))) {
+            position++;
+        }
+        if (position == start) {
+            throw error("expected a value");
+        }
+        return classify(start, position);
+    }
+
+    /**
+     * Interprets an unquoted token as a boolean, a number or a string.
+     */
+    private NbtTag classify(int start, int end) {
+        int length = end - start;
+        if (length == 4 && input.regionMatches(true, start, "true", 0, 4)) {
+            return new NbtNumber(NbtNumber.Kind.BYTE, (byte) 1);
+        }
+        if (length == 5 && input.regionMatches(true, start, "false", 0, 5)) {
+            return new NbtNumber(NbtNumber.Kind.BYTE, (byte) 0);
+        }
+        char last = input.charAt(end - 1);
+        NbtNumber.Kind suffixKind = switch (last) {
+            case 'b', 'B' -> NbtNumber.Kind.BYTE;
+            case 's', 'S' -> NbtNumber.Kind.SHORT;
+            case 'l', 'L' -> NbtNumber.Kind.LONG;
+            case 'f', 'F' -> NbtNumber.Kind.FLOAT;
+            case 'd', 'D' -> NbtNumber.Kind.DOUBLE;
+            default -> null;
+        };
+        int numberEnd = suffixKind != null ? end - 1 : end;
+        int shape = numberShape(start, numberEnd);
+        String token = input.substring(start, end);
+        if (shape == NOT_A_NUMBER) {
+            return new NbtString(token);
+        }
+        String digits = suffixKind != null ? token.substring(0, length - 1) : token;
+        try {
+            if (suffixKind == null) {
+                // Without a suffix, only canonical integers and numbers with a decimal point are numbers.
+                return switch (shape) {
+                    case INTEGER -> new NbtNumber(NbtNumber.Kind.INT, Integer.parseInt(digits));
+                    case DECIMAL -> finite(NbtNumber.Kind.DOUBLE, Double.parseDouble(digits), token);
+                    default -> new NbtString(token);
+                };
+            }
+            if (shape != INTEGER && suffixKind != NbtNumber.Kind.FLOAT && suffixKind != NbtNumber.Kind.DOUBLE) {
+                return new NbtString(token);
+            }
+            return switch (suffixKind) {
+                case BYTE -> new NbtNumber(suffixKind, Byte.parseByte(digits));
+                case SHORT -> new NbtNumber(suffixKind, Short.parseShort(digits));
+                case LONG -> new NbtNumber(suffixKind, Long.parseLong(digits));
+                case FLOAT -> finite(suffixKind, Float.parseFloat(digits), token);
+                default -> finite(NbtNumber.Kind.DOUBLE, Double.parseDouble(digits), token);
+            };
+        } catch (NumberFormatException e) {
+            // Out of range for its type: Minecraft keeps such tokens as strings.
+            return new NbtString(token);
+        }
+    }
+
+    /**
+     * Wraps a parsed floating-point value, or keeps the token as a string if it overflowed to infinity.
+     */
+    private static NbtTag finite(NbtNumber.Kind kind, Number value, String token) {
+        return Double.isFinite(value.doubleValue()) ? new NbtNumber(kind, value) : new NbtString(token);
+    }
+
+    /**
+     * Classifies a range as an optionally signed integer or decimal literal with an optional exponent, following
+     * the patterns of Minecraft's SNBT reader.
+     */
+    private int numberShape(int start, int end) {
+        int i = start;
+        if (i < end && (input.charAt(i) == '-' || input.charAt(i) == '+')) i++;
+        int integerStart = i;
+        int digits = 0;
+        while (i < end && isDigit(input.charAt(i))) { i++; digits++; }
+        boolean padded = digits > 1 && input.charAt(integerStart) == '0';
+        boolean point = false;
+        if (i < end && input.charAt(i) == '.') {
+            point = true;
+            i++;
+            while (i < end && isDigit(input.charAt(i))) { i++; digits++; }
+        }
+        if (digits == 0) return NOT_A_NUMBER;
+        boolean exponent = false;
+        if (i < end && (input.charAt(i) == 'e' || input.charAt(i) == 'E')) {
+            exponent = true;
+            i++;
+            if (i < end && (input.charAt(i) == '-' || input.charAt(i) == '+')) i++;
+            int exponentDigits = 0;
+            while (i < end && isDigit(input.charAt(i))) { i++; exponentDigits++; }
+            if (exponentDigits == 0) return NOT_A_NUMBER;
+        }
+        if (i != end) return NOT_A_NUMBER;
+        if (point) return DECIMAL;
+        if (exponent) return EXPONENT;
+        return padded ? PADDED_INTEGER : INTEGER;
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static boolean isUnquotedKeyChar(char c) {
+        return (c >= '0' && c <= '9') || (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z')
+                || c == '_' || c == '-' || c == '.' || c == '+';
+    }
+
+    private static boolean isUnquotedValueChar(char c) {
+        return c != ',' && c != '}' && c != ']' && c != '{' && c != '[' && c != '"' && c != '\''
+                && !Character.isWhitespace(c);
+    }
+
+    private void skipWhitespace() {
+        while (position < input.length() && Character.isWhitespace(input.charAt(position))) {
+            position++;
+        }
+    }
+
+    private char peek() {
+        if (position >= input.length()) {
+            throw error("unexpected end of input");
+        }
+        return input.charAt(position);
+    }
+
+    private void expect(char expected) {
+        if (peek() != expected) {
+            throw error("expected '" + expected + "'");
+        }
+        position++;
+    }
+
+    private void checkDepth(int depth) {
+        if (depth > MAX_DEPTH) {
+            throw error("nesting deeper than " + MAX_DEPTH);
+        }
+    }
+
+    private IllegalArgumentException error(String message) {
+        return new IllegalArgumentException("Malformed SNBT at index " + position + ": " + message + " in " + abbreviate(input));
+    }
+
+    private static String abbreviate(String value) {
+        return value.length() <= 64 ? value : value.substring(0, 61) + "...";
+    }
+}
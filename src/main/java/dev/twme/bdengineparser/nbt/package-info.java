@@ -0,0 +1,10 @@
+/**
+ * Provides a structured, immutable view of the SNBT data stored on project elements.
+ * <p>
+ * {@link dev.twme.bdengineparser.nbt.SnbtParser} turns an SNBT string into a tree of
+ * {@link dev.twme.bdengineparser.nbt.NbtTag}s, and {@link dev.twme.bdengineparser.nbt.SnbtCache}
+ * memoizes the trees of recurring strings. Elements expose their parsed data lazily through
+ * {@link dev.twme.bdengineparser.model.ProjectElement#getNbtTag()}.
+ * </p>
+ */
+package dev.twme.bdengineparser.nbt;
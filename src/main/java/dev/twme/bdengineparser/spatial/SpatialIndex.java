@@ -0,0 +1,614 @@
+package dev.twme.bdengineparser.spatial;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import org.joml.Matrix4f;
+import org.joml.Matrix4fc;
+
+import dev.twme.bdengineparser.internal.ElementBounds;
+import dev.twme.bdengineparser.model.BoundingBox;
+import dev.twme.bdengineparser.model.ProjectElement;
+
+/**
+ * A bounding volume hierarchy over the display elements of a project, answering box, ray and
+ * nearest-element queries in logarithmic rather than linear time.
+ * <p>
+ * Every block, item and text display is indexed with the world-space bounds of its local geometry, as
+ * described by its type: a unit cube for blocks, a centered unit cube for items and an estimate from the
+ * text length for text. Collections render nothing and are not indexed. The elements must have their world
+ * transforms calculated, for example by {@link dev.twme.bdengineparser.BDEngineParser#parseFromFile(String)}.
+ * </p>
+ * <p>
+ * The hierarchy is stored in flat arrays: each node holds its bounds and either a range of at most
+ * {@value #LEAF_SIZE} elements or the index of its two children, which are split at the median along the
+ * longest axis of their centers. When world transforms change, {@link #update(ProjectElement)} refits only
+ * the nodes above the moved elements and {@link #refit()} refits all of them, both without changing the tree
+ * layout; after large movements, {@link #rebuild()} splits the nodes again. Adding or removing elements from
+ * the project requires building a new index.
+ * </p>
+ * Queries may run concurrently with each other, but not with {@link #update}, {@link #refit()} or
+ * {@link #rebuild()}.
+ */
+public final class SpatialIndex {
+
+    /**
+     * The maximum number of elements in a leaf node.
+     */
+    public static final int LEAF_SIZE = 4;
+
+    private static final int INITIAL_STACK_SIZE = 64;
+
+    /**
+     * The closest element hit by a ray.
+     *
+     * @param element the element whose geometry the ray enters first
+     * @param distance the distance from the ray origin to the entry point, in blocks
+     */
+    public record RayHit(ProjectElement element, float distance) {
+    }
+
+    private final ProjectElement[] items;
+    private final Map<ProjectElement, Integer> slots;
+    private final float[] localBounds;
+    private final float[] itemBounds;
+    private final int[] order;
+    private final int[] itemLeaf;
+
+    private final float[] nodeBounds;
+    private final int[] nodeStart;
+    private final int[] nodeSize;
+    private final int[] nodeParent;
+    private int nodeCount;
+
+    private SpatialIndex(List<ProjectElement> elements) {
+        int n = elements.size();
+        this.items = elements.toArray(new ProjectElement[0]);
+        this.slots = new IdentityHashMap<>(n);
+        this.localBounds = new float[n * 6];
+        this.itemBounds = new float[n * 6];
+        this.order = new int[n];
+        this.itemLeaf = new int[n];
+        int capacity = Math.max(1, 2 * n - 1);
+        this.nodeBounds = new float[capacity * 6];
+        this.nodeStart = new int[capacity];
+        this.nodeSize = new int[capacity];
+        this.nodeParent = new int[capacity];
+        for (int i = 0; i < n; i++) {
+            slots.put(items[i], i);
+            ElementBounds.localBounds(items[i], localBounds, i * 6);
+            updateItemBounds(i);
+        }
+        split();
+    }
+
+    /**
+     * Builds an index over the display elements of a project.
+     * @param rootElements the root elements, with world transforms calculated
+     * @return the index
+     * @throws IllegalArgumentException if rootElements is null or a display element has no world transform
+     */
+    public static SpatialIndex build(List<ProjectElement> rootElements) {
+        if (rootElements == null) {
+            throw new IllegalArgumentException("Root elements cannot be null.");
+        }
+        List<ProjectElement> indexed = new ArrayList<>();
+        collect(rootElements, indexed);
+        return new SpatialIndex(indexed);
+    }
+
+    /**
+     * Gets the number of indexed elements.
+     * @return the number of display elements in the index
+     */
+    public int size() {
+        return items.length;
+    }
+
+    /**
+     * Gets the world-space bounds of all indexed elements.
+     * @return the bounds, empty if nothing is indexed
+     */
+    public BoundingBox getBounds() {
+        return items.length == 0 ? BoundingBox.EMPTY : BoundingBox.of(nodeBounds, 0);
+    }
+
+    /**
+     * Gets the world-space bounds an element is indexed with.
+     * @param element an element of the project
+     * @return the bounds, or null if the element is not indexed
+     */
+    public BoundingBox getBounds(ProjectElement element) {
+        Integer slot = slots.get(element);
+        return slot != null ? BoundingBox.of(itemBounds, slot * 6) : null;
+    }
+
+    // --- Queries ---
+
+    /**
+     * Finds the elements whose bounds intersect a box.
+     * @param box the query box in world space
+     * @return the intersecting elements, in no particular order
+     * @throws IllegalArgumentException if box is null
+     */
+    public List<ProjectElement> query(BoundingBox box) {
+        List<ProjectElement> result = new ArrayList<>();
+        query(box, result::add);
+        return result;
+    }
+
+    /**
+     * Reports the elements whose bounds intersect a box to a consumer, without collecting them.
+     * @param box the query box in world space
+     * @param consumer the receiver of each intersecting element
+     * @throws IllegalArgumentException if box or consumer is null
+     */
+    public void query(BoundingBox box, Consumer<ProjectElement> consumer) {
+        if (box == null) {
+            throw new IllegalArgumentException("Box cannot be null.");
+        }
+        if (consumer == null) {
+            throw new IllegalArgumentException("Consumer cannot be null.");
+        }
+        if (items.length == 0 || box.isEmpty()) {
+            return;
+        }
+        float[] q = box.get(new float[6], 0);
+        int[] stack = new int[INITIAL_STACK_SIZE];
+        int top = 0;
+        stack[top++] = 0;
+        while (top > 0) {
+            int node = stack[--top];
+            if (!overlaps(nodeBounds, node * 6, q)) {
+                continue;
+            }
+            int size = nodeSize[node];
+            if (size > 0) {
+                for (int i = nodeStart[node], end = i + size; i < end; i++) {
+                    int item = order[i];
+                    if (overlaps(itemBounds, item * 6, q)) {
+                        consumer.accept(items[item]);
+                    }
+                }
+            } else {
+                if (top + 2 > stack.length) {
+                    stack = Arrays.copyOf(stack, stack.length * 2);
+                }
+                stack[top++] = nodeStart[node];
+                stack[top++] = nodeStart[node] + 1;
+            }
+        }
+    }
+
+    /**
+     * Finds the first element a ray enters. Candidates are found through their world-space bounds and then
+     * tested exactly against their oriented local geometry, so rotated elements are not hit in the empty
+     * corners of their axis-aligned bounds.
+     * @param originX the x coordinate of the ray origin
+     * @param originY the y coordinate of the ray origin
+     * @param originZ the z coordinate of the ray origin
+     * @param directionX the x component of the ray direction
+     * @param directionY the y component of the ray direction
+     * @param directionZ the z component of the ray direction
+     * @param maxDistance the length of the ray in blocks
+     * @return the closest hit, or null if the ray hits nothing within maxDistance
+     * @throws IllegalArgumentException if the direction has zero length or maxDistance is negative or NaN
+     */
+    public RayHit raycast(float originX, float originY, float originZ,
+                          float directionX, float directionY, float directionZ, float maxDistance) {
+        float length = (float) Math.sqrt(directionX * directionX + directionY * directionY + directionZ * directionZ);
+        if (!(length > 0) || !Float.isFinite(length)) {
+            throw new IllegalArgumentException("Ray direction must have a finite, non-zero length.");
+        }
+        if (!(maxDistance >= 0)) {
+            throw new IllegalArgumentException("Maximum distance cannot be negative.");
+        }
+        if (items.length == 0) {
+            return null;
+        }
+        float dx = directionX / length, dy = directionY / length, dz = directionZ / length;
+        Matrix4f inverse = new Matrix4f();
+        float best = maxDistance;
+        int bestItem = -1;
+        int[] stack = new int[INITIAL_STACK_SIZE];
+        int top = 0;
+        stack[top++] = 0;
+        while (top > 0) {
+            int node = stack[--top];
+            if (enter(nodeBounds, node * 6, originX, originY, originZ, dx, dy, dz, best) > best) {
+                continue;
+            }
+            int size = nodeSize[node];
+            if (size > 0) {
+                for (int i = nodeStart[node], end = i + size; i < end; i++) {
+                    int item = order[i];
+                    float t = enter(itemBounds, item * 6, originX, originY, originZ, dx, dy, dz, best);
+                    if (t <= best) {
+                        t = enterLocal(item, inverse, originX, originY, originZ, dx, dy, dz, best);
+                    }
+                    if (t <= best && (bestItem < 0 || t < best)) {
+                        best = t;
+                        bestItem = item;
+                    }
+                }
+            } else {
+                if (top + 2 > stack.length) {
+                    stack = Arrays.copyOf(stack, stack.length * 2);
+                }
+                int left = nodeStart[node];
+                float tLeft = enter(nodeBounds, left * 6, originX, originY, originZ, dx, dy, dz, best);
+                float tRight = enter(nodeBounds, (left + 1) * 6, originX, originY, originZ, dx, dy, dz, best);
+                // Visit the nearer child first so that it can prune the farther one.
+                if (tLeft <= tRight) {
+                    stack[top++] = left + 1;
+                    stack[top++] = left;
+                } else {
+                    stack[top++] = left;
+                    stack[top++] = left + 1;
+                }
+            }
+        }
+        return bestItem >= 0 ? new RayHit(items[bestItem], best) : null;
+    }
+
+    /**
+     * Finds the element whose world-space bounds are closest to a point.
+     * Elements whose bounds contain the point are at distance 0; ties are broken arbitrarily.
+     * @param x the x coordinate
+     * @param y the y coordinate
+     * @param z the z coordinate
+     * @return the closest element, or null if nothing is indexed
+     */
+    public ProjectElement nearest(float x, float y, float z) {
+        if (items.length == 0) {
+            return null;
+        }
+        float best = Float.POSITIVE_INFINITY;
+        int bestItem = -1;
+        int[] stack = new int[INITIAL_STACK_SIZE];
+        int top = 0;
+        stack[top++] = 0;
+        while (top > 0) {
+            int node = stack[--top];
+            if (distanceSquared(nodeBounds, node * 6, x, y, z) >= best && bestItem >= 0) {
+                continue;
+            }
+            int size = nodeSize[node];
+            if (size > 0) {
+                for (int i = nodeStart[node], end = i + size; i < end; i++) {
+                    int item = order[i];
+                    float d = distanceSquared(itemBounds, item * 6, x, y, z);
+                    if (d < best || bestItem < 0) {
+                        best = d;
+                        bestItem = item;
+                    }
+                }
+            } else {
+                if (top + 2 > stack.length) {
+                    stack = Arrays.copyOf(stack, stack.length * 2);
+                }
+                int left = nodeStart[node];
+                if (distanceSquared(nodeBounds, left * 6, x, y, z) <= distanceSquared(nodeBounds, (left + 1) * 6, x, y, z)) {
+                    stack[top++] = left + 1;
+                    stack[top++] = left;
+                } else {
+                    stack[top++] = left;
+                    stack[top++] = left + 1;
+                }
+            }
+        }
+        return items[bestItem];
+    }
+
+    // --- Updates ---
+
+    /**
+     * Refits the index after the world transforms of an element and its descendants changed, for example
+     * after recalculating the transforms of an edited collection. Only the nodes above the indexed elements of
+     * the subtree are refitted, and the walk towards the root stops at the first node whose bounds are unchanged.
+     * @param element the element whose subtree moved
+     * @return the number of indexed elements that were updated
+     * @throws IllegalArgumentException if element is null or an indexed element lost its world transform
+     */
+    public int update(ProjectElement element) {
+        if (element == null) {
+            throw new IllegalArgumentException("Element cannot be null.");
+        }
+        int updated = 0;
+        Deque<ProjectElement> pending = new ArrayDeque<>();
+        pending.push(element);
+        while (!pending.isEmpty()) {
+            ProjectElement current = pending.pop();
+            Integer slot = slots.get(current);
+            if (slot != null) {
+                updateItemBounds(slot);
+                refitPath(itemLeaf[slot]);
+                updated++;
+            }
+            List<ProjectElement> children = current.getChildren();
+            if (children != null) {
+                for (ProjectElement child : children) {
+                    if (child != null) pending.push(child);
+                }
+            }
+        }
+        return updated;
+    }
+
+    /**
+     * Reads the world transforms of all indexed elements again and refits every node, keeping the tree layout.
+     * @throws IllegalArgumentException if an indexed element lost its world transform
+     */
+    public void refit() {
+        for (int i = 0; i < items.length; i++) {
+            updateItemBounds(i);
+        }
+        refitNodes();
+    }
+
+    /**
+     * Reads the world transforms of all indexed elements again and splits the nodes anew, restoring query
+     * performance after elements moved far from where the index was built.
+     * @throws IllegalArgumentException if an indexed element lost its world transform
+     */
+    public void rebuild() {
+        for (int i = 0; i < items.length; i++) {
+            updateItemBounds(i);
+        }
+        split();
+    }
+
+    // --- Private Helper Methods ---
+
+    private static void collect(List<ProjectElement> rootElements, List<ProjectElement> indexed) {
+        float[] scratch = new float[6];
+        Deque<ProjectElement> pending = new ArrayDeque<>();
+        for (int i = rootElements.size() - 1; i >= 0; i--) {
+            if (rootElements.get(i) != null) pending.push(rootElements.get(i));
+        }
+        while (!pending.isEmpty()) {
+            ProjectElement element = pending.pop();
+            if (ElementBounds.localBounds(element, scratch, 0)) {
+                indexed.add(element);
+            }
+            List<ProjectElement> children = element.getChildren();
+            if (children != null) {
+                for (int i = children.size() - 1; i >= 0; i--) {
+                    if (children.get(i) != null) pending.push(children.get(i));
+                }
+            }
+        }
+    }
+
+    private void updateItemBounds(int item) {
+        Matrix4fc world = items[item].getWorldTransform();
+        if (world == null) {
+            throw new IllegalArgumentException("Element has no world transform; calculate world transforms before indexing: "
+                    + items[item].getName());
+        }
+        BoundingBox.transformBounds(world, localBounds, item * 6, itemBounds, item * 6);
+    }
+
+    /**
+     * Lays out the tree from scratch: every node range is split at the median center along its longest axis
+     * until it fits in a leaf. Children are always allocated after their parent.
+     */
+    private void split() {
+        int n = items.length;
+        float[] centers = new float[n * 3];
+        for (int i = 0; i < n; i++) {
+            order[i] = i;
+            centers[i * 3] = (itemBounds[i * 6] + itemBounds[i * 6 + 3]) * 0.5f;
+            centers[i * 3 + 1] = (itemBounds[i * 6 + 1] + itemBounds[i * 6 + 4]) * 0.5f;
+            centers[i * 3 + 2] = (itemBounds[i * 6 + 2] + itemBounds[i * 6 + 5]) * 0.5f;
+        }
+        nodeCount = 1;
+        nodeStart[0] = 0;
+        nodeSize[0] = n;
+        nodeParent[0] = -1;
+        int[] pending = new int[INITIAL_STACK_SIZE];
+        int top = 0;
+        pending[top++] = 0;
+        while (top > 0) {
+            int node = pending[--top];
+            int start = nodeStart[node];
+            int size = nodeSize[node];
+            if (size <= LEAF_SIZE) {
+                for (int i = start; i < start + size; i++) {
+                    itemLeaf[order[i]] = node;
+                }
+                continue;
+            }
+            int axis = longestAxis(centers, start, start + size);
+            int mid = start + size / 2;
+            select(centers, axis, start, start + size - 1, mid);
+            int left = nodeCount;
+            nodeCount += 2;
+            nodeStart[left] = start;
+            nodeSize[left] = mid - start;
+            nodeParent[left] = node;
+            nodeStart[left + 1] = mid;
+            nodeSize[left + 1] = start + size - mid;
+            nodeParent[left + 1] = node;
+            nodeStart[node] = left;
+            nodeSize[node] = 0;
+            if (top + 2 > pending.length) {
+                pending = Arrays.copyOf(pending, pending.length * 2);
+            }
+            pending[top++] = left;
+            pending[top++] = left + 1;
+        }
+        refitNodes();
+    }
+
+    private int longestAxis(float[] centers, int start, int end) {
+        float minX = Float.POSITIVE_INFINITY, minY = minX, minZ = minX;
+        float maxX = Float.NEGATIVE_INFINITY, maxY = maxX, maxZ = maxX;
+        for (int i = start; i < end; i++) {
+            int c = order[i] * 3;
+            minX = Math.min(minX, centers[c]);
+            maxX = Math.max(maxX, centers[c]);
+            minY = Math.min(minY, centers[c + 1]);
+            maxY = Math.max(maxY, centers[c + 1]);
+            minZ = Math.min(minZ, centers[c + 2]);
+            maxZ = Math.max(maxZ, centers[c + 2]);
+        }
+        float ex = maxX - minX, ey = maxY - minY, ez = maxZ - minZ;
+        return ex >= ey && ex >= ez ? 0 : ey >= ez ? 1 : 2;
+    }
+
+    /**
+     * Partially sorts {@code order[lo..hi]} so that position k holds the element that would be there if the
+     * range were sorted by center along the axis, with smaller centers before and larger ones after it.
+     * Uses Hoare partitioning, which stays fast when many centers are equal, as in block grids.
+     */
+    private void select(float[] centers, int axis, int lo, int hi, int k) {
+        while (hi > lo) {
+            float pivot = centers[order[(lo + hi) >>> 1] * 3 + axis];
+            int i = lo;
+            int j = hi;
+            while (i <= j) {
+                while (centers[order[i] * 3 + axis] < pivot) i++;
+                while (centers[order[j] * 3 + axis] > pivot) j--;
+                if (i <= j) {
+                    int swap = order[i];
+                    order[i] = order[j];
+                    order[j] = swap;
+                    i++;
+                    j--;
+                }
+            }
+            if (k <= j) {
+                hi = j;
+            } else if (k >= i) {
+                lo = i;
+            } else {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Recomputes the bounds of every node, children before parents.
+     */
+    private void refitNodes() {
+        for (int node = nodeCount - 1; node >= 0; node--) {
+            fitNode(node, nodeBounds, node * 6);
+        }
+    }
+
+    /**
+     * Recomputes the bounds of a leaf and its ancestors, stopping at the first node whose bounds do not change.
+     */
+    private void refitPath(int node) {
+        float[] fitted = new float[6];
+        while (node >= 0) {
+            fitNode(node, fitted, 0);
+            if (Arrays.equals(fitted, 0, 6, nodeBounds, node * 6, node * 6 + 6)) {
+                return;
+            }
+            System.arraycopy(fitted, 0, nodeBounds, node * 6, 6);
+            node = nodeParent[node];
+        }
+    }
+
+    private void fitNode(int node, float[] dest, int offset) {
+        float minX = Float.POSITIVE_INFINITY, minY = minX, minZ = minX;
+        float maxX = Float.NEGATIVE_INFINITY, maxY = maxX, maxZ = maxX;
+        int size = nodeSize[node];
+        // Leaves hold a range of items; the root of an empty index is an empty leaf.
+        boolean leaf = size > 0 || items.length == 0;
+        float[] source = leaf ? itemBounds : nodeBounds;
+        int from = nodeStart[node];
+        int count = leaf ? size : 2;
+        for (int i = 0; i < count; i++) {
+            int b = (leaf ? order[from + i] : from + i) * 6;
+            minX = Math.min(minX, source[b]);
+            minY = Math.min(minY, source[b + 1]);
+            minZ = Math.min(minZ, source[b + 2]);
+            maxX = Math.max(maxX, source[b + 3]);
+            maxY = Math.max(maxY, source[b + 4]);
+            maxZ = Math.max(maxZ, source[b + 5]);
+        }
+        dest[offset] = minX;
+        dest[offset + 1] = minY;
+        dest[offset + 2] = minZ;
+        dest[offset + 3] = maxX;
+        dest[offset + 4] = maxY;
+        dest[offset + 5] = maxZ;
+    }
+
+    /**
+     * Tests a ray against an item's geometry in its local space. The ray is moved into local space with the
+     * inverse world transform, which keeps its parameter, so the entry parameter is the world distance.
+     * World transforms are stored transposed (see {@link BoundingBox#transformBounds}), so the matrix is
+     * transposed into JOML's layout before it is inverted.
+     * Elements with a singular transform are tested against their world-space bounds instead.
+     */
+    private float enterLocal(int item, Matrix4f inverse, float ox, float oy, float oz,
+                             float dx, float dy, float dz, float maxT) {
+        Matrix4fc world = items[item].getWorldTransform();
+        if (world.determinant3x3() == 0) {
+            return enter(itemBounds, item * 6, ox, oy, oz, dx, dy, dz, maxT);
+        }
+        world.transpose(inverse).invertAffine();
+        float lox = inverse.m00() * ox + inverse.m10() * oy + inverse.m20() * oz + inverse.m30();
+        float loy = inverse.m01() * ox + inverse.m11() * oy + inverse.m21() * oz + inverse.m31();
+        float loz = inverse.m02() * ox + inverse.m12() * oy + inverse.m22() * oz + inverse.m32();
+        float ldx = inverse.m00() * dx + inverse.m10() * dy + inverse.m20() * dz;
+        float ldy = inverse.m01() * dx + inverse.m11() * dy + inverse.m21() * dz;
+        float ldz = inverse.m02() * dx + inverse.m12() * dy + inverse.m22() * dz;
+        return enter(localBounds, item * 6, lox, loy, loz, ldx, ldy, ldz, maxT);
+    }
+
+    /**
+     * Computes where a ray enters a box with the slab method.
+     * @return the entry parameter, clamped to 0 for origins inside the box, or positive infinity if the ray
+     *         misses the box within [0, maxT]
+     */
+    private static float enter(float[] b, int o, float ox, float oy, float oz, float dx, float dy, float dz, float maxT) {
+        float near = 0;
+        float far = maxT;
+        if (dx == 0) {
+            if (ox < b[o] || ox > b[o + 3]) return Float.POSITIVE_INFINITY;
+        } else {
+            float t1 = (b[o] - ox) / dx, t2 = (b[o + 3] - ox) / dx;
+            near = Math.max(near, Math.min(t1, t2));
+            far = Math.min(far, Math.max(t1, t2));
+        }
+        if (dy == 0) {
+            if (oy < b[o + 1] || oy > b[o + 4]) return Float.POSITIVE_INFINITY;
+        } else {
+            float t1 = (b[o + 1] - oy) / dy, t2 = (b[o + 4] - oy) / dy;
+            near = Math.max(near, Math.min(t1, t2));
+            far = Math.min(far, Math.max(t1, t2));
+        }
+        if (dz == 0) {
+            if (oz < b[o + 2] || oz > b[o + 5]) return Float.POSITIVE_INFINITY;
+        } else {
+            float t1 = (b[o + 2] - oz) / dz, t2 = (b[o + 5] - oz) / dz;
+            near = Math.max(near, Math.min(t1, t2));
+            far = Math.min(far, Math.max(t1, t2));
+        }
+        return near <= far ? near : Float.POSITIVE_INFINITY;
+    }
+
+    private static boolean overlaps(float[] b, int o, float[] q) {
+        return b[o] <= q[3] && b[o + 3] >= q[0]
+                && b[o + 1] <= q[4] && b[o + 4] >= q[1]
+                && b[o + 2] <= q[5] && b[o + 5] >= q[2];
+    }
+
+    private static float distanceSquared(float[] b, int o, float x, float y, float z) {
+        float dx = Math.max(Math.max(b[o] - x, 0), x - b[o + 3]);
+        float dy = Math.max(Math.max(b[o + 1] - y, 0), y - b[o + 4]);
+        float dz = Math.max(Math.max(b[o + 2] - z, 0), z - b[o + 5]);
+        return dx * dx + dy * dy + dz * dz;
+    }
+}
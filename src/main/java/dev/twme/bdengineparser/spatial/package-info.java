@@ -0,0 +1,4 @@
+/**
+ * Provides spatial queries over the world-transformed elements of a parsed project.
+ */
+package dev.twme.bdengineparser.spatial;
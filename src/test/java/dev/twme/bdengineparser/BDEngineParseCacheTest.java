@@ -0,0 +1,216 @@
+package dev.twme.bdengineparser;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.joml.Matrix4f;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import dev.twme.bdengineparser.exception.BDEngineParsingException;
+import dev.twme.bdengineparser.model.ProjectElement;
+
+class BDEngineParseCacheTest {
+
+    private static final float EPSILON = 1e-5f;
+    private static final long MAX_BYTES = 1L << 30;
+
+    /**
+     * A collection at x = 5 holding a block at x = 1. BDEngine stores the matrices row-major.
+     */
+    private static final String PROJECT = """
+            [{"isCollection": true, "name": "parent",
+              "transforms": [1, 0, 0, 5,  0, 1, 0, 0,  0, 0, 1, 0,  0, 0, 0, 1],
+              "children": [{"isBlockDisplay": true, "name": "stone",
+                            "transforms": [1, 0, 0, 1,  0, 1, 0, 0,  0, 0, 1, 0,  0, 0, 0, 1],
+                            "brightness": {"sky": 15, "block": 0}}]}]
+            """;
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(2);
+
+    @AfterEach
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void contentHitSharesParsedElements() throws BDEngineParsingException {
+        BDEngineParseCache cache = new BDEngineParseCache(new BDEngineParser(), 4, MAX_BYTES);
+
+        List<ProjectElement> first = cache.parseJsonString(PROJECT);
+        List<ProjectElement> second = cache.parseJsonBytes(PROJECT.getBytes(StandardCharsets.UTF_8));
+
+        assertSame(first, second);
+        BDEngineParseCache.CacheStats stats = cache.stats();
+        assertEquals(1, stats.hits());
+        assertEquals(1, stats.misses());
+        assertEquals(1, stats.entryCount());
+        assertTrue(stats.retainedBytes() > 0);
+    }
+
+    @Test
+    void fileHitsUntilTheFileChanges(@TempDir Path directory) throws BDEngineParsingException, IOException {
+        BDEngineParseCache cache = new BDEngineParseCache(new BDEngineParser(), 4, MAX_BYTES);
+        Path file = directory.resolve("project.json");
+        Files.writeString(file, PROJECT);
+
+        List<ProjectElement> first = cache.parseFromFile(file.toString());
+        assertSame(first, cache.parseFromFile(file.toString()));
+
+        // A different size changes the file identity even within the timestamp resolution.
+        Files.writeString(file, PROJECT + " ");
+        assertNotSame(first, cache.parseFromFile(file.toString()));
+        assertEquals(1, cache.stats().hits());
+        assertEquals(2, cache.stats().misses());
+    }
+
+    @Test
+    void evictsLeastRecentlyUsed() throws BDEngineParsingException {
+        BDEngineParseCache cache = new BDEngineParseCache(new BDEngineParser(), 2, MAX_BYTES);
+        String a = PROJECT;
+        String b = PROJECT.replace("stone", "dirt");
+        String c = PROJECT.replace("stone", "sand");
+
+        cache.parseJsonString(a);
+        cache.parseJsonString(b);
+        cache.parseJsonString(a);
+        cache.parseJsonString(c);
+
+        assertEquals(1, cache.stats().evictions());
+        assertEquals(2, cache.stats().entryCount());
+        cache.parseJsonString(a);
+        assertEquals(2, cache.stats().hits());
+        cache.parseJsonString(b);
+        assertEquals(4, cache.stats().misses());
+    }
+
+    @Test
+    void cachedElementsRejectModification() throws BDEngineParsingException {
+        BDEngineParser parser = new BDEngineParser();
+        parser.enableBoundsTracking();
+        BDEngineParseCache cache = new BDEngineParseCache(parser, 4, MAX_BYTES);
+        List<ProjectElement> elements = cache.parseJsonString(PROJECT);
+        ProjectElement parent = elements.get(0);
+        ProjectElement block = parent.getChildren().get(0);
+
+        assertTrue(block.isReadOnly());
+        assertThrows(UnsupportedOperationException.class, () -> block.setName("dirt"));
+        assertThrows(UnsupportedOperationException.class, () -> parent.getChildren().clear());
+        assertThrows(UnsupportedOperationException.class, () -> elements.remove(0));
+
+        // Getters hand out copies, so in-place changes stay with the caller.
+        block.getWorldTransform().translate(100, 0, 0);
+        block.getTransformArray()[3] = 100;
+        block.getBrightness().setSky(0);
+        assertEquals(6, block.getWorldTransform().m03(), EPSILON);
+        assertEquals(1, block.getTransformArray()[3]);
+        assertEquals(15, block.getBrightness().getSky());
+
+        // Subtree bounds were filled in before the elements were shared.
+        assertNotNull(parent.getSubtreeBounds());
+        assertEquals(6, parent.getSubtreeBounds().minX(), EPSILON);
+
+        ProjectElement copy = ProjectElement.deepCopy(elements).get(0).getChildren().get(0);
+        copy.setName("dirt");
+        copy.getWorldTransform().set(new Matrix4f());
+        assertEquals("stone", block.getName());
+    }
+
+    @Test
+    void concurrentRequestsShareOneParse() throws Exception {
+        BlockingParser parser = new BlockingParser(null);
+        BDEngineParseCache cache = new BDEngineParseCache(parser, 4, MAX_BYTES);
+
+        Future<List<ProjectElement>> first = executor.submit(() -> cache.parseJsonString(PROJECT));
+        assertTrue(parser.started.await(5, TimeUnit.SECONDS));
+        Future<List<ProjectElement>> second = executor.submit(() -> cache.parseJsonString(PROJECT));
+        awaitCoalesced(cache);
+        parser.release.countDown();
+
+        assertSame(first.get(5, TimeUnit.SECONDS), second.get(5, TimeUnit.SECONDS));
+        assertEquals(1, parser.parses.get());
+        assertEquals(1, cache.stats().misses());
+        assertEquals(1, cache.stats().coalescedRequests());
+    }
+
+    @Test
+    void errorInParseReleasesCoalescedRequests() throws Exception {
+        BlockingParser parser = new BlockingParser(new StackOverflowError("hostile model"));
+        BDEngineParseCache cache = new BDEngineParseCache(parser, 4, MAX_BYTES);
+
+        Future<List<ProjectElement>> first = executor.submit(() -> cache.parseJsonString(PROJECT));
+        assertTrue(parser.started.await(5, TimeUnit.SECONDS));
+        Future<List<ProjectElement>> second = executor.submit(() -> cache.parseJsonString(PROJECT));
+        awaitCoalesced(cache);
+        parser.release.countDown();
+
+        ExecutionException parsing = assertThrows(ExecutionException.class, () -> first.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(StackOverflowError.class, parsing.getCause());
+        ExecutionException waiting = assertThrows(ExecutionException.class, () -> second.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(BDEngineParsingException.class, waiting.getCause());
+        assertInstanceOf(StackOverflowError.class, waiting.getCause().getCause());
+
+        // Nothing was cached and no future was left behind, so the next request parses again.
+        assertEquals(0, cache.stats().entryCount());
+        assertThrows(StackOverflowError.class, () -> cache.parseJsonString(PROJECT));
+        assertEquals(2, parser.parses.get());
+    }
+
+    private static void awaitCoalesced(BDEngineParseCache cache) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (cache.stats().coalescedRequests() == 0) {
+            assertTrue(System.nanoTime() < deadline, "second request was not coalesced");
+            Thread.sleep(1);
+        }
+    }
+
+    /**
+     * A parser whose JSON parses wait for {@link #release}, then throw the given error if there is one.
+     */
+    private static final class BlockingParser extends BDEngineParser {
+
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final AtomicInteger parses = new AtomicInteger();
+        private final Error failure;
+
+        BlockingParser(Error failure) {
+            this.failure = failure;
+        }
+
+        @Override
+        public List<ProjectElement> parseFromInputStream(InputStream inputStream) throws BDEngineParsingException {
+            parses.incrementAndGet();
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                throw new BDEngineParsingException("Interrupted.", e);
+            }
+            if (failure != null) {
+                throw failure;
+            }
+            return super.parseFromInputStream(inputStream);
+        }
+    }
+}
@@ -0,0 +1,217 @@
+package dev.twme.bdengineparser;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.google.gson.Gson;
+
+import dev.twme.bdengineparser.exception.BDEngineParsingException;
+import dev.twme.bdengineparser.model.BoundingBox;
+import dev.twme.bdengineparser.model.ProjectElement;
+
+class BDEngineSnapshotTest {
+
+    private static final float EPSILON = 1e-5f;
+    private static final int VERSION_OFFSET = 4;
+    private static final int ROOT_COUNT_OFFSET = 12;
+    private static final int ELEMENT_COUNT_OFFSET = 16;
+    private static final int FORMAT_VERSION_AFTER = BDEngineSnapshot.FORMAT_VERSION + 1;
+
+    /**
+     * A collection at x = 5 holding a block at x = 1, so the block's world translation is 6.
+     * BDEngine stores the matrices row-major.
+     */
+    private static final String TRANSLATED_PARENT = """
+            [{"isCollection": true, "name": "parent",
+              "transforms": [1, 0, 0, 5,  0, 1, 0, 0,  0, 0, 1, 0,  0, 0, 0, 1],
+              "children": [{"isBlockDisplay": true, "name": "stone",
+                            "transforms": [1, 0, 0, 1,  0, 1, 0, 0,  0, 0, 1, 0,  0, 0, 0, 1]}]}]
+            """;
+
+    /**
+     * Every optional field: default transforms, a player head with textures and a paint texture, text options,
+     * brightness, a collection with an empty child list and a block without one.
+     */
+    private static final String EVERY_FIELD = """
+            [{"isCollection": true, "name": "group", "nbt": "", "isBackCollection": false,
+              "transforms": [1, 0, 0, 2,  0, 1, 0, 0,  0, 0, 1, 0,  0, 0, 0, 1],
+              "defaultTransform": {"position": [1, 2, 3], "rotation": {"x": 0.1, "y": 0.2, "z": 0.3}, "scale": [1, 1, 2]},
+              "children": [
+                {"isItemDisplay": true, "name": "player_head[display=none]", "nbt": "{CustomModelData:3}",
+                 "transforms": [1, 0, 0, 0,  0, 1, 0, 1,  0, 0, 1, 0,  0, 0, 0, 1],
+                 "tagHead": {"Value": "texture"}, "textureValueList": ["texture", "other"],
+                 "paintTexture": {"layers": [{"color": "red", "alpha": 0.5}, null], "size": 16},
+                 "defaultTextureValue": "texture", "brightness": {"sky": 15, "block": 7}},
+                {"isTextDisplay": true, "name": "Hello",
+                 "transforms": [0, -1, 0, 0,  1, 0, 0, 0,  0, 0, 1, 3,  0, 0, 0, 1],
+                 "options": {"color": "#ffffff", "alpha": 1, "backgroundColor": "#000000", "backgroundAlpha": 0.25,
+                             "bold": true, "italic": false, "underline": true, "strikeThrough": false,
+                             "lineLength": 50, "align": "center", "obfuscated": true}},
+                {"isCollection": true, "name": "empty",
+                 "transforms": [1, 0, 0, 0,  0, 1, 0, 0,  0, 0, 1, 0,  0, 0, 0, 1], "children": []}]},
+             {"isBlockDisplay": true, "name": "stone",
+              "transforms": [2, 0, 0, 0,  0, 2, 0, 0,  0, 0, 2, 0,  0, 0, 0, 1]}]
+            """;
+
+    @Test
+    void restoresParentLinksAndBounds() throws BDEngineParsingException {
+        BDEngineParser parser = new BDEngineParser();
+        parser.enableBoundsTracking();
+        BDEngineSnapshot snapshots = new BDEngineSnapshot(parser);
+        List<ProjectElement> restored = snapshots.read(snapshots.toBytes(parser.parseJsonString(TRANSLATED_PARENT)));
+        ProjectElement parent = restored.get(0);
+        ProjectElement block = parent.getChildren().get(0);
+
+        assertNull(parent.getParent());
+        assertSame(parent, block.getParent());
+        BoundingBox bounds = parent.getSubtreeBounds();
+        assertNotNull(bounds);
+        assertEquals(6, bounds.minX(), EPSILON);
+        assertEquals(7, bounds.maxX(), EPSILON);
+
+        parser.recalculateWorldTransforms(block);
+        assertEquals(6, block.getWorldTransform().m03(), EPSILON);
+    }
+
+    @Test
+    void rejectsRecalculatingUnlinkedElement() throws BDEngineParsingException {
+        BDEngineParser parser = new BDEngineParser();
+        List<ProjectElement> elements = parser.parseJsonStringRaw(TRANSLATED_PARENT);
+        float[] worlds = new float[32];
+        parser.calculateWorldTransformsForElements(elements, worlds);
+
+        ProjectElement block = elements.get(0).getChildren().get(0);
+        assertThrows(IllegalArgumentException.class, () -> parser.recalculateWorldTransforms(block));
+
+        // Without bounds tracking, neither parsing nor reading a snapshot links the elements.
+        BDEngineSnapshot snapshots = new BDEngineSnapshot(parser);
+        List<ProjectElement> restored = snapshots.read(snapshots.toBytes(parser.parseJsonString(TRANSLATED_PARENT)));
+        ProjectElement restoredBlock = restored.get(0).getChildren().get(0);
+        assertNull(restoredBlock.getParent());
+        assertNull(restored.get(0).getSubtreeBounds());
+        assertThrows(IllegalArgumentException.class, () -> parser.recalculateWorldTransforms(restoredBlock));
+    }
+
+    @Test
+    void rejectsCorruptSnapshots() throws BDEngineParsingException {
+        BDEngineSnapshot snapshots = new BDEngineSnapshot();
+        byte[] valid = snapshots.toBytes(new BDEngineParser().parseJsonString(TRANSLATED_PARENT));
+
+        assertThrows(BDEngineParsingException.class, () -> snapshots.read(Arrays.copyOf(valid, valid.length - 1)));
+        assertThrows(BDEngineParsingException.class, () -> snapshots.read(Arrays.copyOf(valid, valid.length + 8)));
+        assertThrows(BDEngineParsingException.class, () -> snapshots.read(new byte[64]));
+        assertThrows(BDEngineParsingException.class, () -> snapshots.read(withHeaderInt(valid, VERSION_OFFSET, 99)));
+        // Header counts that would size allocations far beyond the data are rejected before allocating.
+        assertThrows(BDEngineParsingException.class,
+                () -> snapshots.read(withHeaderInt(valid, ROOT_COUNT_OFFSET, Integer.MAX_VALUE)));
+        assertThrows(BDEngineParsingException.class,
+                () -> snapshots.read(withHeaderInt(valid, ELEMENT_COUNT_OFFSET, Integer.MAX_VALUE)));
+    }
+
+    @Test
+    void roundTripKeepsEveryField() throws BDEngineParsingException {
+        BDEngineSnapshot snapshots = new BDEngineSnapshot();
+        List<ProjectElement> original = new ArrayList<>(new BDEngineParser().parseJsonString(EVERY_FIELD));
+        original.add(1, null);
+        ProjectElement group = original.get(0);
+        List<ProjectElement> children = new ArrayList<>(group.getChildren());
+        children.add(null);
+        group.setChildren(children);
+
+        List<ProjectElement> restored = snapshots.read(snapshots.toBytes(original));
+
+        Gson gson = new Gson();
+        assertEquals(gson.toJson(original), gson.toJson(restored));
+        assertNull(restored.get(1));
+        assertNull(restored.get(0).getChildren().get(3));
+        assertNull(restored.get(2).getChildren());
+        assertTrue(restored.get(0).getChildren().get(2).getChildren().isEmpty());
+        Map<?, ?> paint = (Map<?, ?>) restored.get(0).getChildren().get(0).getPaintTexture();
+        assertEquals(16.0, paint.get("size"));
+
+        List<ProjectElement> before = preOrder(original);
+        List<ProjectElement> after = preOrder(restored);
+        assertEquals(before.size(), after.size());
+        for (int i = 0; i < before.size(); i++) {
+            assertEquals(before.get(i).getWorldTransform(), after.get(i).getWorldTransform());
+            assertEquals(before.get(i).getSubtreeSize(), after.get(i).getSubtreeSize());
+        }
+    }
+
+    @Test
+    void loadOrParseFallsBackToSource(@TempDir Path directory) throws BDEngineParsingException, IOException {
+        BDEngineSnapshot snapshots = new BDEngineSnapshot();
+        Path source = directory.resolve("project.json");
+        Path snapshot = directory.resolve("cache").resolve("project.snapshot");
+        Files.writeString(source, TRANSLATED_PARENT);
+
+        assertEquals("parent", snapshots.loadOrParse(snapshot.toString(), source.toString()).get(0).getName());
+        assertTrue(BDEngineSnapshot.isCurrentVersion(ByteBuffer.wrap(Files.readAllBytes(snapshot))));
+
+        // An up-to-date snapshot is used without reading the source.
+        Files.writeString(source, "not json");
+        setTimes(source, snapshot);
+        assertEquals("parent", snapshots.loadOrParse(snapshot.toString(), source.toString()).get(0).getName());
+
+        // Snapshots of another version or with a corrupt header are replaced by parsing the source.
+        Files.writeString(source, TRANSLATED_PARENT.replace("parent", "renamed"));
+        byte[] current = Files.readAllBytes(snapshot);
+        for (byte[] unusable : List.of(withHeaderInt(current, VERSION_OFFSET, FORMAT_VERSION_AFTER),
+                withHeaderInt(current, ROOT_COUNT_OFFSET, Integer.MAX_VALUE))) {
+            Files.write(snapshot, unusable);
+            setTimes(source, snapshot);
+            assertEquals("renamed", snapshots.loadOrParse(snapshot.toString(), source.toString()).get(0).getName());
+            assertTrue(BDEngineSnapshot.isCurrentVersion(ByteBuffer.wrap(Files.readAllBytes(snapshot))));
+        }
+    }
+
+    /** Makes the snapshot newer than the source, so it counts as up to date. */
+    private static void setTimes(Path source, Path snapshot) throws IOException {
+        Files.setLastModifiedTime(source, FileTime.fromMillis(1_000_000_000L));
+        Files.setLastModifiedTime(snapshot, FileTime.fromMillis(2_000_000_000L));
+    }
+
+    private static List<ProjectElement> preOrder(List<ProjectElement> rootElements) {
+        List<ProjectElement> order = new ArrayList<>();
+        Deque<ProjectElement> pending = new ArrayDeque<>();
+        for (int i = rootElements.size() - 1; i >= 0; i--) {
+            if (rootElements.get(i) != null) pending.push(rootElements.get(i));
+        }
+        while (!pending.isEmpty()) {
+            ProjectElement element = pending.pop();
+            order.add(element);
+            List<ProjectElement> children = element.getChildren();
+            if (children == null) continue;
+            for (int i = children.size() - 1; i >= 0; i--) {
+                if (children.get(i) != null) pending.push(children.get(i));
+            }
+        }
+        return order;
+    }
+
+    private static byte[] withHeaderInt(byte[] snapshot, int offset, int value) {
+        byte[] copy = snapshot.clone();
+        ByteBuffer.wrap(copy).order(ByteOrder.LITTLE_ENDIAN).putInt(offset, value);
+        return copy;
+    }
+}
@@ -0,0 +1,131 @@
+package dev.twme.bdengineparser;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.google.gson.Gson;
+
+import dev.twme.bdengineparser.diff.ProjectDiff;
+import dev.twme.bdengineparser.exception.BDEngineParsingException;
+import dev.twme.bdengineparser.model.CompiledProject;
+import dev.twme.bdengineparser.model.ProjectElement;
+
+class BDEngineWriterTest {
+
+    /**
+     * Two roots: a collection holding a player head, a text display and an empty collection, and a block.
+     * The element fields cover every optional setting.
+     */
+    private static final String PROJECT = """
+            [{"isCollection": true, "name": "group", "nbt": "",
+              "transforms": [1, 0, 0, 2,  0, 1, 0, 0,  0, 0, 1, 0,  0, 0, 0, 1],
+              "defaultTransform": {"position": [1, 2, 3], "rotation": {"x": 0.1, "y": 0.2, "z": 0.3}, "scale": [1, 1, 2]},
+              "children": [
+                {"isItemDisplay": true, "name": "player_head[display=none]", "nbt": "{CustomModelData:3}",
+                 "transforms": [1, 0, 0, 0,  0, 1, 0, 1,  0, 0, 1, 0,  0, 0, 0, 1],
+                 "tagHead": {"Value": "texture"}, "textureValueList": ["texture", "other"],
+                 "paintTexture": {"layers": [{"color": "red", "alpha": 0.5}], "size": 16},
+                 "defaultTextureValue": "texture", "brightness": {"sky": 15, "block": 7}},
+                {"isTextDisplay": true, "name": "Hello \\"world\\"",
+                 "transforms": [0, -1, 0, 0,  1, 0, 0, 0,  0, 0, 1, 3,  0, 0, 0, 1],
+                 "options": {"color": "#ffffff", "alpha": 1, "backgroundColor": "#000000", "backgroundAlpha": 0.25,
+                             "bold": true, "italic": false, "underline": true, "strikeThrough": false,
+                             "lineLength": 50, "align": "center", "obfuscated": true}},
+                {"isCollection": true, "name": "empty",
+                 "transforms": [1, 0, 0, 0,  0, 1, 0, 0,  0, 0, 1, 0,  0, 0, 0, 1], "children": []}]},
+             {"isBlockDisplay": true, "name": "stone",
+              "transforms": [0.5, 0, 0, -1,  0, 0.5, 0, 0,  0, 0, 0.5, 0,  0, 0, 0, 1]}]
+            """;
+
+    private final BDEngineParser parser = new BDEngineParser();
+    private final BDEngineWriter writer = new BDEngineWriter();
+
+    @Test
+    void jsonRoundTrip() throws BDEngineParsingException, IOException {
+        List<ProjectElement> original = parser.parseJsonString(PROJECT);
+        StringWriter json = new StringWriter();
+        writer.writeJson(original, json);
+
+        assertRoundTrip(original, parser.parseJsonString(json.toString()));
+    }
+
+    @Test
+    void bdengineRoundTrip(@TempDir Path directory) throws BDEngineParsingException, IOException {
+        List<ProjectElement> original = parser.parseJsonString(PROJECT);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        writer.writeBDEngine(original, bytes);
+        assertRoundTrip(original, parser.parseBDEngineBytes(bytes.toByteArray()));
+
+        String file = directory.resolve("project.bdengine").toString();
+        new BDEngineWriter(9).writeBDEngineFile(original, file);
+        assertRoundTrip(original, parser.parseBDEngineFile(file));
+    }
+
+    @Test
+    void compiledRoundTrip() throws BDEngineParsingException, IOException {
+        List<ProjectElement> original = parser.parseJsonString(PROJECT);
+        CompiledProject compiled = CompiledProject.compile(original);
+
+        StringWriter json = new StringWriter();
+        writer.writeJson(compiled, json);
+        List<ProjectElement> fromJson = parser.parseJsonString(json.toString());
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        writer.writeBDEngine(compiled, bytes);
+        List<ProjectElement> fromBDEngine = parser.parseBDEngineBytes(bytes.toByteArray());
+
+        // A compiled project keeps only types, names, NBT and transforms, so the other settings are dropped.
+        List<ProjectElement> stripped = ProjectElement.deepCopy(original);
+        stripSettings(stripped);
+        for (List<ProjectElement> parsed : List.of(fromJson, fromBDEngine)) {
+            assertEquals(2, parsed.size());
+            assertTrue(parsed.get(0).getChildren().get(2).getChildren().isEmpty());
+            assertTrue(ProjectDiff.compute(stripped, parsed).isEmpty(), "diff is not empty");
+            assertCompiledEquals(compiled, CompiledProject.compile(parsed));
+        }
+        assertRoundTrip(fromJson, fromBDEngine);
+    }
+
+    private static void stripSettings(List<ProjectElement> elements) {
+        for (ProjectElement element : elements) {
+            element.setIsBackCollection(null);
+            element.setDefaultTransform(null);
+            element.setTagHead(null);
+            element.setTextureValueList(null);
+            element.setPaintTexture(null);
+            element.setDefaultTextureValue(null);
+            element.setOptions(null);
+            element.setBrightness(null);
+            if (element.getChildren() != null) {
+                stripSettings(element.getChildren());
+            }
+        }
+    }
+
+    private static void assertRoundTrip(List<ProjectElement> expected, List<ProjectElement> actual) {
+        assertTrue(ProjectDiff.compute(expected, actual).isEmpty(), "diff is not empty");
+        Gson gson = new Gson();
+        assertEquals(gson.toJson(expected), gson.toJson(actual));
+    }
+
+    private static void assertCompiledEquals(CompiledProject expected, CompiledProject actual) {
+        assertEquals(expected.size(), actual.size());
+        assertArrayEquals(expected.getParentArray(), actual.getParentArray());
+        assertArrayEquals(expected.getTypeArray(), actual.getTypeArray());
+        assertArrayEquals(expected.getLocalTransformArray(), actual.getLocalTransformArray());
+        assertArrayEquals(expected.getWorldTransformArray(), actual.getWorldTransformArray());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.getName(i), actual.getName(i));
+            assertEquals(expected.getNbt(i), actual.getNbt(i));
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package dev.twme.bdengineparser;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import org.joml.Matrix4f;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import dev.twme.bdengineparser.exception.BDEngineParsingException;
+import dev.twme.bdengineparser.model.ProjectElement;
+
+class ParallelTransformsTest {
+
+    private final ForkJoinPool pool = new ForkJoinPool(4);
+
+    @AfterEach
+    void shutdown() {
+        pool.shutdownNow();
+    }
+
+    @Test
+    void parallelParseMatchesSequentialParse() throws BDEngineParsingException {
+        String json = generateProject(new Random(5), 3, 5, 4);
+        BDEngineParser sequential = new BDEngineParser();
+        sequential.enableBoundsTracking();
+        List<ProjectElement> expected = sequential.parseJsonString(json);
+
+        for (int splitThreshold : new int[] { 1, 8, 100_000 }) {
+            BDEngineParser parallel = new BDEngineParser();
+            parallel.enableBoundsTracking();
+            parallel.enableParallelTransforms(pool, splitThreshold);
+            assertSameTransforms(expected, parallel.parseJsonString(json));
+        }
+    }
+
+    @Test
+    void parallelRecalculationMatchesSequential() throws BDEngineParsingException {
+        BDEngineParser parser = new BDEngineParser();
+        List<ProjectElement> expected = parser.parseJsonString(generateProject(new Random(9), 4, 4, 5));
+        List<ProjectElement> copy = ProjectElement.deepCopy(expected);
+        for (ProjectElement element : preOrder(copy)) {
+            element.setWorldTransform(new Matrix4f().zero());
+        }
+
+        parser.calculateWorldTransformsForElements(copy, pool, 2);
+        assertSameTransforms(expected, copy);
+
+        // The packed array holds the same transforms in pre-order.
+        List<ProjectElement> elements = preOrder(expected);
+        float[] packed = new float[elements.size() * 16];
+        assertEquals(elements.size(), parser.calculateWorldTransformsForElements(expected, packed));
+        for (int i = 0; i < elements.size(); i++) {
+            float[] world = elements.get(i).getWorldTransform().get(new float[16]);
+            assertArrayEquals(world, Arrays.copyOfRange(packed, i * 16, i * 16 + 16), elements.get(i).getName());
+        }
+    }
+
+    private static void assertSameTransforms(List<ProjectElement> expected, List<ProjectElement> actual) {
+        List<ProjectElement> expectedElements = preOrder(expected);
+        List<ProjectElement> actualElements = preOrder(actual);
+        assertEquals(expectedElements.size(), actualElements.size());
+        for (int i = 0; i < expectedElements.size(); i++) {
+            ProjectElement e = expectedElements.get(i);
+            ProjectElement a = actualElements.get(i);
+            // The same products in the same order, so the results are bit-for-bit equal.
+            assertEquals(e.getWorldTransform(), a.getWorldTransform(), e.getName());
+            assertEquals(e.getWorldBounds(), a.getWorldBounds(), e.getName());
+            assertEquals(e.getSubtreeBounds(), a.getSubtreeBounds(), e.getName());
+        }
+    }
+
+    private static List<ProjectElement> preOrder(List<ProjectElement> roots) {
+        List<ProjectElement> result = new ArrayList<>();
+        for (ProjectElement root : roots) {
+            result.add(root);
+            if (root.getChildren() != null) {
+                result.addAll(preOrder(root.getChildren()));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Generates roots of nested collections, {@code fanout} children per collection and {@code depth}
+     * levels deep, with blocks as leaves. Each transform is a rotation about Y, a uniform scale and a move,
+     * stored row-major as BDEngine does.
+     */
+    static String generateProject(Random random, int roots, int fanout, int depth) {
+        StringBuilder json = new StringBuilder("[");
+        for (int i = 0; i < roots; i++) {
+            if (i > 0) json.append(',');
+            appendElement(json, random, fanout, depth, "n" + i);
+        }
+        return json.append(']').toString();
+    }
+
+    private static void appendElement(StringBuilder json, Random random, int fanout, int depth, String name) {
+        double angle = random.nextDouble() * Math.PI * 2;
+        double scale = 0.5 + random.nextDouble();
+        double c = Math.cos(angle) * scale;
+        double s = Math.sin(angle) * scale;
+        double x = random.nextDouble() * 4 - 2;
+        double y = random.nextDouble() * 4 - 2;
+        double z = random.nextDouble() * 4 - 2;
+        json.append(depth > 1 ? "{\"isCollection\": true" : "{\"isBlockDisplay\": true")
+                .append(", \"name\": \"").append(name).append("\", \"transforms\": [")
+                .append(c).append(", 0, ").append(s).append(", ").append(x).append(", ")
+                .append("0, ").append(scale).append(", 0, ").append(y).append(", ")
+                .append(-s).append(", 0, ").append(c).append(", ").append(z).append(", 0, 0, 0, 1]");
+        if (depth > 1) {
+            json.append(", \"children\": [");
+            for (int i = 0; i < fanout; i++) {
+                if (i > 0) json.append(',');
+                appendElement(json, random, fanout, depth - 1, name + "." + i);
+            }
+            json.append(']');
+        }
+        json.append('}');
+    }
+}
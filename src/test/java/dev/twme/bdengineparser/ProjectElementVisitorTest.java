@@ -0,0 +1,138 @@
+package dev.twme.bdengineparser;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.joml.Matrix4f;
+import org.joml.Matrix4fc;
+import org.junit.jupiter.api.Test;
+
+import dev.twme.bdengineparser.exception.BDEngineParsingException;
+import dev.twme.bdengineparser.model.ProjectElement;
+
+class ProjectElementVisitorTest {
+
+    private static final float EPSILON = 1e-5f;
+
+    /**
+     * Three levels under rotated and scaled collections, so a wrong multiplication order shows up in every
+     * world transform. BDEngine stores the matrices row-major.
+     */
+    static final String PROJECT = """
+            [{"isCollection": true, "name": "rig",
+              "transforms": [0, 0, 1, 5,  0, 1, 0, 0,  -1, 0, 0, 0,  0, 0, 0, 1],
+              "children": [
+                {"isCollection": true, "name": "arm",
+                 "transforms": [0, -2, 0, 1,  2, 0, 0, 0,  0, 0, 2, 3,  0, 0, 0, 1],
+                 "children": [
+                   {"isBlockDisplay": true, "name": "hand", "nbt": "{hand:1b}",
+                    "transforms": [1, 0, 0, 1,  0, 0.5, 0, 0,  0, 0, 1, -1,  0, 0, 0, 1]},
+                   {"isItemDisplay": true, "name": "player_head",
+                    "transforms": [0.8, -0.6, 0, 0,  0.6, 0.8, 0, 2,  0, 0, 1, 0,  0, 0, 0, 1]}]},
+                {"isTextDisplay": true, "name": "label",
+                 "transforms": [1, 0, 0, 0,  0, 1, 0, 3,  0, 0, 1, 0,  0, 0, 0, 1]},
+                {"isCollection": true, "name": "empty",
+                 "transforms": [1, 0, 0, 0,  0, 1, 0, 0,  0, 0, 1, 0,  0, 0, 0, 1], "children": []}]},
+             {"isBlockDisplay": true, "name": "stone",
+              "transforms": [0.5, 0, 0, -4,  0, 0.5, 0, 0,  0, 0, 0.5, 0,  0, 0, 0, 1]},
+             {"name": "untyped",
+              "transforms": [1, 0, 0, 0,  0, 1, 0, 0,  0, 0, 1, 9,  0, 0, 0, 1]}]
+            """;
+
+    private final BDEngineParser parser = new BDEngineParser();
+
+    @Test
+    void jsonVisitMatchesCalculatedWorldTransforms() throws BDEngineParsingException {
+        Recorder recorder = new Recorder();
+        parser.visitJsonString(PROJECT, recorder);
+
+        assertMatchesParse(recorder, parser.parseJsonString(PROJECT));
+    }
+
+    @Test
+    void bdengineVisitMatchesCalculatedWorldTransforms() throws BDEngineParsingException, IOException {
+        String bdengine = toBDEngine(parser.parseJsonString(PROJECT));
+        Recorder recorder = new Recorder();
+        parser.visitBDEngineString(bdengine, recorder);
+
+        assertMatchesParse(recorder, parser.parseBDEngineString(bdengine));
+    }
+
+    static String toBDEngine(List<ProjectElement> elements) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        new BDEngineWriter().writeBDEngine(elements, bytes);
+        return bytes.toString(StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * Compares the visited elements with a full parse, whose world transforms come from
+     * {@link BDEngineParser#calculateWorldTransformsForElements(List)}.
+     */
+    private static void assertMatchesParse(Recorder recorder, List<ProjectElement> parsed) {
+        List<ProjectElement> preOrder = new ArrayList<>();
+        List<ProjectElement> postOrder = new ArrayList<>();
+        List<Integer> depths = new ArrayList<>();
+        collect(parsed, 0, preOrder, postOrder, depths);
+
+        assertEquals(postOrder.size(), recorder.names.size());
+        assertEquals(postOrder.size(), recorder.entered);
+        for (int i = 0; i < postOrder.size(); i++) {
+            ProjectElement expected = postOrder.get(i);
+            assertEquals(expected.getName(), recorder.names.get(i));
+            assertEquals(depths.get(i), recorder.depths.get(i), expected.getName());
+            assertTrue(expected.getWorldTransform().equals(recorder.worlds.get(i), EPSILON), expected.getName());
+        }
+        // onTransform reports the same world transforms before the children, so in pre-order.
+        assertEquals(preOrder.size(), recorder.transformWorlds.size());
+        for (int i = 0; i < preOrder.size(); i++) {
+            ProjectElement expected = preOrder.get(i);
+            assertTrue(expected.getWorldTransform().equals(recorder.transformWorlds.get(i), EPSILON), expected.getName());
+        }
+    }
+
+    private static void collect(List<ProjectElement> elements, int depth, List<ProjectElement> preOrder,
+                                List<ProjectElement> postOrder, List<Integer> postOrderDepths) {
+        for (ProjectElement element : elements) {
+            preOrder.add(element);
+            if (element.getChildren() != null) {
+                collect(element.getChildren(), depth + 1, preOrder, postOrder, postOrderDepths);
+            }
+            postOrder.add(element);
+            postOrderDepths.add(depth);
+        }
+    }
+
+    /**
+     * Copies what the visitor reports, since the matrices passed to it are reused.
+     */
+    private static final class Recorder implements ProjectElementVisitor {
+        int entered;
+        final List<String> names = new ArrayList<>();
+        final List<Integer> depths = new ArrayList<>();
+        final List<Matrix4f> worlds = new ArrayList<>();
+        final List<Matrix4f> transformWorlds = new ArrayList<>();
+
+        @Override
+        public void enterElement(int depth) {
+            entered++;
+        }
+
+        @Override
+        public void onTransform(Matrix4fc localTransform, Matrix4fc worldTransform, int depth) {
+            transformWorlds.add(new Matrix4f(worldTransform));
+        }
+
+        @Override
+        public void exitElement(ProjectElement element, Matrix4fc worldTransform, int depth) {
+            names.add(element.getName());
+            depths.add(depth);
+            worlds.add(new Matrix4f(worldTransform));
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package dev.twme.bdengineparser;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.IOException;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import dev.twme.bdengineparser.exception.BDEngineParsingException;
+import dev.twme.bdengineparser.model.CompiledProject;
+import dev.twme.bdengineparser.model.ProjectElement;
+
+class ProjectStatsTest {
+
+    private final BDEngineParser parser = new BDEngineParser();
+
+    @Test
+    void jsonScanMatchesFullParse() throws BDEngineParsingException {
+        ProjectStats stats = parser.scanJsonString(ProjectElementVisitorTest.PROJECT);
+
+        assertEquals(new ProjectStats(8, 3, 3, 2, 1, 1), stats);
+        assertEquals(countParsed(parser.parseJsonString(ProjectElementVisitorTest.PROJECT)), stats);
+        assertEquals(1, stats.otherCount());
+        assertEquals(4, stats.displayCount());
+    }
+
+    @Test
+    void bdengineScanMatchesFullParse() throws BDEngineParsingException, IOException {
+        String bdengine = ProjectElementVisitorTest.toBDEngine(parser.parseJsonString(ProjectElementVisitorTest.PROJECT));
+
+        assertEquals(countParsed(parser.parseBDEngineString(bdengine)), parser.scanBDEngineString(bdengine));
+    }
+
+    @Test
+    void emptyProjectHasNoDepth() throws BDEngineParsingException {
+        assertEquals(new ProjectStats(0, 0, 0, 0, 0, 0), parser.scanJsonString("[]"));
+    }
+
+    /**
+     * Counts the elements of a parsed tree with the type precedence of {@link CompiledProject#typeOf}.
+     */
+    private static ProjectStats countParsed(List<ProjectElement> roots) {
+        int[] counts = new int[6];
+        count(roots, 1, counts);
+        return new ProjectStats(counts[0], counts[1], counts[2], counts[3], counts[4], counts[5]);
+    }
+
+    private static void count(List<ProjectElement> elements, int depth, int[] counts) {
+        for (ProjectElement element : elements) {
+            counts[0]++;
+            counts[1] = Math.max(counts[1], depth);
+            switch (CompiledProject.typeOf(element)) {
+                case CompiledProject.TYPE_COLLECTION -> counts[2]++;
+                case CompiledProject.TYPE_BLOCK_DISPLAY -> counts[3]++;
+                case CompiledProject.TYPE_ITEM_DISPLAY -> counts[4]++;
+                case CompiledProject.TYPE_TEXT_DISPLAY -> counts[5]++;
+                default -> { }
+            }
+            if (element.getChildren() != null) {
+                count(element.getChildren(), depth + 1, counts);
+            }
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package dev.twme.bdengineparser.animation;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.joml.Matrix4f;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import dev.twme.bdengineparser.BDEngineParser;
+import dev.twme.bdengineparser.exception.BDEngineParsingException;
+import dev.twme.bdengineparser.model.CompiledProject;
+import dev.twme.bdengineparser.model.ProjectElement;
+
+class KeyframeAnimationTest {
+
+    private static final float EPSILON = 1e-5f;
+    private static final float[] TIMES = { 0, 1, 3 };
+
+    /**
+     * The same rig in three poses: a collection holding a stretched block. The collection is rotated about
+     * Y and moved, and the block is moved, rotated about Z and scaled. BDEngine stores the matrices row-major.
+     */
+    private static final String[] POSES = {
+            """
+            [{"isCollection": true, "name": "parent",
+              "transforms": [0, 0, 1, 5,  0, 1, 0, 0,  -1, 0, 0, 0,  0, 0, 0, 1],
+              "children": [{"isBlockDisplay": true, "name": "stone",
+                            "transforms": [2, 0, 0, 1,  0, 1, 0, 0,  0, 0, 0.5, 0,  0, 0, 0, 1]}]}]
+            """,
+            """
+            [{"isCollection": true, "name": "parent",
+              "transforms": [1, 0, 0, 2,  0, 1, 0, 3,  0, 0, 1, -4,  0, 0, 0, 1],
+              "children": [{"isBlockDisplay": true, "name": "stone",
+                            "transforms": [0, -1, 0, 0,  1, 0, 0, 2,  0, 0, 1, 1,  0, 0, 0, 1]}]}]
+            """,
+            """
+            [{"isCollection": true, "name": "parent",
+              "transforms": [0, 0, -1, -3,  0, 1, 0, 1,  1, 0, 0, 2,  0, 0, 0, 1],
+              "children": [{"isBlockDisplay": true, "name": "stone",
+                            "transforms": [0, -3, 0, 1,  1, 0, 0, 0,  0, 0, 2, -1,  0, 0, 0, 1]}]}]
+            """
+    };
+
+    private final List<List<ProjectElement>> keyframes = new ArrayList<>();
+    private KeyframeAnimation animation;
+
+    @BeforeEach
+    void compile() throws BDEngineParsingException {
+        BDEngineParser parser = new BDEngineParser();
+        for (String pose : POSES) {
+            keyframes.add(parser.parseJsonString(pose));
+        }
+        animation = KeyframeAnimation.compile(keyframes, TIMES);
+    }
+
+    @Test
+    void keyframeTimesReproduceCompiledWorldTransforms() {
+        float[] sampled = new float[animation.size() * 16];
+        for (int k = 0; k < TIMES.length; k++) {
+            animation.sample(TIMES[k], sampled, 0);
+            float[] expected = CompiledProject.compile(keyframes.get(k)).getWorldTransformArray();
+            assertArrayEquals(expected, sampled, EPSILON, "keyframe " + k);
+        }
+    }
+
+    @Test
+    void originIsAppliedLikeCompiledProject() {
+        // The origin is in the stored layout: a rotation about Y followed by a move to (5, 6, 7).
+        Matrix4f origin = new Matrix4f().translation(5, 6, 7).rotateY(1).transpose();
+        float[] sampled = new float[animation.size() * 16];
+        float[] expected = new float[sampled.length];
+        for (int k = 0; k < TIMES.length; k++) {
+            animation.sample(TIMES[k], origin, sampled, 0);
+            CompiledProject.compile(keyframes.get(k)).computeWorldTransforms(origin, expected, 0);
+            assertArrayEquals(expected, sampled, EPSILON, "keyframe " + k);
+        }
+    }
+
+    @Test
+    void translationIsInterpolatedInTheLastColumn() {
+        float[] sampled = new float[animation.size() * 16];
+        animation.sample(0.5f, sampled, 0);
+        // The parent moves from (5, 0, 0) to (2, 3, -4).
+        assertEquals(3.5f, sampled[3], EPSILON);
+        assertEquals(1.5f, sampled[7], EPSILON);
+        assertEquals(-2, sampled[11], EPSILON);
+        assertArrayEquals(new float[] { 0, 0, 0, 1 }, new float[] { sampled[12], sampled[13], sampled[14], sampled[15] });
+    }
+}
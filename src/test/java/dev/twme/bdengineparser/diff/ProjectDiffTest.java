@@ -0,0 +1,177 @@
+package dev.twme.bdengineparser.diff;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import dev.twme.bdengineparser.BDEngineParser;
+import dev.twme.bdengineparser.exception.BDEngineParsingException;
+import dev.twme.bdengineparser.model.ProjectElement;
+
+class ProjectDiffTest {
+
+    /**
+     * Two roots: a rig collection holding an arm collection with two blocks, a player head and a label, and a
+     * block. BDEngine stores the matrices row-major.
+     */
+    private static final String PROJECT = """
+            [{"isCollection": true, "name": "rig",
+              "transforms": [1, 0, 0, 0,  0, 1, 0, 0,  0, 0, 1, 0,  0, 0, 0, 1],
+              "children": [
+                {"isCollection": true, "name": "arm",
+                 "transforms": [1, 0, 0, 2,  0, 1, 0, 0,  0, 0, 1, 0,  0, 0, 0, 1],
+                 "children": [
+                   {"isBlockDisplay": true, "name": "hand",
+                    "transforms": [1, 0, 0, 1,  0, 1, 0, 0,  0, 0, 1, 0,  0, 0, 0, 1]},
+                   {"isBlockDisplay": true, "name": "finger", "nbt": "{finger:1b}",
+                    "transforms": [0.5, 0, 0, 2,  0, 0.5, 0, 0,  0, 0, 0.5, 0,  0, 0, 0, 1]}]},
+                {"isItemDisplay": true, "name": "player_head", "nbt": "{CustomModelData:3}",
+                 "transforms": [1, 0, 0, 0,  0, 1, 0, 2,  0, 0, 1, 0,  0, 0, 0, 1]},
+                {"isTextDisplay": true, "name": "label",
+                 "transforms": [1, 0, 0, 0,  0, 1, 0, 3,  0, 0, 1, 0,  0, 0, 0, 1],
+                 "options": {"color": "#ffffff", "alpha": 1, "backgroundColor": "#000000", "backgroundAlpha": 0.25,
+                             "bold": false, "italic": false, "underline": false, "strikeThrough": false,
+                             "lineLength": 50, "align": "center", "obfuscated": false}}]},
+             {"isBlockDisplay": true, "name": "stone", "nbt": "{stone:1b}",
+              "transforms": [1, 0, 0, -4,  0, 1, 0, 0,  0, 0, 1, 0,  0, 0, 0, 1]}]
+            """;
+
+    private final BDEngineParser parser = new BDEngineParser();
+    private List<ProjectElement> before;
+    private List<ProjectElement> after;
+
+    @BeforeEach
+    void parse() throws BDEngineParsingException {
+        before = parser.parseJsonString(PROJECT);
+        after = ProjectElement.deepCopy(before);
+    }
+
+    @Test
+    void identicalTreesHaveNoChanges() throws BDEngineParsingException {
+        ProjectDiff diff = ProjectDiff.compute(before, parser.parseJsonString(PROJECT));
+        assertTrue(diff.isEmpty());
+        assertTrue(ProjectDiff.compute(List.of(), List.of()).isEmpty());
+    }
+
+    @Test
+    void descendantsOfIdenticalSubtreesAreMatched() {
+        ProjectDiff diff = ProjectDiff.compute(before, after);
+
+        assertTrue(diff.isEmpty());
+        for (String[] path : new String[][] { { "rig" }, { "rig", "arm" }, { "rig", "arm", "finger" }, { "stone" } }) {
+            assertSame(find(after, path), diff.getAfter(find(before, path)), String.join("/", path));
+            assertSame(find(before, path), diff.getBefore(find(after, path)), String.join("/", path));
+        }
+        // Elements of the other tree, or of neither, have no partner.
+        assertNull(diff.getAfter(find(after, "rig", "arm")));
+        assertNull(diff.getBefore(null));
+    }
+
+    @Test
+    void descendantsOfIdenticalSubtreesUnderChangedParentsAreMatched() {
+        find(after, "rig", "label").setName("caption");
+        ProjectDiff diff = ProjectDiff.compute(before, after);
+
+        // The arm subtree is matched as a whole, so its children are found by offset.
+        assertSame(find(after, "rig", "arm", "finger"), diff.getAfter(find(before, "rig", "arm", "finger")));
+        assertSame(find(before, "rig", "arm", "hand"), diff.getBefore(find(after, "rig", "arm", "hand")));
+    }
+
+    @Test
+    void renameIsAContentChange() {
+        ProjectElement hand = find(after, "rig", "arm", "hand");
+        hand.setName("palm");
+        ProjectDiff diff = ProjectDiff.compute(before, after);
+
+        assertChanges(diff, new ProjectDiff.Change(ProjectDiff.Kind.CONTENT_CHANGED, find(before, "rig", "arm", "hand"), hand));
+        assertSame(hand, diff.getAfter(find(before, "rig", "arm", "hand")));
+    }
+
+    @Test
+    void reportsTransformNbtAndContentChanges() {
+        ProjectElement head = find(after, "rig", "player_head");
+        double[] transform = head.getTransformArray().clone();
+        transform[3] = 5;
+        head.setTransformArray(transform);
+        head.setNbt("{CustomModelData:4}");
+        ProjectElement label = find(after, "rig", "label");
+        label.getOptions().setBold(true);
+        ProjectDiff diff = ProjectDiff.compute(before, after);
+
+        ProjectElement oldHead = find(before, "rig", "player_head");
+        assertChanges(diff,
+                new ProjectDiff.Change(ProjectDiff.Kind.TRANSFORM_CHANGED, oldHead, head),
+                new ProjectDiff.Change(ProjectDiff.Kind.NBT_CHANGED, oldHead, head),
+                new ProjectDiff.Change(ProjectDiff.Kind.CONTENT_CHANGED, find(before, "rig", "label"), label));
+        assertEquals(1, diff.getChanges(ProjectDiff.Kind.NBT_CHANGED).size());
+    }
+
+    @Test
+    void moveToAnotherParent() {
+        ProjectElement finger = find(after, "rig", "arm", "finger");
+        find(after, "rig", "arm").getChildren().remove(finger);
+        find(after, "rig").getChildren().add(finger);
+        ProjectDiff diff = ProjectDiff.compute(before, after);
+
+        assertChanges(diff, new ProjectDiff.Change(ProjectDiff.Kind.MOVED, find(before, "rig", "arm", "finger"), finger));
+    }
+
+    @Test
+    void moveBetweenRootsAndCollections() {
+        ProjectElement finger = find(after, "rig", "arm", "finger");
+        find(after, "rig", "arm").getChildren().remove(finger);
+        after.add(finger);
+        ProjectDiff promoted = ProjectDiff.compute(before, after);
+        assertChanges(promoted, new ProjectDiff.Change(ProjectDiff.Kind.MOVED, find(before, "rig", "arm", "finger"), finger));
+
+        // And back: a root moved into a collection.
+        ProjectDiff demoted = ProjectDiff.compute(after, before);
+        assertChanges(demoted, new ProjectDiff.Change(ProjectDiff.Kind.MOVED, finger, find(before, "rig", "arm", "finger")));
+    }
+
+    @Test
+    void reportsAddedAndRemovedElements() {
+        ProjectElement label = find(after, "rig", "label");
+        find(after, "rig").getChildren().remove(label);
+        ProjectElement torch = ProjectElement.deepCopy(List.of(find(after, "stone"))).get(0);
+        torch.setName("torch");
+        torch.setNbt("{torch:1b}");
+        find(after, "rig", "arm").getChildren().add(torch);
+        ProjectDiff diff = ProjectDiff.compute(before, after);
+
+        assertChanges(diff,
+                new ProjectDiff.Change(ProjectDiff.Kind.REMOVED, find(before, "rig", "label"), null),
+                new ProjectDiff.Change(ProjectDiff.Kind.ADDED, null, torch));
+        assertNull(diff.getAfter(find(before, "rig", "label")));
+        assertNull(diff.getBefore(torch));
+    }
+
+    private static void assertChanges(ProjectDiff diff, ProjectDiff.Change... expected) {
+        List<ProjectDiff.Change> changes = diff.getChanges();
+        assertEquals(expected.length, changes.size(), changes::toString);
+        for (ProjectDiff.Change change : expected) {
+            assertTrue(changes.stream().anyMatch(actual -> actual.kind() == change.kind()
+                    && actual.before() == change.before() && actual.after() == change.after()),
+                    () -> "missing " + change.kind() + " in " + changes);
+        }
+    }
+
+    /**
+     * Finds an element by the names along its path from the roots.
+     */
+    private static ProjectElement find(List<ProjectElement> roots, String... path) {
+        List<ProjectElement> level = roots;
+        ProjectElement element = null;
+        for (String name : path) {
+            element = level.stream().filter(e -> name.equals(e.getName())).findFirst().orElseThrow();
+            level = element.getChildren();
+        }
+        return element;
+    }
+}
@@ -0,0 +1,129 @@
+package dev.twme.bdengineparser.model;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.joml.Matrix4f;
+import org.junit.jupiter.api.Test;
+
+import dev.twme.bdengineparser.BDEngineParser;
+import dev.twme.bdengineparser.exception.BDEngineParsingException;
+
+class CompiledProjectTest {
+
+    private static final float EPSILON = 1e-4f;
+
+    /**
+     * A collection rotated about Y and moved, holding a scaled collection with a block and an item, next to a text
+     * display root. BDEngine stores the matrices row-major.
+     */
+    private static final String PROJECT = """
+            [{"isCollection": true, "name": "rig",
+              "transforms": [0, 0, 1, 5,  0, 1, 0, 0,  -1, 0, 0, 0,  0, 0, 0, 1],
+              "children": [
+                {"isCollection": true, "name": "arm",
+                 "transforms": [0, -2, 0, 1,  2, 0, 0, 0,  0, 0, 2, 3,  0, 0, 0, 1],
+                 "children": [
+                   {"isBlockDisplay": true, "name": "hand",
+                    "transforms": [1, 0, 0, 1,  0, 0.5, 0, 0,  0, 0, 1, -1,  0, 0, 0, 1]},
+                   {"isItemDisplay": true, "name": "player_head",
+                    "transforms": [0.8, -0.6, 0, 0,  0.6, 0.8, 0, 2,  0, 0, 1, 0,  0, 0, 0, 1]}]}]},
+             {"isTextDisplay": true, "name": "label",
+              "transforms": [1, 0, 0, -4,  0, 1, 0, 3,  0, 0, 1, 0,  0, 0, 0, 1]}]
+            """;
+
+    private final BDEngineParser parser = new BDEngineParser();
+
+    @Test
+    void worldTransformsMatchTheParser() throws BDEngineParsingException {
+        List<ProjectElement> elements = preOrder(parser.parseJsonString(PROJECT));
+        CompiledProject compiled = CompiledProject.compile(parser.parseJsonString(PROJECT));
+
+        assertEquals(elements.size(), compiled.size());
+        for (int i = 0; i < elements.size(); i++) {
+            assertEquals(elements.get(i).getName(), compiled.getName(i));
+            assertArrayEquals(elements.get(i).getWorldTransform().get(new float[16]), world(compiled.getWorldTransformArray(), 0, i),
+                    EPSILON, compiled.getName(i));
+        }
+    }
+
+    @Test
+    void originActsLikeAnEnclosingCollection() throws BDEngineParsingException {
+        // The origin is in the stored layout: a rotation about Y followed by a move to (5, 6, 7).
+        Matrix4f origin = new Matrix4f().translation(5, 6, 7).rotateY(1).transpose();
+        CompiledProject compiled = CompiledProject.compile(parser.parseJsonString(PROJECT));
+        float[] placed = new float[compiled.size() * 16 + 3];
+        compiled.computeWorldTransforms(origin, placed, 3);
+
+        // The same project inside a collection whose local transform is the origin.
+        float[] stored = origin.get(new float[16]);
+        String wrapped = "[{\"isCollection\": true, \"name\": \"origin\", \"transforms\": " + Arrays.toString(stored)
+                + ", \"children\": " + PROJECT + "}]";
+        List<ProjectElement> elements = preOrder(parser.parseJsonString(wrapped));
+        for (int i = 0; i < compiled.size(); i++) {
+            assertArrayEquals(elements.get(i + 1).getWorldTransform().get(new float[16]), world(placed, 3, i),
+                    EPSILON, compiled.getName(i));
+        }
+        // The stored world transforms are untouched.
+        assertArrayEquals(preOrder(parser.parseJsonString(PROJECT)).get(0).getWorldTransform().get(new float[16]),
+                world(compiled.getWorldTransformArray(), 0, 0), EPSILON);
+    }
+
+    @Test
+    void identityRootTakesTheOriginTranslationInTheLastColumn() {
+        CompiledProject.Builder builder = new CompiledProject.Builder();
+        builder.add(CompiledProject.NONE, CompiledProject.TYPE_BLOCK_DISPLAY, "stone", null,
+                new double[] { 1, 0, 0, 0,  0, 1, 0, 0,  0, 0, 1, 0,  0, 0, 0, 1 });
+        CompiledProject compiled = builder.build();
+        float[] placed = new float[16];
+        compiled.computeWorldTransforms(new Matrix4f().translation(5, 6, 7).transpose(), placed, 0);
+
+        Matrix4f world = new Matrix4f().set(placed);
+        assertEquals(5, world.m03(), EPSILON);
+        assertEquals(6, world.m13(), EPSILON);
+        assertEquals(7, world.m23(), EPSILON);
+    }
+
+    @Test
+    void recomputesAfterLocalTransformChanges() throws BDEngineParsingException {
+        List<ProjectElement> roots = parser.parseJsonString(PROJECT);
+        CompiledProject compiled = CompiledProject.compile(roots);
+        Matrix4f moved = new Matrix4f().translation(1, 2, 3).transpose();
+        compiled.setLocalTransform(1, moved);
+        compiled.computeWorldTransforms();
+
+        ProjectElement arm = roots.get(0).getChildren().get(0);
+        arm.setTransformArray(toDoubles(moved.get(new float[16])));
+        parser.calculateWorldTransformsForElements(roots);
+        List<ProjectElement> elements = preOrder(roots);
+        for (int i = 0; i < elements.size(); i++) {
+            assertArrayEquals(elements.get(i).getWorldTransform().get(new float[16]), world(compiled.getWorldTransformArray(), 0, i),
+                    EPSILON, compiled.getName(i));
+        }
+    }
+
+    private static float[] world(float[] transforms, int offset, int index) {
+        return Arrays.copyOfRange(transforms, offset + index * 16, offset + index * 16 + 16);
+    }
+
+    private static double[] toDoubles(float[] values) {
+        double[] result = new double[values.length];
+        for (int i = 0; i < values.length; i++) result[i] = values[i];
+        return result;
+    }
+
+    private static List<ProjectElement> preOrder(List<ProjectElement> roots) {
+        List<ProjectElement> result = new ArrayList<>();
+        for (ProjectElement root : roots) {
+            result.add(root);
+            if (root.getChildren() != null) {
+                result.addAll(preOrder(root.getChildren()));
+            }
+        }
+        return result;
+    }
+}
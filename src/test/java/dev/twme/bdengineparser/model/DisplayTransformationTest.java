@@ -0,0 +1,69 @@
+package dev.twme.bdengineparser.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.joml.Matrix4f;
+import org.joml.Quaternionf;
+import org.joml.Vector3f;
+import org.junit.jupiter.api.Test;
+
+import dev.twme.bdengineparser.BDEngineParser;
+import dev.twme.bdengineparser.exception.BDEngineParsingException;
+
+class DisplayTransformationTest {
+
+    private static final float EPSILON = 1e-5f;
+
+    @Test
+    void decomposesStoredLayout() {
+        Matrix4f expected = new Matrix4f().translation(1, 2, 3).rotateY(0.7f).scale(3, 2, 1);
+        DisplayTransformation t = DisplayTransformation.of(new Matrix4f(expected).transpose());
+
+        assertVector(1, 2, 3, t.getTranslation(new Vector3f()));
+        assertVector(3, 2, 1, t.getScale(new Vector3f()));
+        Vector3f x = rotate(t, new Vector3f(1, 0, 0));
+        assertVector((float) Math.cos(0.7), 0, (float) -Math.sin(0.7), x);
+        assertTrue(t.reconstructionError() < EPSILON);
+        assertTrue(t.toMatrix(new Matrix4f()).equals(expected, EPSILON));
+    }
+
+    @Test
+    void errorCoversEveryEntry() {
+        Matrix4f projective = new Matrix4f().translation(1, 2, 3).transpose().m30(0.5f);
+        assertEquals(0.5f, DisplayTransformation.of(projective).reconstructionError(), EPSILON);
+    }
+
+    @Test
+    void decomposesWorldTransformUnderRotatedParent() throws BDEngineParsingException {
+        // A collection rotated 90 degrees about Y and moved to x = 5, holding a block moved to x = 1 and
+        // stretched along its own x axis. BDEngine stores the matrices row-major.
+        List<ProjectElement> elements = new BDEngineParser().parseJsonString("""
+                [{"isCollection": true, "name": "parent",
+                  "transforms": [0, 0, 1, 5,  0, 1, 0, 0,  -1, 0, 0, 0,  0, 0, 0, 1],
+                  "children": [{"isBlockDisplay": true, "name": "stone",
+                                "transforms": [2, 0, 0, 1,  0, 1, 0, 0,  0, 0, 1, 0,  0, 0, 0, 1]}]}]
+                """);
+        DisplayTransformation t = elements.get(0).getChildren().get(0).getDisplayTransformation();
+
+        assertVector(5, 0, -1, t.getTranslation(new Vector3f()));
+        assertVector(2, 1, 1, t.getScale(new Vector3f()));
+        // The block's x axis ends up along world -z.
+        Vector3f x = rotate(t, new Vector3f(1, 0, 0));
+        assertVector(0, 0, -1, x);
+        assertTrue(t.reconstructionError() < EPSILON);
+    }
+
+    /** Applies the right rotation and then the left rotation, leaving out the scale. */
+    private static Vector3f rotate(DisplayTransformation t, Vector3f v) {
+        return t.getLeftRotation(new Quaternionf()).transform(t.getRightRotation(new Quaternionf()).transform(v));
+    }
+
+    private static void assertVector(float x, float y, float z, Vector3f actual) {
+        assertEquals(x, actual.x, EPSILON);
+        assertEquals(y, actual.y, EPSILON);
+        assertEquals(z, actual.z, EPSILON);
+    }
+}
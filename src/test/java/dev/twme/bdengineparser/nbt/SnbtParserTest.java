@@ -0,0 +1,131 @@
+package dev.twme.bdengineparser.nbt;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.Test;
+
+class SnbtParserTest {
+
+    @Test
+    void readsSuffixedNumbers() {
+        assertNumber(NbtNumber.Kind.BYTE, (byte) 3, "3b");
+        assertNumber(NbtNumber.Kind.SHORT, (short) -300, "-300S");
+        assertNumber(NbtNumber.Kind.INT, 42, "42");
+        assertNumber(NbtNumber.Kind.LONG, 5_000_000_000L, "5000000000L");
+        assertNumber(NbtNumber.Kind.FLOAT, 1.5f, "1.5f");
+        assertNumber(NbtNumber.Kind.FLOAT, 2f, "2f");
+        assertNumber(NbtNumber.Kind.FLOAT, 1e5f, "1e5f");
+        assertNumber(NbtNumber.Kind.DOUBLE, 0.25, "0.25");
+        assertNumber(NbtNumber.Kind.DOUBLE, 0.5, ".5");
+        assertNumber(NbtNumber.Kind.DOUBLE, 1e5, "1.0e5");
+        assertNumber(NbtNumber.Kind.DOUBLE, 1e5, "1e5d");
+        assertNumber(NbtNumber.Kind.DOUBLE, 7.0, "007d");
+        assertNumber(NbtNumber.Kind.BYTE, (byte) 1, "true");
+        assertNumber(NbtNumber.Kind.BYTE, (byte) 0, "FALSE");
+    }
+
+    @Test
+    void keepsTokensThatAreNotNumbersAsStrings() {
+        // Minecraft needs a decimal point for a double without a suffix, and integers have no leading zeros.
+        assertString("1e5");
+        assertString("007");
+        assertString("01b");
+        assertString("1.5b");
+        assertString("1e5L");
+        assertString("minecraft:stone");
+        assertString("-");
+    }
+
+    @Test
+    void keepsOutOfRangeTokensAsStrings() {
+        assertString("128b");
+        assertString("-32769s");
+        assertString("2147483648");
+        assertString("9223372036854775808L");
+        assertString("1e50f");
+        assertString("1e400d");
+        assertString("1.0e400");
+        assertNumber(NbtNumber.Kind.BYTE, (byte) -128, "-128b");
+    }
+
+    @Test
+    void readsTypedArrays() {
+        NbtCompound compound = SnbtParser.parseCompound("{b: [B; 1b, -2b], i: [I; 1, 2s, 3b], l: [L; 1L, 2], e: [I;]}");
+        assertArray(NbtNumber.Kind.BYTE, new long[] { 1, -2 }, compound.get("b"));
+        assertArray(NbtNumber.Kind.INT, new long[] { 1, 2, 3 }, compound.get("i"));
+        assertArray(NbtNumber.Kind.LONG, new long[] { 1, 2 }, compound.get("l"));
+        assertArray(NbtNumber.Kind.INT, new long[0], compound.get("e"));
+
+        assertThrows(IllegalArgumentException.class, () -> SnbtParser.parse("[B; 1]"));
+        assertThrows(IllegalArgumentException.class, () -> SnbtParser.parse("[I; 1L]"));
+        assertThrows(IllegalArgumentException.class, () -> SnbtParser.parse("[I; 128b, 1.5f]"));
+        assertThrows(IllegalArgumentException.class, () -> SnbtParser.parse("[X; 1]"));
+    }
+
+    @Test
+    void readsQuotedStringsWithEscapes() {
+        assertEquals(new NbtString("say \"hi\""), SnbtParser.parse("\"say \\\"hi\\\"\""));
+        assertEquals(new NbtString("it's"), SnbtParser.parse("'it\\'s'"));
+        assertEquals(new NbtString("a\\b"), SnbtParser.parse("'a\\\\b'"));
+        assertEquals(new NbtString("say \"hi\""), SnbtParser.parse("'say \"hi\"'"));
+        // A quoted number is a string.
+        assertEquals(new NbtString("3b"), SnbtParser.parse("\"3b\""));
+
+        NbtCompound compound = SnbtParser.parseCompound("{\"key with space\": 'value', plain: \"\"}");
+        assertEquals("value", compound.getString("key with space"));
+        assertEquals("", compound.getString("plain"));
+
+        NbtString original = new NbtString("quote \" and \\ backslash");
+        assertEquals(original, SnbtParser.parse(original.toString()));
+        assertThrows(IllegalArgumentException.class, () -> SnbtParser.parse("\"unterminated"));
+    }
+
+    @Test
+    void rejectsMalformedInput() {
+        assertThrows(IllegalArgumentException.class, () -> SnbtParser.parse("{a: 1"));
+        assertThrows(IllegalArgumentException.class, () -> SnbtParser.parse("{a 1}"));
+        assertThrows(IllegalArgumentException.class, () -> SnbtParser.parse("[1, 2] 3"));
+        assertThrows(IllegalArgumentException.class, () -> SnbtParser.parseCompound("[1, 2]"));
+        assertSame(NbtCompound.EMPTY, SnbtParser.parseCompound("  "));
+    }
+
+    @Test
+    void cacheMemoizesParsedCompounds() {
+        SnbtCache cache = new SnbtCache(2);
+        NbtCompound first = cache.get("{CustomModelData: 3}");
+
+        assertSame(first, cache.get("{CustomModelData: 3}"));
+        assertEquals(1, cache.getHitCount());
+        assertEquals(1, cache.getMissCount());
+
+        cache.get("{a: 1}");
+        cache.get("{b: 2}");
+        assertEquals(2, cache.size());
+        NbtCompound reparsed = cache.get("{CustomModelData: 3}");
+        assertEquals(first, reparsed);
+        assertEquals(4, cache.getMissCount());
+
+        // Malformed strings are not cached.
+        assertThrows(IllegalArgumentException.class, () -> cache.get("{broken"));
+        assertThrows(IllegalArgumentException.class, () -> cache.get("{broken"));
+        assertEquals(6, cache.getMissCount());
+        assertEquals(2, cache.size());
+    }
+
+    private static void assertNumber(NbtNumber.Kind kind, Number value, String snbt) {
+        assertEquals(new NbtNumber(kind, value), SnbtParser.parse(snbt), snbt);
+    }
+
+    private static void assertString(String snbt) {
+        assertEquals(new NbtString(snbt), SnbtParser.parse(snbt), snbt);
+    }
+
+    private static void assertArray(NbtNumber.Kind kind, long[] values, NbtTag tag) {
+        NbtArray array = (NbtArray) tag;
+        assertEquals(kind, array.getElementKind());
+        assertArrayEquals(values, array.toLongArray());
+    }
+}
@@ -0,0 +1,92 @@
+package dev.twme.bdengineparser.spatial;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.joml.Matrix4f;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import dev.twme.bdengineparser.BDEngineParser;
+import dev.twme.bdengineparser.exception.BDEngineParsingException;
+import dev.twme.bdengineparser.model.BoundingBox;
+import dev.twme.bdengineparser.model.ProjectElement;
+
+class SpatialIndexTest {
+
+    private static final float EPSILON = 1e-5f;
+
+    /**
+     * A collection rotated 90 degrees about Y and moved to x = 5, holding a block moved to x = 1.
+     * The rotation maps local (x, y, z) to (z, y, -x), so the block's world translation is (5, 0, -1) and
+     * its unit cube covers x 5..6, y 0..1 and z -2..-1. BDEngine stores the matrices row-major.
+     */
+    private static final String ROTATED_PARENT = """
+            [{"isCollection": true, "name": "parent",
+              "transforms": [0, 0, 1, 5,  0, 1, 0, 0,  -1, 0, 0, 0,  0, 0, 0, 1],
+              "children": [{"isBlockDisplay": true, "name": "stone",
+                            "transforms": [1, 0, 0, 1,  0, 1, 0, 0,  0, 0, 1, 0,  0, 0, 0, 1]}]}]
+            """;
+
+    private BDEngineParser parser;
+    private ProjectElement parent;
+    private ProjectElement block;
+    private List<ProjectElement> elements;
+
+    @BeforeEach
+    void parse() throws BDEngineParsingException {
+        parser = new BDEngineParser();
+        parser.enableBoundsTracking();
+        elements = parser.parseJsonString(ROTATED_PARENT);
+        parent = elements.get(0);
+        block = parent.getChildren().get(0);
+    }
+
+    @Test
+    void worldBoundsFollowRotatedAndTranslatedParent() {
+        Matrix4f world = block.getWorldTransform();
+        assertEquals(5, world.m03(), EPSILON);
+        assertEquals(0, world.m13(), EPSILON);
+        assertEquals(-1, world.m23(), EPSILON);
+
+        assertBox(5, 0, -2, 6, 1, -1, block.getWorldBounds());
+        assertBox(5, 0, -2, 6, 1, -1, parent.getSubtreeBounds());
+    }
+
+    @Test
+    void indexFindsElementAtItsWorldPosition() {
+        SpatialIndex index = SpatialIndex.build(elements);
+
+        assertBox(5, 0, -2, 6, 1, -1, index.getBounds(block));
+        assertEquals(List.of(block), index.query(new BoundingBox(5.4f, 0.4f, -1.6f, 5.6f, 0.6f, -1.4f)));
+        assertTrue(index.query(new BoundingBox(-1, 0, 0, 0, 1, 1)).isEmpty());
+        assertSame(block, index.nearest(5.5f, 3, -1.5f));
+    }
+
+    @Test
+    void raycastHitsOrientedGeometry() {
+        SpatialIndex index = SpatialIndex.build(elements);
+
+        SpatialIndex.RayHit hit = index.raycast(5.5f, 0.5f, 10, 0, 0, -1, 100);
+        assertNotNull(hit);
+        assertSame(block, hit.element());
+        assertEquals(11, hit.distance(), EPSILON);
+
+        assertNull(index.raycast(0.5f, 0.5f, 10, 0, 0, -1, 100));
+    }
+
+    private static void assertBox(float minX, float minY, float minZ, float maxX, float maxY, float maxZ, BoundingBox box) {
+        assertNotNull(box);
+        assertEquals(minX, box.minX(), EPSILON);
+        assertEquals(minY, box.minY(), EPSILON);
+        assertEquals(minZ, box.minZ(), EPSILON);
+        assertEquals(maxX, box.maxX(), EPSILON);
+        assertEquals(maxY, box.maxY(), EPSILON);
+        assertEquals(maxZ, box.maxZ(), EPSILON);
+    }
+}